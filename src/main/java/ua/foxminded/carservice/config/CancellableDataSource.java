@@ -0,0 +1,65 @@
+package ua.foxminded.carservice.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+public class CancellableDataSource extends DelegatingDataSource implements AutoCloseable {
+
+  public CancellableDataSource(DataSource targetDataSource) {
+    super(targetDataSource);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return track(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return track(super.getConnection(username, password));
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (getTargetDataSource() instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+
+  private static Connection track(Connection target) {
+    return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+        new Class<?>[] { ConnectionProxy.class }, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "equals":
+              return proxy == args[0];
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "getTargetConnection":
+              return target;
+            default:
+              break;
+          }
+
+          Object result;
+          try {
+            result = method.invoke(target, args);
+          } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+          }
+
+          QueryCancellation cancellation = QueryCancellation.current();
+          if (cancellation != null && result instanceof Statement statement) {
+            cancellation.register(statement);
+          }
+          return result;
+        });
+  }
+}
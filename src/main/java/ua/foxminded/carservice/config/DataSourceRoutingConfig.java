@@ -0,0 +1,69 @@
+package ua.foxminded.carservice.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = "car-service.datasource.replica", name = "url")
+public class DataSourceRoutingConfig {
+
+  @Bean
+  @Primary
+  @ConfigurationProperties("spring.datasource")
+  public DataSourceProperties primaryDataSourceProperties() {
+    return new DataSourceProperties();
+  }
+
+  @Bean
+  @ConfigurationProperties("car-service.datasource.replica")
+  public DataSourceProperties replicaDataSourceProperties() {
+    return new DataSourceProperties();
+  }
+
+  @Bean(defaultCandidate = false)
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties primaryDataSourceProperties) {
+    return primaryDataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean(defaultCandidate = false)
+  @ConfigurationProperties("car-service.datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(
+      @Qualifier("replicaDataSourceProperties") DataSourceProperties replicaDataSourceProperties) {
+    HikariDataSource dataSource = replicaDataSourceProperties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class).build();
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  @Bean(initMethod = "start", destroyMethod = "shutdown")
+  public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+      @Value("${car-service.datasource.replica.max-lag:5s}") Duration maxLag,
+      @Value("${car-service.datasource.replica.lag-check-interval:1s}") Duration lagCheckInterval) {
+    return new ReplicaLagMonitor(new JdbcTemplate(replicaDataSource), maxLag, lagCheckInterval);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource, ReplicaLagMonitor replicaLagMonitor) {
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+    dataSource.setReadOnlyDataSource(
+        new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor));
+    return dataSource;
+  }
+}
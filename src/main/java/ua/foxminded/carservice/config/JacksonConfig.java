@@ -0,0 +1,30 @@
+package ua.foxminded.carservice.config;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import ua.foxminded.carservice.dto.CarResponse;
+import ua.foxminded.carservice.dto.CategoryResponse;
+import ua.foxminded.carservice.dto.FieldSelection;
+import ua.foxminded.carservice.dto.ManufacturerResponse;
+
+@Configuration
+public class JacksonConfig {
+
+  @Bean
+  public Jackson2ObjectMapperBuilderCustomizer fieldSelectionCustomizer() {
+    return builder -> builder
+        .filters(new SimpleFilterProvider().setFailOnUnknownId(false))
+        .mixIn(CarResponse.class, FieldSelectionMixin.class)
+        .mixIn(ManufacturerResponse.class, FieldSelectionMixin.class)
+        .mixIn(CategoryResponse.class, FieldSelectionMixin.class);
+  }
+
+  @JsonFilter(FieldSelection.FILTER)
+  interface FieldSelectionMixin {
+  }
+}
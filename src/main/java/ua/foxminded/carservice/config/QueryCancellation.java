@@ -0,0 +1,54 @@
+package ua.foxminded.carservice.config;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class QueryCancellation {
+  private static final String QUERY_CANCELED = "57014";
+
+  private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+  private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+  private volatile boolean cancelled;
+
+  public static QueryCancellation current() {
+    return CURRENT.get();
+  }
+
+  public void bind() {
+    CURRENT.set(this);
+  }
+
+  public void unbind() {
+    CURRENT.remove();
+    statements.clear();
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  public void register(Statement statement) throws SQLException {
+    statements.add(statement);
+    if (cancelled) {
+      statements.remove(statement);
+      statement.close();
+      throw new SQLException("Statement was cancelled because the request was aborted.", QUERY_CANCELED);
+    }
+  }
+
+  public void cancel() {
+    cancelled = true;
+    for (Statement statement : statements) {
+      try {
+        if (!statement.isClosed()) {
+          statement.cancel();
+        }
+      } catch (SQLException ex) {
+        // The statement has already completed or its connection is gone, nothing is left to cancel.
+      }
+    }
+  }
+}
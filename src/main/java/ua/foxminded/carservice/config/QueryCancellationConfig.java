@@ -0,0 +1,21 @@
+package ua.foxminded.carservice.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+@Configuration
+public class QueryCancellationConfig {
+
+  @Bean
+  public static BeanPostProcessor cancellableDataSourcePostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof HikariDataSource dataSource ? new CancellableDataSource(dataSource) : bean;
+      }
+    };
+  }
+}
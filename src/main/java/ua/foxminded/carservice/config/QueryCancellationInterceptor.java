@@ -0,0 +1,55 @@
+package ua.foxminded.carservice.config;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+public class QueryCancellationInterceptor implements CallableProcessingInterceptor {
+  private static final String ATTRIBUTE = QueryCancellation.class.getName();
+
+  @Override
+  public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+    request.setAttribute(ATTRIBUTE, new QueryCancellation(), RequestAttributes.SCOPE_REQUEST);
+  }
+
+  @Override
+  public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+    QueryCancellation cancellation = cancellation(request);
+    if (cancellation != null) {
+      cancellation.bind();
+    }
+  }
+
+  @Override
+  public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+    QueryCancellation cancellation = QueryCancellation.current();
+    if (cancellation != null) {
+      cancellation.unbind();
+    }
+  }
+
+  @Override
+  public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+    cancel(request);
+    return RESULT_NONE;
+  }
+
+  @Override
+  public <T> Object handleError(NativeWebRequest request, Callable<T> task, Throwable t) {
+    cancel(request);
+    return RESULT_NONE;
+  }
+
+  private static void cancel(NativeWebRequest request) {
+    QueryCancellation cancellation = cancellation(request);
+    if (cancellation != null) {
+      cancellation.cancel();
+    }
+  }
+
+  private static QueryCancellation cancellation(NativeWebRequest request) {
+    return (QueryCancellation) request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+  }
+}
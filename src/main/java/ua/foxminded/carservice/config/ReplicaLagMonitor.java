@@ -0,0 +1,65 @@
+package ua.foxminded.carservice.config;
+
+import java.time.Duration;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Tracks whether the replica is within the allowed lag. The lag is refreshed
+ * by a background task, so request threads only read the last result and never
+ * wait for the replica. The replica counts as unusable until the first check
+ * succeeds.
+ */
+public class ReplicaLagMonitor {
+  static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery()"
+      + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+      + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+  private final JdbcTemplate replica;
+  private final Duration maxLag;
+  private final Duration checkInterval;
+  private volatile boolean usable;
+  private ThreadPoolTaskScheduler scheduler;
+
+  public ReplicaLagMonitor(JdbcTemplate replica, Duration maxLag, Duration checkInterval) {
+    this.replica = replica;
+    this.maxLag = maxLag;
+    this.checkInterval = checkInterval;
+  }
+
+  public synchronized void start() {
+    if (scheduler != null) {
+      return;
+    }
+    scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setThreadNamePrefix("replica-lag-");
+    scheduler.setDaemon(true);
+    scheduler.initialize();
+    scheduler.scheduleWithFixedDelay(this::refresh, checkInterval);
+  }
+
+  public synchronized void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdown();
+    }
+  }
+
+  public boolean isReplicaUsable() {
+    return usable;
+  }
+
+  void refresh() {
+    usable = checkLag();
+  }
+
+  private boolean checkLag() {
+    try {
+      Double lagSeconds = replica.queryForObject(LAG_QUERY, Double.class);
+      return lagSeconds != null && lagSeconds * 1000 <= maxLag.toMillis();
+    } catch (DataAccessException ex) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package ua.foxminded.carservice.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+  private static final String PRIMARY = "primary";
+  private static final String REPLICA = "replica";
+
+  private final ReplicaLagMonitor lagMonitor;
+
+  public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+    this.lagMonitor = lagMonitor;
+    setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return lagMonitor.isReplicaUsable() ? REPLICA : PRIMARY;
+  }
+}
@@ -1,11 +1,52 @@
 package ua.foxminded.carservice.config;
 
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
 import org.springframework.data.web.config.EnableSpringDataWebSupport.PageSerializationMode;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import ua.foxminded.carservice.controller.FieldSelectionArgumentResolver;
 
 @Configuration
 @EnableSpringDataWebSupport(pageSerializationMode = PageSerializationMode.VIA_DTO)
-public class WebConfig {
+public class WebConfig implements WebMvcConfigurer {
+
+  @Value("${car-service.async.concurrency:${spring.datasource.hikari.maximum-pool-size:10}}")
+  private int asyncConcurrency;
+
+  @Value("${car-service.async.queue-capacity:100}")
+  private int asyncQueueCapacity;
+
+  /**
+   * Runs the asynchronous searches, facets and exports. Every task holds a
+   * database connection, so the pool matches the connection pool, and requests
+   * beyond the bounded queue are rejected with 503.
+   */
+  @Bean(defaultCandidate = false)
+  public ThreadPoolTaskExecutor asyncRequestExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(asyncConcurrency);
+    executor.setMaxPoolSize(asyncConcurrency);
+    executor.setQueueCapacity(asyncQueueCapacity);
+    executor.setThreadNamePrefix("car-async-");
+    return executor;
+  }
+
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.setTaskExecutor(asyncRequestExecutor());
+    configurer.registerCallableInterceptors(new QueryCancellationInterceptor());
+  }
 
+  @Override
+  public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+    resolvers.add(new FieldSelectionArgumentResolver());
+  }
 }
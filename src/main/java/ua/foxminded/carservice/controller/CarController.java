@@ -1,24 +1,35 @@
 package ua.foxminded.carservice.controller;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -26,11 +37,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import ua.foxminded.carservice.dto.CarBatchItemResponse;
+import ua.foxminded.carservice.dto.CarChangesResponse;
 import ua.foxminded.carservice.dto.CarCreateRequest;
+import ua.foxminded.carservice.dto.CarFacetsResponse;
 import ua.foxminded.carservice.dto.CarModifyRequest;
+import ua.foxminded.carservice.dto.CarPatchRequest;
 import ua.foxminded.carservice.dto.CarResponse;
 import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.CursorPageResponse;
 import ua.foxminded.carservice.dto.ErrorResponse;
+import ua.foxminded.carservice.dto.FieldSelection;
+import ua.foxminded.carservice.dto.ModelSuggestionResponse;
+import ua.foxminded.carservice.dto.ResourceId;
+import ua.foxminded.carservice.dto.SliceResponse;
+import ua.foxminded.carservice.dto.TotalMode;
 import ua.foxminded.carservice.service.api.CarRestApiService;
 
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
@@ -40,40 +61,164 @@ import ua.foxminded.carservice.service.api.CarRestApiService;
 public class CarController {
   private final CarRestApiService service;
 
+  @Value("${car-service.export.timeout:30m}")
+  private Duration exportTimeout;
+
   @GetMapping
-  @Operation(summary = "Retrieve a list of all available cars with optional filtering.", description = "Fetches a list of cars with optional filters such as manufacturer, model, categories, and production year.")
+  @Operation(summary = "Retrieve a list of all available cars with optional filtering.", description = "Fetches a list of cars with optional filters such as manufacturer, model, categories, and production year. Categories match any of the provided names unless category_match=all is set. Set total=estimate to use planner row estimates for the total count, or total=none to skip the count and report only whether a next slice exists. Pass fields to return only the listed response fields. Send the ETag in If-None-Match to get 304 if no car in the filter changed since.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "OK.", content = {
-          @Content(mediaType = "application/json", schema = @Schema(implementation = PagedModel.class))
+          @Content(mediaType = "application/json", schema = @Schema(oneOf = { PagedModel.class, SliceResponse.class }))
+      }),
+      @ApiResponse(responseCode = "304", description = "Page hasn't changed since the ETag in If-None-Match.", content = @Content),
+      @ApiResponse(responseCode = "400", description = "Bad request.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
       }),
       @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content) })
-  public ResponseEntity<Page<CarResponse>> getCars(
+  public Callable<ResponseEntity<?>> getCars(
       @RequestParam(name = "manufacturer_name", required = false, defaultValue = "") String manufacturerName,
       @RequestParam(name = "model", required = false, defaultValue = "") String model,
       @RequestParam(name = "category_names", required = false) List<String> categoryNames,
+      @RequestParam(name = "category_match", required = false, defaultValue = "any") String categoryMatch,
       @RequestParam(name = "min_year", required = false, defaultValue = "") String minProductionYear,
       @RequestParam(name = "max_year", required = false, defaultValue = "") String maxProductionYear,
+      @Parameter(name = "fields", in = ParameterIn.QUERY, schema = @Schema(type = "string")) @SelectedFields(CarResponse.class) FieldSelection fields,
+      @RequestParam(name = "total", required = false, defaultValue = "exact") String total,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
       @PageableDefault Pageable pageable) {
 
-    return service.getCarResponsesByParameters(
-        new CarSearchParameters(manufacturerName, model, categoryNames, minProductionYear, maxProductionYear),
-        pageable);
+    CarSearchParameters parameters = new CarSearchParameters(manufacturerName, model, categoryNames,
+        minProductionYear, maxProductionYear, categoryMatch);
+    TotalMode totalMode = TotalMode.of(total);
+    if (totalMode == TotalMode.NONE) {
+      return () -> service.getCarResponseSliceByParameters(parameters, fields, pageable);
+    }
+    return () -> service.getCarResponsesByParameters(parameters, fields, totalMode, pageable, ifNoneMatch);
+  }
+
+  @GetMapping(params = "cursor")
+  @Operation(summary = "Retrieve cars page by page using an opaque cursor.", description = "Fetches a list of cars after the provided cursor, ordered by the requested sort key and ID. Pass an empty cursor to start and the returned next_cursor to continue.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPageResponse.class))
+      }),
+      @ApiResponse(responseCode = "400", description = "Bad request.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }),
+      @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content) })
+  public Callable<ResponseEntity<CursorPageResponse<CarResponse>>> getCarsByCursor(
+      @RequestParam(name = "manufacturer_name", required = false, defaultValue = "") String manufacturerName,
+      @RequestParam(name = "model", required = false, defaultValue = "") String model,
+      @RequestParam(name = "category_names", required = false) List<String> categoryNames,
+      @RequestParam(name = "category_match", required = false, defaultValue = "any") String categoryMatch,
+      @RequestParam(name = "min_year", required = false, defaultValue = "") String minProductionYear,
+      @RequestParam(name = "max_year", required = false, defaultValue = "") String maxProductionYear,
+      @RequestParam(name = "cursor", required = false, defaultValue = "") String cursor,
+      @Parameter(name = "fields", in = ParameterIn.QUERY, schema = @Schema(type = "string")) @SelectedFields(CarResponse.class) FieldSelection fields,
+      @PageableDefault Pageable pageable) {
+
+    CarSearchParameters parameters = new CarSearchParameters(manufacturerName, model, categoryNames,
+        minProductionYear, maxProductionYear, categoryMatch);
+    return () -> service.getCarResponsesByParameters(parameters, fields, cursor, pageable);
+  }
+
+  @GetMapping("/changes")
+  @Operation(summary = "Retrieve car changes after a change token.", description = "Returns the latest state of every car created, modified or deleted after the provided token, in commit order, at most limit cars per call. Deleted cars are returned with deleted=true and no car. Omit the token to start from the beginning and pass next_token to continue, also once has_more is false.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = CarChangesResponse.class))
+      }),
+      @ApiResponse(responseCode = "400", description = "Bad request.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }),
+      @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content) })
+  public ResponseEntity<CarChangesResponse> getCarChanges(
+      @RequestParam(name = "since", required = false, defaultValue = "") String since,
+      @RequestParam(name = "limit", required = false, defaultValue = "100") int limit) {
+    return service.getCarChanges(since, limit);
+  }
+
+  @GetMapping("/facets")
+  @Operation(summary = "Count cars per manufacturer, category and production year.", description = "Returns the number of cars for every manufacturer, category and production year matching the same filters as the list endpoint. Each facet ignores its own filter, so the counts show what selecting another value would return.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = CarFacetsResponse.class))
+      }),
+      @ApiResponse(responseCode = "400", description = "Bad request.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }),
+      @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content) })
+  public Callable<ResponseEntity<CarFacetsResponse>> getCarFacets(
+      @RequestParam(name = "manufacturer_name", required = false, defaultValue = "") String manufacturerName,
+      @RequestParam(name = "model", required = false, defaultValue = "") String model,
+      @RequestParam(name = "category_names", required = false) List<String> categoryNames,
+      @RequestParam(name = "category_match", required = false, defaultValue = "any") String categoryMatch,
+      @RequestParam(name = "min_year", required = false, defaultValue = "") String minProductionYear,
+      @RequestParam(name = "max_year", required = false, defaultValue = "") String maxProductionYear) {
+
+    CarSearchParameters parameters = new CarSearchParameters(manufacturerName, model, categoryNames,
+        minProductionYear, maxProductionYear, categoryMatch);
+    return () -> service.getCarFacets(parameters);
+  }
+
+  @GetMapping("/export")
+  @Operation(summary = "Export all cars matching the filters as NDJSON.", description = "Streams every car matching the same filters as the list endpoint, one JSON object per line, without paging or counting. Unlike other requests, the stream may run for up to car-service.export.timeout (30 minutes by default).")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK.", content = {
+          @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = CarResponse.class))
+      }),
+      @ApiResponse(responseCode = "400", description = "Bad request.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }),
+      @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content) })
+  public ResponseEntity<StreamingResponseBody> exportCars(
+      @RequestParam(name = "manufacturer_name", required = false, defaultValue = "") String manufacturerName,
+      @RequestParam(name = "model", required = false, defaultValue = "") String model,
+      @RequestParam(name = "category_names", required = false) List<String> categoryNames,
+      @RequestParam(name = "category_match", required = false, defaultValue = "any") String categoryMatch,
+      @RequestParam(name = "min_year", required = false, defaultValue = "") String minProductionYear,
+      @RequestParam(name = "max_year", required = false, defaultValue = "") String maxProductionYear,
+      NativeWebRequest request) {
+
+    WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+    return service.exportCarResponses(new CarSearchParameters(manufacturerName, model, categoryNames,
+        minProductionYear, maxProductionYear, categoryMatch));
+  }
+
+  @GetMapping("/models/suggest")
+  @Operation(summary = "Suggest car models by prefix.", description = "Returns distinct car models starting with the provided prefix, ranked by the number of cars, optionally limited to one manufacturer. Served from memory without querying the database.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK.", content = {
+          @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ModelSuggestionResponse.class)))
+      }),
+      @ApiResponse(responseCode = "400", description = "Bad request.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }),
+      @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content) })
+  public ResponseEntity<List<ModelSuggestionResponse>> suggestModels(
+      @RequestParam(name = "prefix", required = false, defaultValue = "") String prefix,
+      @RequestParam(name = "manufacturer_name", required = false, defaultValue = "") String manufacturerName,
+      @RequestParam(name = "limit", required = false, defaultValue = "10") int limit) {
+    return service.getModelSuggestions(prefix, manufacturerName, limit);
   }
 
   @GetMapping("/{id}")
-  @Operation(summary = "Find car by ID.", description = "Finds and returns a car by its ID.")
+  @Operation(summary = "Find car by ID.", description = "Finds and returns a car by its ID. Pass fields to return only the listed response fields. The ETag header holds the car version for If-Match. Send it in If-None-Match to get 304 if neither the car nor its manufacturer and categories changed since.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "OK.", content = {
           @Content(mediaType = "application/json", schema = @Schema(implementation = PagedModel.class))
       }),
+      @ApiResponse(responseCode = "304", description = "Car hasn't changed since the ETag in If-None-Match.", content = @Content),
       @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content),
       @ApiResponse(responseCode = "404", description = "Car with the provided ID doesn't exist.", content = @Content) })
-  public ResponseEntity<CarResponse> getCar(@PathVariable String id) {
-    return service.getCarResponseById(id);
+  public ResponseEntity<CarResponse> getCar(@PathVariable @ResourceId String id,
+      @Parameter(name = "fields", in = ParameterIn.QUERY, schema = @Schema(type = "string")) @SelectedFields(CarResponse.class) FieldSelection fields,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return service.getCarResponseById(id, ifNoneMatch);
   }
 
   @PostMapping
-  @Operation(summary = "Save a new car to the database.", description = "Creates a new car using the provided details in the request body.")
+  @Operation(summary = "Save a new car to the database.", description = "Creates a new car using the provided details in the request body. Retries that repeat the Idempotency-Key header of an earlier request within the retention period (24 hours by default) return the original ID without creating another car.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "201", description = "New car was successfully created.", content = {
           @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
@@ -83,12 +228,28 @@ public class CarController {
       }),
       @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content),
       @ApiResponse(responseCode = "403", description = "User is not authorized to perform this action.", content = @Content) })
-  public ResponseEntity<String> saveCar(@Valid @RequestBody CarCreateRequest request) {
-    return service.saveCar(request);
+  public ResponseEntity<String> saveCar(@Valid @RequestBody CarCreateRequest request,
+      @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+    return service.saveCar(request, idempotencyKey);
+  }
+
+  @PostMapping("/batch")
+  @Operation(summary = "Save many new cars in one request.", description = "Creates every valid car from the request body using batched inserts and returns a result per item, in request order. Items that fail validation or reference unknown manufacturers or categories are reported and skipped. Up to 10000 cars are accepted per request.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK.", content = {
+          @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = CarBatchItemResponse.class)))
+      }),
+      @ApiResponse(responseCode = "400", description = "Bad request.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }),
+      @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content),
+      @ApiResponse(responseCode = "403", description = "User is not authorized to perform this action.", content = @Content) })
+  public ResponseEntity<List<CarBatchItemResponse>> saveCars(@RequestBody List<CarCreateRequest> requests) {
+    return service.saveCars(requests);
   }
 
   @PutMapping
-  @Operation(summary = "Update car details by ID.", description = "Modifies the car's information based on the provided ID and update details.")
+  @Operation(summary = "Update car details by ID.", description = "Modifies the car's information based on the provided ID and update details. Send the ETag from GET in If-Match to reject the update if the car changed in the meantime.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "OK.", content = {
           @Content(mediaType = "application/json", schema = @Schema(implementation = PagedModel.class))
@@ -100,15 +261,47 @@ public class CarController {
       @ApiResponse(responseCode = "403", description = "User is not authorized to perform this action.", content = @Content),
       @ApiResponse(responseCode = "404", description = "Car with the provided ID doesn't exist.", content = {
           @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }),
+      @ApiResponse(responseCode = "412", description = "Car was modified since the version in If-Match.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }) })
+  public ResponseEntity<CarResponse> modifyCar(@Valid @RequestBody CarModifyRequest request,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    return service.modifyCar(request, ifMatch);
+  }
+
+  @PatchMapping(path = "/{id}", consumes = "application/merge-patch+json")
+  @Operation(summary = "Partially update car details by ID.", description = "Applies a JSON Merge Patch with any of the car's manufacturer name, production year, model or category names. Only the changed columns are updated. A new category name list replaces the car's categories; only the added and removed links are written. Fields can't be removed, so null values are rejected. Send the ETag from GET in If-Match to reject the patch if the car changed in the meantime.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = CarResponse.class))
+      }),
+      @ApiResponse(responseCode = "400", description = "Bad request.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }),
+      @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content),
+      @ApiResponse(responseCode = "403", description = "User is not authorized to perform this action.", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Car with the provided ID doesn't exist.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }),
+      @ApiResponse(responseCode = "412", description = "Car was modified since the version in If-Match.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
       }) })
-  public ResponseEntity<CarResponse> modifyCar(@Valid @RequestBody CarModifyRequest request) {
-    return service.modifyCar(request);
+  public ResponseEntity<CarResponse> patchCar(@PathVariable @ResourceId String id,
+      @Valid @RequestBody CarPatchRequest request,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    return service.patchCar(id, request, ifMatch);
   }
 
   @DeleteMapping("/{id}")
   @Operation(summary = "Delete a car by ID.", description = "Removes the car with the specified ID from the database.")
-  @ApiResponse(responseCode = "204", description = "Car with the provided ID doesn't exist.", content = @Content)
-  public ResponseEntity<Void> deleteCar(@PathVariable String id) {
-    return service.deleteCarById(id);
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "204", description = "Car with the provided ID doesn't exist.", content = @Content),
+      @ApiResponse(responseCode = "412", description = "Car was modified since the version in If-Match.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }) })
+  public ResponseEntity<Void> deleteCar(@PathVariable @ResourceId String id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    return service.deleteCarById(id, ifMatch);
   }
 }
@@ -0,0 +1,61 @@
+package ua.foxminded.carservice.controller;
+
+import java.io.InputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import ua.foxminded.carservice.dto.CarImportResponse;
+import ua.foxminded.carservice.dto.ErrorResponse;
+import ua.foxminded.carservice.dto.ResourceId;
+import ua.foxminded.carservice.service.api.CarImportRestApiService;
+
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@RestController
+@RequestMapping("api/v1/imports")
+@Tag(name = "Import API", description = "Operations related to bulk car imports.")
+public class CarImportController {
+  private final CarImportRestApiService service;
+
+  @GetMapping("/{id}")
+  @Operation(summary = "Find car import by ID.", description = "Returns the status and progress of a car import job.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = CarImportResponse.class))
+      }),
+      @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Import with the provided ID doesn't exist.", content = @Content) })
+  public ResponseEntity<CarImportResponse> getCarImport(@PathVariable @ResourceId String id) {
+    return service.getCarImportResponseById(id);
+  }
+
+  @PostMapping(consumes = { "text/csv", "application/x-ndjson" })
+  @Operation(summary = "Start a bulk car import.", description = "Stores the uploaded feed and loads it in the background with PostgreSQL COPY. CSV feeds need a manufacturer_name,model,production_year,category_names header with category names separated by '|'. NDJSON feeds hold one car creation request per line. Rows with unknown manufacturers or categories or invalid values are counted as rejected.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "202", description = "Import was accepted and queued.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = CarImportResponse.class))
+      }),
+      @ApiResponse(responseCode = "400", description = "Bad request.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }),
+      @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content),
+      @ApiResponse(responseCode = "403", description = "User is not authorized to perform this action.", content = @Content) })
+  public ResponseEntity<CarImportResponse> saveCarImport(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+      InputStream content) {
+    return service.saveCarImport(contentType, content);
+  }
+}
@@ -1,22 +1,26 @@
 package ua.foxminded.carservice.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -26,8 +30,13 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import ua.foxminded.carservice.dto.CategoryCreateRequest;
 import ua.foxminded.carservice.dto.CategoryModifyRequest;
+import ua.foxminded.carservice.dto.CategoryPatchRequest;
 import ua.foxminded.carservice.dto.CategoryResponse;
+import ua.foxminded.carservice.dto.SliceResponse;
+import ua.foxminded.carservice.dto.TotalMode;
 import ua.foxminded.carservice.dto.ErrorResponse;
+import ua.foxminded.carservice.dto.FieldSelection;
+import ua.foxminded.carservice.dto.ResourceId;
 import ua.foxminded.carservice.service.api.CategoryRestApiService;
 
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
@@ -38,32 +47,46 @@ public class CategoryController {
   private final CategoryRestApiService service;
 
   @GetMapping
-  @Operation(summary = "Retrieve a list of all available categories with optional filtering.", description = "Fetches a list of categories with optional filters such as name.")
+  @Operation(summary = "Retrieve a list of all available categories with optional filtering.", description = "Fetches a list of categories with optional filters such as name. Set total=estimate to use planner row estimates for the total count. Set total=none to skip the count and report only whether a next slice exists. Send the ETag in If-None-Match to get 304 if no matching category changed since.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "OK.", content = {
-          @Content(mediaType = "application/json", schema = @Schema(implementation = PagedModel.class))
+          @Content(mediaType = "application/json", schema = @Schema(oneOf = { PagedModel.class, SliceResponse.class }))
+      }),
+      @ApiResponse(responseCode = "304", description = "Page hasn't changed since the ETag in If-None-Match.", content = @Content),
+      @ApiResponse(responseCode = "400", description = "Bad request.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
       }),
       @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content) })
-  public ResponseEntity<Page<CategoryResponse>> getCategorys(
+  public ResponseEntity<?> getCategorys(
       @RequestParam(name = "name", required = false, defaultValue = "") String name,
+      @Parameter(name = "fields", in = ParameterIn.QUERY, schema = @Schema(type = "string")) @SelectedFields(CategoryResponse.class) FieldSelection fields,
+      @RequestParam(name = "total", required = false, defaultValue = "exact") String total,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
       @PageableDefault Pageable pageable) {
-    return service.getCategoryResponsesByName(name, pageable);
+    TotalMode totalMode = TotalMode.of(total);
+    if (totalMode == TotalMode.NONE) {
+      return service.getCategoryResponseSliceByName(name, pageable);
+    }
+    return service.getCategoryResponsesByName(name, totalMode, pageable, ifNoneMatch);
   }
 
   @GetMapping("/{id}")
-  @Operation(summary = "Find category by ID.", description = "Finds and returns a category by its ID.")
+  @Operation(summary = "Find category by ID.", description = "Finds and returns a category by its ID. The ETag header holds the category version for If-Match and If-None-Match.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "OK.", content = {
           @Content(mediaType = "application/json", schema = @Schema(implementation = PagedModel.class))
       }),
+      @ApiResponse(responseCode = "304", description = "Category hasn't changed since the ETag in If-None-Match.", content = @Content),
       @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content),
       @ApiResponse(responseCode = "404", description = "Category with the provided ID doesn't exist.", content = @Content) })
-  public ResponseEntity<CategoryResponse> getCategory(@PathVariable String id) {
-    return service.getCategoryResponseById(id);
+  public ResponseEntity<CategoryResponse> getCategory(@PathVariable @ResourceId String id,
+      @Parameter(name = "fields", in = ParameterIn.QUERY, schema = @Schema(type = "string")) @SelectedFields(CategoryResponse.class) FieldSelection fields,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return service.getCategoryResponseById(id, ifNoneMatch);
   }
 
   @PostMapping
-  @Operation(summary = "Save a new category to the database.", description = "Creates a new category using the provided details in the request body.")
+  @Operation(summary = "Save a new category to the database.", description = "Creates a new category using the provided details in the request body. Retries that repeat the Idempotency-Key header of an earlier request within the retention period (24 hours by default) return the original ID without creating another category.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "201", description = "New category was successfully created.", content = {
           @Content(mediaType = "text/plain", schema = @Schema(type = "string"))
@@ -73,12 +96,13 @@ public class CategoryController {
       }),
       @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content),
       @ApiResponse(responseCode = "403", description = "User is not authorized to perform this action.", content = @Content) })
-  public ResponseEntity<String> saveCategory(@Valid @RequestBody CategoryCreateRequest request) {
-    return service.saveCategory(request);
+  public ResponseEntity<String> saveCategory(@Valid @RequestBody CategoryCreateRequest request,
+      @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+    return service.saveCategory(request, idempotencyKey);
   }
 
   @PutMapping
-  @Operation(summary = "Update category details by ID.", description = "Modifies the category's information based on the provided ID and update details.")
+  @Operation(summary = "Update category details by ID.", description = "Modifies the category's information based on the provided ID and update details. Send the ETag from GET in If-Match to reject the update if the category changed in the meantime.")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "OK.", content = {
           @Content(mediaType = "application/json", schema = @Schema(implementation = PagedModel.class))
@@ -90,15 +114,47 @@ public class CategoryController {
       @ApiResponse(responseCode = "403", description = "User is not authorized to perform this action.", content = @Content),
       @ApiResponse(responseCode = "404", description = "Category with the provided ID doesn't exist.", content = {
           @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }),
+      @ApiResponse(responseCode = "412", description = "Category was modified since the version in If-Match.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }) })
+  public ResponseEntity<CategoryResponse> modifyCategory(@Valid @RequestBody CategoryModifyRequest request,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    return service.modifyCategory(request, ifMatch);
+  }
+
+  @PatchMapping(path = "/{id}", consumes = "application/merge-patch+json")
+  @Operation(summary = "Partially update category details by ID.", description = "Applies a JSON Merge Patch with the category's name. Only the changed columns are updated. Fields can't be removed, so null values are rejected. Send the ETag from GET in If-Match to reject the patch if the category changed in the meantime.")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "OK.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryResponse.class))
+      }),
+      @ApiResponse(responseCode = "400", description = "Bad request.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }),
+      @ApiResponse(responseCode = "401", description = "User is not authenticated.", content = @Content),
+      @ApiResponse(responseCode = "403", description = "User is not authorized to perform this action.", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Category with the provided ID doesn't exist.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }),
+      @ApiResponse(responseCode = "412", description = "Category was modified since the version in If-Match.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
       }) })
-  public ResponseEntity<CategoryResponse> modifyCategory(@Valid @RequestBody CategoryModifyRequest request) {
-    return service.modifyCategory(request);
+  public ResponseEntity<CategoryResponse> patchCategory(@PathVariable @ResourceId String id,
+      @Valid @RequestBody CategoryPatchRequest request,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    return service.patchCategory(id, request, ifMatch);
   }
 
   @DeleteMapping("/{id}")
   @Operation(summary = "Delete a category by ID.", description = "Removes the category with the specified ID from the database.")
-  @ApiResponse(responseCode = "204", description = "Category with the provided ID doesn't exist.", content = @Content)
-  public ResponseEntity<Void> deleteCategory(@PathVariable String id) {
-    return service.deleteCategoryById(id);
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "204", description = "Category with the provided ID doesn't exist.", content = @Content),
+      @ApiResponse(responseCode = "412", description = "Category was modified since the version in If-Match.", content = {
+          @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+      }) })
+  public ResponseEntity<Void> deleteCategory(@PathVariable @ResourceId String id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    return service.deleteCategoryById(id, ifMatch);
   }
 }
@@ -0,0 +1,37 @@
+package ua.foxminded.carservice.controller;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import ua.foxminded.carservice.dto.FieldSelection;
+
+/**
+ * Parses the fields request parameter once per request. An explicit selection
+ * is kept as a request attribute for {@link FieldSelectionResponseBodyAdvice}.
+ */
+public class FieldSelectionArgumentResolver implements HandlerMethodArgumentResolver {
+  static final String ATTRIBUTE = FieldSelection.class.getName();
+  private static final String FIELDS = "fields";
+
+  @Override
+  public boolean supportsParameter(MethodParameter parameter) {
+    return parameter.hasParameterAnnotation(SelectedFields.class)
+        && FieldSelection.class.equals(parameter.getParameterType());
+  }
+
+  @Override
+  public FieldSelection resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+      NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+    String fields = webRequest.getParameter(FIELDS);
+    FieldSelection selection = FieldSelection.of(fields,
+        parameter.getParameterAnnotation(SelectedFields.class).value());
+    if (fields != null && !fields.isBlank()) {
+      webRequest.setAttribute(ATTRIBUTE, selection, RequestAttributes.SCOPE_REQUEST);
+    }
+    return selection;
+  }
+}
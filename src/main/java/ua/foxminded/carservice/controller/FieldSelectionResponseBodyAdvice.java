@@ -0,0 +1,32 @@
+package ua.foxminded.carservice.controller;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import ua.foxminded.carservice.dto.FieldSelection;
+
+@RestControllerAdvice
+public class FieldSelectionResponseBodyAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+  @Override
+  protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+      MethodParameter returnType, ServerHttpRequest request, ServerHttpResponse response) {
+    if (!(request instanceof ServletServerHttpRequest servletRequest)
+        || !(servletRequest.getServletRequest()
+            .getAttribute(FieldSelectionArgumentResolver.ATTRIBUTE) instanceof FieldSelection selection)) {
+      return;
+    }
+
+    bodyContainer.setFilters(new SimpleFilterProvider().addFilter(FieldSelection.FILTER,
+        SimpleBeanPropertyFilter.filterOutAllExcept(selection.names())));
+  }
+}
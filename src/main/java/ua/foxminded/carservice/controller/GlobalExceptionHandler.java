@@ -1,5 +1,6 @@
 package ua.foxminded.carservice.controller;
 
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -7,17 +8,30 @@ import org.apache.commons.lang3.NotImplementedException;
 import org.hibernate.StaleObjectStateException;
 import org.hibernate.exception.ConstraintViolationException;
 import org.postgresql.util.PSQLException;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.UncategorizedDataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.validation.method.ParameterErrors;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import io.swagger.v3.oas.annotations.Hidden;
 import jakarta.persistence.EntityNotFoundException;
 import ua.foxminded.carservice.dto.ErrorResponse;
+import ua.foxminded.carservice.exception.BadRequestException;
 
 @Hidden
 @RestControllerAdvice
@@ -30,13 +44,54 @@ public class GlobalExceptionHandler {
     ex.getBindingResult().getFieldErrors()
         .forEach(error -> errorDetails.put(error.getField(), error.getDefaultMessage()));
 
+    return validationError(errorDetails);
+  }
+
+  @ExceptionHandler(HandlerMethodValidationException.class)
+  public ResponseEntity<ErrorResponse> handleHandlerMethodValidationException(HandlerMethodValidationException ex) {
+    if (ex.getParameterValidationResults().stream()
+        .anyMatch(result -> result.getMethodParameter().hasParameterAnnotation(PathVariable.class))) {
+      // A malformed path id can't name an existing resource.
+      return new ResponseEntity<>(ErrorResponse.builder()
+          .status(404)
+          .message("No Resource Found Exception")
+          .build(), HttpStatus.NOT_FOUND);
+    }
+
+    Map<String, String> errorDetails = new HashMap<>();
+    ex.getParameterValidationResults().stream()
+        .filter(ParameterErrors.class::isInstance)
+        .flatMap(result -> ((ParameterErrors) result).getFieldErrors().stream())
+        .forEach(error -> errorDetails.put(error.getField(), error.getDefaultMessage()));
+
+    return validationError(errorDetails);
+  }
+
+  @ExceptionHandler(BadRequestException.class)
+  public ResponseEntity<ErrorResponse> handleBadRequestException(BadRequestException ex) {
     return new ResponseEntity<>(ErrorResponse.builder()
         .status(400)
-        .message("Request Validation Error")
-        .errorDetails(errorDetails)
+        .message("Bad Request")
+        .build(), HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(HttpMessageNotReadableException.class)
+  public ResponseEntity<ErrorResponse> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex) {
+    return new ResponseEntity<>(ErrorResponse.builder()
+        .status(400)
+        .message("Malformed Request Body")
         .build(), HttpStatus.BAD_REQUEST);
   }
 
+  @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+  public ResponseEntity<ErrorResponse> handleHttpMediaTypeNotSupportedException(
+      HttpMediaTypeNotSupportedException ex) {
+    return new ResponseEntity<>(ErrorResponse.builder()
+        .status(415)
+        .message("Unsupported Media Type")
+        .build(), HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+  }
+
   @ExceptionHandler(EntityNotFoundException.class)
   public ResponseEntity<ErrorResponse> handleNoResourceFoundException(EntityNotFoundException ex) {
     return new ResponseEntity<>(ErrorResponse.builder()
@@ -49,10 +104,7 @@ public class GlobalExceptionHandler {
   public ResponseEntity<ErrorResponse> handleObjectOptimisticLockingFailureException(
       ObjectOptimisticLockingFailureException ex) {
     if (ex.getCause() instanceof StaleObjectStateException) {
-      return new ResponseEntity<>(ErrorResponse.builder()
-          .status(404)
-          .message("No Resource Found Exception")
-          .build(), HttpStatus.NOT_FOUND);
+      return preconditionFailed();
     }
     return new ResponseEntity<>(ErrorResponse.builder()
         .status(500)
@@ -60,6 +112,11 @@ public class GlobalExceptionHandler {
         .build(), HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+    return preconditionFailed();
+  }
+
   @ExceptionHandler(NotImplementedException.class)
   public ResponseEntity<ErrorResponse> handleNotImplementedException(NotImplementedException ex) {
     return new ResponseEntity<>(ErrorResponse.builder()
@@ -94,6 +151,23 @@ public class GlobalExceptionHandler {
         .build(), HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
+  @ExceptionHandler({ QueryTimeoutException.class, TransactionTimedOutException.class,
+      AsyncRequestTimeoutException.class, TaskRejectedException.class })
+  public ResponseEntity<ErrorResponse> handleQueryTimeoutException(Exception ex) {
+    return serviceUnavailable();
+  }
+
+  @ExceptionHandler(UncategorizedDataAccessException.class)
+  public ResponseEntity<ErrorResponse> handleUncategorizedDataAccessException(UncategorizedDataAccessException ex) {
+    if (ex.getMostSpecificCause() instanceof SQLException sqlEx && "57014".equals(sqlEx.getSQLState())) {
+      return serviceUnavailable();
+    }
+    return new ResponseEntity<>(ErrorResponse.builder()
+        .status(500)
+        .message("Database Error")
+        .build(), HttpStatus.INTERNAL_SERVER_ERROR);
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleException(Exception ex) {
     return new ResponseEntity<>(ErrorResponse.builder()
@@ -101,4 +175,28 @@ public class GlobalExceptionHandler {
         .message("Internal Server Error")
         .build(), HttpStatus.INTERNAL_SERVER_ERROR);
   }
+
+  private static ResponseEntity<ErrorResponse> validationError(Map<String, String> errorDetails) {
+    return new ResponseEntity<>(ErrorResponse.builder()
+        .status(400)
+        .message("Request Validation Error")
+        .errorDetails(errorDetails)
+        .build(), HttpStatus.BAD_REQUEST);
+  }
+
+  private static ResponseEntity<ErrorResponse> preconditionFailed() {
+    return new ResponseEntity<>(ErrorResponse.builder()
+        .status(412)
+        .message("Precondition Failed")
+        .build(), HttpStatus.PRECONDITION_FAILED);
+  }
+
+  private static ResponseEntity<ErrorResponse> serviceUnavailable() {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(ErrorResponse.builder()
+            .status(503)
+            .message("Service Unavailable")
+            .build());
+  }
 }
@@ -0,0 +1,17 @@
+package ua.foxminded.carservice.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds the fields request parameter to a {@link ua.foxminded.carservice.dto.FieldSelection}
+ * of the given response type. The response body is then limited to the
+ * selected fields.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SelectedFields {
+  Class<?> value();
+}
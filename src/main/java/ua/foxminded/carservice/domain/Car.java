@@ -2,6 +2,10 @@ package ua.foxminded.carservice.domain;
 
 import java.util.List;
 
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -11,16 +15,21 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import ua.foxminded.carservice.repository.IdentifierGenerator;
+import ua.foxminded.carservice.repository.IdentifierStrategy;
 
 @Entity
+@DynamicUpdate
 @Table(name = "cars")
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,7 +37,7 @@ import ua.foxminded.carservice.repository.IdentifierGenerator;
 @Data
 public class Car implements StringIdentifiable {
   @Id
-  @IdentifierGenerator
+  @IdentifierGenerator(strategy = IdentifierStrategy.SEQUENCE)
   @Column(name = "id")
   private String id;
 
@@ -46,6 +55,16 @@ public class Car implements StringIdentifiable {
   @NotBlank(message = "Model has to be specified.")
   private String model;
 
+  @Version
+  @Column(name = "version")
+  private Long version;
+
+  @Generated(event = EventType.UPDATE, sql = "nextval('entity_change_seq')")
+  @Column(name = "change_seq", insertable = false)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private Long changeSeq;
+
   @ManyToMany(fetch = FetchType.EAGER)
   @JoinTable(
       name = "cars_categories",
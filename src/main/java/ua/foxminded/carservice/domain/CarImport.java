@@ -0,0 +1,60 @@
+package ua.foxminded.carservice.domain;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ua.foxminded.carservice.repository.IdentifierGenerator;
+
+@Entity
+@Table(name = "car_imports")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+public class CarImport implements StringIdentifiable {
+  @Id
+  @IdentifierGenerator
+  @Column(name = "id")
+  private String id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "format")
+  private CarImportFormat format;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status")
+  private CarImportStatus status;
+
+  @Column(name = "total_bytes")
+  private Long totalBytes;
+
+  @Column(name = "loaded_bytes")
+  private Long loadedBytes;
+
+  @Column(name = "imported_rows")
+  private Long importedRows;
+
+  @Column(name = "rejected_rows")
+  private Long rejectedRows;
+
+  @Column(name = "error")
+  private String error;
+
+  @Column(name = "created_at")
+  private Instant createdAt;
+
+  @Column(name = "started_at")
+  private Instant startedAt;
+
+  @Column(name = "finished_at")
+  private Instant finishedAt;
+}
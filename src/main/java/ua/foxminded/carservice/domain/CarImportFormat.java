@@ -0,0 +1,29 @@
+package ua.foxminded.carservice.domain;
+
+import ua.foxminded.carservice.exception.BadRequestException;
+
+public enum CarImportFormat {
+  CSV("text/csv"), NDJSON("application/x-ndjson");
+
+  private final String mediaType;
+
+  CarImportFormat(String mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  public String getMediaType() {
+    return mediaType;
+  }
+
+  public static CarImportFormat of(String contentType) {
+    if (contentType != null) {
+      String mediaType = contentType.split(";", 2)[0].trim();
+      for (CarImportFormat format : values()) {
+        if (format.mediaType.equalsIgnoreCase(mediaType)) {
+          return format;
+        }
+      }
+    }
+    throw new BadRequestException("Import content type " + contentType + " is not supported.");
+  }
+}
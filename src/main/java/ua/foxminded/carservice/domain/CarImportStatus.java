@@ -0,0 +1,5 @@
+package ua.foxminded.carservice.domain;
+
+public enum CarImportStatus {
+  PENDING, LOADING, MERGING, COMPLETED, FAILED
+}
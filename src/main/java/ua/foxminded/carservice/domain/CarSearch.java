@@ -0,0 +1,43 @@
+package ua.foxminded.carservice.domain;
+
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Immutable
+@Table(name = "car_search")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+public class CarSearch {
+  @Id
+  @Column(name = "car_id")
+  private String carId;
+
+  @Column(name = "manufacturer_id")
+  private String manufacturerId;
+
+  @Column(name = "manufacturer_name")
+  private String manufacturerName;
+
+  @Column(name = "model")
+  private String model;
+
+  @Column(name = "production_year")
+  private Integer productionYear;
+
+  @JdbcTypeCode(SqlTypes.ARRAY)
+  @Column(name = "category_names")
+  private String[] categoryNames;
+}
@@ -2,11 +2,16 @@ package ua.foxminded.carservice.domain;
 
 import java.util.List;
 
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,6 +22,7 @@ import lombok.ToString;
 import ua.foxminded.carservice.repository.IdentifierGenerator;
 
 @Entity
+@DynamicUpdate
 @Table(name = "categories")
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,6 +38,16 @@ public class Category implements StringIdentifiable {
   @NotBlank(message = "Category name has to be specified.")
   private String name;
 
+  @Version
+  @Column(name = "version")
+  private Long version;
+
+  @Generated(event = EventType.UPDATE, sql = "nextval('entity_change_seq')")
+  @Column(name = "change_seq", insertable = false)
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  private Long changeSeq;
+
   @ManyToMany(mappedBy = "categories")
   @ToString.Exclude
   @EqualsAndHashCode.Exclude
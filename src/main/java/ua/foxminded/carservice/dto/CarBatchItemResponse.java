@@ -0,0 +1,16 @@
+package ua.foxminded.carservice.dto;
+
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder(toBuilder = true)
+@Data
+public class CarBatchItemResponse {
+  private Integer index;
+  private Integer status;
+  private String id;
+  private String message;
+  private Map<String, String> errorDetails;
+}
@@ -0,0 +1,14 @@
+package ua.foxminded.carservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class CarChangeResponse {
+  private String id;
+
+  private Boolean deleted;
+
+  private CarResponse car;
+}
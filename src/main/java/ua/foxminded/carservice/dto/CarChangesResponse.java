@@ -0,0 +1,20 @@
+package ua.foxminded.carservice.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class CarChangesResponse {
+  private List<CarChangeResponse> changes;
+
+  @JsonProperty("next_token")
+  private String nextToken;
+
+  @JsonProperty("has_more")
+  private Boolean hasMore;
+}
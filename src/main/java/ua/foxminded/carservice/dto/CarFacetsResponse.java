@@ -0,0 +1,19 @@
+package ua.foxminded.carservice.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class CarFacetsResponse {
+  private List<FacetCountResponse<String>> manufacturers;
+
+  private List<FacetCountResponse<String>> categories;
+
+  @JsonProperty("production_years")
+  private List<FacetCountResponse<Integer>> productionYears;
+}
@@ -0,0 +1,41 @@
+package ua.foxminded.carservice.dto;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class CarImportResponse {
+  private String id;
+
+  private String format;
+
+  private String status;
+
+  @JsonProperty("total_bytes")
+  private Long totalBytes;
+
+  @JsonProperty("loaded_bytes")
+  private Long loadedBytes;
+
+  @JsonProperty("imported_rows")
+  private Long importedRows;
+
+  @JsonProperty("rejected_rows")
+  private Long rejectedRows;
+
+  private String error;
+
+  @JsonProperty("created_at")
+  private Instant createdAt;
+
+  @JsonProperty("started_at")
+  private Instant startedAt;
+
+  @JsonProperty("finished_at")
+  private Instant finishedAt;
+}
@@ -13,6 +13,7 @@ import lombok.Data;
 @Data
 public class CarModifyRequest {
   @NotBlank(message = "Identifier has to be specified.")
+  @ResourceId
   private String id;
   
   @NotBlank(message = "Manufacturer has to be specified.")
@@ -0,0 +1,35 @@
+package ua.foxminded.carservice.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+@Builder
+@Jacksonized
+@Data
+public class CarPatchRequest {
+  @JsonSetter(nulls = Nulls.FAIL)
+  @Pattern(regexp = "(?s).*\\S.*", message = "Manufacturer can't be blank.")
+  private String manufacturerName;
+
+  @JsonSetter(nulls = Nulls.FAIL)
+  @Min(value = 1900, message = "Production year must be 1900 or later.")
+  private Integer productionYear;
+
+  @JsonSetter(nulls = Nulls.FAIL)
+  @Pattern(regexp = "(?s).*\\S.*", message = "Model can't be blank.")
+  private String model;
+
+  @JsonSetter(nulls = Nulls.FAIL)
+  @Size(min = 1, message = "At least one category has to be specified.")
+  private List<@NotBlank(message = "Category can't be blank.") String> categoryNames;
+}
@@ -2,6 +2,60 @@ package ua.foxminded.carservice.dto;
 
 import java.util.List;
 
+import ua.foxminded.carservice.exception.BadRequestException;
+
 public record CarSearchParameters(String manufacturerName, String model, List<String> categoryNames,
-    String minProductionYear, String maxProductionYear) {
+    String minProductionYear, String maxProductionYear, String categoryMatch) {
+
+  public CarSearchParameters(String manufacturerName, String model, List<String> categoryNames,
+      String minProductionYear, String maxProductionYear) {
+    this(manufacturerName, model, categoryNames, minProductionYear, maxProductionYear, "any");
+  }
+
+  public Integer minYear() {
+    return year(minProductionYear);
+  }
+
+  public Integer maxYear() {
+    return year(maxProductionYear);
+  }
+
+  public CarSearchParameters withoutManufacturer() {
+    return new CarSearchParameters(null, model, categoryNames, minProductionYear, maxProductionYear, categoryMatch);
+  }
+
+  public CarSearchParameters withoutCategories() {
+    return new CarSearchParameters(manufacturerName, model, null, minProductionYear, maxProductionYear, null);
+  }
+
+  public CarSearchParameters withoutProductionYears() {
+    return new CarSearchParameters(manufacturerName, model, categoryNames, null, null, categoryMatch);
+  }
+
+  public void validate() {
+    minYear();
+    maxYear();
+    matchesAllCategories();
+  }
+
+  public boolean matchesAllCategories() {
+    if (categoryMatch == null || categoryMatch.isBlank() || "any".equalsIgnoreCase(categoryMatch)) {
+      return false;
+    }
+    if ("all".equalsIgnoreCase(categoryMatch)) {
+      return true;
+    }
+    throw new BadRequestException("Category match mode " + categoryMatch + " is not supported.");
+  }
+
+  private static Integer year(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    try {
+      return Integer.valueOf(value);
+    } catch (NumberFormatException ex) {
+      throw new BadRequestException("Production year " + value + " is not a number.", ex);
+    }
+  }
 }
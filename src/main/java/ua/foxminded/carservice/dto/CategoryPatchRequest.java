@@ -0,0 +1,18 @@
+package ua.foxminded.carservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+
+import jakarta.validation.constraints.Pattern;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+@Builder
+@Jacksonized
+@Data
+public class CategoryPatchRequest {
+  @JsonSetter(nulls = Nulls.FAIL)
+  @Pattern(regexp = "(?s).*\\S.*", message = "Name can't be blank.")
+  private String name;
+}
@@ -0,0 +1,4 @@
+package ua.foxminded.carservice.dto;
+
+public record ChangeStamp(long count, long sequence) {
+}
@@ -0,0 +1,19 @@
+package ua.foxminded.carservice.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class CursorPageResponse<T> {
+  private List<T> content;
+
+  private Integer size;
+
+  @JsonProperty("next_cursor")
+  private String nextCursor;
+}
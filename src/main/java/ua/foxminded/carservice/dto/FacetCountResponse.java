@@ -0,0 +1,12 @@
+package ua.foxminded.carservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class FacetCountResponse<T> {
+  private T value;
+
+  private Long count;
+}
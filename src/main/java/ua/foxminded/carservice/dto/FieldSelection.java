@@ -0,0 +1,45 @@
+package ua.foxminded.carservice.dto;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import ua.foxminded.carservice.exception.BadRequestException;
+
+public record FieldSelection(Set<String> names) {
+  public static final String FILTER = "fieldSelection";
+
+  public static FieldSelection of(String fields, Class<?> responseType) {
+    Set<String> available = Arrays.stream(responseType.getDeclaredFields())
+        .filter(field -> !Modifier.isStatic(field.getModifiers()))
+        .map(Field::getName)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    if (fields == null || fields.isBlank()) {
+      return new FieldSelection(available);
+    }
+
+    Set<String> names = parse(fields);
+    names.stream().filter(name -> !available.contains(name)).findFirst().ifPresent(name -> {
+      throw new BadRequestException("Field " + name + " is not supported.");
+    });
+    return new FieldSelection(names);
+  }
+
+  public static FieldSelection all(Class<?> responseType) {
+    return of(null, responseType);
+  }
+
+  public static Set<String> parse(String fields) {
+    return Arrays.stream(fields.split(","))
+        .map(String::trim)
+        .filter(name -> !name.isEmpty())
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  public boolean includes(String name) {
+    return names.contains(name);
+  }
+}
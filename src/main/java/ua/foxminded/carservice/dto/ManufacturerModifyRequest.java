@@ -8,6 +8,7 @@ import lombok.Data;
 @Data
 public class ManufacturerModifyRequest {
   @NotBlank(message = "Identifier has to be specified.")
+  @ResourceId
   private String id;
 
   @NotBlank(message = "Name has to be specified.")
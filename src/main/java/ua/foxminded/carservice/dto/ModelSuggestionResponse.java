@@ -0,0 +1,12 @@
+package ua.foxminded.carservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class ModelSuggestionResponse {
+  private String model;
+
+  private Integer count;
+}
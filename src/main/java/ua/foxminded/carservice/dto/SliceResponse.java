@@ -0,0 +1,21 @@
+package ua.foxminded.carservice.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class SliceResponse<T> {
+  private List<T> content;
+
+  private Integer size;
+
+  private Integer number;
+
+  @JsonProperty("has_next")
+  private Boolean hasNext;
+}
@@ -0,0 +1,6 @@
+package ua.foxminded.carservice.dto;
+
+import ua.foxminded.carservice.domain.Car;
+
+public record StampedCar(Car car, VersionStamp stamp) {
+}
@@ -0,0 +1,19 @@
+package ua.foxminded.carservice.dto;
+
+import ua.foxminded.carservice.exception.BadRequestException;
+
+public enum TotalMode {
+  EXACT, ESTIMATE, NONE;
+
+  public static TotalMode of(String value) {
+    if (value == null || value.isBlank()) {
+      return EXACT;
+    }
+    for (TotalMode mode : values()) {
+      if (mode.name().equalsIgnoreCase(value)) {
+        return mode;
+      }
+    }
+    throw new BadRequestException("Total mode " + value + " is not supported.");
+  }
+}
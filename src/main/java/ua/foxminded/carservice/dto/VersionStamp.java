@@ -0,0 +1,23 @@
+package ua.foxminded.carservice.dto;
+
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Category;
+
+public record VersionStamp(long version, long sequence) {
+
+  /**
+   * Stamps a loaded car like the car projection does, with the latest change
+   * sequence of the car, its manufacturer and its categories.
+   */
+  public static VersionStamp of(Car car) {
+    long sequence = Stream.concat(Stream.of(car.getChangeSeq(), car.getManufacturer().getChangeSeq()),
+        car.getCategories().stream().map(Category::getChangeSeq))
+        .filter(Objects::nonNull)
+        .mapToLong(Long::longValue)
+        .max().orElse(0);
+    return new VersionStamp(car.getVersion(), sequence);
+  }
+}
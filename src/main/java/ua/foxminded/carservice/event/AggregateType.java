@@ -0,0 +1,5 @@
+package ua.foxminded.carservice.event;
+
+public enum AggregateType {
+  CAR, MANUFACTURER, CATEGORY
+}
@@ -0,0 +1,10 @@
+package ua.foxminded.carservice.event;
+
+import ua.foxminded.carservice.domain.Car;
+
+public record CarModel(String manufacturerId, String model) {
+
+  public static CarModel of(Car car) {
+    return new CarModel(car.getManufacturer().getId(), car.getModel());
+  }
+}
@@ -0,0 +1,14 @@
+package ua.foxminded.carservice.event;
+
+import ua.foxminded.carservice.domain.Car;
+
+/**
+ * Published when a car is written. {@code previous} is the manufacturer and
+ * model the car had before an update, and is null for a new car.
+ */
+public record CarSavedEvent(Car car, CarModel previous) {
+
+  public CarSavedEvent(Car car) {
+    this(car, null);
+  }
+}
@@ -0,0 +1,4 @@
+package ua.foxminded.carservice.event;
+
+public record CarsImportedEvent(String importId) {
+}
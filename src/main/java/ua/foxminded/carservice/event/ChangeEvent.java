@@ -0,0 +1,13 @@
+package ua.foxminded.carservice.event;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * A catalogue write as relayed from the outbox. The payload holds the response
+ * representation of the written entity and is null for deletions.
+ */
+public record ChangeEvent(long id, AggregateType aggregateType, String aggregateId, ChangeType type,
+    @JsonRawValue String payload, Instant createdAt) {
+}
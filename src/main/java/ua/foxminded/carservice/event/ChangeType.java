@@ -0,0 +1,5 @@
+package ua.foxminded.carservice.event;
+
+public enum ChangeType {
+  CREATED, UPDATED, DELETED
+}
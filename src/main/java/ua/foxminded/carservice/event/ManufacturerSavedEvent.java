@@ -0,0 +1,6 @@
+package ua.foxminded.carservice.event;
+
+import ua.foxminded.carservice.domain.Manufacturer;
+
+public record ManufacturerSavedEvent(Manufacturer manufacturer) {
+}
@@ -0,0 +1,17 @@
+package ua.foxminded.carservice.exception;
+
+/**
+ * Thrown when a request parameter or body can't be served as sent. Mapped to
+ * 400, unlike other runtime exceptions.
+ */
+public class BadRequestException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  public BadRequestException(String message) {
+    super(message);
+  }
+
+  public BadRequestException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,11 @@
+package ua.foxminded.carservice.mapper;
+
+import org.mapstruct.Mapper;
+
+import ua.foxminded.carservice.domain.CarImport;
+import ua.foxminded.carservice.dto.CarImportResponse;
+
+@Mapper(componentModel = "spring")
+public interface CarImportMapper {
+  CarImportResponse carImportToCarImportResponse(CarImport carImport);
+}
@@ -14,6 +14,8 @@ import ua.foxminded.carservice.domain.Manufacturer;
 import ua.foxminded.carservice.dto.CarCreateRequest;
 import ua.foxminded.carservice.dto.CarModifyRequest;
 import ua.foxminded.carservice.dto.CarResponse;
+import ua.foxminded.carservice.dto.ModelSuggestionResponse;
+import ua.foxminded.carservice.service.search.ModelSuggestion;
 
 @Mapper(componentModel = "spring")
 public interface CarMapper {
@@ -23,12 +25,20 @@ public interface CarMapper {
 
   List<CarResponse> carsToCarResponses(List<Car> car);
 
+  ModelSuggestionResponse modelSuggestionToModelSuggestionResponse(ModelSuggestion suggestion);
+
+  List<ModelSuggestionResponse> modelSuggestionsToModelSuggestionResponses(List<ModelSuggestion> suggestions);
+
   @Mapping(target = "manufacturer", ignore = true)
   @Mapping(target = "categories", ignore = true)
+  @Mapping(target = "version", ignore = true)
+  @Mapping(target = "changeSeq", ignore = true)
   Car carCreateRequestToCar(CarCreateRequest request);
 
   @Mapping(target = "manufacturer", ignore = true)
   @Mapping(target = "categories", ignore = true)
+  @Mapping(target = "version", ignore = true)
+  @Mapping(target = "changeSeq", ignore = true)
   Car carModifyRequestToCar(CarModifyRequest request);
 
   @Named("manufacturerToString")
@@ -3,6 +3,7 @@ package ua.foxminded.carservice.mapper;
 import java.util.List;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import ua.foxminded.carservice.domain.Category;
 import ua.foxminded.carservice.dto.CategoryCreateRequest;
@@ -15,7 +16,11 @@ public interface CategoryMapper {
   
   List<CategoryResponse> categoriesToCategoryResponses(List<Category> category);
  
+  @Mapping(target = "version", ignore = true)
+  @Mapping(target = "changeSeq", ignore = true)
   Category categoryCreateRequestToCategory(CategoryCreateRequest request);
   
+  @Mapping(target = "version", ignore = true)
+  @Mapping(target = "changeSeq", ignore = true)
   Category categoryModifyRequestToCategory(CategoryModifyRequest request);
 }
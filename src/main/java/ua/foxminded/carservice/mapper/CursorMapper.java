@@ -0,0 +1,92 @@
+package ua.foxminded.carservice.mapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ua.foxminded.carservice.exception.BadRequestException;
+
+@Component
+public class CursorMapper {
+  private static final String ID = "id";
+  private static final TypeReference<LinkedHashMap<String, Object>> KEYS_TYPE = new TypeReference<>() {
+  };
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  public String positionToCursor(KeysetScrollPosition position) {
+    if (position == null || position.isInitial()) {
+      return null;
+    }
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(position.getKeys());
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Scroll position cannot be encoded.", ex);
+    }
+  }
+
+  public KeysetScrollPosition cursorToPosition(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return ScrollPosition.keyset();
+    }
+    try {
+      String json = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      Map<String, Object> keys = objectMapper.readValue(json, KEYS_TYPE);
+      return ScrollPosition.forward(keys);
+    } catch (IllegalArgumentException | JsonProcessingException ex) {
+      throw new BadRequestException("Cursor " + cursor + " is malformed.", ex);
+    }
+  }
+
+  /**
+   * Decodes a cursor of a keyset scroll over the given entity type. The cursor
+   * has to hold exactly the sorted properties and the id, each with a value of
+   * the property type, so a cursor issued for another sort is rejected.
+   */
+  public KeysetScrollPosition cursorToPosition(String cursor, Sort sort, Class<?> type) {
+    KeysetScrollPosition position = cursorToPosition(cursor);
+    if (position.isInitial()) {
+      return position;
+    }
+
+    Map<String, Class<?>> keyTypes = keyTypes(sort, type);
+    Map<String, Object> keys = position.getKeys();
+    if (!keys.keySet().equals(keyTypes.keySet())
+        || keyTypes.entrySet().stream().anyMatch(key -> !isOfType(keys.get(key.getKey()), key.getValue()))) {
+      throw new BadRequestException("Cursor " + cursor + " doesn't match the sort order.");
+    }
+    return position;
+  }
+
+  private static Map<String, Class<?>> keyTypes(Sort sort, Class<?> type) {
+    Map<String, Class<?>> keyTypes = new LinkedHashMap<>();
+    try {
+      for (Sort.Order order : sort) {
+        keyTypes.put(order.getProperty(), PropertyPath.from(order.getProperty(), type).getLeafType());
+      }
+    } catch (PropertyReferenceException ex) {
+      throw new BadRequestException(ex.getMessage(), ex);
+    }
+    keyTypes.putIfAbsent(ID, String.class);
+    return keyTypes;
+  }
+
+  private static boolean isOfType(Object value, Class<?> type) {
+    Class<?> boxedType = ClassUtils.resolvePrimitiveIfNecessary(type);
+    return Number.class.isAssignableFrom(boxedType) ? value instanceof Number : boxedType.isInstance(value);
+  }
+}
@@ -3,6 +3,7 @@ package ua.foxminded.carservice.mapper;
 import java.util.List;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import ua.foxminded.carservice.domain.Manufacturer;
 import ua.foxminded.carservice.dto.ManufacturerCreateRequest;
@@ -15,7 +16,11 @@ public interface ManufacturerMapper {
   
   List<ManufacturerResponse> manufacturersToManufacturerResponses(List<Manufacturer> manufacturer);
  
+  @Mapping(target = "version", ignore = true)
+  @Mapping(target = "changeSeq", ignore = true)
   Manufacturer manufacturerCreateRequestToManufacturer(ManufacturerCreateRequest request);
   
+  @Mapping(target = "version", ignore = true)
+  @Mapping(target = "changeSeq", ignore = true)
   Manufacturer manufacturerModifyRequestToManufacturer(ManufacturerModifyRequest request);
 }
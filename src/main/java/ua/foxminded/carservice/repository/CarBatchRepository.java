@@ -0,0 +1,63 @@
+package ua.foxminded.carservice.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Category;
+
+@Repository
+public class CarBatchRepository {
+  private final JdbcTemplate jdbcTemplate;
+  private final int batchSize;
+
+  @Autowired
+  public CarBatchRepository(JdbcTemplate jdbcTemplate,
+      @Value("${car-service.batch.jdbc-batch-size:500}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.batchSize = batchSize;
+  }
+
+  public void insertCars(List<Car> cars) {
+    jdbcTemplate.batchUpdate("INSERT INTO cars (id, manufacturer_id, production_year, model) VALUES (?, ?, ?, ?)",
+        cars, batchSize, (statement, car) -> {
+          statement.setString(1, car.getId());
+          statement.setString(2, car.getManufacturer().getId());
+          statement.setInt(3, car.getProductionYear());
+          statement.setString(4, car.getModel());
+        });
+
+    List<CarCategory> links = cars.stream()
+        .flatMap(car -> car.getCategories().stream().map(category -> new CarCategory(car, category)))
+        .toList();
+    jdbcTemplate.batchUpdate("INSERT INTO cars_categories (car_id, category_id) VALUES (?, ?)",
+        links, batchSize, (statement, link) -> {
+          statement.setString(1, link.car().getId());
+          statement.setString(2, link.category().getId());
+        });
+  }
+
+  public void insertCarCategories(String carId, Collection<String> categoryIds) {
+    jdbcTemplate.batchUpdate("INSERT INTO cars_categories (car_id, category_id) VALUES (?, ?)",
+        categoryIds, batchSize, (statement, categoryId) -> {
+          statement.setString(1, carId);
+          statement.setString(2, categoryId);
+        });
+  }
+
+  public void deleteCarCategories(String carId, Collection<String> categoryIds) {
+    jdbcTemplate.batchUpdate("DELETE FROM cars_categories WHERE car_id = ? AND category_id = ?",
+        categoryIds, batchSize, (statement, categoryId) -> {
+          statement.setString(1, carId);
+          statement.setString(2, categoryId);
+        });
+  }
+
+  private record CarCategory(Car car, Category category) {
+  }
+}
@@ -0,0 +1,4 @@
+package ua.foxminded.carservice.repository;
+
+public record CarChange(String carId, long sequence, boolean deleted) {
+}
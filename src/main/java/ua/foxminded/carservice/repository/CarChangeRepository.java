@@ -0,0 +1,97 @@
+package ua.foxminded.carservice.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Keeps the latest change of every car, deleted cars included, keyed by a
+ * commit-ordered sequence. On PostgreSQL the sequence is the id of the writing
+ * transaction, and reads stop below the oldest transaction still running, so a
+ * change becomes visible only once no change with a lower sequence can still
+ * commit. Writers never wait for each other. Other databases, used in tests,
+ * advance a single clock row that stays locked until commit instead.
+ */
+@Repository
+public class CarChangeRepository {
+  private static final String ADVANCE_CLOCK = "UPDATE car_change_clock SET seq = seq + 1 WHERE id = 1";
+  private static final String CLOCK = "SELECT seq FROM car_change_clock WHERE id = 1";
+  static final String TRANSACTION_SEQUENCE = "pg_current_xact_id()::text::bigint";
+  private static final String COMMITTED_HORIZON = " AND seq < pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+  private static final String SELECT_CHANGES = "SELECT car_id, seq, deleted FROM car_changes";
+  private static final RowMapper<CarChange> CHANGE_MAPPER = (rs, rowNum) -> new CarChange(rs.getString("car_id"),
+      rs.getLong("seq"), rs.getBoolean("deleted"));
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int batchSize;
+  private volatile Boolean postgres;
+
+  @Autowired
+  public CarChangeRepository(JdbcTemplate jdbcTemplate,
+      @Value("${car-service.batch.jdbc-batch-size:500}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.batchSize = batchSize;
+  }
+
+  public void recordCars(Collection<String> carIds, boolean deleted) {
+    if (carIds.isEmpty()) {
+      return;
+    }
+    long sequence = nextSequence();
+    jdbcTemplate.batchUpdate("DELETE FROM car_changes WHERE car_id = ?", carIds, batchSize,
+        (statement, carId) -> statement.setString(1, carId));
+    jdbcTemplate.batchUpdate("INSERT INTO car_changes (car_id, seq, deleted) VALUES (?, ?, ?)", carIds, batchSize,
+        (statement, carId) -> {
+          statement.setString(1, carId);
+          statement.setLong(2, sequence);
+          statement.setBoolean(3, deleted);
+        });
+  }
+
+  public void recordCarsOfManufacturer(String manufacturerId) {
+    recordCarsWhere("SELECT id FROM cars WHERE manufacturer_id = ?", manufacturerId);
+  }
+
+  public void recordCarsOfCategory(String categoryId) {
+    recordCarsWhere("SELECT car_id AS id FROM cars_categories WHERE category_id = ?", categoryId);
+  }
+
+  public List<CarChange> findAfter(long sequence, String carId, int limit) {
+    String horizon = isPostgres() ? COMMITTED_HORIZON : "";
+    if (carId == null) {
+      return jdbcTemplate.query(SELECT_CHANGES + " WHERE seq > ?" + horizon + " ORDER BY seq, car_id LIMIT ?",
+          CHANGE_MAPPER, sequence, limit);
+    }
+    return jdbcTemplate.query(SELECT_CHANGES + " WHERE (seq > ? OR (seq = ? AND car_id > ?))" + horizon
+        + " ORDER BY seq, car_id LIMIT ?", CHANGE_MAPPER, sequence, sequence, carId, limit);
+  }
+
+  private void recordCarsWhere(String carIdQuery, String id) {
+    long sequence = nextSequence();
+    jdbcTemplate.update("DELETE FROM car_changes WHERE car_id IN (" + carIdQuery + ")", id);
+    jdbcTemplate.update("INSERT INTO car_changes (car_id, seq, deleted) SELECT ids.id, ?, FALSE FROM ("
+        + carIdQuery + ") ids", sequence, id);
+  }
+
+  private long nextSequence() {
+    if (isPostgres()) {
+      return jdbcTemplate.queryForObject("SELECT " + TRANSACTION_SEQUENCE, Long.class);
+    }
+    jdbcTemplate.update(ADVANCE_CLOCK);
+    return jdbcTemplate.queryForObject(CLOCK, Long.class);
+  }
+
+  private boolean isPostgres() {
+    if (postgres == null) {
+      postgres = "PostgreSQL".equals(jdbcTemplate.execute(
+          (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+    return postgres;
+  }
+}
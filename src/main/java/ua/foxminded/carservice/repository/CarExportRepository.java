@@ -0,0 +1,91 @@
+package ua.foxminded.carservice.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.CarSearchParameters;
+
+@Repository
+public class CarExportRepository {
+  private final JdbcTemplate jdbcTemplate;
+  private final int fetchSize;
+
+  @Autowired
+  public CarExportRepository(JdbcTemplate jdbcTemplate, @Value("${car-service.export.fetch-size:500}") int fetchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.fetchSize = fetchSize;
+  }
+
+  public void forEachCar(CarSearchParameters params, Consumer<Car> consumer) {
+    List<Object> args = new ArrayList<>();
+    String sql = "SELECT c.id, c.model, c.production_year, m.id AS manufacturer_id, m.name AS manufacturer_name,"
+        + " cat.id AS category_id, cat.name AS category_name FROM cars c"
+        + " JOIN manufacturers m ON m.id = c.manufacturer_id"
+        + " LEFT JOIN cars_categories ccat ON ccat.car_id = c.id"
+        + " LEFT JOIN categories cat ON cat.id = ccat.category_id"
+        + CarSqlFilters.whereClause(params, args)
+        + " ORDER BY c.id, cat.name";
+
+    CarAssembler assembler = new CarAssembler(consumer);
+    jdbcTemplate.query(connection -> {
+      PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+          ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(fetchSize);
+      for (int i = 0; i < args.size(); i++) {
+        statement.setObject(i + 1, args.get(i));
+      }
+      return statement;
+    }, assembler);
+    assembler.finish();
+  }
+
+  private static class CarAssembler implements RowCallbackHandler {
+    private final Consumer<Car> consumer;
+    private Car current;
+
+    private CarAssembler(Consumer<Car> consumer) {
+      this.consumer = consumer;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+      String id = rs.getString("id");
+      if (current == null || !current.getId().equals(id)) {
+        finish();
+        current = Car.builder()
+            .id(id)
+            .model(rs.getString("model"))
+            .productionYear(rs.getInt("production_year"))
+            .manufacturer(Manufacturer.builder()
+                .id(rs.getString("manufacturer_id"))
+                .name(rs.getString("manufacturer_name")).build())
+            .categories(new ArrayList<>()).build();
+      }
+
+      String categoryId = rs.getString("category_id");
+      if (categoryId != null) {
+        current.getCategories().add(Category.builder().id(categoryId).name(rs.getString("category_name")).build());
+      }
+    }
+
+    private void finish() {
+      if (current != null) {
+        consumer.accept(current);
+        current = null;
+      }
+    }
+  }
+}
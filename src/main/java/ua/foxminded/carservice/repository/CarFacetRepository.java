@@ -0,0 +1,82 @@
+package ua.foxminded.carservice.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import ua.foxminded.carservice.dto.CarFacetsResponse;
+import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.FacetCountResponse;
+
+@Repository
+public class CarFacetRepository {
+  private static final String MANUFACTURER = "manufacturer";
+  private static final String CATEGORY = "category";
+  private static final String PRODUCTION_YEAR = "production_year";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public CarFacetRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public CarFacetsResponse countFacets(CarSearchParameters params) {
+    List<Object> args = new ArrayList<>();
+    String sql = manufacturerCounts(params.withoutManufacturer(), args)
+        + " UNION ALL " + categoryCounts(params.withoutCategories(), args)
+        + " UNION ALL " + productionYearCounts(params.withoutProductionYears(), args)
+        + " ORDER BY facet, total DESC, facet_value";
+
+    List<FacetCountResponse<String>> manufacturers = new ArrayList<>();
+    List<FacetCountResponse<String>> categories = new ArrayList<>();
+    List<FacetCountResponse<Integer>> productionYears = new ArrayList<>();
+    jdbcTemplate.query(sql, rs -> {
+      String value = rs.getString("facet_value");
+      long count = rs.getLong("total");
+      switch (rs.getString("facet")) {
+        case MANUFACTURER -> manufacturers.add(FacetCountResponse.<String>builder().value(value).count(count).build());
+        case CATEGORY -> categories.add(FacetCountResponse.<String>builder().value(value).count(count).build());
+        default -> productionYears.add(
+            FacetCountResponse.<Integer>builder().value(Integer.valueOf(value)).count(count).build());
+      }
+    }, args.toArray());
+
+    return CarFacetsResponse.builder()
+        .manufacturers(manufacturers)
+        .categories(categories)
+        .productionYears(productionYears)
+        .build();
+  }
+
+  private static String manufacturerCounts(CarSearchParameters params, List<Object> args) {
+    return "SELECT '" + MANUFACTURER + "' AS facet, m.name AS facet_value, count(*) AS total FROM cars c"
+        + " JOIN manufacturers m ON m.id = c.manufacturer_id"
+        + CarSqlFilters.whereClause(params, args)
+        + " GROUP BY m.name";
+  }
+
+  private static String categoryCounts(CarSearchParameters params, List<Object> args) {
+    return "SELECT '" + CATEGORY + "' AS facet, fcat.name AS facet_value, count(*) AS total FROM cars c"
+        + manufacturerJoin(params)
+        + " JOIN cars_categories fcc ON fcc.car_id = c.id"
+        + " JOIN categories fcat ON fcat.id = fcc.category_id"
+        + CarSqlFilters.whereClause(params, args)
+        + " GROUP BY fcat.name";
+  }
+
+  private static String productionYearCounts(CarSearchParameters params, List<Object> args) {
+    return "SELECT '" + PRODUCTION_YEAR + "' AS facet, CAST(c.production_year AS VARCHAR(11)) AS facet_value,"
+        + " count(*) AS total FROM cars c"
+        + manufacturerJoin(params)
+        + CarSqlFilters.whereClause(params, args)
+        + " GROUP BY c.production_year";
+  }
+
+  private static String manufacturerJoin(CarSearchParameters params) {
+    return CarSqlFilters.needsManufacturer(params) ? " JOIN manufacturers m ON m.id = c.manufacturer_id" : "";
+  }
+}
@@ -0,0 +1,25 @@
+package ua.foxminded.carservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import ua.foxminded.carservice.domain.CarImport;
+import ua.foxminded.carservice.domain.CarImportStatus;
+
+@Repository
+public interface CarImportRepository extends JpaRepository<CarImport, String> {
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE CarImport i SET i.loadedBytes = :loadedBytes WHERE i.id = :id")
+  void updateLoadedBytes(@Param("id") String id, @Param("loadedBytes") long loadedBytes);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE CarImport i SET i.status = :status WHERE i.id = :id")
+  void updateStatus(@Param("id") String id, @Param("status") CarImportStatus status);
+}
@@ -0,0 +1,4 @@
+package ua.foxminded.carservice.repository;
+
+public record CarImportResult(long importedRows, long rejectedRows) {
+}
@@ -0,0 +1,182 @@
+package ua.foxminded.carservice.repository;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.NotImplementedException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ua.foxminded.carservice.domain.CarImportFormat;
+
+@Repository
+public class CarImportStagingRepository {
+  private static final int COPY_BUFFER_SIZE = 65536;
+
+  private static final String CREATE_STAGING = "CREATE TEMP TABLE car_import_staging"
+      + " (manufacturer_name TEXT, model TEXT, production_year TEXT, category_names TEXT) ON COMMIT DROP";
+
+  private static final String COPY_STAGING = "COPY car_import_staging"
+      + " (manufacturer_name, model, production_year, category_names) FROM STDIN WITH (FORMAT csv, HEADER %s)";
+
+  private static final String CREATE_RESOLVED = "CREATE TEMP TABLE car_import_resolved ON COMMIT DROP AS"
+      + " SELECT c.id AS car_id, c.manufacturer_id, c.model, c.production_year,"
+      + " ARRAY[]::text[] AS category_names FROM cars c WITH NO DATA";
+
+  private static final String RESOLVE_STAGING = "INSERT INTO car_import_resolved"
+      + " (car_id, manufacturer_id, model, production_year, category_names)"
+      + " SELECT uuid_generate_v7(), m.id, s.model, s.production_year, s.category_names"
+      + " FROM (SELECT trim(manufacturer_name) AS manufacturer_name, trim(model) AS model,"
+      + " CASE WHEN production_year ~ '^\\s*[0-9]{1,4}\\s*$' THEN trim(production_year)::smallint END"
+      + " AS production_year, ARRAY(SELECT DISTINCT trim(requested.category_name)"
+      + " FROM unnest(string_to_array(category_names, '|')) AS requested(category_name)"
+      + " WHERE trim(requested.category_name) <> '') AS category_names FROM car_import_staging) s"
+      + " JOIN manufacturers m ON m.name = s.manufacturer_name"
+      + " WHERE s.model <> '' AND length(s.model) <= 50 AND s.production_year >= 1900"
+      + " AND cardinality(s.category_names) > 0"
+      + " AND NOT EXISTS (SELECT 1 FROM unnest(s.category_names) AS requested(category_name)"
+      + " WHERE NOT EXISTS (SELECT 1 FROM categories cat WHERE cat.name = requested.category_name))";
+
+  private static final String INSERT_CARS = "INSERT INTO cars (id, manufacturer_id, production_year, model)"
+      + " SELECT car_id, manufacturer_id, production_year, model FROM car_import_resolved";
+
+  private static final String INSERT_CARS_CATEGORIES = "INSERT INTO cars_categories (car_id, category_id)"
+      + " SELECT r.car_id, cat.id FROM car_import_resolved r"
+      + " CROSS JOIN LATERAL unnest(r.category_names) AS requested(category_name)"
+      + " JOIN categories cat ON cat.name = requested.category_name";
+
+  private static final String INSERT_CAR_SEARCH = CarSearchRepository
+      .insertCarsWhere("c.id IN (SELECT car_id FROM car_import_resolved)");
+
+  private static final String INSERT_OUTBOX_EVENTS = "INSERT INTO outbox_events"
+      + " (aggregate_type, aggregate_id, event_type, payload)"
+      + " SELECT 'CAR', r.car_id, 'CREATED', json_build_object('id', r.car_id, 'manufacturerName', m.name,"
+      + " 'productionYear', r.production_year, 'model', r.model, 'categoryNames', to_json(r.category_names))::text"
+      + " FROM car_import_resolved r JOIN manufacturers m ON m.id = r.manufacturer_id";
+
+  private static final String INSERT_CAR_CHANGES = "INSERT INTO car_changes (car_id, seq, deleted)"
+      + " SELECT r.car_id, " + CarChangeRepository.TRANSACTION_SEQUENCE + ", FALSE FROM car_import_resolved r";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Autowired
+  public CarImportStagingRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public CarImportResult importCars(CarImportFormat format, InputStream input, Runnable afterCopy) {
+    return jdbcTemplate.execute((ConnectionCallback<CarImportResult>) connection -> {
+      if (!connection.isWrapperFor(PGConnection.class)) {
+        throw new NotImplementedException("Car imports require PostgreSQL COPY support.");
+      }
+
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        CarImportResult result = importCars(connection, format, input, afterCopy);
+        connection.commit();
+        return result;
+      } catch (IOException ex) {
+        connection.rollback();
+        throw new UncheckedIOException(ex);
+      } catch (SQLException | RuntimeException ex) {
+        connection.rollback();
+        throw ex;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    });
+  }
+
+  private CarImportResult importCars(Connection connection, CarImportFormat format, InputStream input,
+      Runnable afterCopy) throws SQLException, IOException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(CREATE_STAGING);
+    }
+
+    CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+    long stagedRows;
+    long malformedRows = 0;
+    if (format == CarImportFormat.CSV) {
+      stagedRows = copyManager.copyIn(String.format(COPY_STAGING, true), input, COPY_BUFFER_SIZE);
+    } else {
+      PGCopyOutputStream copy = new PGCopyOutputStream(copyManager.copyIn(String.format(COPY_STAGING, false)),
+          COPY_BUFFER_SIZE);
+      BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+      try (Writer writer = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.isBlank()) {
+            continue;
+          }
+          try {
+            writer.write(toCsvRow(objectMapper.readTree(line)));
+          } catch (JsonProcessingException | IllegalArgumentException ex) {
+            malformedRows++;
+          }
+        }
+      }
+      stagedRows = copy.getHandledRowCount();
+    }
+    afterCopy.run();
+
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("ANALYZE car_import_staging");
+      statement.execute(CREATE_RESOLVED);
+      statement.execute(RESOLVE_STAGING);
+      long importedRows = statement.executeLargeUpdate(INSERT_CARS);
+      statement.executeLargeUpdate(INSERT_CARS_CATEGORIES);
+      statement.executeLargeUpdate(INSERT_CAR_SEARCH);
+      statement.executeLargeUpdate(INSERT_OUTBOX_EVENTS);
+      statement.executeLargeUpdate(INSERT_CAR_CHANGES);
+      return new CarImportResult(importedRows, stagedRows - importedRows + malformedRows);
+    }
+  }
+
+  static String toCsvRow(JsonNode node) {
+    if (node == null || !node.isObject()) {
+      throw new IllegalArgumentException("Import line has to be a JSON object.");
+    }
+
+    List<String> categoryNames = new ArrayList<>();
+    JsonNode categories = node.path("categoryNames");
+    if (!categories.isMissingNode() && !categories.isNull() && !categories.isArray()) {
+      throw new IllegalArgumentException("Category names have to be a JSON array.");
+    }
+    categories.forEach(category -> categoryNames.add(category.asText()));
+
+    return String.join(",", csvValue(text(node, "manufacturerName")), csvValue(text(node, "model")),
+        csvValue(text(node, "productionYear")), csvValue(String.join("|", categoryNames))) + "\n";
+  }
+
+  private static String text(JsonNode node, String field) {
+    JsonNode value = node.get(field);
+    return value == null || value.isNull() ? null : value.asText();
+  }
+
+  private static String csvValue(String value) {
+    return value == null ? "" : "\"" + value.replace("\"", "\"\"") + "\"";
+  }
+}
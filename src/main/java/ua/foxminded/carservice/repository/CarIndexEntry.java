@@ -0,0 +1,17 @@
+package ua.foxminded.carservice.repository;
+
+public interface CarIndexEntry {
+  String getCarId();
+
+  String getModel();
+
+  Integer getProductionYear();
+
+  String getManufacturerId();
+
+  String getManufacturerName();
+
+  String getCategoryId();
+
+  String getCategoryName();
+}
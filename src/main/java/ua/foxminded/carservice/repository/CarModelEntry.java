@@ -0,0 +1,11 @@
+package ua.foxminded.carservice.repository;
+
+public interface CarModelEntry {
+  String getCarId();
+
+  String getModel();
+
+  String getManufacturerId();
+
+  String getManufacturerName();
+}
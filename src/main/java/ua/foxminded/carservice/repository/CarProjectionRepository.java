@@ -0,0 +1,306 @@
+package ua.foxminded.carservice.repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.CarResponse;
+import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.ChangeStamp;
+import ua.foxminded.carservice.dto.FieldSelection;
+import ua.foxminded.carservice.dto.StampedCar;
+import ua.foxminded.carservice.dto.VersionStamp;
+import ua.foxminded.carservice.exception.BadRequestException;
+
+/**
+ * Reads cars with plain SQL, selecting only the columns and joins needed for the
+ * requested response fields. The returned cars are detached and only hold the
+ * names of their manufacturer and categories, and only if those fields were
+ * requested.
+ */
+@Repository
+public class CarProjectionRepository {
+  private static final FieldSelection ALL_FIELDS = FieldSelection.all(CarResponse.class);
+  private static final Map<String, String> SORT_COLUMNS = Map.of(
+      "id", "c.id",
+      "model", "c.model",
+      "productionYear", "c.production_year",
+      "manufacturer.name", "m.name");
+  private static final String MANUFACTURER_KEY_COLUMN = ", m.name AS manufacturer_key";
+  private static final String STAMP_COLUMNS = ", c.version,"
+      + " greatest(c.change_seq, m.change_seq, coalesce(max(cat.change_seq), 0)) AS change_seq";
+  private static final String STAMP_GROUP_BY = ", c.version, c.change_seq, m.change_seq";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public CarProjectionRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public Optional<Car> findById(String id) {
+    return findById(id, ALL_FIELDS);
+  }
+
+  public Optional<Car> findById(String id, FieldSelection fields) {
+    Projection projection = new Projection(fields, fields.includes("manufacturerName"));
+    return jdbcTemplate.query(projection.select() + " WHERE c.id = ?" + projection.groupBy(), projection::map, id)
+        .stream().findFirst();
+  }
+
+  /**
+   * Reads a car with all fields together with its version and the latest change
+   * sequence of the car, its manufacturer and its categories.
+   */
+  public Optional<StampedCar> findStampedById(String id) {
+    Projection projection = new Projection(ALL_FIELDS, true);
+    return jdbcTemplate.query(projection.select(STAMP_COLUMNS) + " WHERE c.id = ?"
+        + projection.groupBy() + STAMP_GROUP_BY,
+        (rs, rowNum) -> new StampedCar(projection.map(rs, rowNum),
+            new VersionStamp(rs.getLong("version"), rs.getLong("change_seq"))), id).stream().findFirst();
+  }
+
+  public ChangeStamp findStamp(CarSearchParameters params) {
+    List<Object> args = new ArrayList<>();
+    String where = CarSqlFilters.whereClause(params, args);
+    return jdbcTemplate.queryForObject("SELECT count(*) AS total,"
+        + " greatest(coalesce(max(c.change_seq), 0), coalesce(max(m.change_seq), 0),"
+        + " (SELECT coalesce(max(change_seq), 0) FROM categories)) AS change_seq"
+        + " FROM cars c JOIN manufacturers m ON m.id = c.manufacturer_id" + where,
+        (rs, rowNum) -> new ChangeStamp(rs.getLong("total"), rs.getLong("change_seq")), args.toArray());
+  }
+
+  public List<Car> findAllByIdIn(Collection<String> ids) {
+    return findAllByIdIn(ids, ALL_FIELDS);
+  }
+
+  public List<Car> findAllByIdIn(Collection<String> ids, FieldSelection fields) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+
+    Projection projection = new Projection(fields, fields.includes("manufacturerName"));
+    String placeholders = String.join(", ", ids.stream().map(id -> "?").toList());
+    return jdbcTemplate.query(projection.select() + " WHERE c.id IN (" + placeholders + ")" + projection.groupBy(),
+        projection::map, ids.toArray());
+  }
+
+  public Page<Car> findAll(CarSearchParameters params, FieldSelection fields, Pageable pageable) {
+    List<Object> args = new ArrayList<>();
+    String where = CarSqlFilters.whereClause(params, args);
+    Projection projection = projection(params, fields, pageable.getSort());
+    List<Car> content = query(projection, where, args, pageable,
+        pageable.isPaged() ? pageable.getPageSize() : 0);
+
+    return PageableExecutionUtils.getPage(content, pageable, () -> count(params, where, args));
+  }
+
+  /**
+   * Pages the cars with a total already known from {@link #findStamp}, so the
+   * cars are not counted twice.
+   */
+  public Page<Car> findAll(CarSearchParameters params, FieldSelection fields, Pageable pageable, long total) {
+    List<Object> args = new ArrayList<>();
+    String where = CarSqlFilters.whereClause(params, args);
+    Projection projection = projection(params, fields, pageable.getSort());
+    List<Car> content = query(projection, where, args, pageable,
+        pageable.isPaged() ? pageable.getPageSize() : 0);
+
+    return new PageImpl<>(content, pageable, total);
+  }
+
+  public Slice<Car> findSlice(CarSearchParameters params, FieldSelection fields, Pageable pageable) {
+    List<Object> args = new ArrayList<>();
+    String where = CarSqlFilters.whereClause(params, args);
+    Projection projection = projection(params, fields, pageable.getSort());
+    if (pageable.isUnpaged()) {
+      return new SliceImpl<>(query(projection, where, args, pageable, 0), pageable, false);
+    }
+
+    List<Car> content = query(projection, where, args, pageable, pageable.getPageSize() + 1);
+    boolean hasNext = content.size() > pageable.getPageSize();
+    return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+  }
+
+  /**
+   * Reads the cars after a keyset position in the given sort order, ties broken by
+   * id. One extra row tells whether another window follows.
+   */
+  public Window<Car> findWindow(CarSearchParameters params, FieldSelection fields, KeysetScrollPosition position,
+      Sort sort, int limit) {
+    List<Object> args = new ArrayList<>();
+    List<Sort.Order> orders = orders(sort);
+    String where = CarSqlFilters.whereClause(params, args) + keysetClause(orders, position, args);
+    Projection projection = projection(params, fields, sort);
+    boolean sortsByManufacturer = sort.getOrderFor("manufacturer.name") != null;
+    args.add(limit + 1);
+
+    List<Map<String, Object>> keys = new ArrayList<>();
+    List<Car> content = jdbcTemplate.query(
+        projection.select(sortsByManufacturer ? MANUFACTURER_KEY_COLUMN : "") + where + projection.groupBy()
+            + orderBy(sort) + " LIMIT ?",
+        (rs, rowNum) -> {
+          keys.add(keys(rs, orders));
+          return projection.map(rs, rowNum);
+        }, args.toArray());
+    boolean hasNext = content.size() > limit;
+    return Window.from(hasNext ? content.subList(0, limit) : content,
+        index -> ScrollPosition.forward(keys.get(index)), hasNext);
+  }
+
+  private List<Car> query(Projection projection, String where, List<Object> args, Pageable pageable,
+      int limit) {
+    StringBuilder sql = new StringBuilder(projection.select()).append(where).append(projection.groupBy())
+        .append(orderBy(pageable.getSort()));
+    List<Object> queryArgs = new ArrayList<>(args);
+    if (limit > 0) {
+      sql.append(" LIMIT ? OFFSET ?");
+      queryArgs.add(limit);
+      queryArgs.add(pageable.getOffset());
+    }
+
+    return jdbcTemplate.query(sql.toString(), projection::map, queryArgs.toArray());
+  }
+
+  private long count(CarSearchParameters params, String where, List<Object> args) {
+    String join = CarSqlFilters.needsManufacturer(params) ? " JOIN manufacturers m ON m.id = c.manufacturer_id" : "";
+    return jdbcTemplate.queryForObject("SELECT count(*) FROM cars c" + join + where, Long.class, args.toArray());
+  }
+
+  private static Projection projection(CarSearchParameters params, FieldSelection fields, Sort sort) {
+    return new Projection(fields, fields.includes("manufacturerName") || CarSqlFilters.needsManufacturer(params)
+        || sort.getOrderFor("manufacturer.name") != null);
+  }
+
+  private static String orderBy(Sort sort) {
+    return " ORDER BY " + String.join(", ", orders(sort).stream()
+        .map(order -> column(order) + (order.isAscending() ? " ASC" : " DESC")).toList());
+  }
+
+  private static List<Sort.Order> orders(Sort sort) {
+    List<Sort.Order> orders = new ArrayList<>(sort.toList());
+    if (sort.getOrderFor("id") == null) {
+      orders.add(Sort.Order.asc("id"));
+    }
+    return orders;
+  }
+
+  private static String column(Sort.Order order) {
+    String column = SORT_COLUMNS.get(order.getProperty());
+    if (column == null) {
+      throw new BadRequestException("Sorting by " + order.getProperty() + " is not supported.");
+    }
+    return column;
+  }
+
+  private static String keysetClause(List<Sort.Order> orders, KeysetScrollPosition position, List<Object> args) {
+    if (position.isInitial()) {
+      return "";
+    }
+
+    // (a > ?) OR (a = ? AND b > ?) OR ..., with < for descending keys.
+    List<String> branches = new ArrayList<>();
+    for (int i = 0; i < orders.size(); i++) {
+      List<String> terms = new ArrayList<>();
+      for (Sort.Order previous : orders.subList(0, i)) {
+        terms.add(column(previous) + " = ?");
+        args.add(position.getKeys().get(previous.getProperty()));
+      }
+      Sort.Order order = orders.get(i);
+      terms.add(column(order) + (order.isAscending() ? " > ?" : " < ?"));
+      args.add(position.getKeys().get(order.getProperty()));
+      branches.add("(" + String.join(" AND ", terms) + ")");
+    }
+    return " AND (" + String.join(" OR ", branches) + ")";
+  }
+
+  private static Map<String, Object> keys(ResultSet rs, List<Sort.Order> orders) throws SQLException {
+    Map<String, Object> keys = new LinkedHashMap<>();
+    for (Sort.Order order : orders) {
+      keys.put(order.getProperty(), switch (order.getProperty()) {
+        case "model" -> rs.getString("model");
+        case "productionYear" -> rs.getInt("production_year");
+        case "manufacturer.name" -> rs.getString("manufacturer_key");
+        default -> rs.getString("id");
+      });
+    }
+    return keys;
+  }
+
+  private record Projection(FieldSelection fields, boolean joinsManufacturer) {
+
+    private String select() {
+      return select("");
+    }
+
+    private String select(String extraColumns) {
+      StringBuilder sql = new StringBuilder("SELECT c.id, c.model, c.production_year").append(extraColumns);
+      if (fields.includes("manufacturerName")) {
+        sql.append(", m.name AS manufacturer_name");
+      }
+      if (fields.includes("categoryNames")) {
+        sql.append(", array_agg(cat.name ORDER BY cat.name) AS category_names");
+      }
+      sql.append(" FROM cars c");
+      if (joinsManufacturer) {
+        sql.append(" JOIN manufacturers m ON m.id = c.manufacturer_id");
+      }
+      if (fields.includes("categoryNames")) {
+        sql.append(" LEFT JOIN cars_categories ccat ON ccat.car_id = c.id")
+            .append(" LEFT JOIN categories cat ON cat.id = ccat.category_id");
+      }
+      return sql.toString();
+    }
+
+    private String groupBy() {
+      if (!fields.includes("categoryNames")) {
+        return "";
+      }
+      return " GROUP BY c.id, c.model, c.production_year" + (joinsManufacturer ? ", m.name" : "");
+    }
+
+    private Car map(ResultSet rs, int rowNum) throws SQLException {
+      Car.CarBuilder car = Car.builder()
+          .id(rs.getString("id"))
+          .model(rs.getString("model"))
+          .productionYear(rs.getInt("production_year"));
+      if (fields.includes("manufacturerName")) {
+        car.manufacturer(Manufacturer.builder().name(rs.getString("manufacturer_name")).build());
+      }
+      if (fields.includes("categoryNames")) {
+        Array categoryNames = rs.getArray("category_names");
+        car.categories(categoryNames == null ? new ArrayList<>()
+            : Arrays.stream((Object[]) categoryNames.getArray()).filter(Objects::nonNull)
+                .map(name -> Category.builder().name((String) name).build())
+                .collect(Collectors.toList()));
+      }
+      return car.build();
+    }
+  }
+}
@@ -1,15 +1,27 @@
 package ua.foxminded.carservice.repository;
 
+import java.util.stream.Stream;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import ua.foxminded.carservice.domain.Car;
 
 @Repository
-public interface CarRepository extends JpaRepository<Car, String>, JpaSpecificationExecutor<Car> {
+public interface CarRepository extends JpaRepository<Car, String>, JpaSpecificationExecutor<Car>, CarRepositoryCustom {
   Page<Car> findAll(Specification<Car> spec, Pageable pageable);
+
+  @Query("SELECT c.id AS carId, c.model AS model, c.productionYear AS productionYear, m.id AS manufacturerId, "
+      + "m.name AS manufacturerName, cat.id AS categoryId, cat.name AS categoryName "
+      + "FROM Car c JOIN c.manufacturer m LEFT JOIN c.categories cat ORDER BY c.id")
+  Stream<CarIndexEntry> streamIndexEntries();
+
+  @Query("SELECT c.id AS carId, c.model AS model, m.id AS manufacturerId, m.name AS manufacturerName "
+      + "FROM Car c JOIN c.manufacturer m")
+  Stream<CarModelEntry> streamModelEntries();
 }
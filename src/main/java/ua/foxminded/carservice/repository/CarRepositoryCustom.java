@@ -0,0 +1,7 @@
+package ua.foxminded.carservice.repository;
+
+import ua.foxminded.carservice.domain.Car;
+
+public interface CarRepositoryCustom {
+  void incrementVersion(Car car);
+}
@@ -0,0 +1,26 @@
+package ua.foxminded.carservice.repository;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import ua.foxminded.carservice.domain.Car;
+
+public class CarRepositoryCustomImpl implements CarRepositoryCustom {
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public void incrementVersion(Car car) {
+    int updated = entityManager.createQuery("UPDATE Car c SET c.version = c.version + 1,"
+        + " c.changeSeq = function('nextval', 'entity_change_seq') WHERE c.id = :id AND c.version = :version")
+        .setParameter("id", car.getId())
+        .setParameter("version", car.getVersion())
+        .executeUpdate();
+    if (updated == 0) {
+      throw new OptimisticLockingFailureException("Car with id=" + car.getId() + " has been modified.");
+    }
+    entityManager.refresh(car);
+    entityManager.refresh(car);
+  }
+}
@@ -0,0 +1,55 @@
+package ua.foxminded.carservice.repository;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class CarSearchRepository {
+  private static final String CATEGORY_NAMES = "ARRAY(SELECT cat.name FROM cars_categories cc"
+      + " JOIN categories cat ON cat.id = cc.category_id WHERE cc.car_id = c.id ORDER BY cat.name)";
+
+  private static final String DELETE_CAR = "DELETE FROM car_search WHERE car_id = ?";
+  private static final String INSERT_CAR = insertCarsWhere("c.id = ?");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int batchSize;
+
+  @Autowired
+  public CarSearchRepository(JdbcTemplate jdbcTemplate,
+      @Value("${car-service.batch.jdbc-batch-size:500}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.batchSize = batchSize;
+  }
+
+  public void refreshCar(String carId) {
+    jdbcTemplate.update(DELETE_CAR, carId);
+    jdbcTemplate.update(INSERT_CAR, carId);
+  }
+
+  public void refreshCars(List<String> carIds) {
+    jdbcTemplate.batchUpdate(DELETE_CAR, carIds, batchSize, (statement, carId) -> statement.setString(1, carId));
+    jdbcTemplate.batchUpdate(INSERT_CAR, carIds, batchSize, (statement, carId) -> statement.setString(1, carId));
+  }
+
+  static String insertCarsWhere(String condition) {
+    return "INSERT INTO car_search"
+        + " (car_id, manufacturer_id, manufacturer_name, model, production_year, category_names)"
+        + " SELECT c.id, m.id, m.name, c.model, c.production_year, " + CATEGORY_NAMES + " FROM cars c"
+        + " JOIN manufacturers m ON m.id = c.manufacturer_id WHERE " + condition;
+  }
+
+  public void renameManufacturer(String manufacturerId, String name) {
+    jdbcTemplate.update("UPDATE car_search SET manufacturer_name = ? WHERE manufacturer_id = ?", name,
+        manufacturerId);
+  }
+
+  public void refreshCategory(String categoryId) {
+    jdbcTemplate.update("UPDATE car_search SET category_names = (SELECT " + CATEGORY_NAMES + " FROM cars c"
+        + " WHERE c.id = car_search.car_id)"
+        + " WHERE car_id IN (SELECT car_id FROM cars_categories WHERE category_id = ?)", categoryId);
+  }
+}
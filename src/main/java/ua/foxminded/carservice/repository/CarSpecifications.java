@@ -1,43 +1,72 @@
 package ua.foxminded.carservice.repository;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.data.jpa.domain.Specification;
 
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import ua.foxminded.carservice.domain.Car;
-import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.domain.CarSearch;
 import ua.foxminded.carservice.dto.CarSearchParameters;
 
 public class CarSpecifications {
 
   public static Specification<Car> withFilters(CarSearchParameters params) {
     return (root, query, criteriaBuilder) -> {
-      List<Predicate> predicates = new ArrayList<>();
-
-      if (params.manufacturerName() != null && !params.manufacturerName().isBlank()) {
-        predicates.add(criteriaBuilder.equal(root.get("manufacturer").get("name"), params.manufacturerName()));
-      }
-      if (params.model() != null && !params.model().isBlank()) {
-        predicates.add(criteriaBuilder.equal(root.get("model"), params.model()));
-      }
-      if (params.minProductionYear() != null && !params.minProductionYear().isBlank()) {
-        predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("productionYear"),
-            Integer.valueOf(params.minProductionYear())));
-      }
-      if (params.maxProductionYear() != null && !params.maxProductionYear().isBlank()) {
-        predicates.add(
-            criteriaBuilder.lessThanOrEqualTo(root.get("productionYear"), Integer.valueOf(params.maxProductionYear())));
-      }
       if (params.categoryNames() != null && !params.categoryNames().isEmpty()) {
-        Join<Car, Category> categories = root.join("categories", JoinType.INNER);
-        predicates.add(categories.get("name").in(params.categoryNames()));
+        return root.get("id").in(searchByCategories(params, query, criteriaBuilder));
       }
 
+      List<Predicate> predicates = filters(params, criteriaBuilder, root.get("manufacturer").get("name"),
+          root.get("model"), root.get("productionYear"));
       return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
     };
   }
+
+  private static Subquery<String> searchByCategories(CarSearchParameters params, CriteriaQuery<?> query,
+      CriteriaBuilder criteriaBuilder) {
+    Subquery<String> subquery = query.subquery(String.class);
+    Root<CarSearch> search = subquery.from(CarSearch.class);
+
+    List<Predicate> predicates = filters(params, criteriaBuilder, search.get("manufacturerName"),
+        search.get("model"), search.get("productionYear"));
+    HibernateCriteriaBuilder hibernateBuilder = (HibernateCriteriaBuilder) criteriaBuilder;
+    Expression<String[]> categoryNames = search.get("categoryNames");
+    Predicate[] categories = new LinkedHashSet<>(params.categoryNames()).stream()
+        .map(name -> hibernateBuilder.arrayContains(categoryNames, name))
+        .toArray(Predicate[]::new);
+    predicates.add(params.matchesAllCategories() ? criteriaBuilder.and(categories) : criteriaBuilder.or(categories));
+
+    return subquery.select(search.get("carId"))
+        .where(predicates.toArray(new Predicate[0]));
+  }
+
+  private static List<Predicate> filters(CarSearchParameters params, CriteriaBuilder criteriaBuilder,
+      Path<String> manufacturerName, Path<String> model, Path<Integer> productionYear) {
+    List<Predicate> predicates = new ArrayList<>();
+
+    if (params.manufacturerName() != null && !params.manufacturerName().isBlank()) {
+      predicates.add(criteriaBuilder.equal(manufacturerName, params.manufacturerName()));
+    }
+    if (params.model() != null && !params.model().isBlank()) {
+      predicates.add(criteriaBuilder.equal(model, params.model()));
+    }
+    if (params.minYear() != null) {
+      predicates.add(criteriaBuilder.greaterThanOrEqualTo(productionYear, params.minYear()));
+    }
+    if (params.maxYear() != null) {
+      predicates.add(criteriaBuilder.lessThanOrEqualTo(productionYear, params.maxYear()));
+    }
+
+    return predicates;
+  }
 }
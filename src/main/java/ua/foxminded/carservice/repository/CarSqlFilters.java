@@ -0,0 +1,65 @@
+package ua.foxminded.carservice.repository;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import ua.foxminded.carservice.dto.CarSearchParameters;
+
+public class CarSqlFilters {
+
+  public static boolean needsManufacturer(CarSearchParameters params) {
+    return hasText(params.manufacturerName()) && !hasCategories(params);
+  }
+
+  public static String whereClause(CarSearchParameters params, List<Object> args) {
+    if (hasCategories(params)) {
+      StringBuilder search = new StringBuilder(" WHERE 1 = 1");
+      appendFilters(search, params, args, "cs.manufacturer_name", "cs.model", "cs.production_year");
+      appendCategories(search, params, args);
+      return " WHERE c.id IN (SELECT cs.car_id FROM car_search cs" + search + ")";
+    }
+
+    StringBuilder sql = new StringBuilder(" WHERE 1 = 1");
+    appendFilters(sql, params, args, "m.name", "c.model", "c.production_year");
+    return sql.toString();
+  }
+
+  private static void appendFilters(StringBuilder sql, CarSearchParameters params, List<Object> args,
+      String manufacturerName, String model, String productionYear) {
+    if (hasText(params.manufacturerName())) {
+      sql.append(" AND ").append(manufacturerName).append(" = ?");
+      args.add(params.manufacturerName());
+    }
+    if (hasText(params.model())) {
+      sql.append(" AND ").append(model).append(" = ?");
+      args.add(params.model());
+    }
+    if (params.minYear() != null) {
+      sql.append(" AND ").append(productionYear).append(" >= ?");
+      args.add(params.minYear());
+    }
+    if (params.maxYear() != null) {
+      sql.append(" AND ").append(productionYear).append(" <= ?");
+      args.add(params.maxYear());
+    }
+  }
+
+  private static void appendCategories(StringBuilder sql, CarSearchParameters params, List<Object> args) {
+    Set<String> categoryNames = new LinkedHashSet<>(params.categoryNames());
+    String operator = params.matchesAllCategories() ? " AND " : " OR ";
+    sql.append(" AND (")
+        .append(String.join(operator,
+            categoryNames.stream().map(name -> "array_contains(cs.category_names, ?)").toList()))
+        .append(")");
+    args.addAll(categoryNames);
+  }
+
+  private static boolean hasCategories(CarSearchParameters params) {
+    return params.categoryNames() != null && !params.categoryNames().isEmpty();
+  }
+
+  private static boolean hasText(String value) {
+    return value != null && !value.isBlank();
+  }
+}
@@ -1,17 +1,55 @@
 package ua.foxminded.carservice.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.dto.ChangeStamp;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, String> {
+  String NAME_CONTAINING_IGNORE_CASE_QUERY = "SELECT c FROM Category c "
+      + "WHERE lower(c.name) LIKE lower(concat('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()}";
+
+  String RANKED_NAME_CONTAINING_IGNORE_CASE_QUERY = NAME_CONTAINING_IGNORE_CASE_QUERY + " "
+      + "ORDER BY CASE WHEN lower(c.name) = lower(:name) THEN 0 "
+      + "WHEN lower(c.name) LIKE lower(concat(:#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()} THEN 1 "
+      + "ELSE 2 END, length(c.name), c.name";
+
+  String NAME_CONTAINING_IGNORE_CASE_COUNT_QUERY = "SELECT count(c) FROM Category c "
+      + "WHERE lower(c.name) LIKE lower(concat('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()}";
+
+  String NAME_CONTAINING_IGNORE_CASE_STAMP_QUERY = "SELECT new ua.foxminded.carservice.dto.ChangeStamp("
+      + "count(c), coalesce(max(c.changeSeq), 0)) FROM Category c "
+      + "WHERE lower(c.name) LIKE lower(concat('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()}";
+
   Optional<Category> findByName(String name);
-  
-  Page<Category> findByNameContaining(String name, Pageable pageable);
+
+  @Query(NAME_CONTAINING_IGNORE_CASE_STAMP_QUERY)
+  ChangeStamp findStampByNameContainingIgnoreCase(@Param("name") String name);
+
+  List<Category> findByNameIn(Collection<String> names);
+
+  Slice<Category> findAllBy(Pageable pageable);
+
+  @Query(NAME_CONTAINING_IGNORE_CASE_QUERY)
+  Page<Category> findByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
+
+  @Query(NAME_CONTAINING_IGNORE_CASE_QUERY)
+  Slice<Category> findSliceByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
+
+  @Query(value = RANKED_NAME_CONTAINING_IGNORE_CASE_QUERY, countQuery = NAME_CONTAINING_IGNORE_CASE_COUNT_QUERY)
+  Page<Category> findRankedByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
+
+  @Query(RANKED_NAME_CONTAINING_IGNORE_CASE_QUERY)
+  Slice<Category> findRankedSliceByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
 }
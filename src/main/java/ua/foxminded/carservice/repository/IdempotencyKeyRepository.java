@@ -0,0 +1,40 @@
+package ua.foxminded.carservice.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class IdempotencyKeyRepository {
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public IdempotencyKeyRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public Optional<IdempotencyRecord> find(String scope, String key, Instant createdAfter) {
+    return jdbcTemplate.query("SELECT resource_id, created_at FROM idempotency_keys"
+        + " WHERE scope = ? AND idempotency_key = ? AND created_at > ?",
+        (rs, rowNum) -> new IdempotencyRecord(rs.getString("resource_id"), rs.getTimestamp("created_at").toInstant()),
+        scope, key, Timestamp.from(createdAfter)).stream().findFirst();
+  }
+
+  public void save(String scope, String key, String resourceId, Instant createdAt) {
+    jdbcTemplate.update("INSERT INTO idempotency_keys (scope, idempotency_key, resource_id, created_at)"
+        + " VALUES (?, ?, ?, ?)", scope, key, resourceId, Timestamp.from(createdAt));
+  }
+
+  public int deleteExpired(String scope, String key, Instant createdBefore) {
+    return jdbcTemplate.update("DELETE FROM idempotency_keys"
+        + " WHERE scope = ? AND idempotency_key = ? AND created_at <= ?", scope, key, Timestamp.from(createdBefore));
+  }
+
+  public int deleteExpired(Instant createdBefore) {
+    return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at <= ?", Timestamp.from(createdBefore));
+  }
+}
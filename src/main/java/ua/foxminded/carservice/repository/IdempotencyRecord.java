@@ -0,0 +1,6 @@
+package ua.foxminded.carservice.repository;
+
+import java.time.Instant;
+
+public record IdempotencyRecord(String resourceId, Instant createdAt) {
+}
@@ -0,0 +1,33 @@
+package ua.foxminded.carservice.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class IdentifierBlockRepository {
+  private final JdbcTemplate jdbcTemplate;
+  private final PooledIdentifierAllocator allocator = new PooledIdentifierAllocator();
+  private volatile String nextValueSql;
+
+  @Autowired
+  public IdentifierBlockRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public String nextId() {
+    return allocator.next(() -> jdbcTemplate.queryForObject(nextValueSql(), Long.class));
+  }
+
+  private String nextValueSql() {
+    if (nextValueSql == null) {
+      String database = jdbcTemplate.execute(
+          (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+      nextValueSql = "PostgreSQL".equals(database)
+          ? "SELECT nextval('" + PooledIdentifierAllocator.SEQUENCE_NAME + "')"
+          : "SELECT NEXT VALUE FOR " + PooledIdentifierAllocator.SEQUENCE_NAME;
+    }
+    return nextValueSql;
+  }
+}
@@ -11,5 +11,5 @@ import org.hibernate.annotations.IdGeneratorType;
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.FIELD})
 public @interface IdentifierGenerator {
-
+  IdentifierStrategy strategy() default IdentifierStrategy.TIME_ORDERED;
 }
@@ -0,0 +1,5 @@
+package ua.foxminded.carservice.repository;
+
+public enum IdentifierStrategy {
+  RANDOM, TIME_ORDERED, SEQUENCE
+}
@@ -1,17 +1,55 @@
 package ua.foxminded.carservice.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.ChangeStamp;
 
 @Repository
 public interface ManufacturerRepository extends JpaRepository<Manufacturer, String> {
+  String NAME_CONTAINING_IGNORE_CASE_QUERY = "SELECT m FROM Manufacturer m "
+      + "WHERE lower(m.name) LIKE lower(concat('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()}";
+
+  String RANKED_NAME_CONTAINING_IGNORE_CASE_QUERY = NAME_CONTAINING_IGNORE_CASE_QUERY + " "
+      + "ORDER BY CASE WHEN lower(m.name) = lower(:name) THEN 0 "
+      + "WHEN lower(m.name) LIKE lower(concat(:#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()} THEN 1 "
+      + "ELSE 2 END, length(m.name), m.name";
+
+  String NAME_CONTAINING_IGNORE_CASE_COUNT_QUERY = "SELECT count(m) FROM Manufacturer m "
+      + "WHERE lower(m.name) LIKE lower(concat('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()}";
+
+  String NAME_CONTAINING_IGNORE_CASE_STAMP_QUERY = "SELECT new ua.foxminded.carservice.dto.ChangeStamp("
+      + "count(m), coalesce(max(m.changeSeq), 0)) FROM Manufacturer m "
+      + "WHERE lower(m.name) LIKE lower(concat('%', :#{escape(#name)}, '%')) ESCAPE :#{escapeCharacter()}";
+
   Optional<Manufacturer> findByName(String name);
-  
-  Page<Manufacturer> findByNameContaining(String name, Pageable pageable);
+
+  @Query(NAME_CONTAINING_IGNORE_CASE_STAMP_QUERY)
+  ChangeStamp findStampByNameContainingIgnoreCase(@Param("name") String name);
+
+  List<Manufacturer> findByNameIn(Collection<String> names);
+
+  Slice<Manufacturer> findAllBy(Pageable pageable);
+
+  @Query(NAME_CONTAINING_IGNORE_CASE_QUERY)
+  Page<Manufacturer> findByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
+
+  @Query(NAME_CONTAINING_IGNORE_CASE_QUERY)
+  Slice<Manufacturer> findSliceByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
+
+  @Query(value = RANKED_NAME_CONTAINING_IGNORE_CASE_QUERY, countQuery = NAME_CONTAINING_IGNORE_CASE_COUNT_QUERY)
+  Page<Manufacturer> findRankedByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
+
+  @Query(RANKED_NAME_CONTAINING_IGNORE_CASE_QUERY)
+  Slice<Manufacturer> findRankedSliceByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
 }
@@ -0,0 +1,7 @@
+package ua.foxminded.carservice.repository;
+
+import ua.foxminded.carservice.event.AggregateType;
+import ua.foxminded.carservice.event.ChangeType;
+
+public record OutboxEntry(AggregateType aggregateType, String aggregateId, ChangeType type, String payload) {
+}
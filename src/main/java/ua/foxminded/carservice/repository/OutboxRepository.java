@@ -0,0 +1,63 @@
+package ua.foxminded.carservice.repository;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import ua.foxminded.carservice.event.AggregateType;
+import ua.foxminded.carservice.event.ChangeEvent;
+import ua.foxminded.carservice.event.ChangeType;
+
+@Repository
+public class OutboxRepository {
+  private static final String INSERT_EVENT = "INSERT INTO outbox_events"
+      + " (aggregate_type, aggregate_id, event_type, payload) VALUES (?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int batchSize;
+
+  @Autowired
+  public OutboxRepository(JdbcTemplate jdbcTemplate,
+      @Value("${car-service.batch.jdbc-batch-size:500}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.batchSize = batchSize;
+  }
+
+  public void append(OutboxEntry entry) {
+    jdbcTemplate.update(INSERT_EVENT, entry.aggregateType().name(), entry.aggregateId(), entry.type().name(),
+        entry.payload());
+  }
+
+  public void appendAll(List<OutboxEntry> entries) {
+    jdbcTemplate.batchUpdate(INSERT_EVENT, entries, batchSize, (statement, entry) -> {
+      statement.setString(1, entry.aggregateType().name());
+      statement.setString(2, entry.aggregateId());
+      statement.setString(3, entry.type().name());
+      statement.setString(4, entry.payload());
+    });
+  }
+
+  /**
+   * Locks the oldest pending events. Rows locked by another relay are skipped,
+   * so concurrent relays publish disjoint batches.
+   */
+  public List<ChangeEvent> findPending(int limit) {
+    return jdbcTemplate.query("SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at"
+        + " FROM outbox_events ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+        (rs, rowNum) -> new ChangeEvent(rs.getLong("id"), AggregateType.valueOf(rs.getString("aggregate_type")),
+            rs.getString("aggregate_id"), ChangeType.valueOf(rs.getString("event_type")), rs.getString("payload"),
+            rs.getTimestamp("created_at").toInstant()),
+        limit);
+  }
+
+  public int delete(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    return jdbcTemplate.update("DELETE FROM outbox_events WHERE id IN ("
+        + String.join(", ", ids.stream().map(id -> "?").toList()) + ")", ids.toArray());
+  }
+}
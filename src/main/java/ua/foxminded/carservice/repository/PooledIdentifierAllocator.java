@@ -0,0 +1,46 @@
+package ua.foxminded.carservice.repository;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+public class PooledIdentifierAllocator {
+  public static final String SEQUENCE_NAME = "entity_id_seq";
+  // Has to match INCREMENT BY of entity_id_seq: every nextval() reserves the block (hi - BLOCK_SIZE, hi].
+  public static final int BLOCK_SIZE = 1000;
+
+  private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, -1));
+
+  public String next(LongSupplier nextHi) {
+    while (true) {
+      Block block = current.get();
+      long value = block.next.getAndIncrement();
+      if (value <= block.last) {
+        return toIdentifier(value);
+      }
+
+      synchronized (this) {
+        if (current.get() == block) {
+          long hi = nextHi.getAsLong();
+          current.set(new Block(hi - BLOCK_SIZE + 1, hi));
+        }
+      }
+    }
+  }
+
+  public static String toIdentifier(long value) {
+    // Packs the sequence value into the time field of a version 8 UUID, so ids stay ordered and fit uuid keys.
+    return new UUID(value << 16 | 0x8000L, 0x8000000000000000L).toString();
+  }
+
+  private static class Block {
+    private final AtomicLong next;
+    private final long last;
+
+    Block(long first, long last) {
+      this.next = new AtomicLong(first);
+      this.last = last;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package ua.foxminded.carservice.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ua.foxminded.carservice.dto.CarSearchParameters;
+
+@Repository
+public class RowCountEstimator {
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private volatile Boolean supported;
+
+  @Autowired
+  public RowCountEstimator(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public OptionalLong estimateManufacturers(String name) {
+    return estimateByName("manufacturers", name);
+  }
+
+  public OptionalLong estimateCategories(String name) {
+    return estimateByName("categories", name);
+  }
+
+  public OptionalLong estimateCars(CarSearchParameters params) {
+    StringBuilder sql = new StringBuilder("SELECT c.id FROM cars c");
+    List<Object> args = new ArrayList<>();
+
+    if (CarSqlFilters.needsManufacturer(params)) {
+      sql.append(" JOIN manufacturers m ON m.id = c.manufacturer_id");
+    }
+    sql.append(CarSqlFilters.whereClause(params, args));
+
+    return estimate(sql.toString(), args.toArray());
+  }
+
+  public static <T> Page<T> toPage(Slice<T> slice, long estimatedTotal) {
+    if (slice.getPageable().isUnpaged()) {
+      return new PageImpl<>(slice.getContent());
+    }
+
+    long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+    long total = slice.hasNext() ? Math.max(estimatedTotal, seen + 1) : seen;
+    return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+  }
+
+  private OptionalLong estimateByName(String table, String name) {
+    if (!hasText(name)) {
+      return estimate("SELECT id FROM " + table);
+    }
+    return estimate("SELECT id FROM " + table + " WHERE lower(name) LIKE ? ESCAPE '\\'",
+        "%" + escape(name.toLowerCase()) + "%");
+  }
+
+  private OptionalLong estimate(String sql, Object... args) {
+    if (!isSupported()) {
+      return OptionalLong.empty();
+    }
+
+    String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, args);
+    try {
+      return OptionalLong.of(objectMapper.readTree(plan).path(0).path("Plan").path("Plan Rows").asLong());
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Query plan cannot be parsed.", ex);
+    }
+  }
+
+  private boolean isSupported() {
+    if (supported == null) {
+      supported = "PostgreSQL".equals(jdbcTemplate.execute(
+          (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+    return supported;
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
+  private static boolean hasText(String value) {
+    return value != null && !value.isBlank();
+  }
+}
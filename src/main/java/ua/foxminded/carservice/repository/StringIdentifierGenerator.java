@@ -1,20 +1,68 @@
 package ua.foxminded.carservice.repository;
 
+import java.lang.reflect.Member;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.UUID;
 
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
-import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.GeneratorCreationContext;
 
 import ua.foxminded.carservice.domain.StringIdentifiable;
 
-public class StringIdentifierGenerator implements IdentifierGenerator{
+public class StringIdentifierGenerator
+    implements org.hibernate.id.IdentifierGenerator, AnnotationBasedGenerator<IdentifierGenerator> {
+  private IdentifierStrategy strategy;
+  private final PooledIdentifierAllocator allocator = new PooledIdentifierAllocator();
+
+  public StringIdentifierGenerator() {
+    this(IdentifierStrategy.TIME_ORDERED);
+  }
+
+  public StringIdentifierGenerator(IdentifierStrategy strategy) {
+    this.strategy = strategy;
+  }
+
+  @Override
+  public void initialize(IdentifierGenerator config, Member member, GeneratorCreationContext context) {
+    this.strategy = config.strategy();
+  }
 
   @Override
   public Object generate(SharedSessionContractImplementor session, Object object) {
     if (object instanceof StringIdentifiable identifiable) {
-      return identifiable.getId() == null ? UUID.randomUUID().toString() : identifiable.getId();     
+      return identifiable.getId() == null ? newId(session) : identifiable.getId();     
     } else {
       return null;
     }
   }
+
+  private String newId(SharedSessionContractImplementor session) {
+    return switch (strategy) {
+      case RANDOM -> UUID.randomUUID().toString();
+      case TIME_ORDERED -> TimeOrderedUuid.generate().toString();
+      case SEQUENCE -> allocator.next(() -> nextHi(session));
+    };
+  }
+
+  private static long nextHi(SharedSessionContractImplementor session) {
+    String sql = session.getJdbcServices().getDialect().getSequenceSupport()
+        .getSequenceNextValString(PooledIdentifierAllocator.SEQUENCE_NAME);
+    JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+    PreparedStatement statement = jdbcCoordinator.getStatementPreparer().prepareStatement(sql);
+    try {
+      ResultSet resultSet = jdbcCoordinator.getResultSetReturn().extract(statement, sql);
+      resultSet.next();
+      return resultSet.getLong(1);
+    } catch (SQLException ex) {
+      throw session.getJdbcServices().getSqlExceptionHelper().convert(ex,
+          "Could not allocate an identifier block", sql);
+    } finally {
+      jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(statement);
+      jdbcCoordinator.afterStatementExecution();
+    }
+  }
 }
@@ -0,0 +1,24 @@
+package ua.foxminded.carservice.repository;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class TimeOrderedUuid {
+  private static final SecureRandom RANDOM = new SecureRandom();
+  private static final AtomicLong LAST_TIMESTAMP = new AtomicLong();
+
+  private TimeOrderedUuid() {
+  }
+
+  public static UUID generate() {
+    // RFC 9562 UUIDv7: 48-bit Unix milliseconds followed by a 12-bit sequence that keeps ids
+    // generated within the same millisecond strictly increasing on this node.
+    long now = System.currentTimeMillis() << 12;
+    long timestamp = LAST_TIMESTAMP.updateAndGet(last -> Math.max(now, last + 1));
+
+    long mostSignificantBits = (timestamp >>> 12) << 16 | 0x7000L | (timestamp & 0xFFFL);
+    long leastSignificantBits = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+    return new UUID(mostSignificantBits, leastSignificantBits);
+  }
+}
@@ -0,0 +1,9 @@
+package ua.foxminded.carservice.service;
+
+import ua.foxminded.carservice.domain.Car;
+
+public record CarChangeEntry(String carId, Car car) {
+  public boolean deleted() {
+    return car == null;
+  }
+}
@@ -0,0 +1,12 @@
+package ua.foxminded.carservice.service;
+
+import java.io.InputStream;
+
+import ua.foxminded.carservice.domain.CarImport;
+import ua.foxminded.carservice.domain.CarImportFormat;
+
+public interface CarImportService {
+  CarImport getImportById(String id);
+
+  CarImport createImport(CarImportFormat format, InputStream content);
+}
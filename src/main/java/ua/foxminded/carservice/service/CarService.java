@@ -1,21 +1,60 @@
 package ua.foxminded.carservice.service;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.dto.CarBatchItemResponse;
+import ua.foxminded.carservice.dto.CarCreateRequest;
+import ua.foxminded.carservice.dto.CarFacetsResponse;
+import ua.foxminded.carservice.dto.CarPatchRequest;
 import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.ChangeStamp;
+import ua.foxminded.carservice.dto.FieldSelection;
+import ua.foxminded.carservice.dto.StampedCar;
+import ua.foxminded.carservice.service.search.ModelSuggestion;
 
 public interface CarService {
-  Page<Car> getCarsByParameters(CarSearchParameters parameters, Pageable pageable);
+  Page<Car> getCarsByParameters(CarSearchParameters parameters, FieldSelection fields, Pageable pageable);
 
-  Car getCarById(String id);
+  Page<Car> getCarsByParameters(CarSearchParameters parameters, FieldSelection fields, Pageable pageable,
+      ChangeStamp stamp);
+
+  Page<Car> getCarsByParametersWithEstimatedTotal(CarSearchParameters parameters, FieldSelection fields,
+      Pageable pageable);
+
+  Slice<Car> getCarSliceByParameters(CarSearchParameters parameters, FieldSelection fields, Pageable pageable);
+
+  Window<Car> getCarsByParameters(CarSearchParameters parameters, FieldSelection fields,
+      KeysetScrollPosition position, Sort sort, int limit);
+
+  StampedCar getStampedCarById(String id);
+
+  Optional<ChangeStamp> getCarsStampByParameters(CarSearchParameters parameters, Pageable pageable);
+
+  Window<CarChangeEntry> getCarChanges(KeysetScrollPosition position, int limit);
+
+  CarFacetsResponse getCarFacets(CarSearchParameters parameters);
+
+  void exportCars(CarSearchParameters parameters, Consumer<Car> consumer);
+
+  List<ModelSuggestion> suggestModels(String prefix, String manufacturerName, int limit);
 
   Car createCar(Car car, String manufacturerName, List<String> categoryNames);
 
+  List<CarBatchItemResponse> createCars(List<CarCreateRequest> requests);
+
   Car modifyCar(Car car, String manufacturerName, List<String> categoryNames);
 
-  void deleteCar(String id);
+  Car patchCar(String id, Long version, CarPatchRequest patch);
+
+  void deleteCar(String id, Long version);
 }
@@ -2,17 +2,28 @@ package ua.foxminded.carservice.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.dto.CategoryPatchRequest;
+import ua.foxminded.carservice.dto.ChangeStamp;
 
 public interface CategoryService {
   Page<Category> getCategoriesByName(String name, Pageable pageable);
 
+  Page<Category> getCategoriesByNameWithEstimatedTotal(String name, Pageable pageable);
+
+  Slice<Category> getCategorySliceByName(String name, Pageable pageable);
+
   Category getCategoryById(String id);
 
+  ChangeStamp getCategoriesStampByName(String name);
+
   Category createCategory(Category category);
 
   Category modifyCategory(Category category);
 
-  void deleteCategory(String id);
+  Category patchCategory(String id, Long version, CategoryPatchRequest patch);
+
+  void deleteCategory(String id, Long version);
 }
@@ -0,0 +1,7 @@
+package ua.foxminded.carservice.service;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+  String execute(String scope, String key, Supplier<String> write);
+}
@@ -2,17 +2,28 @@ package ua.foxminded.carservice.service;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.ChangeStamp;
+import ua.foxminded.carservice.dto.ManufacturerPatchRequest;
 
 public interface ManufacturerService {
   Page<Manufacturer> getManufacturersByName(String name, Pageable pageable);
+
+  Page<Manufacturer> getManufacturersByNameWithEstimatedTotal(String name, Pageable pageable);
+
+  Slice<Manufacturer> getManufacturerSliceByName(String name, Pageable pageable);
   
   Manufacturer getManufacturerById(String id);
+
+  ChangeStamp getManufacturersStampByName(String name);
   
   Manufacturer createManufacturer(Manufacturer manufacturer);
   
   Manufacturer modifyManufacturer(Manufacturer manufacturer);
+
+  Manufacturer patchManufacturer(String id, Long version, ManufacturerPatchRequest patch);
   
-  void deleteManufacturer(String id);
+  void deleteManufacturer(String id, Long version);
 }
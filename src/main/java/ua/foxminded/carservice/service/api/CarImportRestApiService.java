@@ -0,0 +1,13 @@
+package ua.foxminded.carservice.service.api;
+
+import java.io.InputStream;
+
+import org.springframework.http.ResponseEntity;
+
+import ua.foxminded.carservice.dto.CarImportResponse;
+
+public interface CarImportRestApiService {
+  ResponseEntity<CarImportResponse> getCarImportResponseById(String id);
+
+  ResponseEntity<CarImportResponse> saveCarImport(String contentType, InputStream content);
+}
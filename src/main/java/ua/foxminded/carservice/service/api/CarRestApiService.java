@@ -1,22 +1,53 @@
 package ua.foxminded.carservice.service.api;
 
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import ua.foxminded.carservice.dto.CarBatchItemResponse;
+import ua.foxminded.carservice.dto.CarChangesResponse;
 import ua.foxminded.carservice.dto.CarCreateRequest;
+import ua.foxminded.carservice.dto.CarFacetsResponse;
 import ua.foxminded.carservice.dto.CarModifyRequest;
+import ua.foxminded.carservice.dto.CarPatchRequest;
 import ua.foxminded.carservice.dto.CarResponse;
 import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.CursorPageResponse;
+import ua.foxminded.carservice.dto.FieldSelection;
+import ua.foxminded.carservice.dto.ModelSuggestionResponse;
+import ua.foxminded.carservice.dto.SliceResponse;
+import ua.foxminded.carservice.dto.TotalMode;
 
 public interface CarRestApiService {
-  ResponseEntity<Page<CarResponse>> getCarResponsesByParameters(CarSearchParameters parameters, Pageable pageable);
+  ResponseEntity<Page<CarResponse>> getCarResponsesByParameters(CarSearchParameters parameters, FieldSelection fields,
+      TotalMode total, Pageable pageable, String ifNoneMatch);
+
+  ResponseEntity<SliceResponse<CarResponse>> getCarResponseSliceByParameters(CarSearchParameters parameters,
+      FieldSelection fields, Pageable pageable);
+
+  ResponseEntity<CursorPageResponse<CarResponse>> getCarResponsesByParameters(CarSearchParameters parameters,
+      FieldSelection fields, String cursor, Pageable pageable);
+
+  ResponseEntity<CarResponse> getCarResponseById(String id, String ifNoneMatch);
+
+  ResponseEntity<CarChangesResponse> getCarChanges(String since, int limit);
+
+  ResponseEntity<CarFacetsResponse> getCarFacets(CarSearchParameters parameters);
+
+  ResponseEntity<StreamingResponseBody> exportCarResponses(CarSearchParameters parameters);
+
+  ResponseEntity<List<ModelSuggestionResponse>> getModelSuggestions(String prefix, String manufacturerName, int limit);
+
+  ResponseEntity<String> saveCar(CarCreateRequest request, String idempotencyKey);
 
-  ResponseEntity<CarResponse> getCarResponseById(String id);
+  ResponseEntity<List<CarBatchItemResponse>> saveCars(List<CarCreateRequest> requests);
 
-  ResponseEntity<String> saveCar(CarCreateRequest request);
+  ResponseEntity<CarResponse> modifyCar(CarModifyRequest request, String ifMatch);
 
-  ResponseEntity<CarResponse> modifyCar(CarModifyRequest request);
+  ResponseEntity<CarResponse> patchCar(String id, CarPatchRequest request, String ifMatch);
 
-  ResponseEntity<Void> deleteCarById(String id);
+  ResponseEntity<Void> deleteCarById(String id, String ifMatch);
 }
@@ -6,16 +6,24 @@ import org.springframework.http.ResponseEntity;
 
 import ua.foxminded.carservice.dto.CategoryCreateRequest;
 import ua.foxminded.carservice.dto.CategoryModifyRequest;
+import ua.foxminded.carservice.dto.CategoryPatchRequest;
 import ua.foxminded.carservice.dto.CategoryResponse;
+import ua.foxminded.carservice.dto.SliceResponse;
+import ua.foxminded.carservice.dto.TotalMode;
 
 public interface CategoryRestApiService {
-  ResponseEntity<Page<CategoryResponse>> getCategoryResponsesByName(String name, Pageable pageable);
+  ResponseEntity<Page<CategoryResponse>> getCategoryResponsesByName(String name, TotalMode total, Pageable pageable,
+      String ifNoneMatch);
 
-  ResponseEntity<CategoryResponse> getCategoryResponseById(String id);
+  ResponseEntity<SliceResponse<CategoryResponse>> getCategoryResponseSliceByName(String name, Pageable pageable);
 
-  ResponseEntity<String> saveCategory(CategoryCreateRequest request);
+  ResponseEntity<CategoryResponse> getCategoryResponseById(String id, String ifNoneMatch);
 
-  ResponseEntity<CategoryResponse> modifyCategory(CategoryModifyRequest request);
+  ResponseEntity<String> saveCategory(CategoryCreateRequest request, String idempotencyKey);
 
-  ResponseEntity<Void> deleteCategoryById(String id);
+  ResponseEntity<CategoryResponse> modifyCategory(CategoryModifyRequest request, String ifMatch);
+
+  ResponseEntity<CategoryResponse> patchCategory(String id, CategoryPatchRequest request, String ifMatch);
+
+  ResponseEntity<Void> deleteCategoryById(String id, String ifMatch);
 }
@@ -6,16 +6,24 @@ import org.springframework.http.ResponseEntity;
 
 import ua.foxminded.carservice.dto.ManufacturerCreateRequest;
 import ua.foxminded.carservice.dto.ManufacturerModifyRequest;
+import ua.foxminded.carservice.dto.ManufacturerPatchRequest;
 import ua.foxminded.carservice.dto.ManufacturerResponse;
+import ua.foxminded.carservice.dto.SliceResponse;
+import ua.foxminded.carservice.dto.TotalMode;
 
 public interface ManufacturerRestApiService {
-  ResponseEntity<Page<ManufacturerResponse>> getManufacturerResponsesByName(String name, Pageable pageable);
+  ResponseEntity<Page<ManufacturerResponse>> getManufacturerResponsesByName(String name, TotalMode total, Pageable pageable,
+      String ifNoneMatch);
 
-  ResponseEntity<ManufacturerResponse> getManufacturerResponseById(String id);
+  ResponseEntity<SliceResponse<ManufacturerResponse>> getManufacturerResponseSliceByName(String name, Pageable pageable);
 
-  ResponseEntity<String> saveManufacturer(ManufacturerCreateRequest request);
+  ResponseEntity<ManufacturerResponse> getManufacturerResponseById(String id, String ifNoneMatch);
 
-  ResponseEntity<ManufacturerResponse> modifyManufacturer(ManufacturerModifyRequest request);
+  ResponseEntity<String> saveManufacturer(ManufacturerCreateRequest request, String idempotencyKey);
 
-  ResponseEntity<Void> deleteManufacturerById(String id);
+  ResponseEntity<ManufacturerResponse> modifyManufacturer(ManufacturerModifyRequest request, String ifMatch);
+
+  ResponseEntity<ManufacturerResponse> patchManufacturer(String id, ManufacturerPatchRequest request, String ifMatch);
+
+  ResponseEntity<Void> deleteManufacturerById(String id, String ifMatch);
 }
@@ -0,0 +1,36 @@
+package ua.foxminded.carservice.service.api.impl;
+
+import java.io.InputStream;
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import ua.foxminded.carservice.domain.CarImport;
+import ua.foxminded.carservice.domain.CarImportFormat;
+import ua.foxminded.carservice.dto.CarImportResponse;
+import ua.foxminded.carservice.mapper.CarImportMapper;
+import ua.foxminded.carservice.service.CarImportService;
+import ua.foxminded.carservice.service.api.CarImportRestApiService;
+
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+@Service
+public class CarImportRestApiServiceImpl implements CarImportRestApiService {
+  private final CarImportService service;
+  private final CarImportMapper mapper;
+
+  @Override
+  public ResponseEntity<CarImportResponse> getCarImportResponseById(String id) {
+    return ResponseEntity.ok(mapper.carImportToCarImportResponse(service.getImportById(id)));
+  }
+
+  @Override
+  public ResponseEntity<CarImportResponse> saveCarImport(String contentType, InputStream content) {
+    CarImport carImport = service.createImport(CarImportFormat.of(contentType), content);
+    return ResponseEntity.accepted()
+        .location(URI.create("/api/v1/imports/" + carImport.getId()))
+        .body(mapper.carImportToCarImportResponse(carImport));
+  }
+}
@@ -1,57 +1,255 @@
 package ua.foxminded.carservice.service.api.impl;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.dto.CarBatchItemResponse;
+import ua.foxminded.carservice.dto.CarChangeResponse;
+import ua.foxminded.carservice.dto.CarChangesResponse;
 import ua.foxminded.carservice.dto.CarCreateRequest;
+import ua.foxminded.carservice.dto.CarFacetsResponse;
 import ua.foxminded.carservice.dto.CarModifyRequest;
+import ua.foxminded.carservice.dto.CarPatchRequest;
 import ua.foxminded.carservice.dto.CarResponse;
 import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.ChangeStamp;
+import ua.foxminded.carservice.dto.CursorPageResponse;
+import ua.foxminded.carservice.dto.FieldSelection;
+import ua.foxminded.carservice.dto.ModelSuggestionResponse;
+import ua.foxminded.carservice.dto.SliceResponse;
+import ua.foxminded.carservice.dto.StampedCar;
+import ua.foxminded.carservice.dto.TotalMode;
+import ua.foxminded.carservice.dto.VersionStamp;
 import ua.foxminded.carservice.mapper.CarMapper;
+import ua.foxminded.carservice.mapper.CursorMapper;
+import ua.foxminded.carservice.service.CarChangeEntry;
 import ua.foxminded.carservice.service.CarService;
+import ua.foxminded.carservice.service.IdempotencyService;
 import ua.foxminded.carservice.service.api.CarRestApiService;
+import ua.foxminded.carservice.service.search.ModelSuggestion;
 
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 @Service
 public class CarRestApiServiceImpl implements CarRestApiService {
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+  private static final int EXPORT_FLUSH_SIZE = 500;
+
   private final CarService service;
+  private final IdempotencyService idempotency;
   private final CarMapper mapper;
+  private final CursorMapper cursorMapper;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+
+  @Override
+  public ResponseEntity<Page<CarResponse>> getCarResponsesByParameters(CarSearchParameters parameters,
+      FieldSelection fields, TotalMode total, Pageable pageable, String ifNoneMatch) {
+    parameters.validate();
+    if (total == TotalMode.ESTIMATE) {
+      return ResponseEntity.ok(service.getCarsByParametersWithEstimatedTotal(parameters, fields, pageable)
+          .map(mapper::carToCarResponse));
+    }
+
+    Optional<ChangeStamp> stamp = service.getCarsStampByParameters(parameters, pageable);
+    if (stamp.isEmpty()) {
+      return ResponseEntity.ok(service.getCarsByParameters(parameters, fields, pageable)
+          .map(mapper::carToCarResponse));
+    }
+
+    String tag = EntityTags.of(stamp.get());
+    if (EntityTags.matches(ifNoneMatch, tag)) {
+      return EntityTags.notModified(tag);
+    }
+    return ResponseEntity.ok().eTag(tag).body(service.getCarsByParameters(parameters, fields, pageable, stamp.get())
+        .map(mapper::carToCarResponse));
+  }
+
+  @Override
+  public ResponseEntity<SliceResponse<CarResponse>> getCarResponseSliceByParameters(CarSearchParameters parameters,
+      FieldSelection fields, Pageable pageable) {
+    parameters.validate();
+    Slice<Car> cars = service.getCarSliceByParameters(parameters, fields, pageable);
+    return ResponseEntity.ok(SliceResponse.<CarResponse>builder()
+        .content(mapper.carsToCarResponses(cars.getContent()))
+        .size(cars.getSize())
+        .number(cars.getNumber())
+        .hasNext(cars.hasNext()).build());
+  }
+
+  @Override
+  public ResponseEntity<CursorPageResponse<CarResponse>> getCarResponsesByParameters(CarSearchParameters parameters,
+      FieldSelection fields, String cursor, Pageable pageable) {
+    parameters.validate();
+    Window<Car> cars = service.getCarsByParameters(parameters, fields,
+        cursorMapper.cursorToPosition(cursor, pageable.getSort(), Car.class), pageable.getSort(),
+        pageable.getPageSize());
+
+    String nextCursor = cars.hasNext()
+        ? cursorMapper.positionToCursor((KeysetScrollPosition) cars.positionAt(cars.size() - 1))
+        : null;
+
+    return ResponseEntity.ok(CursorPageResponse.<CarResponse>builder()
+        .content(mapper.carsToCarResponses(cars.getContent()))
+        .size(cars.size())
+        .nextCursor(nextCursor).build());
+  }
 
   @Override
-  public ResponseEntity<Page<CarResponse>> getCarResponsesByParameters(CarSearchParameters parameters, Pageable pageable) {
-    Page<Car> cars = service.getCarsByParameters(parameters, pageable);
-    return ResponseEntity.ok(cars.map(car -> mapper.carToCarResponse(car)));
+  public ResponseEntity<CarResponse> getCarResponseById(String id, String ifNoneMatch) {
+    StampedCar car = service.getStampedCarById(id);
+    String tag = EntityTags.of(car.stamp());
+    if (EntityTags.matches(ifNoneMatch, tag)) {
+      return EntityTags.notModified(tag);
+    }
+    return ResponseEntity.ok().eTag(tag).body(mapper.carToCarResponse(car.car()));
   }
 
   @Override
-  public ResponseEntity<CarResponse> getCarResponseById(String id) {
-    Car car = service.getCarById(id);
-    return ResponseEntity.ok(mapper.carToCarResponse(car));
+  public ResponseEntity<CarChangesResponse> getCarChanges(String since, int limit) {
+    KeysetScrollPosition position = cursorMapper.cursorToPosition(since);
+    Window<CarChangeEntry> changes = service.getCarChanges(position, limit);
+
+    String nextToken = changes.isEmpty() ? cursorMapper.positionToCursor(position)
+        : cursorMapper.positionToCursor((KeysetScrollPosition) changes.positionAt(changes.size() - 1));
+
+    return ResponseEntity.ok(CarChangesResponse.builder()
+        .changes(changes.getContent().stream().map(change -> CarChangeResponse.builder()
+            .id(change.carId())
+            .deleted(change.deleted())
+            .car(change.deleted() ? null : mapper.carToCarResponse(change.car())).build()).toList())
+        .nextToken(nextToken)
+        .hasMore(changes.hasNext()).build());
   }
 
   @Override
-  public ResponseEntity<String> saveCar(CarCreateRequest request) {
-    Car car = service.createCar(mapper.carCreateRequestToCar(request), request.getManufacturerName(),
-        request.getCategoryNames());
-    return new ResponseEntity<String>(car.getId(), HttpStatus.CREATED);
+  public ResponseEntity<CarFacetsResponse> getCarFacets(CarSearchParameters parameters) {
+    parameters.validate();
+    return ResponseEntity.ok(service.getCarFacets(parameters));
   }
 
   @Override
-  public ResponseEntity<CarResponse> modifyCar(CarModifyRequest request) {
-    Car car = service.modifyCar(mapper.carModifyRequestToCar(request), request.getManufacturerName(),
-        request.getCategoryNames());
-    return ResponseEntity.ok(mapper.carToCarResponse(car));
+  public ResponseEntity<StreamingResponseBody> exportCarResponses(CarSearchParameters parameters) {
+    parameters.validate();
+
+    ObjectWriter writer = objectMapper.writerFor(CarResponse.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    StreamingResponseBody body = outputStream -> {
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+        generator.setRootValueSeparator(null);
+        int[] written = { 0 };
+        service.exportCars(parameters, car -> {
+          try {
+            writer.writeValue(generator, mapper.carToCarResponse(car));
+            generator.writeRaw('\n');
+            if (++written[0] % EXPORT_FLUSH_SIZE == 0) {
+              generator.flush();
+            }
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        });
+      }
+    };
+    return ResponseEntity.ok().contentType(NDJSON).body(body);
   }
 
   @Override
-  public ResponseEntity<Void> deleteCarById(String id) {
-    service.deleteCar(id);
+  public ResponseEntity<List<ModelSuggestionResponse>> getModelSuggestions(String prefix, String manufacturerName,
+      int limit) {
+    List<ModelSuggestion> suggestions = service.suggestModels(prefix, manufacturerName, limit);
+    return ResponseEntity.ok(mapper.modelSuggestionsToModelSuggestionResponses(suggestions));
+  }
+
+  @Override
+  public ResponseEntity<String> saveCar(CarCreateRequest request, String idempotencyKey) {
+    String id = idempotency.execute("cars", idempotencyKey, () -> service.createCar(
+        mapper.carCreateRequestToCar(request), request.getManufacturerName(), request.getCategoryNames()).getId());
+    return new ResponseEntity<String>(id, HttpStatus.CREATED);
+  }
+
+  @Override
+  public ResponseEntity<List<CarBatchItemResponse>> saveCars(List<CarCreateRequest> requests) {
+    CarBatchItemResponse[] results = new CarBatchItemResponse[requests.size()];
+    List<CarCreateRequest> validRequests = new ArrayList<>(requests.size());
+    List<Integer> validIndexes = new ArrayList<>(requests.size());
+
+    for (int i = 0; i < requests.size(); i++) {
+      Map<String, String> errorDetails = validate(requests.get(i));
+      if (errorDetails.isEmpty()) {
+        validRequests.add(requests.get(i));
+        validIndexes.add(i);
+      } else {
+        results[i] = CarBatchItemResponse.builder()
+            .index(i)
+            .status(400)
+            .message("Request Validation Error")
+            .errorDetails(errorDetails)
+            .build();
+      }
+    }
+
+    List<CarBatchItemResponse> created = service.createCars(validRequests);
+    for (int i = 0; i < created.size(); i++) {
+      int index = validIndexes.get(i);
+      results[index] = created.get(i).toBuilder().index(index).build();
+    }
+    return ResponseEntity.ok(Arrays.asList(results));
+  }
+
+  @Override
+  public ResponseEntity<CarResponse> modifyCar(CarModifyRequest request, String ifMatch) {
+    Car car = mapper.carModifyRequestToCar(request);
+    car.setVersion(EntityTags.versionOf(ifMatch));
+    car = service.modifyCar(car, request.getManufacturerName(), request.getCategoryNames());
+    return ResponseEntity.ok().eTag(EntityTags.of(VersionStamp.of(car))).body(mapper.carToCarResponse(car));
+  }
+
+  @Override
+  public ResponseEntity<CarResponse> patchCar(String id, CarPatchRequest request, String ifMatch) {
+    Car car = service.patchCar(id, EntityTags.versionOf(ifMatch), request);
+    return ResponseEntity.ok().eTag(EntityTags.of(VersionStamp.of(car))).body(mapper.carToCarResponse(car));
+  }
+
+  @Override
+  public ResponseEntity<Void> deleteCarById(String id, String ifMatch) {
+    service.deleteCar(id, EntityTags.versionOf(ifMatch));
     return ResponseEntity.noContent().build();
   }
+
+  private Map<String, String> validate(CarCreateRequest request) {
+    if (request == null) {
+      return Map.of("request", "Car has to be specified.");
+    }
+
+    Map<String, String> errorDetails = new HashMap<>();
+    validator.validate(request).forEach(
+        violation -> errorDetails.put(violation.getPropertyPath().toString(), violation.getMessage()));
+    return errorDetails;
+  }
 }
@@ -3,6 +3,7 @@ package ua.foxminded.carservice.service.api.impl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -11,44 +12,85 @@ import lombok.RequiredArgsConstructor;
 import ua.foxminded.carservice.domain.Category;
 import ua.foxminded.carservice.dto.CategoryCreateRequest;
 import ua.foxminded.carservice.dto.CategoryModifyRequest;
+import ua.foxminded.carservice.dto.CategoryPatchRequest;
 import ua.foxminded.carservice.dto.CategoryResponse;
+import ua.foxminded.carservice.dto.SliceResponse;
+import ua.foxminded.carservice.dto.TotalMode;
 import ua.foxminded.carservice.mapper.CategoryMapper;
 import ua.foxminded.carservice.service.CategoryService;
+import ua.foxminded.carservice.service.IdempotencyService;
 import ua.foxminded.carservice.service.api.CategoryRestApiService;
 
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 @Service
 public class CategoryRestApiServiceImpl implements CategoryRestApiService {
   private final CategoryService service;
+  private final IdempotencyService idempotency;
   private final CategoryMapper mapper;
 
   @Override
-  public ResponseEntity<Page<CategoryResponse>> getCategoryResponsesByName(String name, Pageable pageable) {
+  public ResponseEntity<Page<CategoryResponse>> getCategoryResponsesByName(String name, TotalMode total, Pageable pageable,
+      String ifNoneMatch) {
+    if (total == TotalMode.ESTIMATE) {
+      Page<Category> categories = service.getCategoriesByNameWithEstimatedTotal(name, pageable);
+      return ResponseEntity.ok(categories.map(category -> mapper.categoryToCategoryResponse(category)));
+    }
+
+    String tag = EntityTags.of(service.getCategoriesStampByName(name));
+    if (EntityTags.matches(ifNoneMatch, tag)) {
+      return EntityTags.notModified(tag);
+    }
     Page<Category> categories = service.getCategoriesByName(name, pageable);
-    return ResponseEntity.ok(categories.map(category -> mapper.categoryToCategoryResponse(category)));
+    return ResponseEntity.ok().eTag(tag).body(categories.map(category -> mapper.categoryToCategoryResponse(category)));
+  }
+
+  @Override
+  public ResponseEntity<SliceResponse<CategoryResponse>> getCategoryResponseSliceByName(String name, Pageable pageable) {
+    Slice<Category> categories = service.getCategorySliceByName(name, pageable);
+    return ResponseEntity.ok(SliceResponse.<CategoryResponse>builder()
+        .content(mapper.categoriesToCategoryResponses(categories.getContent()))
+        .size(categories.getSize())
+        .number(categories.getNumber())
+        .hasNext(categories.hasNext()).build());
   }
 
   @Override
-  public ResponseEntity<CategoryResponse> getCategoryResponseById(String id) {
+  public ResponseEntity<CategoryResponse> getCategoryResponseById(String id, String ifNoneMatch) {
     Category category = service.getCategoryById(id);
-    return ResponseEntity.ok(mapper.categoryToCategoryResponse(category));
+    String tag = EntityTags.of(category.getVersion());
+    if (EntityTags.matches(ifNoneMatch, tag)) {
+      return EntityTags.notModified(tag);
+    }
+    return ResponseEntity.ok().eTag(tag).body(mapper.categoryToCategoryResponse(category));
+  }
+
+  @Override
+  public ResponseEntity<String> saveCategory(CategoryCreateRequest request, String idempotencyKey) {
+    String id = idempotency.execute("categories", idempotencyKey,
+        () -> service.createCategory(mapper.categoryCreateRequestToCategory(request)).getId());
+    return new ResponseEntity<String>(id, HttpStatus.CREATED);
   }
 
   @Override
-  public ResponseEntity<String> saveCategory(CategoryCreateRequest request) {
-    Category category = service.createCategory(mapper.categoryCreateRequestToCategory(request));
-    return new ResponseEntity<String>(category.getId(), HttpStatus.CREATED);
+  public ResponseEntity<CategoryResponse> modifyCategory(CategoryModifyRequest request, String ifMatch) {
+    Category category = mapper.categoryModifyRequestToCategory(request);
+    category.setVersion(EntityTags.versionOf(ifMatch));
+    category = service.modifyCategory(category);
+    return ResponseEntity.ok().eTag(EntityTags.of(category.getVersion()))
+        .body(mapper.categoryToCategoryResponse(category));
   }
 
   @Override
-  public ResponseEntity<CategoryResponse> modifyCategory(CategoryModifyRequest request) {
-    Category category = service.modifyCategory(mapper.categoryModifyRequestToCategory(request));
-    return ResponseEntity.ok(mapper.categoryToCategoryResponse(category));
+  public ResponseEntity<CategoryResponse> patchCategory(String id, CategoryPatchRequest request,
+      String ifMatch) {
+    Category category = service.patchCategory(id, EntityTags.versionOf(ifMatch), request);
+    return ResponseEntity.ok().eTag(EntityTags.of(category.getVersion()))
+        .body(mapper.categoryToCategoryResponse(category));
   }
 
   @Override
-  public ResponseEntity<Void> deleteCategoryById(String id) {
-    service.deleteCategory(id);
+  public ResponseEntity<Void> deleteCategoryById(String id, String ifMatch) {
+    service.deleteCategory(id, EntityTags.versionOf(ifMatch));
     return ResponseEntity.noContent().build();
   }
 }
@@ -0,0 +1,70 @@
+package ua.foxminded.carservice.service.api.impl;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import ua.foxminded.carservice.dto.ChangeStamp;
+import ua.foxminded.carservice.dto.VersionStamp;
+
+final class EntityTags {
+  private static final long NO_MATCH = -1L;
+
+  private EntityTags() {
+  }
+
+  static String of(Long version) {
+    return "\"" + version + "\"";
+  }
+
+  static String of(VersionStamp stamp) {
+    return "\"" + stamp.version() + "." + stamp.sequence() + "\"";
+  }
+
+  static String of(ChangeStamp stamp) {
+    return "\"" + stamp.count() + "-" + stamp.sequence() + "\"";
+  }
+
+  /**
+   * Reads the version for If-Match. Car tags also carry the change sequence of
+   * the manufacturer and categories after a dot, only the car version is
+   * compared on writes.
+   */
+  static Long versionOf(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+      return null;
+    }
+
+    String tag = ifMatch.trim();
+    if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+      String value = tag.substring(1, tag.length() - 1);
+      int separator = value.indexOf('.');
+      try {
+        return Long.valueOf(separator < 0 ? value : value.substring(0, separator));
+      } catch (NumberFormatException ex) {
+        return NO_MATCH;
+      }
+    }
+    return NO_MATCH;
+  }
+
+  static boolean matches(String ifNoneMatch, String tag) {
+    if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+      return false;
+    }
+
+    for (String candidate : ifNoneMatch.split(",")) {
+      String value = candidate.trim();
+      if (value.startsWith("W/")) {
+        value = value.substring(2);
+      }
+      if (value.equals("*") || value.equals(tag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static <T> ResponseEntity<T> notModified(String tag) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+  }
+}
@@ -3,6 +3,7 @@ package ua.foxminded.carservice.service.api.impl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -11,47 +12,85 @@ import lombok.RequiredArgsConstructor;
 import ua.foxminded.carservice.domain.Manufacturer;
 import ua.foxminded.carservice.dto.ManufacturerCreateRequest;
 import ua.foxminded.carservice.dto.ManufacturerModifyRequest;
+import ua.foxminded.carservice.dto.ManufacturerPatchRequest;
 import ua.foxminded.carservice.dto.ManufacturerResponse;
+import ua.foxminded.carservice.dto.SliceResponse;
+import ua.foxminded.carservice.dto.TotalMode;
 import ua.foxminded.carservice.mapper.ManufacturerMapper;
 import ua.foxminded.carservice.service.ManufacturerService;
+import ua.foxminded.carservice.service.IdempotencyService;
 import ua.foxminded.carservice.service.api.ManufacturerRestApiService;
 
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 @Service
 public class ManufacturerRestApiServiceImpl implements ManufacturerRestApiService {
   private final ManufacturerService service;
+  private final IdempotencyService idempotency;
   private final ManufacturerMapper mapper;
 
   @Override
-  public ResponseEntity<Page<ManufacturerResponse>> getManufacturerResponsesByName(String name, Pageable pageable) {
+  public ResponseEntity<Page<ManufacturerResponse>> getManufacturerResponsesByName(String name, TotalMode total, Pageable pageable,
+      String ifNoneMatch) {
+    if (total == TotalMode.ESTIMATE) {
+      Page<Manufacturer> manufacturers = service.getManufacturersByNameWithEstimatedTotal(name, pageable);
+      return ResponseEntity.ok(manufacturers.map(manufacturer -> mapper.manufacturerToManufacturerResponse(manufacturer)));
+    }
 
+    String tag = EntityTags.of(service.getManufacturersStampByName(name));
+    if (EntityTags.matches(ifNoneMatch, tag)) {
+      return EntityTags.notModified(tag);
+    }
     Page<Manufacturer> manufacturers = service.getManufacturersByName(name, pageable);
+    return ResponseEntity.ok().eTag(tag).body(manufacturers.map(manufacturer -> mapper.manufacturerToManufacturerResponse(manufacturer)));
+  }
 
-    return ResponseEntity
-        .ok(manufacturers.map(manufacturer -> mapper.manufacturerToManufacturerResponse(manufacturer)));
+  @Override
+  public ResponseEntity<SliceResponse<ManufacturerResponse>> getManufacturerResponseSliceByName(String name, Pageable pageable) {
+    Slice<Manufacturer> manufacturers = service.getManufacturerSliceByName(name, pageable);
+    return ResponseEntity.ok(SliceResponse.<ManufacturerResponse>builder()
+        .content(mapper.manufacturersToManufacturerResponses(manufacturers.getContent()))
+        .size(manufacturers.getSize())
+        .number(manufacturers.getNumber())
+        .hasNext(manufacturers.hasNext()).build());
   }
 
   @Override
-  public ResponseEntity<ManufacturerResponse> getManufacturerResponseById(String id) {
+  public ResponseEntity<ManufacturerResponse> getManufacturerResponseById(String id, String ifNoneMatch) {
     Manufacturer manufacturer = service.getManufacturerById(id);
-    return ResponseEntity.ok(mapper.manufacturerToManufacturerResponse(manufacturer));
+    String tag = EntityTags.of(manufacturer.getVersion());
+    if (EntityTags.matches(ifNoneMatch, tag)) {
+      return EntityTags.notModified(tag);
+    }
+    return ResponseEntity.ok().eTag(tag).body(mapper.manufacturerToManufacturerResponse(manufacturer));
+  }
+
+  @Override
+  public ResponseEntity<String> saveManufacturer(ManufacturerCreateRequest request, String idempotencyKey) {
+    String id = idempotency.execute("manufacturers", idempotencyKey,
+        () -> service.createManufacturer(mapper.manufacturerCreateRequestToManufacturer(request)).getId());
+    return new ResponseEntity<String>(id, HttpStatus.CREATED);
   }
 
   @Override
-  public ResponseEntity<String> saveManufacturer(ManufacturerCreateRequest request) {
-    Manufacturer manufacturer = service.createManufacturer(mapper.manufacturerCreateRequestToManufacturer(request));
-    return new ResponseEntity<String>(manufacturer.getId(), HttpStatus.CREATED);
+  public ResponseEntity<ManufacturerResponse> modifyManufacturer(ManufacturerModifyRequest request, String ifMatch) {
+    Manufacturer manufacturer = mapper.manufacturerModifyRequestToManufacturer(request);
+    manufacturer.setVersion(EntityTags.versionOf(ifMatch));
+    manufacturer = service.modifyManufacturer(manufacturer);
+    return ResponseEntity.ok().eTag(EntityTags.of(manufacturer.getVersion()))
+        .body(mapper.manufacturerToManufacturerResponse(manufacturer));
   }
 
   @Override
-  public ResponseEntity<ManufacturerResponse> modifyManufacturer(ManufacturerModifyRequest request) {
-    Manufacturer manufacturer = service.modifyManufacturer(mapper.manufacturerModifyRequestToManufacturer(request));
-    return ResponseEntity.ok(mapper.manufacturerToManufacturerResponse(manufacturer));
+  public ResponseEntity<ManufacturerResponse> patchManufacturer(String id, ManufacturerPatchRequest request,
+      String ifMatch) {
+    Manufacturer manufacturer = service.patchManufacturer(id, EntityTags.versionOf(ifMatch), request);
+    return ResponseEntity.ok().eTag(EntityTags.of(manufacturer.getVersion()))
+        .body(mapper.manufacturerToManufacturerResponse(manufacturer));
   }
 
   @Override
-  public ResponseEntity<Void> deleteManufacturerById(String id) {
-    service.deleteManufacturer(id);
+  public ResponseEntity<Void> deleteManufacturerById(String id, String ifMatch) {
+    service.deleteManufacturer(id, EntityTags.versionOf(ifMatch));
     return ResponseEntity.noContent().build();
   }
 }
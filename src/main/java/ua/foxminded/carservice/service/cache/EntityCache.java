@@ -0,0 +1,183 @@
+package ua.foxminded.carservice.service.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.StampedCar;
+
+/**
+ * Size and TTL bounded cache of cars, manufacturers and categories by id.
+ * Evictions run after the writing transaction commits. Every eviction also
+ * advances a generation counter of its cache, and a load that overlapped an
+ * eviction drops its value once stored, so a row read before the commit is
+ * served once but never kept. Loaders are expected to read from the primary.
+ * Entries are detached copies, and every read returns a fresh copy.
+ */
+@Component
+public class EntityCache {
+  private final Region<StampedCar> cars;
+  private final Region<Manufacturer> manufacturers;
+  private final Region<Category> categories;
+
+  @Autowired
+  public EntityCache(MeterRegistry registry,
+      @Value("${car-service.entity-cache.max-size:10000}") long maxSize,
+      @Value("${car-service.entity-cache.ttl:5m}") Duration ttl) {
+    cars = new Region<>(CaffeineCacheMetrics.monitor(registry, build(maxSize, ttl), "cars"), EntityCache::copy);
+    manufacturers = new Region<>(CaffeineCacheMetrics.monitor(registry, build(maxSize, ttl), "manufacturers"),
+        EntityCache::copy);
+    categories = new Region<>(CaffeineCacheMetrics.monitor(registry, build(maxSize, ttl), "categories"),
+        EntityCache::copy);
+  }
+
+  public Optional<StampedCar> getCar(String id, Supplier<Optional<StampedCar>> loader) {
+    return cars.get(id, loader);
+  }
+
+  public Optional<Manufacturer> getManufacturer(String id, Supplier<Optional<Manufacturer>> loader) {
+    return manufacturers.get(id, loader);
+  }
+
+  public Optional<Category> getCategory(String id, Supplier<Optional<Category>> loader) {
+    return categories.get(id, loader);
+  }
+
+  public void evictCar(String id) {
+    afterCommit(() -> cars.invalidate(id));
+  }
+
+  /**
+   * Evicts a manufacturer that no car refers to.
+   */
+  public void evictManufacturer(String id) {
+    afterCommit(() -> manufacturers.invalidate(id));
+  }
+
+  /**
+   * Evicts the manufacturer and every cached car that still shows its previous
+   * name.
+   */
+  public void evictManufacturer(String id, String previousName) {
+    afterCommit(() -> {
+      manufacturers.invalidate(id);
+      cars.invalidateIf(entry -> previousName.equals(entry.car().getManufacturer().getName()));
+    });
+  }
+
+  /**
+   * Evicts a category that no car refers to.
+   */
+  public void evictCategory(String id) {
+    afterCommit(() -> categories.invalidate(id));
+  }
+
+  /**
+   * Evicts the category and every cached car that still lists its previous
+   * name.
+   */
+  public void evictCategory(String id, String previousName) {
+    afterCommit(() -> {
+      categories.invalidate(id);
+      cars.invalidateIf(entry -> entry.car().getCategories().stream()
+          .anyMatch(category -> previousName.equals(category.getName())));
+    });
+  }
+
+  private static <T> Cache<String, T> build(long maxSize, Duration ttl) {
+    return Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+  }
+
+  private static void afterCommit(Runnable eviction) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      eviction.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        eviction.run();
+      }
+    });
+  }
+
+  private static StampedCar copy(StampedCar entry) {
+    return new StampedCar(copy(entry.car()), entry.stamp());
+  }
+
+  private static Car copy(Car car) {
+    return Car.builder()
+        .id(car.getId())
+        .manufacturer(copy(car.getManufacturer()))
+        .productionYear(car.getProductionYear())
+        .model(car.getModel())
+        .version(car.getVersion())
+        .categories(car.getCategories().stream().map(EntityCache::copy).collect(Collectors.toList())).build();
+  }
+
+  private static Manufacturer copy(Manufacturer manufacturer) {
+    return Manufacturer.builder()
+        .id(manufacturer.getId())
+        .name(manufacturer.getName())
+        .version(manufacturer.getVersion()).build();
+  }
+
+  private static Category copy(Category category) {
+    return Category.builder()
+        .id(category.getId())
+        .name(category.getName())
+        .version(category.getVersion()).build();
+  }
+
+  private static class Region<T> {
+    private final Cache<String, T> cache;
+    private final UnaryOperator<T> copy;
+    private final AtomicLong generation = new AtomicLong();
+
+    Region(Cache<String, T> cache, UnaryOperator<T> copy) {
+      this.cache = cache;
+      this.copy = copy;
+    }
+
+    Optional<T> get(String id, Supplier<Optional<T>> loader) {
+      long loadGeneration = generation.get();
+      T value = cache.get(id, key -> loader.get().map(copy).orElse(null));
+      if (value != null && generation.get() != loadGeneration) {
+        cache.asMap().remove(id, value);
+      }
+      return Optional.ofNullable(value).map(copy);
+    }
+
+    void invalidate(String id) {
+      generation.incrementAndGet();
+      cache.invalidate(id);
+    }
+
+    void invalidateIf(Predicate<T> predicate) {
+      generation.incrementAndGet();
+      cache.asMap().values().removeIf(predicate);
+    }
+  }
+}
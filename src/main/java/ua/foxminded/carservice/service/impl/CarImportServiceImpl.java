@@ -0,0 +1,189 @@
+package ua.foxminded.carservice.service.impl;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.function.LongConsumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import ua.foxminded.carservice.domain.CarImport;
+import ua.foxminded.carservice.domain.CarImportFormat;
+import ua.foxminded.carservice.domain.CarImportStatus;
+import ua.foxminded.carservice.event.CarsImportedEvent;
+import ua.foxminded.carservice.repository.CarImportRepository;
+import ua.foxminded.carservice.repository.CarImportResult;
+import ua.foxminded.carservice.repository.CarImportStagingRepository;
+import ua.foxminded.carservice.service.CarImportService;
+
+@Service
+public class CarImportServiceImpl implements CarImportService {
+  private static final long PROGRESS_INTERVAL_BYTES = 8L * 1024 * 1024;
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private final CarImportRepository importRepo;
+  private final CarImportStagingRepository stagingRepo;
+  private final ApplicationEventPublisher eventPublisher;
+  private final Path spoolDirectory;
+  private final TaskExecutor executor;
+
+  @Autowired
+  public CarImportServiceImpl(CarImportRepository importRepo, CarImportStagingRepository stagingRepo,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${car-service.import.spool-dir:${java.io.tmpdir}/car-imports}") Path spoolDirectory,
+      @Value("${car-service.import.concurrency:1}") int concurrency) {
+    this(importRepo, stagingRepo, eventPublisher, spoolDirectory, importExecutor(concurrency));
+  }
+
+  CarImportServiceImpl(CarImportRepository importRepo, CarImportStagingRepository stagingRepo,
+      ApplicationEventPublisher eventPublisher, Path spoolDirectory, TaskExecutor executor) {
+    this.importRepo = importRepo;
+    this.stagingRepo = stagingRepo;
+    this.eventPublisher = eventPublisher;
+    this.spoolDirectory = spoolDirectory;
+    this.executor = executor;
+  }
+
+  @Override
+  public CarImport getImportById(String id) {
+    return importRepo.findById(id)
+        .orElseThrow(() -> new EntityNotFoundException("Import with id=" + id + " doesn't exist."));
+  }
+
+  @Override
+  public CarImport createImport(CarImportFormat format, InputStream content) {
+    Path upload;
+    try {
+      Files.createDirectories(spoolDirectory);
+      upload = Files.createTempFile(spoolDirectory, "upload-", ".tmp");
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Import content cannot be spooled.", ex);
+    }
+
+    try {
+      long totalBytes = Files.copy(content, upload, StandardCopyOption.REPLACE_EXISTING);
+      CarImport carImport = importRepo.save(CarImport.builder()
+          .format(format)
+          .status(CarImportStatus.PENDING)
+          .totalBytes(totalBytes)
+          .loadedBytes(0L)
+          .importedRows(0L)
+          .rejectedRows(0L)
+          .createdAt(Instant.now()).build());
+      Files.move(upload, spoolDirectory.resolve(carImport.getId()));
+      executor.execute(() -> runImport(carImport.getId()));
+      return carImport;
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Import content cannot be spooled.", ex);
+    } finally {
+      deleteSpoolFile(upload);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (executor instanceof ThreadPoolTaskExecutor pool) {
+      pool.shutdown();
+    }
+  }
+
+  void runImport(String id) {
+    CarImport carImport = getImportById(id);
+    Path spoolFile = spoolDirectory.resolve(id);
+    carImport.setStatus(CarImportStatus.LOADING);
+    carImport.setStartedAt(Instant.now());
+    carImport = importRepo.save(carImport);
+
+    try (InputStream input = new ProgressInputStream(Files.newInputStream(spoolFile),
+        loadedBytes -> importRepo.updateLoadedBytes(id, loadedBytes))) {
+      CarImportResult result = stagingRepo.importCars(carImport.getFormat(), input,
+          () -> importRepo.updateStatus(id, CarImportStatus.MERGING));
+      carImport.setStatus(CarImportStatus.COMPLETED);
+      carImport.setLoadedBytes(carImport.getTotalBytes());
+      carImport.setImportedRows(result.importedRows());
+      carImport.setRejectedRows(result.rejectedRows());
+    } catch (IOException | RuntimeException ex) {
+      carImport.setStatus(CarImportStatus.FAILED);
+      carImport.setError(errorMessage(ex));
+    } finally {
+      deleteSpoolFile(spoolFile);
+    }
+
+    carImport.setFinishedAt(Instant.now());
+    importRepo.save(carImport);
+    if (carImport.getStatus() == CarImportStatus.COMPLETED && carImport.getImportedRows() > 0) {
+      eventPublisher.publishEvent(new CarsImportedEvent(id));
+    }
+  }
+
+  private static String errorMessage(Exception ex) {
+    String message = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+    return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+  }
+
+  private static void deleteSpoolFile(Path spoolFile) {
+    try {
+      Files.deleteIfExists(spoolFile);
+    } catch (IOException ex) {
+      // A leftover spool file only wastes disk space, the import result is already decided.
+    }
+  }
+
+  private static ThreadPoolTaskExecutor importExecutor(int concurrency) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(concurrency);
+    executor.setMaxPoolSize(concurrency);
+    executor.setThreadNamePrefix("car-import-");
+    executor.initialize();
+    return executor;
+  }
+
+  private static class ProgressInputStream extends FilterInputStream {
+    private final LongConsumer progress;
+    private long loadedBytes;
+    private long reportedBytes;
+
+    ProgressInputStream(InputStream in, LongConsumer progress) {
+      super(in);
+      this.progress = progress;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int value = super.read();
+      if (value >= 0) {
+        advance(1);
+      }
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int count = super.read(buffer, offset, length);
+      if (count > 0) {
+        advance(count);
+      }
+      return count;
+    }
+
+    private void advance(long count) {
+      loadedBytes += count;
+      if (loadedBytes - reportedBytes >= PROGRESS_INTERVAL_BYTES) {
+        reportedBytes = loadedBytes;
+        progress.accept(loadedBytes);
+      }
+    }
+  }
+}
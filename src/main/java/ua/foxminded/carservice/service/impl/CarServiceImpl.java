@@ -2,10 +2,24 @@ package ua.foxminded.carservice.service.impl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,48 +27,378 @@ import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import ua.foxminded.carservice.domain.Car;
 import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.CarBatchItemResponse;
+import ua.foxminded.carservice.dto.CarCreateRequest;
+import ua.foxminded.carservice.dto.CarFacetsResponse;
+import ua.foxminded.carservice.dto.CarPatchRequest;
 import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.ChangeStamp;
+import ua.foxminded.carservice.dto.FieldSelection;
+import ua.foxminded.carservice.dto.StampedCar;
+import ua.foxminded.carservice.event.AggregateType;
+import ua.foxminded.carservice.event.CarDeletedEvent;
+import ua.foxminded.carservice.event.CarModel;
+import ua.foxminded.carservice.event.CarSavedEvent;
+import ua.foxminded.carservice.event.ChangeType;
+import ua.foxminded.carservice.exception.BadRequestException;
+import ua.foxminded.carservice.repository.CarBatchRepository;
+import ua.foxminded.carservice.repository.CarChange;
+import ua.foxminded.carservice.repository.CarChangeRepository;
+import ua.foxminded.carservice.repository.CarExportRepository;
+import ua.foxminded.carservice.repository.CarFacetRepository;
+import ua.foxminded.carservice.repository.CarProjectionRepository;
 import ua.foxminded.carservice.repository.CarRepository;
-import ua.foxminded.carservice.repository.CarSpecifications;
+import ua.foxminded.carservice.repository.CarSearchRepository;
 import ua.foxminded.carservice.repository.CategoryRepository;
+import ua.foxminded.carservice.repository.IdentifierBlockRepository;
 import ua.foxminded.carservice.repository.ManufacturerRepository;
+import ua.foxminded.carservice.repository.RowCountEstimator;
+import ua.foxminded.carservice.service.CarChangeEntry;
 import ua.foxminded.carservice.service.CarService;
+import ua.foxminded.carservice.service.cache.EntityCache;
+import ua.foxminded.carservice.service.outbox.ChangeOutbox;
+import ua.foxminded.carservice.service.search.CarSearchIndex;
+import ua.foxminded.carservice.service.search.ModelSuggestion;
+import ua.foxminded.carservice.service.search.ModelSuggestionIndex;
 
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 @Service
 public class CarServiceImpl implements CarService {
+  private static final int MAX_SUGGESTIONS = 50;
+  private static final int MAX_BATCH_SIZE = 10000;
+  private static final int MAX_CHANGES = 1000;
+
   private final CarRepository carRepo;
+  private final CarBatchRepository batchRepo;
+  private final CarChangeRepository changeRepo;
+  private final CarExportRepository exportRepo;
+  private final CarProjectionRepository projectionRepo;
+  private final CarFacetRepository facetRepo;
+  private final CarSearchRepository carSearchRepo;
   private final CategoryRepository categoryRepo;
+  private final IdentifierBlockRepository idRepo;
   private final ManufacturerRepository manufacturerRepo;
+  private final CarSearchIndex searchIndex;
+  private final ModelSuggestionIndex modelSuggestionIndex;
+  private final RowCountEstimator countEstimator;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ChangeOutbox outbox;
+  private final EntityCache entityCache;
 
   @Override
-  @Transactional
-  public Page<Car> getCarsByParameters(CarSearchParameters parameters, Pageable pageable) {
-    return carRepo.findAll(CarSpecifications.withFilters(parameters), pageable);
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
+  public Page<Car> getCarsByParameters(CarSearchParameters parameters, FieldSelection fields,
+      Pageable pageable) {
+    return searchIndex.findIds(parameters, pageable)
+        .map(ids -> ids.map(fetchCars(ids, fields)::get))
+        .orElseGet(() -> projectionRepo.findAll(parameters, fields, pageable));
   }
 
   @Override
-  @Transactional
-  public Car getCarById(String id) {
-    return carRepo.findById(id).orElseThrow(() -> new EntityNotFoundException("Car with id=" + id + " doesn't exist."));
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
+  public Page<Car> getCarsByParameters(CarSearchParameters parameters, FieldSelection fields, Pageable pageable,
+      ChangeStamp stamp) {
+    return projectionRepo.findAll(parameters, fields, pageable, stamp.count());
+  }
+
+  @Override
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
+  public Page<Car> getCarsByParametersWithEstimatedTotal(CarSearchParameters parameters, FieldSelection fields,
+      Pageable pageable) {
+    Optional<Page<String>> indexedIds = searchIndex.findIds(parameters, pageable);
+    if (indexedIds.isPresent()) {
+      return indexedIds.get().map(fetchCars(indexedIds.get(), fields)::get);
+    }
+
+    OptionalLong estimatedTotal = countEstimator.estimateCars(parameters);
+    if (estimatedTotal.isEmpty()) {
+      return projectionRepo.findAll(parameters, fields, pageable);
+    }
+
+    return RowCountEstimator.toPage(projectionRepo.findSlice(parameters, fields, pageable),
+        estimatedTotal.getAsLong());
+  }
+
+  @Override
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
+  public Slice<Car> getCarSliceByParameters(CarSearchParameters parameters, FieldSelection fields,
+      Pageable pageable) {
+    return searchIndex.findIds(parameters, pageable)
+        .<Slice<Car>>map(ids -> ids.map(fetchCars(ids, fields)::get))
+        .orElseGet(() -> projectionRepo.findSlice(parameters, fields, pageable));
+  }
+
+  @Override
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
+  public Window<Car> getCarsByParameters(CarSearchParameters parameters, FieldSelection fields,
+      KeysetScrollPosition position, Sort sort, int limit) {
+    return projectionRepo.findWindow(parameters, fields, position, sort, limit);
+  }
+
+  @Override
+  @Transactional(timeoutString = "${car-service.query-timeout.lookup:2}")
+  public StampedCar getStampedCarById(String id) {
+    // Not read-only, so a miss loads from the primary. A row read from a lagging replica would otherwise
+    // stay cached until the TTL expires.
+    return entityCache.getCar(id, () -> projectionRepo.findStampedById(id))
+        .orElseThrow(() -> new EntityNotFoundException("Car with id=" + id + " doesn't exist."));
+  }
+
+  @Override
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
+  public Optional<ChangeStamp> getCarsStampByParameters(CarSearchParameters parameters, Pageable pageable) {
+    // The stamp query also counts the cars, it replaces the count of the page. Pages served by the
+    // search index are counted in memory and go without a stamp.
+    return searchIndex.serves(pageable) ? Optional.empty() : Optional.of(projectionRepo.findStamp(parameters));
+  }
+
+  @Override
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
+  public Window<CarChangeEntry> getCarChanges(KeysetScrollPosition position, int limit) {
+    if (limit < 1 || limit > MAX_CHANGES) {
+      throw new BadRequestException("Change limit must be between 1 and " + MAX_CHANGES + ".");
+    }
+
+    Map<String, Object> keys = position.getKeys();
+    if (!keys.isEmpty() && !(keys.get("seq") instanceof Number && keys.get("id") instanceof String)) {
+      throw new BadRequestException("Change token is malformed.");
+    }
+    long sequence = keys.isEmpty() ? 0 : ((Number) keys.get("seq")).longValue();
+    List<CarChange> changes = changeRepo.findAfter(sequence, (String) keys.get("id"), limit + 1);
+    boolean hasNext = changes.size() > limit;
+    List<CarChange> batch = hasNext ? changes.subList(0, limit) : changes;
+
+    List<String> changedIds = batch.stream().filter(change -> !change.deleted()).map(CarChange::carId).toList();
+    Map<String, Car> cars = changedIds.isEmpty() ? Map.of()
+        : projectionRepo.findAllByIdIn(changedIds).stream()
+            .collect(Collectors.toMap(Car::getId, Function.identity()));
+
+    // A car deleted after its change was read has no row left, it is reported as deleted and its
+    // tombstone follows later in the feed.
+    List<CarChangeEntry> content = batch.stream()
+        .map(change -> new CarChangeEntry(change.carId(), cars.get(change.carId()))).toList();
+    return Window.from(content, index -> ScrollPosition.forward(Map.of(
+        "seq", batch.get(index).sequence(), "id", batch.get(index).carId())), hasNext);
+  }
+
+  @Override
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.facets:10}")
+  public CarFacetsResponse getCarFacets(CarSearchParameters parameters) {
+    return searchIndex.countFacets(parameters).orElseGet(() -> facetRepo.countFacets(parameters));
+  }
+
+  @Override
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.export:-1}")
+  public void exportCars(CarSearchParameters parameters, Consumer<Car> consumer) {
+    exportRepo.forEachCar(parameters, consumer);
+  }
+
+  @Override
+  public List<ModelSuggestion> suggestModels(String prefix, String manufacturerName, int limit) {
+    if (limit < 1 || limit > MAX_SUGGESTIONS) {
+      throw new BadRequestException("Suggestion limit must be between 1 and " + MAX_SUGGESTIONS + ".");
+    }
+    return modelSuggestionIndex.suggest(prefix, manufacturerName, limit);
   }
 
   @Override
   @Transactional
   public Car createCar(Car car, String manufacturerName, List<String> categoryNames) {
-    return carRepo.save(setManufacturerAndCategories(car, manufacturerName, categoryNames));
+    Car savedCar = carRepo.saveAndFlush(setManufacturerAndCategories(car, manufacturerName, categoryNames));
+    carSearchRepo.refreshCar(savedCar.getId());
+    outbox.carSaved(savedCar, ChangeType.CREATED);
+    changeRepo.recordCars(List.of(savedCar.getId()), false);
+    eventPublisher.publishEvent(new CarSavedEvent(savedCar));
+    return savedCar;
+  }
+
+  @Override
+  @Transactional
+  public List<CarBatchItemResponse> createCars(List<CarCreateRequest> requests) {
+    if (requests.size() > MAX_BATCH_SIZE) {
+      throw new BadRequestException("Batch size must not exceed " + MAX_BATCH_SIZE + ".");
+    }
+    if (requests.isEmpty()) {
+      return List.of();
+    }
+
+    Map<String, Manufacturer> manufacturers = manufacturerRepo.findByNameIn(requests.stream()
+        .map(CarCreateRequest::getManufacturerName).collect(Collectors.toSet())).stream()
+        .collect(Collectors.toMap(Manufacturer::getName, Function.identity()));
+    Map<String, Category> categories = categoryRepo.findByNameIn(requests.stream()
+        .flatMap(request -> request.getCategoryNames().stream()).collect(Collectors.toSet())).stream()
+        .collect(Collectors.toMap(Category::getName, Function.identity()));
+
+    List<CarBatchItemResponse> results = new ArrayList<>(requests.size());
+    List<Car> cars = new ArrayList<>(requests.size());
+    for (int i = 0; i < requests.size(); i++) {
+      CarCreateRequest request = requests.get(i);
+      Manufacturer manufacturer = manufacturers.get(request.getManufacturerName());
+      Optional<String> missingCategory = request.getCategoryNames().stream()
+          .filter(name -> !categories.containsKey(name)).findFirst();
+
+      if (manufacturer == null) {
+        results.add(notFound(i, "Manufacturer with name = " + request.getManufacturerName() + " doesn't exist."));
+      } else if (missingCategory.isPresent()) {
+        results.add(notFound(i, "Category with name = " + missingCategory.get() + " doesn't exist."));
+      } else {
+        Car car = Car.builder()
+            .id(idRepo.nextId())
+            .manufacturer(manufacturer)
+            .productionYear(request.getProductionYear())
+            .model(request.getModel())
+            .categories(request.getCategoryNames().stream().distinct().map(categories::get)
+                .collect(Collectors.toList()))
+            .build();
+        cars.add(car);
+        results.add(CarBatchItemResponse.builder().index(i).status(201).id(car.getId()).build());
+      }
+    }
+
+    if (!cars.isEmpty()) {
+      batchRepo.insertCars(cars);
+      carSearchRepo.refreshCars(cars.stream().map(Car::getId).toList());
+      outbox.carsCreated(cars);
+      changeRepo.recordCars(cars.stream().map(Car::getId).toList(), false);
+      cars.forEach(car -> eventPublisher.publishEvent(new CarSavedEvent(car)));
+    }
+    return results;
   }
 
   @Override
   @Transactional
   public Car modifyCar(Car car, String manufacturerName, List<String> categoryNames) {
-    return carRepo.save(setManufacturerAndCategories(car, manufacturerName, categoryNames));
+    Car currentCar = carRepo.findById(car.getId())
+        .orElseThrow(() -> new EntityNotFoundException("Car with id=" + car.getId() + " doesn't exist."));
+    checkVersion(currentCar, car.getVersion());
+    car.setVersion(currentCar.getVersion());
+    // The merge below overwrites the managed car, so its model is taken first.
+    CarModel previous = CarModel.of(currentCar);
+
+    Car savedCar = carRepo.saveAndFlush(setManufacturerAndCategories(car, manufacturerName, categoryNames));
+    carSearchRepo.refreshCar(savedCar.getId());
+    outbox.carSaved(savedCar, ChangeType.UPDATED);
+    changeRepo.recordCars(List.of(savedCar.getId()), false);
+    entityCache.evictCar(savedCar.getId());
+    eventPublisher.publishEvent(new CarSavedEvent(savedCar, previous));
+    return savedCar;
+  }
+
+  @Override
+  @Transactional
+  public Car patchCar(String id, Long version, CarPatchRequest patch) {
+    Car car = carRepo.findById(id)
+        .orElseThrow(() -> new EntityNotFoundException("Car with id=" + id + " doesn't exist."));
+    checkVersion(car, version);
+    Car patchedCar = Car.builder()
+        .id(car.getId())
+        .version(car.getVersion())
+        .manufacturer(car.getManufacturer())
+        .productionYear(car.getProductionYear())
+        .model(car.getModel())
+        .categories(car.getCategories()).build();
+
+    if (patch.getManufacturerName() != null
+        && !patch.getManufacturerName().equals(car.getManufacturer().getName())) {
+      patchedCar.setManufacturer(manufacturerRepo.findByName(patch.getManufacturerName()).orElseThrow(
+          () -> new EntityNotFoundException(
+              "Manufacturer with name = " + patch.getManufacturerName() + " doesn't exist.")));
+    }
+    if (patch.getProductionYear() != null) {
+      patchedCar.setProductionYear(patch.getProductionYear());
+    }
+    if (patch.getModel() != null) {
+      patchedCar.setModel(patch.getModel());
+    }
+    if (patch.getCategoryNames() != null) {
+      patchedCar.setCategories(patchCategories(car, patch.getCategoryNames()));
+    }
+
+    if (patchedCar.equals(car)) {
+      return car;
+    }
+
+    // Scalar changes go through dirty checking, so the UPDATE only lists the changed columns. The managed
+    // category collection is left untouched, otherwise Hibernate would rewrite every cars_categories row,
+    // so a category-only change has to bump the version explicitly.
+    boolean categoriesOnly = patchedCar.getManufacturer() == car.getManufacturer()
+        && patchedCar.getProductionYear().equals(car.getProductionYear())
+        && patchedCar.getModel().equals(car.getModel());
+    CarModel previous = CarModel.of(car);
+    car.setManufacturer(patchedCar.getManufacturer());
+    car.setProductionYear(patchedCar.getProductionYear());
+    car.setModel(patchedCar.getModel());
+    if (categoriesOnly) {
+      carRepo.incrementVersion(car);
+    }
+    carRepo.flush();
+    patchedCar.setVersion(car.getVersion());
+    patchedCar.setChangeSeq(car.getChangeSeq());
+    carSearchRepo.refreshCar(id);
+    outbox.carSaved(patchedCar, ChangeType.UPDATED);
+    changeRepo.recordCars(List.of(id), false);
+    entityCache.evictCar(id);
+    eventPublisher.publishEvent(new CarSavedEvent(patchedCar, previous));
+    return patchedCar;
   }
 
   @Override
   @Transactional
-  public void deleteCar(String id) {
-    carRepo.deleteById(id);
+  public void deleteCar(String id, Long version) {
+    Optional<Car> car = carRepo.findById(id);
+    if (car.isEmpty()) {
+      if (version != null) {
+        throw new OptimisticLockingFailureException("Car with id=" + id + " doesn't exist.");
+      }
+      return;
+    }
+    checkVersion(car.get(), version);
+    carRepo.delete(car.get());
+    outbox.deleted(AggregateType.CAR, id);
+    changeRepo.recordCars(List.of(id), true);
+    entityCache.evictCar(id);
+    eventPublisher.publishEvent(new CarDeletedEvent(id, CarModel.of(car.get())));
+  }
+
+  private static void checkVersion(Car car, Long version) {
+    if (version != null && !version.equals(car.getVersion())) {
+      throw new OptimisticLockingFailureException("Car with id=" + car.getId() + " has been modified.");
+    }
+  }
+
+  private Map<String, Car> fetchCars(Slice<String> ids, FieldSelection fields) {
+    return ids.isEmpty() ? Map.of()
+        : projectionRepo.findAllByIdIn(ids.getContent(), fields).stream()
+            .collect(Collectors.toMap(Car::getId, Function.identity()));
+  }
+
+  private List<Category> patchCategories(Car car, List<String> categoryNames) {
+    Map<String, Category> categories = categoryRepo.findByNameIn(Set.copyOf(categoryNames)).stream()
+        .collect(Collectors.toMap(Category::getName, Function.identity()));
+    List<Category> requested = categoryNames.stream().distinct().map(categoryName -> {
+      Category category = categories.get(categoryName);
+      if (category == null) {
+        throw new EntityNotFoundException("Category with name = " + categoryName + " doesn't exist.");
+      }
+      return category;
+    }).toList();
+
+    Set<String> currentIds = car.getCategories().stream().map(Category::getId).collect(Collectors.toSet());
+    Set<String> requestedIds = requested.stream().map(Category::getId).collect(Collectors.toSet());
+    List<String> added = requestedIds.stream().filter(categoryId -> !currentIds.contains(categoryId)).toList();
+    List<String> removed = currentIds.stream().filter(categoryId -> !requestedIds.contains(categoryId)).toList();
+    if (added.isEmpty() && removed.isEmpty()) {
+      return car.getCategories();
+    }
+
+    batchRepo.deleteCarCategories(car.getId(), removed);
+    batchRepo.insertCarCategories(car.getId(), added);
+    return new ArrayList<>(requested);
+  }
+
+  private static CarBatchItemResponse notFound(int index, String message) {
+    return CarBatchItemResponse.builder().index(index).status(404).message(message).build();
   }
 
   private Car setManufacturerAndCategories(Car car, String manufacturerName, List<String> categoryNames) {
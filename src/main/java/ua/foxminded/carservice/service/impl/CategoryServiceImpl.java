@@ -1,54 +1,158 @@
 package ua.foxminded.carservice.service.impl;
 
+import java.util.Optional;
+import java.util.OptionalLong;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.dto.CategoryPatchRequest;
+import ua.foxminded.carservice.dto.ChangeStamp;
+import ua.foxminded.carservice.event.AggregateType;
+import ua.foxminded.carservice.event.CategorySavedEvent;
+import ua.foxminded.carservice.event.ChangeType;
+import ua.foxminded.carservice.repository.CarChangeRepository;
+import ua.foxminded.carservice.repository.CarSearchRepository;
 import ua.foxminded.carservice.repository.CategoryRepository;
+import ua.foxminded.carservice.repository.RowCountEstimator;
 import ua.foxminded.carservice.service.CategoryService;
+import ua.foxminded.carservice.service.cache.EntityCache;
+import ua.foxminded.carservice.service.outbox.ChangeOutbox;
 
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 @Service
 public class CategoryServiceImpl implements CategoryService {
   private final CategoryRepository repo;
+  private final CarChangeRepository carChangeRepo;
+  private final CarSearchRepository carSearchRepo;
+  private final RowCountEstimator countEstimator;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ChangeOutbox outbox;
+  private final EntityCache entityCache;
 
   @Override
-  @Transactional
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
   public Page<Category> getCategoriesByName(String name, Pageable pageable) {
     if (name == null || name.isBlank()) {
       return repo.findAll(pageable);
+    } else if (pageable.getSort().isSorted()) {
+      return repo.findByNameContainingIgnoreCase(name, pageable);
     } else {
-      return repo.findByNameContaining(name, pageable);
+      return repo.findRankedByNameContainingIgnoreCase(name, pageable);
     }
   }
 
   @Override
-  @Transactional
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
+  public Page<Category> getCategoriesByNameWithEstimatedTotal(String name, Pageable pageable) {
+    OptionalLong estimatedTotal = countEstimator.estimateCategories(name);
+    if (estimatedTotal.isEmpty()) {
+      return getCategoriesByName(name, pageable);
+    }
+    return RowCountEstimator.toPage(getCategorySliceByName(name, pageable), estimatedTotal.getAsLong());
+  }
+
+  @Override
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
+  public Slice<Category> getCategorySliceByName(String name, Pageable pageable) {
+    if (name == null || name.isBlank()) {
+      return repo.findAllBy(pageable);
+    } else if (pageable.getSort().isSorted()) {
+      return repo.findSliceByNameContainingIgnoreCase(name, pageable);
+    } else {
+      return repo.findRankedSliceByNameContainingIgnoreCase(name, pageable);
+    }
+  }
+
+  @Override
+  @Transactional(timeoutString = "${car-service.query-timeout.lookup:2}")
   public Category getCategoryById(String id) {
-    return repo.findById(id)
+    return entityCache.getCategory(id, () -> repo.findById(id))
         .orElseThrow(() -> new EntityNotFoundException("Category with id=" + id + " doesn't exist."));
   }
 
+  @Override
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
+  public ChangeStamp getCategoriesStampByName(String name) {
+    return repo.findStampByNameContainingIgnoreCase(name == null ? "" : name);
+  }
+
   @Override
   @Transactional
   public Category createCategory(Category category) {
-    return repo.save(category);
+    Category savedCategory = repo.save(category);
+    outbox.categorySaved(savedCategory, ChangeType.CREATED);
+    eventPublisher.publishEvent(new CategorySavedEvent(savedCategory));
+    return savedCategory;
   }
 
   @Override
   @Transactional
   public Category modifyCategory(Category category) {
-    return repo.save(category);
+    Category currentCategory = repo.findById(category.getId()).orElseThrow(
+        () -> new EntityNotFoundException("Category with id=" + category.getId() + " doesn't exist."));
+    checkVersion(currentCategory, category.getVersion());
+    category.setVersion(currentCategory.getVersion());
+    String previousName = currentCategory.getName();
+
+    Category savedCategory = repo.saveAndFlush(category);
+    carSearchRepo.refreshCategory(savedCategory.getId());
+    outbox.categorySaved(savedCategory, ChangeType.UPDATED);
+    carChangeRepo.recordCarsOfCategory(savedCategory.getId());
+    entityCache.evictCategory(savedCategory.getId(), previousName);
+    eventPublisher.publishEvent(new CategorySavedEvent(savedCategory));
+    return savedCategory;
+  }
+
+  @Override
+  @Transactional
+  public Category patchCategory(String id, Long version, CategoryPatchRequest patch) {
+    Category category = repo.findById(id)
+        .orElseThrow(() -> new EntityNotFoundException("Category with id=" + id + " doesn't exist."));
+    checkVersion(category, version);
+    if (patch.getName() == null || patch.getName().equals(category.getName())) {
+      return category;
+    }
+
+    String previousName = category.getName();
+    category.setName(patch.getName());
+    repo.flush();
+    carSearchRepo.refreshCategory(id);
+    outbox.categorySaved(category, ChangeType.UPDATED);
+    carChangeRepo.recordCarsOfCategory(id);
+    entityCache.evictCategory(id, previousName);
+    eventPublisher.publishEvent(new CategorySavedEvent(category));
+    return category;
   }
 
   @Override
   @Transactional
-  public void deleteCategory(String id) {
-    repo.deleteById(id);
+  public void deleteCategory(String id, Long version) {
+    Optional<Category> category = repo.findById(id);
+    if (category.isEmpty()) {
+      if (version != null) {
+        throw new OptimisticLockingFailureException("Category with id=" + id + " doesn't exist.");
+      }
+      return;
+    }
+    checkVersion(category.get(), version);
+    repo.delete(category.get());
+    outbox.deleted(AggregateType.CATEGORY, id);
+    entityCache.evictCategory(id);
+  }
+
+  private static void checkVersion(Category category, Long version) {
+    if (version != null && !version.equals(category.getVersion())) {
+      throw new OptimisticLockingFailureException("Category with id=" + category.getId() + " has been modified.");
+    }
   }
 }
@@ -0,0 +1,128 @@
+package ua.foxminded.carservice.service.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ua.foxminded.carservice.exception.BadRequestException;
+import ua.foxminded.carservice.repository.IdempotencyKeyRepository;
+import ua.foxminded.carservice.repository.IdempotencyRecord;
+import ua.foxminded.carservice.service.IdempotencyService;
+
+/**
+ * Stores each key with the created id in the same transaction as the write. Recent
+ * keys are also held in an in-memory LRU, so most retries skip the database.
+ * Expired rows are purged at most once per cleanup interval, on the next keyed
+ * write. When two requests with the same key race, the later insert fails on the
+ * key and returns the winner's id.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private final IdempotencyKeyRepository repo;
+  private final TransactionOperations transaction;
+  private final Duration ttl;
+  private final Duration cleanupInterval;
+  private final Clock clock;
+  private final Map<String, IdempotencyRecord> recent;
+  private volatile Instant nextCleanup = Instant.MIN;
+
+  @Autowired
+  public IdempotencyServiceImpl(IdempotencyKeyRepository repo, PlatformTransactionManager transactionManager,
+      @Value("${car-service.idempotency.ttl:24h}") Duration ttl,
+      @Value("${car-service.idempotency.cache-size:10000}") int cacheSize,
+      @Value("${car-service.idempotency.cleanup-interval:10m}") Duration cleanupInterval) {
+    this(repo, new TransactionTemplate(transactionManager), ttl, cacheSize, cleanupInterval, Clock.systemUTC());
+  }
+
+  IdempotencyServiceImpl(IdempotencyKeyRepository repo, TransactionOperations transaction, Duration ttl,
+      int cacheSize, Duration cleanupInterval, Clock clock) {
+    this.repo = repo;
+    this.transaction = transaction;
+    this.ttl = ttl;
+    this.cleanupInterval = cleanupInterval;
+    this.clock = clock;
+    this.recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+        return size() > cacheSize;
+      }
+    });
+  }
+
+  @Override
+  public String execute(String scope, String key, Supplier<String> write) {
+    if (key == null) {
+      return write.get();
+    }
+    if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      throw new BadRequestException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH
+          + " characters long.");
+    }
+
+    Instant now = clock.instant();
+    Instant expiredAt = now.minus(ttl);
+    String cacheKey = scope + ":" + key;
+    Optional<IdempotencyRecord> previous = findRecent(cacheKey, expiredAt).or(() -> repo.find(scope, key, expiredAt));
+    if (previous.isPresent()) {
+      recent.put(cacheKey, previous.get());
+      return previous.get().resourceId();
+    }
+
+    cleanUpIfDue(now);
+    IdempotencyRecord saved;
+    try {
+      saved = transaction.execute(status -> {
+        repo.deleteExpired(scope, key, expiredAt);
+        IdempotencyRecord written = new IdempotencyRecord(write.get(), now);
+        repo.save(scope, key, written.resourceId(), now);
+        return written;
+      });
+    } catch (DuplicateKeyException ex) {
+      saved = repo.find(scope, key, expiredAt).orElseThrow(() -> ex);
+    }
+    recent.put(cacheKey, saved);
+    return saved.resourceId();
+  }
+
+  private Optional<IdempotencyRecord> findRecent(String cacheKey, Instant expiredAt) {
+    IdempotencyRecord cached = recent.get(cacheKey);
+    if (cached == null) {
+      return Optional.empty();
+    }
+    if (!cached.createdAt().isAfter(expiredAt)) {
+      recent.remove(cacheKey);
+      return Optional.empty();
+    }
+    return Optional.of(cached);
+  }
+
+  private void cleanUpIfDue(Instant now) {
+    if (now.isBefore(nextCleanup)) {
+      return;
+    }
+    synchronized (this) {
+      if (now.isBefore(nextCleanup)) {
+        return;
+      }
+      nextCleanup = now.plus(cleanupInterval);
+    }
+    repo.deleteExpired(now.minus(ttl));
+  }
+}
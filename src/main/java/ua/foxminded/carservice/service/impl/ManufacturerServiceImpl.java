@@ -1,54 +1,159 @@
 package ua.foxminded.carservice.service.impl;
 
+import java.util.Optional;
+import java.util.OptionalLong;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.ChangeStamp;
+import ua.foxminded.carservice.dto.ManufacturerPatchRequest;
+import ua.foxminded.carservice.event.AggregateType;
+import ua.foxminded.carservice.event.ChangeType;
+import ua.foxminded.carservice.event.ManufacturerSavedEvent;
+import ua.foxminded.carservice.repository.CarChangeRepository;
+import ua.foxminded.carservice.repository.CarSearchRepository;
 import ua.foxminded.carservice.repository.ManufacturerRepository;
+import ua.foxminded.carservice.repository.RowCountEstimator;
 import ua.foxminded.carservice.service.ManufacturerService;
+import ua.foxminded.carservice.service.cache.EntityCache;
+import ua.foxminded.carservice.service.outbox.ChangeOutbox;
 
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 @Service
 public class ManufacturerServiceImpl implements ManufacturerService {
   private final ManufacturerRepository repo;
+  private final CarChangeRepository carChangeRepo;
+  private final CarSearchRepository carSearchRepo;
+  private final RowCountEstimator countEstimator;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ChangeOutbox outbox;
+  private final EntityCache entityCache;
 
   @Override
-  @Transactional
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
   public Page<Manufacturer> getManufacturersByName(String name, Pageable pageable) {
     if (name == null || name.isBlank()) {
       return repo.findAll(pageable);
+    } else if (pageable.getSort().isSorted()) {
+      return repo.findByNameContainingIgnoreCase(name, pageable);
     } else {
-      return repo.findByNameContaining(name, pageable);
+      return repo.findRankedByNameContainingIgnoreCase(name, pageable);
     }
   }
 
   @Override
-  @Transactional
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
+  public Page<Manufacturer> getManufacturersByNameWithEstimatedTotal(String name, Pageable pageable) {
+    OptionalLong estimatedTotal = countEstimator.estimateManufacturers(name);
+    if (estimatedTotal.isEmpty()) {
+      return getManufacturersByName(name, pageable);
+    }
+    return RowCountEstimator.toPage(getManufacturerSliceByName(name, pageable), estimatedTotal.getAsLong());
+  }
+
+  @Override
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
+  public Slice<Manufacturer> getManufacturerSliceByName(String name, Pageable pageable) {
+    if (name == null || name.isBlank()) {
+      return repo.findAllBy(pageable);
+    } else if (pageable.getSort().isSorted()) {
+      return repo.findSliceByNameContainingIgnoreCase(name, pageable);
+    } else {
+      return repo.findRankedSliceByNameContainingIgnoreCase(name, pageable);
+    }
+  }
+
+  @Override
+  @Transactional(timeoutString = "${car-service.query-timeout.lookup:2}")
   public Manufacturer getManufacturerById(String id) {
-    return repo.findById(id)
+    return entityCache.getManufacturer(id, () -> repo.findById(id))
         .orElseThrow(() -> new EntityNotFoundException("Manufacturer with id=" + id + " doesn't exist."));
   }
 
+  @Override
+  @Transactional(readOnly = true, timeoutString = "${car-service.query-timeout.search:5}")
+  public ChangeStamp getManufacturersStampByName(String name) {
+    return repo.findStampByNameContainingIgnoreCase(name == null ? "" : name);
+  }
+
   @Override
   @Transactional
   public Manufacturer createManufacturer(Manufacturer manufacturer) {
-    return repo.save(manufacturer);
+    Manufacturer savedManufacturer = repo.save(manufacturer);
+    outbox.manufacturerSaved(savedManufacturer, ChangeType.CREATED);
+    eventPublisher.publishEvent(new ManufacturerSavedEvent(savedManufacturer));
+    return savedManufacturer;
   }
 
   @Override
   @Transactional
   public Manufacturer modifyManufacturer(Manufacturer manufacturer) {
-    return repo.save(manufacturer);
+    Manufacturer currentManufacturer = repo.findById(manufacturer.getId()).orElseThrow(
+        () -> new EntityNotFoundException("Manufacturer with id=" + manufacturer.getId() + " doesn't exist."));
+    checkVersion(currentManufacturer, manufacturer.getVersion());
+    manufacturer.setVersion(currentManufacturer.getVersion());
+    String previousName = currentManufacturer.getName();
+
+    Manufacturer savedManufacturer = repo.saveAndFlush(manufacturer);
+    carSearchRepo.renameManufacturer(savedManufacturer.getId(), savedManufacturer.getName());
+    outbox.manufacturerSaved(savedManufacturer, ChangeType.UPDATED);
+    carChangeRepo.recordCarsOfManufacturer(savedManufacturer.getId());
+    entityCache.evictManufacturer(savedManufacturer.getId(), previousName);
+    eventPublisher.publishEvent(new ManufacturerSavedEvent(savedManufacturer));
+    return savedManufacturer;
+  }
+
+  @Override
+  @Transactional
+  public Manufacturer patchManufacturer(String id, Long version, ManufacturerPatchRequest patch) {
+    Manufacturer manufacturer = repo.findById(id)
+        .orElseThrow(() -> new EntityNotFoundException("Manufacturer with id=" + id + " doesn't exist."));
+    checkVersion(manufacturer, version);
+    if (patch.getName() == null || patch.getName().equals(manufacturer.getName())) {
+      return manufacturer;
+    }
+
+    String previousName = manufacturer.getName();
+    manufacturer.setName(patch.getName());
+    repo.flush();
+    carSearchRepo.renameManufacturer(id, manufacturer.getName());
+    outbox.manufacturerSaved(manufacturer, ChangeType.UPDATED);
+    carChangeRepo.recordCarsOfManufacturer(id);
+    entityCache.evictManufacturer(id, previousName);
+    eventPublisher.publishEvent(new ManufacturerSavedEvent(manufacturer));
+    return manufacturer;
   }
 
   @Override
   @Transactional
-  public void deleteManufacturer(String id) {
-    repo.deleteById(id);
+  public void deleteManufacturer(String id, Long version) {
+    Optional<Manufacturer> manufacturer = repo.findById(id);
+    if (manufacturer.isEmpty()) {
+      if (version != null) {
+        throw new OptimisticLockingFailureException("Manufacturer with id=" + id + " doesn't exist.");
+      }
+      return;
+    }
+    checkVersion(manufacturer.get(), version);
+    repo.delete(manufacturer.get());
+    outbox.deleted(AggregateType.MANUFACTURER, id);
+    entityCache.evictManufacturer(id);
+  }
+
+  private static void checkVersion(Manufacturer manufacturer, Long version) {
+    if (version != null && !version.equals(manufacturer.getVersion())) {
+      throw new OptimisticLockingFailureException(
+          "Manufacturer with id=" + manufacturer.getId() + " has been modified.");
+    }
   }
 }
@@ -0,0 +1,14 @@
+package ua.foxminded.carservice.service.outbox;
+
+import java.util.List;
+
+import ua.foxminded.carservice.event.ChangeEvent;
+
+/**
+ * Destination of relayed change events. Delivery is at least once: a batch is
+ * offered again if publishing throws, so consumers should skip event ids they
+ * have already processed.
+ */
+public interface ChangeEventSink {
+  void publish(List<ChangeEvent> events);
+}
@@ -0,0 +1,76 @@
+package ua.foxminded.carservice.service.outbox;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.event.AggregateType;
+import ua.foxminded.carservice.event.ChangeType;
+import ua.foxminded.carservice.mapper.CarMapper;
+import ua.foxminded.carservice.mapper.CategoryMapper;
+import ua.foxminded.carservice.mapper.ManufacturerMapper;
+import ua.foxminded.carservice.repository.OutboxEntry;
+import ua.foxminded.carservice.repository.OutboxRepository;
+
+/**
+ * Records catalogue writes in the outbox table. Callers have to be inside the
+ * write transaction, so an event is stored if and only if the write commits.
+ */
+@Component
+public class ChangeOutbox {
+  private final OutboxRepository repo;
+  private final CarMapper carMapper;
+  private final ManufacturerMapper manufacturerMapper;
+  private final CategoryMapper categoryMapper;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Autowired
+  public ChangeOutbox(OutboxRepository repo, CarMapper carMapper, ManufacturerMapper manufacturerMapper,
+      CategoryMapper categoryMapper) {
+    this.repo = repo;
+    this.carMapper = carMapper;
+    this.manufacturerMapper = manufacturerMapper;
+    this.categoryMapper = categoryMapper;
+  }
+
+  public void carSaved(Car car, ChangeType type) {
+    repo.append(carEntry(car, type));
+  }
+
+  public void carsCreated(List<Car> cars) {
+    repo.appendAll(cars.stream().map(car -> carEntry(car, ChangeType.CREATED)).toList());
+  }
+
+  public void manufacturerSaved(Manufacturer manufacturer, ChangeType type) {
+    repo.append(new OutboxEntry(AggregateType.MANUFACTURER, manufacturer.getId(), type,
+        toJson(manufacturerMapper.manufacturerToManufacturerResponse(manufacturer))));
+  }
+
+  public void categorySaved(Category category, ChangeType type) {
+    repo.append(new OutboxEntry(AggregateType.CATEGORY, category.getId(), type,
+        toJson(categoryMapper.categoryToCategoryResponse(category))));
+  }
+
+  public void deleted(AggregateType aggregateType, String id) {
+    repo.append(new OutboxEntry(aggregateType, id, ChangeType.DELETED, null));
+  }
+
+  private OutboxEntry carEntry(Car car, ChangeType type) {
+    return new OutboxEntry(AggregateType.CAR, car.getId(), type, toJson(carMapper.carToCarResponse(car)));
+  }
+
+  private String toJson(Object response) {
+    try {
+      return objectMapper.writeValueAsString(response);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Change event payload cannot be encoded.", ex);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package ua.foxminded.carservice.service.outbox;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import ua.foxminded.carservice.event.ChangeEvent;
+
+/**
+ * Appends change events to a file, one JSON object per line.
+ */
+@Component
+@ConditionalOnProperty(name = "car-service.outbox.sink", havingValue = "file")
+public class FileChangeEventSink implements ChangeEventSink {
+  private final Path file;
+  private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+  @Autowired
+  public FileChangeEventSink(@Value("${car-service.outbox.file:${java.io.tmpdir}/car-changes.jsonl}") Path file) {
+    this.file = file;
+  }
+
+  @Override
+  public synchronized void publish(List<ChangeEvent> events) {
+    try {
+      if (file.getParent() != null) {
+        Files.createDirectories(file.getParent());
+      }
+      try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND)) {
+        for (ChangeEvent event : events) {
+          writer.write(objectMapper.writeValueAsString(event));
+          writer.newLine();
+        }
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Change events cannot be written to " + file + ".", ex);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package ua.foxminded.carservice.service.outbox;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import ua.foxminded.carservice.event.ChangeEvent;
+
+@Component
+@ConditionalOnProperty(name = "car-service.outbox.sink", havingValue = "in-process", matchIfMissing = true)
+public class InProcessChangeEventSink implements ChangeEventSink {
+  private final ApplicationEventPublisher eventPublisher;
+
+  @Autowired
+  public InProcessChangeEventSink(ApplicationEventPublisher eventPublisher) {
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Override
+  public void publish(List<ChangeEvent> events) {
+    events.forEach(eventPublisher::publishEvent);
+  }
+}
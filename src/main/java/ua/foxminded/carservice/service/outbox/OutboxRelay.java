@@ -0,0 +1,90 @@
+package ua.foxminded.carservice.service.outbox;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ua.foxminded.carservice.event.ChangeEvent;
+import ua.foxminded.carservice.repository.OutboxRepository;
+
+/**
+ * Moves events from the outbox table to the sink in id order. A batch is
+ * deleted in the same transaction that locked it, only after the sink accepted
+ * it, so a failed publish leaves the batch in place for the next poll.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+  private final OutboxRepository repo;
+  private final ChangeEventSink sink;
+  private final TransactionOperations transaction;
+  private final boolean enabled;
+  private final Duration pollInterval;
+  private final int batchSize;
+  private ThreadPoolTaskScheduler scheduler;
+
+  @Autowired
+  public OutboxRelay(OutboxRepository repo, ChangeEventSink sink, TransactionOperations transaction,
+      @Value("${car-service.outbox.relay.enabled:true}") boolean enabled,
+      @Value("${car-service.outbox.relay.poll-interval:1s}") Duration pollInterval,
+      @Value("${car-service.outbox.relay.batch-size:500}") int batchSize) {
+    this.repo = repo;
+    this.sink = sink;
+    this.transaction = transaction;
+    this.enabled = enabled;
+    this.pollInterval = pollInterval;
+    this.batchSize = batchSize;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void start() {
+    if (!enabled || scheduler != null) {
+      return;
+    }
+    scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setThreadNamePrefix("outbox-relay-");
+    scheduler.initialize();
+    scheduler.scheduleWithFixedDelay(this::relay, pollInterval);
+  }
+
+  @PreDestroy
+  public synchronized void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdown();
+    }
+  }
+
+  void relay() {
+    try {
+      // Keep draining while full batches come back, a backlog should not wait a poll interval per batch.
+      int published;
+      do {
+        published = publishBatch();
+      } while (published == batchSize);
+    } catch (RuntimeException ex) {
+      log.warn("Publishing outbox events failed, the batch stays in the outbox until the next poll.", ex);
+    }
+  }
+
+  int publishBatch() {
+    Integer published = transaction.execute(status -> {
+      List<ChangeEvent> events = repo.findPending(batchSize);
+      if (events.isEmpty()) {
+        return 0;
+      }
+      sink.publish(events);
+      repo.delete(events.stream().map(ChangeEvent::id).toList());
+      return events.size();
+    });
+    return published == null ? 0 : published;
+  }
+}
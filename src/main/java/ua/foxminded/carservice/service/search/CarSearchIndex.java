@@ -0,0 +1,449 @@
+package ua.foxminded.carservice.service.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.dto.CarFacetsResponse;
+import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.FacetCountResponse;
+import ua.foxminded.carservice.event.CarDeletedEvent;
+import ua.foxminded.carservice.event.CarSavedEvent;
+import ua.foxminded.carservice.event.CarsImportedEvent;
+import ua.foxminded.carservice.event.CategorySavedEvent;
+import ua.foxminded.carservice.event.ManufacturerSavedEvent;
+import ua.foxminded.carservice.repository.CarIndexEntry;
+import ua.foxminded.carservice.repository.CarRepository;
+
+/**
+ * In-memory bitmap index over car ordinals. Ordinals follow car id order, so
+ * iterating a bitmap yields ids in the same order the database pages them.
+ * Ordinals of deleted cars are reused by later inserts; an insert that can't
+ * find a free or trailing ordinal between its neighbours marks the index
+ * unordered, and the next search renumbers it.
+ */
+@Component
+public class CarSearchIndex {
+  private final CarRepository carRepo;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final List<IndexedCar> cars = new ArrayList<>();
+  private final NavigableMap<String, Integer> ordinals = new TreeMap<>();
+  private final RoaringBitmap free = new RoaringBitmap();
+  private final RoaringBitmap live = new RoaringBitmap();
+  private final Map<String, RoaringBitmap> byManufacturer = new HashMap<>();
+  private final Map<String, RoaringBitmap> byModel = new HashMap<>();
+  private final NavigableMap<Integer, RoaringBitmap> byProductionYear = new TreeMap<>();
+  private final Map<String, RoaringBitmap> byCategory = new HashMap<>();
+  private final Map<String, String> manufacturerIdsByName = new HashMap<>();
+  private final Map<String, String> categoryIdsByName = new HashMap<>();
+  private volatile boolean ready;
+  private volatile boolean ordered = true;
+
+  @Autowired
+  public CarSearchIndex(CarRepository carRepo, TransactionTemplate transactionTemplate,
+      @Value("${car-service.search-index.enabled:false}") boolean enabled) {
+    this.carRepo = carRepo;
+    this.transactionTemplate = transactionTemplate;
+    this.enabled = enabled;
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Tells whether {@link #findIds} answers the page from memory.
+   */
+  public boolean serves(Pageable pageable) {
+    return ready && pageable.getSort().isUnsorted();
+  }
+
+  public Optional<Page<String>> findIds(CarSearchParameters parameters, Pageable pageable) {
+    if (!serves(pageable)) {
+      return Optional.empty();
+    }
+    if (!ordered) {
+      reorder();
+    }
+
+    lock.readLock().lock();
+    try {
+      return Optional.of(page(match(parameters), pageable));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public Optional<CarFacetsResponse> countFacets(CarSearchParameters parameters) {
+    if (!ready) {
+      return Optional.empty();
+    }
+
+    lock.readLock().lock();
+    try {
+      return Optional.of(CarFacetsResponse.builder()
+          .manufacturers(counts(match(parameters.withoutManufacturer()), manufacturerIdsByName, byManufacturer))
+          .categories(counts(match(parameters.withoutCategories()), categoryIdsByName, byCategory))
+          .productionYears(productionYearCounts(match(parameters.withoutProductionYears())))
+          .build());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    if (!enabled) {
+      return;
+    }
+
+    lock.writeLock().lock();
+    try {
+      ready = false;
+      clear();
+      transactionTemplate.executeWithoutResult(status -> {
+        try (Stream<CarIndexEntry> entries = carRepo.streamIndexEntries()) {
+          entries.forEach(this::load);
+        }
+      });
+      optimize();
+      ordered = true;
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @EventListener
+  public void onCarsImported(CarsImportedEvent event) {
+    rebuild();
+  }
+
+  @TransactionalEventListener
+  public void onCarSaved(CarSavedEvent event) {
+    if (!enabled) {
+      return;
+    }
+
+    Car car = event.car();
+    lock.writeLock().lock();
+    try {
+      Integer ordinal = ordinals.get(car.getId());
+      if (ordinal == null) {
+        ordinal = allocate(car.getId());
+        ordinals.put(car.getId(), ordinal);
+      } else {
+        unindex(ordinal);
+      }
+
+      IndexedCar indexed = new IndexedCar(car.getId(), car.getManufacturer().getId(), car.getModel(),
+          car.getProductionYear(), new HashSet<>());
+      cars.set(ordinal, indexed);
+      index(ordinal, indexed);
+      manufacturerIdsByName.put(car.getManufacturer().getName(), car.getManufacturer().getId());
+      for (Category category : car.getCategories()) {
+        indexCategory(ordinal, category.getId(), category.getName());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener
+  public void onCarDeleted(CarDeletedEvent event) {
+    if (!enabled) {
+      return;
+    }
+
+    lock.writeLock().lock();
+    try {
+      Integer ordinal = ordinals.remove(event.id());
+      if (ordinal != null) {
+        unindex(ordinal);
+        cars.set(ordinal, null);
+        free.add(ordinal);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener
+  public void onManufacturerSaved(ManufacturerSavedEvent event) {
+    if (!enabled) {
+      return;
+    }
+
+    lock.writeLock().lock();
+    try {
+      manufacturerIdsByName.values().remove(event.manufacturer().getId());
+      manufacturerIdsByName.put(event.manufacturer().getName(), event.manufacturer().getId());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener
+  public void onCategorySaved(CategorySavedEvent event) {
+    if (!enabled) {
+      return;
+    }
+
+    lock.writeLock().lock();
+    try {
+      categoryIdsByName.values().remove(event.category().getId());
+      categoryIdsByName.put(event.category().getName(), event.category().getId());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Picks an ordinal for a new car, preferring a free one or the next trailing
+   * one that keeps ordinals in id order.
+   */
+  private int allocate(String id) {
+    int lower = Optional.ofNullable(ordinals.lowerEntry(id)).map(Map.Entry::getValue).orElse(-1);
+    int higher = Optional.ofNullable(ordinals.higherEntry(id)).map(Map.Entry::getValue).orElse(Integer.MAX_VALUE);
+
+    long reusable = free.nextValue(lower + 1);
+    if (reusable >= 0 && reusable < higher) {
+      free.remove((int) reusable);
+      return (int) reusable;
+    }
+    if (cars.size() < higher) {
+      cars.add(null);
+      return cars.size() - 1;
+    }
+
+    ordered = false;
+    if (!free.isEmpty()) {
+      int ordinal = free.first();
+      free.remove(ordinal);
+      return ordinal;
+    }
+    cars.add(null);
+    return cars.size() - 1;
+  }
+
+  /**
+   * Renumbers the cars in id order, dropping the free ordinals.
+   */
+  private void reorder() {
+    lock.writeLock().lock();
+    try {
+      if (ordered) {
+        return;
+      }
+
+      List<IndexedCar> indexed = ordinals.values().stream().map(cars::get).collect(Collectors.toList());
+      cars.clear();
+      free.clear();
+      live.clear();
+      byManufacturer.clear();
+      byModel.clear();
+      byProductionYear.clear();
+      byCategory.clear();
+      for (IndexedCar car : indexed) {
+        int ordinal = cars.size();
+        cars.add(car);
+        ordinals.put(car.id(), ordinal);
+        index(ordinal, car);
+        car.categoryIds().forEach(categoryId ->
+            byCategory.computeIfAbsent(categoryId, key -> new RoaringBitmap()).add(ordinal));
+      }
+      optimize();
+      ordered = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private RoaringBitmap match(CarSearchParameters parameters) {
+    RoaringBitmap result = live.clone();
+
+    if (hasText(parameters.manufacturerName())) {
+      result.and(bitmap(byManufacturer, manufacturerIdsByName.get(parameters.manufacturerName())));
+    }
+    if (hasText(parameters.model())) {
+      result.and(bitmap(byModel, parameters.model()));
+    }
+    if (hasText(parameters.minProductionYear()) || hasText(parameters.maxProductionYear())) {
+      int minYear = hasText(parameters.minProductionYear()) ? Integer.parseInt(parameters.minProductionYear())
+          : Integer.MIN_VALUE;
+      int maxYear = hasText(parameters.maxProductionYear()) ? Integer.parseInt(parameters.maxProductionYear())
+          : Integer.MAX_VALUE;
+      result.and(minYear > maxYear ? new RoaringBitmap()
+          : FastAggregation.or(byProductionYear.subMap(minYear, true, maxYear, true).values().iterator()));
+    }
+    if (parameters.categoryNames() != null && !parameters.categoryNames().isEmpty()) {
+      List<RoaringBitmap> categories = new LinkedHashSet<>(parameters.categoryNames()).stream()
+          .map(name -> bitmap(byCategory, categoryIdsByName.get(name)))
+          .collect(Collectors.toList());
+      result.and(parameters.matchesAllCategories() ? FastAggregation.and(categories.iterator())
+          : FastAggregation.or(categories.iterator()));
+    }
+
+    return result;
+  }
+
+  private Page<String> page(RoaringBitmap matches, Pageable pageable) {
+    long total = matches.getLongCardinality();
+    List<String> ids = new ArrayList<>();
+
+    if (pageable.isUnpaged()) {
+      matches.forEach((int ordinal) -> ids.add(cars.get(ordinal).id()));
+    } else if (pageable.getOffset() < total) {
+      PeekableIntIterator iterator = matches.getIntIterator();
+      iterator.advanceIfNeeded(matches.select((int) pageable.getOffset()));
+      while (iterator.hasNext() && ids.size() < pageable.getPageSize()) {
+        ids.add(cars.get(iterator.next()).id());
+      }
+    }
+
+    return new PageImpl<>(ids, pageable, total);
+  }
+
+  private static List<FacetCountResponse<String>> counts(RoaringBitmap matches, Map<String, String> idsByName,
+      Map<String, RoaringBitmap> bitmaps) {
+    List<FacetCountResponse<String>> counts = new ArrayList<>();
+    idsByName.forEach((name, id) -> {
+      long count = RoaringBitmap.andCardinality(matches, bitmap(bitmaps, id));
+      if (count > 0) {
+        counts.add(FacetCountResponse.<String>builder().value(name).count(count).build());
+      }
+    });
+    counts.sort(byCount());
+    return counts;
+  }
+
+  private List<FacetCountResponse<Integer>> productionYearCounts(RoaringBitmap matches) {
+    List<FacetCountResponse<Integer>> counts = new ArrayList<>();
+    byProductionYear.forEach((year, bitmap) -> {
+      long count = RoaringBitmap.andCardinality(matches, bitmap);
+      if (count > 0) {
+        counts.add(FacetCountResponse.<Integer>builder().value(year).count(count).build());
+      }
+    });
+    counts.sort(byCount());
+    return counts;
+  }
+
+  private void load(CarIndexEntry entry) {
+    Integer ordinal = ordinals.get(entry.getCarId());
+    if (ordinal == null) {
+      ordinal = cars.size();
+      IndexedCar indexed = new IndexedCar(entry.getCarId(), entry.getManufacturerId(), entry.getModel(),
+          entry.getProductionYear(), new HashSet<>());
+      cars.add(indexed);
+      ordinals.put(entry.getCarId(), ordinal);
+      index(ordinal, indexed);
+      manufacturerIdsByName.put(entry.getManufacturerName(), entry.getManufacturerId());
+    }
+    if (entry.getCategoryId() != null) {
+      indexCategory(ordinal, entry.getCategoryId(), entry.getCategoryName());
+    }
+  }
+
+  private void index(int ordinal, IndexedCar car) {
+    live.add(ordinal);
+    byManufacturer.computeIfAbsent(car.manufacturerId(), key -> new RoaringBitmap()).add(ordinal);
+    byModel.computeIfAbsent(car.model(), key -> new RoaringBitmap()).add(ordinal);
+    byProductionYear.computeIfAbsent(car.productionYear(), key -> new RoaringBitmap()).add(ordinal);
+  }
+
+  private void indexCategory(int ordinal, String categoryId, String categoryName) {
+    cars.get(ordinal).categoryIds().add(categoryId);
+    byCategory.computeIfAbsent(categoryId, key -> new RoaringBitmap()).add(ordinal);
+    categoryIdsByName.put(categoryName, categoryId);
+  }
+
+  private void unindex(int ordinal) {
+    IndexedCar car = cars.get(ordinal);
+    live.remove(ordinal);
+    remove(byManufacturer, car.manufacturerId(), ordinal);
+    remove(byModel, car.model(), ordinal);
+    remove(byProductionYear, car.productionYear(), ordinal);
+    car.categoryIds().forEach(categoryId -> remove(byCategory, categoryId, ordinal));
+  }
+
+  private void clear() {
+    cars.clear();
+    ordinals.clear();
+    free.clear();
+    live.clear();
+    byManufacturer.clear();
+    byModel.clear();
+    byProductionYear.clear();
+    byCategory.clear();
+    manufacturerIdsByName.clear();
+    categoryIdsByName.clear();
+  }
+
+  private void optimize() {
+    live.runOptimize();
+    Stream.of(byManufacturer.values(), byModel.values(), byProductionYear.values(), byCategory.values())
+        .flatMap(Collection::stream)
+        .forEach(RoaringBitmap::runOptimize);
+  }
+
+  private static <T extends Comparable<T>> Comparator<FacetCountResponse<T>> byCount() {
+    return Comparator.<FacetCountResponse<T>, Long>comparing(FacetCountResponse::getCount).reversed()
+        .thenComparing(FacetCountResponse::getValue);
+  }
+
+  private static <K> void remove(Map<K, RoaringBitmap> bitmaps, K key, int ordinal) {
+    RoaringBitmap bitmap = bitmaps.get(key);
+    if (bitmap != null) {
+      bitmap.remove(ordinal);
+      if (bitmap.isEmpty()) {
+        bitmaps.remove(key);
+      }
+    }
+  }
+
+  private static RoaringBitmap bitmap(Map<String, RoaringBitmap> bitmaps, String key) {
+    RoaringBitmap bitmap = key == null ? null : bitmaps.get(key);
+    return bitmap == null ? new RoaringBitmap() : bitmap;
+  }
+
+  private static boolean hasText(String value) {
+    return value != null && !value.isBlank();
+  }
+
+  private record IndexedCar(String id, String manufacturerId, String model, int productionYear,
+      Set<String> categoryIds) {
+  }
+}
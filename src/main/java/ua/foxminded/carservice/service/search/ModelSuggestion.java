@@ -0,0 +1,4 @@
+package ua.foxminded.carservice.service.search;
+
+public record ModelSuggestion(String model, int count) {
+}
@@ -0,0 +1,138 @@
+package ua.foxminded.carservice.service.search;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.event.CarDeletedEvent;
+import ua.foxminded.carservice.event.CarModel;
+import ua.foxminded.carservice.event.CarSavedEvent;
+import ua.foxminded.carservice.event.CarsImportedEvent;
+import ua.foxminded.carservice.event.ManufacturerSavedEvent;
+import ua.foxminded.carservice.repository.CarModelEntry;
+import ua.foxminded.carservice.repository.CarRepository;
+
+/**
+ * In-memory model tries counting cars per model. Updates and deletes carry the
+ * model the car had before, so the index keeps no entry per car. It only sees
+ * writes made on this instance, imports and restarts rebuild it.
+ */
+@Component
+public class ModelSuggestionIndex {
+  private final CarRepository carRepo;
+  private final TransactionTemplate transactionTemplate;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private ModelTrie models = new ModelTrie();
+  private final Map<String, ModelTrie> modelsByManufacturer = new HashMap<>();
+  private final Map<String, String> manufacturerIdsByName = new HashMap<>();
+
+  @Autowired
+  public ModelSuggestionIndex(CarRepository carRepo, TransactionTemplate transactionTemplate) {
+    this.carRepo = carRepo;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  public List<ModelSuggestion> suggest(String prefix, String manufacturerName, int limit) {
+    lock.readLock().lock();
+    try {
+      if (manufacturerName == null || manufacturerName.isBlank()) {
+        return models.suggest(prefix, limit);
+      }
+      ModelTrie scoped = modelsByManufacturer.get(manufacturerIdsByName.get(manufacturerName));
+      return scoped == null ? List.of() : scoped.suggest(prefix, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    lock.writeLock().lock();
+    try {
+      models = new ModelTrie();
+      modelsByManufacturer.clear();
+      manufacturerIdsByName.clear();
+      transactionTemplate.executeWithoutResult(status -> {
+        try (Stream<CarModelEntry> entries = carRepo.streamModelEntries()) {
+          entries.forEach(entry -> {
+            manufacturerIdsByName.put(entry.getManufacturerName(), entry.getManufacturerId());
+            add(new CarModel(entry.getManufacturerId(), entry.getModel()));
+          });
+        }
+      });
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @EventListener
+  public void onCarsImported(CarsImportedEvent event) {
+    rebuild();
+  }
+
+  @TransactionalEventListener
+  public void onCarSaved(CarSavedEvent event) {
+    Car car = event.car();
+    lock.writeLock().lock();
+    try {
+      if (event.previous() != null) {
+        remove(event.previous());
+      }
+      manufacturerIdsByName.put(car.getManufacturer().getName(), car.getManufacturer().getId());
+      add(CarModel.of(car));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener
+  public void onCarDeleted(CarDeletedEvent event) {
+    lock.writeLock().lock();
+    try {
+      remove(event.model());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener
+  public void onManufacturerSaved(ManufacturerSavedEvent event) {
+    lock.writeLock().lock();
+    try {
+      manufacturerIdsByName.values().remove(event.manufacturer().getId());
+      manufacturerIdsByName.put(event.manufacturer().getName(), event.manufacturer().getId());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void add(CarModel model) {
+    models.add(model.model());
+    modelsByManufacturer.computeIfAbsent(model.manufacturerId(), key -> new ModelTrie()).add(model.model());
+  }
+
+  private void remove(CarModel model) {
+    models.remove(model.model());
+    ModelTrie scoped = modelsByManufacturer.get(model.manufacturerId());
+    if (scoped == null) {
+      return;
+    }
+
+    scoped.remove(model.model());
+    if (scoped.isEmpty()) {
+      modelsByManufacturer.remove(model.manufacturerId());
+    }
+  }
+}
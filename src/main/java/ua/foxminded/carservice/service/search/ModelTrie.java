@@ -0,0 +1,152 @@
+package ua.foxminded.carservice.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+public class ModelTrie {
+  private static final Comparator<Candidate> BY_SCORE = Comparator.comparingInt(Candidate::score).reversed()
+      .thenComparing(Candidate::model, Comparator.nullsLast(Comparator.naturalOrder()));
+
+  private final Node root = new Node();
+
+  public boolean isEmpty() {
+    return root.keys.length == 0 && root.models.isEmpty();
+  }
+
+  public void add(String model) {
+    update(model, 1);
+  }
+
+  public void remove(String model) {
+    update(model, -1);
+  }
+
+  public List<ModelSuggestion> suggest(String prefix, int limit) {
+    Node node = root;
+    for (char key : normalize(prefix).toCharArray()) {
+      node = node.child(key);
+      if (node == null) {
+        return List.of();
+      }
+    }
+
+    List<ModelSuggestion> suggestions = new ArrayList<>(limit);
+    PriorityQueue<Candidate> queue = new PriorityQueue<>(BY_SCORE);
+    queue.add(new Candidate(node.best, null, node));
+    while (!queue.isEmpty() && suggestions.size() < limit) {
+      Candidate candidate = queue.poll();
+      if (candidate.node() == null) {
+        suggestions.add(new ModelSuggestion(candidate.model(), candidate.score()));
+        continue;
+      }
+      candidate.node().models.forEach((model, count) -> queue.add(new Candidate(count, model, null)));
+      for (Node child : candidate.node().children) {
+        queue.add(new Candidate(child.best, null, child));
+      }
+    }
+    return suggestions;
+  }
+
+  private void update(String model, int delta) {
+    String key = normalize(model);
+    Node[] path = new Node[key.length() + 1];
+    path[0] = root;
+    for (int i = 0; i < key.length(); i++) {
+      Node child = path[i].child(key.charAt(i));
+      if (child == null) {
+        if (delta < 0) {
+          return;
+        }
+        child = path[i].addChild(key.charAt(i));
+      }
+      path[i + 1] = child;
+    }
+
+    Node terminal = path[key.length()];
+    int count = terminal.models.getOrDefault(model, 0) + delta;
+    if (count > 0) {
+      terminal.models.put(model, count);
+    } else {
+      terminal.models.remove(model);
+    }
+
+    for (int i = key.length(); i >= 0; i--) {
+      Node node = path[i];
+      node.recomputeBest();
+      if (i > 0 && node.isEmpty()) {
+        path[i - 1].removeChild(key.charAt(i - 1));
+      }
+    }
+  }
+
+  private static String normalize(String value) {
+    return value == null ? "" : value.toLowerCase(Locale.ROOT);
+  }
+
+  private record Candidate(int score, String model, Node node) {
+  }
+
+  private static final class Node {
+    private char[] keys = new char[0];
+    private Node[] children = new Node[0];
+    private final Map<String, Integer> models = new HashMap<>(2);
+    private int best;
+
+    private Node child(char key) {
+      int index = Arrays.binarySearch(keys, key);
+      return index >= 0 ? children[index] : null;
+    }
+
+    private Node addChild(char key) {
+      int index = -(Arrays.binarySearch(keys, key) + 1);
+      Node child = new Node();
+      char[] newKeys = new char[keys.length + 1];
+      Node[] newChildren = new Node[children.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, index);
+      System.arraycopy(children, 0, newChildren, 0, index);
+      newKeys[index] = key;
+      newChildren[index] = child;
+      System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+      System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+      keys = newKeys;
+      children = newChildren;
+      return child;
+    }
+
+    private void removeChild(char key) {
+      int index = Arrays.binarySearch(keys, key);
+      if (index < 0) {
+        return;
+      }
+      char[] newKeys = new char[keys.length - 1];
+      Node[] newChildren = new Node[children.length - 1];
+      System.arraycopy(keys, 0, newKeys, 0, index);
+      System.arraycopy(children, 0, newChildren, 0, index);
+      System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+      System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+      keys = newKeys;
+      children = newChildren;
+    }
+
+    private void recomputeBest() {
+      int max = 0;
+      for (int count : models.values()) {
+        max = Math.max(max, count);
+      }
+      for (Node child : children) {
+        max = Math.max(max, child.best);
+      }
+      best = max;
+    }
+
+    private boolean isEmpty() {
+      return keys.length == 0 && models.isEmpty();
+    }
+  }
+}
@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS cars_model_id_idx ON cars (model, id);
+
+CREATE INDEX IF NOT EXISTS cars_production_year_id_idx ON cars (production_year, id);
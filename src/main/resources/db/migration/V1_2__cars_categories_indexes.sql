@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS cars_categories_car_id_category_id_idx ON cars_categories (car_id, category_id);
+
+CREATE INDEX IF NOT EXISTS cars_categories_category_id_car_id_idx ON cars_categories (category_id, car_id);
@@ -0,0 +1,19 @@
+CREATE TABLE IF NOT EXISTS car_search (
+    car_id VARCHAR(50) PRIMARY KEY,
+    manufacturer_id VARCHAR(50) NOT NULL,
+    manufacturer_name VARCHAR(50) NOT NULL,
+    model VARCHAR(50) NOT NULL,
+    production_year SMALLINT NOT NULL,
+    category_names VARCHAR(50) ARRAY NOT NULL,
+    FOREIGN KEY (car_id) REFERENCES cars(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS car_search_manufacturer_id_idx ON car_search (manufacturer_id);
+
+INSERT INTO car_search (car_id, manufacturer_id, manufacturer_name, model, production_year, category_names)
+SELECT c.id, m.id, m.name, c.model, c.production_year,
+    ARRAY(SELECT cat.name FROM cars_categories cc JOIN categories cat ON cat.id = cc.category_id
+        WHERE cc.car_id = c.id ORDER BY cat.name)
+FROM cars c
+JOIN manufacturers m ON m.id = c.manufacturer_id
+WHERE NOT EXISTS (SELECT 1 FROM car_search cs WHERE cs.car_id = c.id);
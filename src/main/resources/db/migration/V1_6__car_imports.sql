@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS car_imports (
+    id VARCHAR(50) PRIMARY KEY,
+    format VARCHAR(10) NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    total_bytes BIGINT NOT NULL,
+    loaded_bytes BIGINT NOT NULL,
+    imported_rows BIGINT NOT NULL,
+    rejected_rows BIGINT NOT NULL,
+    error VARCHAR(1000),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    started_at TIMESTAMP WITH TIME ZONE,
+    finished_at TIMESTAMP WITH TIME ZONE
+);
@@ -0,0 +1 @@
+CREATE SEQUENCE IF NOT EXISTS entity_id_seq START WITH 1000 INCREMENT BY 1000;
@@ -0,0 +1,3 @@
+ALTER TABLE manufacturers ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE categories ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE cars ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,99 @@
+package ua.foxminded.carservice.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+class CancellableDataSourceTest {
+  Connection target;
+  PreparedStatement statement;
+  CancellableDataSource dataSource;
+  QueryCancellation cancellation;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    DataSource targetDataSource = mock(DataSource.class);
+    target = mock(Connection.class);
+    statement = mock(PreparedStatement.class);
+    when(targetDataSource.getConnection()).thenReturn(target);
+    when(target.prepareStatement("SELECT 1")).thenReturn(statement);
+
+    dataSource = new CancellableDataSource(targetDataSource);
+    cancellation = new QueryCancellation();
+  }
+
+  @AfterEach
+  void tearDown() {
+    cancellation.unbind();
+  }
+
+  @Test
+  void cancelShouldCancelStatementsPreparedWhileBound() throws SQLException {
+    cancellation.bind();
+
+    try (Connection connection = dataSource.getConnection()) {
+      assertSame(statement, connection.prepareStatement("SELECT 1"));
+      cancellation.cancel();
+    }
+
+    verify(statement).cancel();
+    verify(target).close();
+  }
+
+  @Test
+  void cancelShouldIgnoreStatementsPreparedWhileUnbound() throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.prepareStatement("SELECT 1");
+      cancellation.cancel();
+    }
+
+    verify(statement, never()).cancel();
+  }
+
+  @Test
+  void prepareStatementShouldFailIfAlreadyCancelled() throws SQLException {
+    cancellation.bind();
+    cancellation.cancel();
+
+    try (Connection connection = dataSource.getConnection()) {
+      SQLException ex = assertThrows(SQLException.class, () -> connection.prepareStatement("SELECT 1"));
+      assertEquals("57014", ex.getSQLState());
+    }
+
+    verify(statement).close();
+  }
+
+  @Test
+  void getConnectionShouldExposeTargetConnection() throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      assertSame(target, DataSourceUtils.getTargetConnection(connection));
+    }
+  }
+
+  @Test
+  void closedStatementsShouldNotBeCancelled() throws SQLException {
+    Statement closed = mock(Statement.class);
+    when(closed.isClosed()).thenReturn(true);
+    cancellation.register(closed);
+
+    cancellation.cancel();
+
+    verify(closed, never()).cancel();
+  }
+}
@@ -0,0 +1,88 @@
+package ua.foxminded.carservice.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class ReplicaLagMonitorTest {
+  JdbcTemplate replica;
+
+  @BeforeEach
+  void setUp() {
+    replica = mock(JdbcTemplate.class);
+  }
+
+  @Test
+  void isReplicaUsableShouldReturnTrueIfLagIsWithinLimit() {
+    when(replica.queryForObject(ReplicaLagMonitor.LAG_QUERY, Double.class)).thenReturn(1.5);
+
+    assertThat(refreshedMonitor().isReplicaUsable()).isTrue();
+  }
+
+  @Test
+  void isReplicaUsableShouldReturnFalseIfReplicaLagsBehind() {
+    when(replica.queryForObject(ReplicaLagMonitor.LAG_QUERY, Double.class)).thenReturn(2.5);
+
+    assertThat(refreshedMonitor().isReplicaUsable()).isFalse();
+  }
+
+  @Test
+  void isReplicaUsableShouldReturnFalseIfReplicaIsUnreachable() {
+    when(replica.queryForObject(ReplicaLagMonitor.LAG_QUERY, Double.class))
+        .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+    assertThat(refreshedMonitor().isReplicaUsable()).isFalse();
+  }
+
+  @Test
+  void isReplicaUsableShouldReturnFalseBeforeFirstRefresh() {
+    ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, Duration.ofSeconds(2), Duration.ofSeconds(1));
+
+    assertThat(monitor.isReplicaUsable()).isFalse();
+    verifyNoInteractions(replica);
+  }
+
+  @Test
+  void isReplicaUsableShouldReturnLastRefreshWithoutQueryingReplica() {
+    when(replica.queryForObject(ReplicaLagMonitor.LAG_QUERY, Double.class)).thenReturn(0.0, 10.0);
+    ReplicaLagMonitor monitor = refreshedMonitor();
+
+    assertThat(monitor.isReplicaUsable()).isTrue();
+    assertThat(monitor.isReplicaUsable()).isTrue();
+    verify(replica, times(1)).queryForObject(ReplicaLagMonitor.LAG_QUERY, Double.class);
+
+    monitor.refresh();
+    assertThat(monitor.isReplicaUsable()).isFalse();
+  }
+
+  @Test
+  void startShouldRefreshInBackground() {
+    when(replica.queryForObject(ReplicaLagMonitor.LAG_QUERY, Double.class)).thenReturn(0.0);
+    ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, Duration.ofSeconds(2), Duration.ofMillis(10));
+
+    monitor.start();
+    try {
+      verify(replica, timeout(1000).atLeast(2)).queryForObject(ReplicaLagMonitor.LAG_QUERY, Double.class);
+      assertThat(monitor.isReplicaUsable()).isTrue();
+    } finally {
+      monitor.shutdown();
+    }
+  }
+
+  private ReplicaLagMonitor refreshedMonitor() {
+    ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, Duration.ofSeconds(2), Duration.ofSeconds(1));
+    monitor.refresh();
+    return monitor;
+  }
+}
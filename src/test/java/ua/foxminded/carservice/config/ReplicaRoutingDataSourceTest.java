@@ -0,0 +1,73 @@
+package ua.foxminded.carservice.config;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+class ReplicaRoutingDataSourceTest {
+  DataSource primary;
+  DataSource replica;
+  ReplicaLagMonitor lagMonitor;
+  LazyConnectionDataSourceProxy dataSource;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    primary = mock(DataSource.class);
+    replica = mock(DataSource.class);
+    lagMonitor = mock(ReplicaLagMonitor.class);
+    when(primary.getConnection()).thenReturn(mock(Connection.class));
+    when(replica.getConnection()).thenReturn(mock(Connection.class));
+
+    dataSource = new LazyConnectionDataSourceProxy(primary);
+    dataSource.setDefaultAutoCommit(true);
+    dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+    dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replica, lagMonitor));
+  }
+
+  @Test
+  void readOnlyConnectionShouldUseReplicaIfReplicaIsUsable() throws SQLException {
+    when(lagMonitor.isReplicaUsable()).thenReturn(true);
+
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setReadOnly(true);
+      connection.createStatement();
+    }
+
+    verify(replica).getConnection();
+    verify(primary, never()).getConnection();
+  }
+
+  @Test
+  void readOnlyConnectionShouldFallBackToPrimaryIfReplicaLagsBehind() throws SQLException {
+    when(lagMonitor.isReplicaUsable()).thenReturn(false);
+
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setReadOnly(true);
+      connection.createStatement();
+    }
+
+    verify(primary).getConnection();
+    verify(replica, never()).getConnection();
+  }
+
+  @Test
+  void writableConnectionShouldUsePrimary() throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.createStatement();
+    }
+
+    verify(primary).getConnection();
+    verify(replica, never()).getConnection();
+    verify(lagMonitor, never()).isReplicaUsable();
+  }
+}
@@ -0,0 +1,197 @@
+package ua.foxminded.carservice.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import ua.foxminded.carservice.config.JacksonConfig;
+import ua.foxminded.carservice.config.QueryCancellation;
+import ua.foxminded.carservice.config.SecurityConfig;
+import ua.foxminded.carservice.dto.CarResponse;
+import ua.foxminded.carservice.dto.FieldSelection;
+import ua.foxminded.carservice.dto.TotalMode;
+import ua.foxminded.carservice.service.api.CarRestApiService;
+
+@WebMvcTest(controllers = CarController.class, properties = {
+    "car-service.async.concurrency=12", "car-service.async.queue-capacity=12" })
+@Import({ SecurityConfig.class, JacksonConfig.class })
+@AutoConfigureMockMvc(addFilters = false)
+class CarControllerConcurrencyTest {
+  private static final int CONCURRENCY = 12;
+  private static final int QUEUE_CAPACITY = 12;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  @Qualifier("asyncRequestExecutor")
+  private ThreadPoolTaskExecutor executor;
+
+  @MockitoBean
+  private CarRestApiService service;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void tearDown() throws Exception {
+    release.countDown();
+    awaitIdleExecutor();
+  }
+
+  @Test
+  void getCarsShouldRunMoreSearchesAtOnceThanDefaultTaskExecutorThreads() throws Exception {
+    CyclicBarrier barrier = new CyclicBarrier(CONCURRENCY);
+    whenSearching().thenAnswer(invocation -> {
+      barrier.await(5, TimeUnit.SECONDS);
+      return ResponseEntity.ok(new PageImpl<>(List.of()));
+    });
+
+    List<MvcResult> results = new ArrayList<>();
+    for (int i = 0; i < CONCURRENCY; i++) {
+      results.add(startSearch());
+    }
+
+    for (MvcResult result : results) {
+      mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+  }
+
+  @Test
+  void getCarsShouldRejectSearchIfQueueIsFull() throws Exception {
+    whenSearching().thenAnswer(invocation -> {
+      release.await();
+      return ResponseEntity.ok(new PageImpl<>(List.of()));
+    });
+    startBlockedSearches();
+    for (int i = 0; i < QUEUE_CAPACITY; i++) {
+      startSearch();
+    }
+
+    MvcResult rejected = startSearch();
+
+    assertThat(WebAsyncUtils.getAsyncManager(rejected.getRequest()).getConcurrentResult())
+        .isInstanceOf(TaskRejectedException.class);
+    verifySearches(CONCURRENCY);
+  }
+
+  @Test
+  void getCarsShouldCancelRunningQueryAndFreeThreadIfRequestTimesOut() throws Exception {
+    CompletableFuture<Void> cancelled = new CompletableFuture<>();
+    Statement statement = mock(Statement.class);
+    doAnswer(invocation -> cancelled.complete(null)).when(statement).cancel();
+    CountDownLatch started = new CountDownLatch(1);
+    whenSearching().thenAnswer(invocation -> {
+      QueryCancellation.current().register(statement);
+      started.countDown();
+      // Like a JDBC driver, the query ignores the interrupt and only returns once the statement is cancelled.
+      cancelled.join();
+      throw new QueryTimeoutException("Query was cancelled.");
+    });
+
+    MvcResult result = startSearch();
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    timeOut(result);
+
+    assertThat(cancelled).succeedsWithin(5, TimeUnit.SECONDS);
+    awaitIdleExecutor();
+  }
+
+  @Test
+  void getCarsShouldNeverRunQueuedSearchIfRequestTimesOut() throws Exception {
+    whenSearching().thenAnswer(invocation -> {
+      release.await();
+      return ResponseEntity.ok(new PageImpl<>(List.of()));
+    });
+    startBlockedSearches();
+    MvcResult queued = startSearch();
+
+    timeOut(queued);
+    release.countDown();
+    awaitIdleExecutor();
+
+    verifySearches(CONCURRENCY);
+  }
+
+  private OngoingStubbing<ResponseEntity<Page<CarResponse>>> whenSearching() {
+    return when(service.getCarResponsesByParameters(any(), any(FieldSelection.class), any(TotalMode.class),
+        any(Pageable.class), any()));
+  }
+
+  private void verifySearches(int count) {
+    verify(service, timeout(5000).times(count)).getCarResponsesByParameters(any(), any(FieldSelection.class),
+        any(TotalMode.class), any(Pageable.class), any());
+  }
+
+  private MvcResult startSearch() throws Exception {
+    return mockMvc.perform(get("/api/v1/cars?model=Model")).andReturn();
+  }
+
+  private void startBlockedSearches() throws Exception {
+    for (int i = 0; i < CONCURRENCY; i++) {
+      startSearch();
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (executor.getActiveCount() < CONCURRENCY && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(executor.getActiveCount()).isEqualTo(CONCURRENCY);
+  }
+
+  private static void timeOut(MvcResult result) throws Exception {
+    MockAsyncContext context = (MockAsyncContext) result.getRequest().getAsyncContext();
+    for (AsyncListener listener : context.getListeners()) {
+      listener.onTimeout(new AsyncEvent(context));
+    }
+    // A cancelled query may fail before the timeout is handled, either way the request gets 503.
+    assertThat(WebAsyncUtils.getAsyncManager(result.getRequest()).getConcurrentResult())
+        .isInstanceOfAny(AsyncRequestTimeoutException.class, QueryTimeoutException.class);
+  }
+
+  private void awaitIdleExecutor() throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while ((executor.getActiveCount() > 0 || !executor.getThreadPoolExecutor().getQueue().isEmpty())
+        && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(executor.getActiveCount()).isZero();
+  }
+}
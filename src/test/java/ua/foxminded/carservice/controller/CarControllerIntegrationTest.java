@@ -1,6 +1,7 @@
 package ua.foxminded.carservice.controller;
 
 import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
@@ -19,6 +20,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
@@ -221,7 +224,7 @@ class CarControllerIntegrationTest {
     void putRequestShouldReturnUnauthorizedStatusCodeIfUserIsNotAuthenticated() {
       String requestBody = """
           {
-              "id": "car001",
+              "id": "00000000-0000-7000-8000-000000000301",
               "manufacturerName": "Alpha Motors",
               "productionYear": 2020,
               "model": "Zeta Updated",
@@ -246,7 +249,7 @@ class CarControllerIntegrationTest {
     void putRequestShouldReturnForbiddenStatusCodeIfUserIsAuthorizedWithUserRole() {
       String requestBody = """
           {
-              "id": "car001",
+              "id": "00000000-0000-7000-8000-000000000301",
               "manufacturerName": "Alpha Motors",
               "productionYear": 2020,
               "model": "Zeta Updated",
@@ -271,7 +274,7 @@ class CarControllerIntegrationTest {
     void putRequestShouldReturnValidResponseIfUserIsAuthorizedWithModeratorRole() {
       String requestBody = """
           {
-              "id": "car001",
+              "id": "00000000-0000-7000-8000-000000000301",
               "manufacturerName": "Alpha Motors",
               "productionYear": 2020,
               "model": "Zeta Updated",
@@ -296,11 +299,12 @@ class CarControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/cars/car001")
+          .get("/api/v1/cars/00000000-0000-7000-8000-000000000301")
           .then()
           .body("model", equalTo("Zeta Updated"));
 
-      jdbcTemplate.update("UPDATE cars SET model = 'Zeta' WHERE id = 'car001'");
+      jdbcTemplate.update("UPDATE cars SET model = 'Zeta' WHERE id = '00000000-0000-7000-8000-000000000301'");
+      jdbcTemplate.update("UPDATE car_search SET model = 'Zeta' WHERE car_id = '00000000-0000-7000-8000-000000000301'");
     }
 
     @Test
@@ -309,7 +313,7 @@ class CarControllerIntegrationTest {
           .auth().oauth2("invalid-token")
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/cars/car-delete")
+          .delete("/api/v1/cars/00000000-0000-7000-8000-000000000399")
           .then()
           .statusCode(HttpStatus.UNAUTHORIZED.value());
     }
@@ -320,7 +324,7 @@ class CarControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-user", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/cars/car-delete")
+          .delete("/api/v1/cars/00000000-0000-7000-8000-000000000399")
           .then()
           .statusCode(HttpStatus.FORBIDDEN.value());
     }
@@ -328,13 +332,13 @@ class CarControllerIntegrationTest {
     @Test
     void deleteRequestShouldReturnValidResponseIfUserIsAuthorizedWithModeratorRole() {
       jdbcTemplate.update(
-          "INSERT INTO cars (id, production_year, model, manufacturer_id) VALUES ('car-delete', 2020, 'Zeta', 'm001')");
+          "INSERT INTO cars (id, production_year, model, manufacturer_id) VALUES ('00000000-0000-7000-8000-000000000399', 2020, 'Zeta', '00000000-0000-7000-8000-000000000101')");
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/cars/car-delete")
+          .delete("/api/v1/cars/00000000-0000-7000-8000-000000000399")
           .then()
           .statusCode(HttpStatus.NO_CONTENT.value());
 
@@ -342,7 +346,7 @@ class CarControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/cars/car-delete")
+          .get("/api/v1/cars/00000000-0000-7000-8000-000000000399")
           .then()
           .statusCode(HttpStatus.NOT_FOUND.value());
     }
@@ -393,26 +397,114 @@ class CarControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/cars/car001")
+          .get("/api/v1/cars/00000000-0000-7000-8000-000000000301")
           .then()
           .statusCode(HttpStatus.OK.value())
-          .body("id", equalTo("car001"))
+          .body("id", equalTo("00000000-0000-7000-8000-000000000301"))
           .body("manufacturerName", equalTo("Alpha Motors"))
           .body("productionYear", equalTo(2020))
           .body("model", equalTo("Zeta"));
     }
 
+    @Test
+    void getCarByIdShouldReturnNotModifiedWhenETagMatches() {
+      String token = obtainAccessToken("test-moderator", "test");
+      String eTag = given()
+          .auth().oauth2(token)
+          .when()
+          .get("/api/v1/cars/00000000-0000-7000-8000-000000000301")
+          .then()
+          .statusCode(HttpStatus.OK.value())
+          .header(HttpHeaders.ETAG, notNullValue())
+          .extract()
+          .header(HttpHeaders.ETAG);
+
+      given()
+          .auth().oauth2(token)
+          .header(HttpHeaders.IF_NONE_MATCH, eTag)
+          .when()
+          .get("/api/v1/cars/00000000-0000-7000-8000-000000000301")
+          .then()
+          .statusCode(HttpStatus.NOT_MODIFIED.value())
+          .header(HttpHeaders.ETAG, equalTo(eTag));
+    }
+
+    @Test
+    void getCarsShouldReturnNotModifiedWhenETagMatches() {
+      String token = obtainAccessToken("test-user", "test");
+      String eTag = given()
+          .auth().oauth2(token)
+          .when()
+          .get("/api/v1/cars?manufacturer_name=Alpha Motors")
+          .then()
+          .statusCode(HttpStatus.OK.value())
+          .extract()
+          .header(HttpHeaders.ETAG);
+
+      given()
+          .auth().oauth2(token)
+          .header(HttpHeaders.IF_NONE_MATCH, eTag)
+          .when()
+          .get("/api/v1/cars?manufacturer_name=Alpha Motors")
+          .then()
+          .statusCode(HttpStatus.NOT_MODIFIED.value());
+    }
+
     @Test
     void getCarByIdShouldReturnNotFoundWhenInvalidIdProvided() {
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/cars/non-existent")
+          .get("/api/v1/cars/00000000-0000-7000-8000-000000000999")
           .then()
           .statusCode(HttpStatus.NOT_FOUND.value());
     }
 
+    @Test
+    void saveCarShouldReturnOriginalIdWhenIdempotencyKeyIsRepeated() {
+      String requestBody = """
+          {
+              "manufacturerName": "Beta Cars",
+              "productionYear": 1950,
+              "model": "Retry",
+              "categoryNames": [
+                "Compact"
+              ]
+          }
+          """;
+      String token = obtainAccessToken("test-moderator", "test");
+
+      String firstId = given()
+          .auth().oauth2(token)
+          .header("Idempotency-Key", "retry-key")
+          .contentType(ContentType.JSON)
+          .body(requestBody)
+          .when()
+          .post("/api/v1/cars")
+          .then()
+          .statusCode(HttpStatus.CREATED.value())
+          .extract()
+          .asString();
+
+      given()
+          .auth().oauth2(token)
+          .header("Idempotency-Key", "retry-key")
+          .contentType(ContentType.JSON)
+          .body(requestBody)
+          .when()
+          .post("/api/v1/cars")
+          .then()
+          .statusCode(HttpStatus.CREATED.value())
+          .body(equalTo(firstId));
+
+      assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM cars WHERE model = 'Retry'", Long.class))
+          .isEqualTo(1);
+
+      jdbcTemplate.update("DELETE FROM cars WHERE model = 'Retry'");
+      jdbcTemplate.update("DELETE FROM idempotency_keys");
+    }
+
     @Test
     void saveCarShouldCreateNewCarWhenValidRequestProvided() {
       String requestBody = """
@@ -469,7 +561,7 @@ class CarControllerIntegrationTest {
     void modifyCarShouldUpdateCarWhenValidRequestProvided() {
       String requestBody = """
           {
-              "id": "car001",
+              "id": "00000000-0000-7000-8000-000000000301",
               "manufacturerName": "Alpha Motors",
               "productionYear": 2020,
               "model": "Zeta Updated",
@@ -480,7 +572,7 @@ class CarControllerIntegrationTest {
           }
           """;
 
-      given()
+      String eTag = given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .body(requestBody)
@@ -488,24 +580,29 @@ class CarControllerIntegrationTest {
           .put("/api/v1/cars")
           .then()
           .statusCode(HttpStatus.OK.value())
-          .body("model", equalTo("Zeta Updated"));
+          .header(HttpHeaders.ETAG, notNullValue())
+          .body("model", equalTo("Zeta Updated"))
+          .extract()
+          .header(HttpHeaders.ETAG);
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/cars/car001")
+          .get("/api/v1/cars/00000000-0000-7000-8000-000000000301")
           .then()
+          .header(HttpHeaders.ETAG, equalTo(eTag))
           .body("model", equalTo("Zeta Updated"));
 
-      jdbcTemplate.update("UPDATE cars SET model = 'Zeta' WHERE id = 'car001'");
+      jdbcTemplate.update("UPDATE cars SET model = 'Zeta' WHERE id = '00000000-0000-7000-8000-000000000301'");
+      jdbcTemplate.update("UPDATE car_search SET model = 'Zeta' WHERE car_id = '00000000-0000-7000-8000-000000000301'");
     }
 
     @Test
     void modifyCarShouldReturnNotFoundWhenInvalidIdProvided() {
       String requestBody = """
           {
-              "id": "non-existent",
+              "id": "00000000-0000-7000-8000-000000000999",
               "manufacturerName": "Non Existent",
               "productionYear": 2020,
               "model": "Non Existent",
@@ -528,13 +625,13 @@ class CarControllerIntegrationTest {
     @Test
     void deleteCarShouldDeleteCarWhenValidIdProvided() {
       jdbcTemplate.update(
-          "INSERT INTO cars (id, production_year, model, manufacturer_id) VALUES ('car-delete', 2020, 'Zeta', 'm001')");
+          "INSERT INTO cars (id, production_year, model, manufacturer_id) VALUES ('00000000-0000-7000-8000-000000000399', 2020, 'Zeta', '00000000-0000-7000-8000-000000000101')");
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/cars/car-delete")
+          .delete("/api/v1/cars/00000000-0000-7000-8000-000000000399")
           .then()
           .statusCode(HttpStatus.NO_CONTENT.value());
 
@@ -542,7 +639,7 @@ class CarControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/cars/car-delete")
+          .get("/api/v1/cars/00000000-0000-7000-8000-000000000399")
           .then()
           .statusCode(HttpStatus.NOT_FOUND.value());
     }
@@ -553,7 +650,7 @@ class CarControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/cars/non-existent")
+          .delete("/api/v1/cars/00000000-0000-7000-8000-000000000999")
           .then()
           .statusCode(HttpStatus.NO_CONTENT.value());
     }
@@ -624,13 +721,13 @@ class CarControllerIntegrationTest {
     @Test
     void anyMethodShouldReturnDatabaseErrorMessageWhenDataIntegrityViolationExceptionWithUnknownCauseIsThrown()
         throws Exception {
-      doThrow(new DataIntegrityViolationException("DB error")).when(mockService).getCarResponseById(any());
+      doThrow(new DataIntegrityViolationException("DB error")).when(mockService).getCarResponseById(any(), any());
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/cars/provoke-error")
+          .get("/api/v1/cars/00000000-0000-7000-8000-000000000998")
           .then()
           .body("message", equalTo("Database Error"))
           .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
@@ -639,39 +736,53 @@ class CarControllerIntegrationTest {
     @Test
     void anyMethodShouldReturnInternalServerErrorWhenObjectOptimisticLockingFailureExceptionWithUnknownCauseIsThrown()
         throws Exception {
-      doThrow(new ObjectOptimisticLockingFailureException("", null)).when(mockService).getCarResponseById(any());
+      doThrow(new ObjectOptimisticLockingFailureException("", null)).when(mockService).getCarResponseById(any(), any());
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/cars/provoke-error")
+          .get("/api/v1/cars/00000000-0000-7000-8000-000000000998")
           .then()
           .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
     }
 
+    @Test
+    void anyMethodShouldReturnPreconditionFailedWhenOptimisticLockingFailureExceptionIsThrown() throws Exception {
+      doThrow(new OptimisticLockingFailureException("")).when(mockService).deleteCarById(any(), any());
+
+      given()
+          .auth().oauth2(obtainAccessToken("test-moderator", "test"))
+          .header(HttpHeaders.IF_MATCH, "\"1\"")
+          .when()
+          .delete("/api/v1/cars/00000000-0000-7000-8000-000000000998")
+          .then()
+          .body("message", equalTo("Precondition Failed"))
+          .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+    }
+
     @Test
     void anyMethodShouldReturnNotImplementedWhenNotImplementedExceptionIsThrown() throws Exception {
-      doThrow(new NotImplementedException("")).when(mockService).getCarResponseById(any());
+      doThrow(new NotImplementedException("")).when(mockService).getCarResponseById(any(), any());
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/cars/provoke-error")
+          .get("/api/v1/cars/00000000-0000-7000-8000-000000000998")
           .then()
           .statusCode(HttpStatus.NOT_IMPLEMENTED.value());
     }
 
     @Test
     void anyMethodShouldReturnInternalServerErrorWhenUnknownExceptionIsThrown() throws Exception {
-      doThrow(new RuntimeException("")).when(mockService).getCarResponseById(any());
+      doThrow(new RuntimeException("")).when(mockService).getCarResponseById(any(), any());
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/cars/provoke-error")
+          .get("/api/v1/cars/00000000-0000-7000-8000-000000000998")
           .then()
           .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
     }
@@ -1,14 +1,27 @@
 package ua.foxminded.carservice.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -18,8 +31,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.authority.AuthorityUtils;
@@ -29,18 +48,29 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import ua.foxminded.carservice.config.JacksonConfig;
 import ua.foxminded.carservice.config.SecurityConfig;
 import ua.foxminded.carservice.dto.CarCreateRequest;
 import ua.foxminded.carservice.dto.CarModifyRequest;
+import ua.foxminded.carservice.dto.CarPatchRequest;
+import ua.foxminded.carservice.dto.CarResponse;
 import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.FieldSelection;
+import ua.foxminded.carservice.dto.TotalMode;
+import ua.foxminded.carservice.exception.BadRequestException;
 import ua.foxminded.carservice.service.api.CarRestApiService;
 
 @WebMvcTest(CarController.class)
-@Import(SecurityConfig.class)
+@Import({ SecurityConfig.class, JacksonConfig.class })
 @AutoConfigureMockMvc(addFilters = false)
 class CarControllerTest {
   private final static String API_VERSION = "v1";
+  private static final String ID = "0190c5d8-2a4e-7b3c-9d1e-5f6a7b8c9d0e";
+  private static final FieldSelection FIELDS = FieldSelection.all(CarResponse.class);
 
   @Autowired
   private MockMvc mockMvc;
@@ -61,32 +91,322 @@ class CarControllerTest {
     SecurityContextHolder.setContext(context);
   }
 
+  @Test
+  void getCarChangesShouldCallServiceWithExpectedAttributes() throws Exception {
+    when(service.getCarChanges(anyString(), anyInt())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/cars/changes?since=token&limit=50")).andExpect(status().isOk());
+
+    verify(service, atLeastOnce()).getCarChanges("token", 50);
+  }
+
+  @Test
+  void getCarChangesShouldUseDefaultAttributes() throws Exception {
+    when(service.getCarChanges(anyString(), anyInt())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/cars/changes")).andExpect(status().isOk());
+
+    verify(service, atLeastOnce()).getCarChanges("", 100);
+  }
+
+  @Test
+  void getCarFacetsShouldCallServiceWithExpectedAttributes() throws Exception {
+    when(service.getCarFacets(any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    performAsync(get("/api/" + API_VERSION + "/cars/facets?manufacturer_name=Manufacturer&category_names=Luxury"
+        + "&min_year=2020")).andExpect(status().isOk());
+
+    verify(service, atLeastOnce()).getCarFacets(
+        new CarSearchParameters("Manufacturer", "", List.of("Luxury"), "2020", "", "any"));
+  }
+
+  @Test
+  void exportCarsShouldCallServiceWithExpectedAttributes() throws Exception {
+    when(service.exportCarResponses(any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/cars/export?manufacturer_name=Manufacturer&category_names=Luxury"
+        + "&category_match=all&max_year=2020")).andExpect(status().isOk());
+
+    verify(service, atLeastOnce()).exportCarResponses(
+        new CarSearchParameters("Manufacturer", "", List.of("Luxury"), "", "2020", "all"));
+  }
+
+  @Test
+  void exportCarsShouldUseExportTimeoutInsteadOfDefaultAsyncTimeout() throws Exception {
+    when(service.exportCarResponses(any())).thenReturn(ResponseEntity.ok(outputStream -> {}));
+    when(service.getCarFacets(any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    MvcResult export = mockMvc.perform(get("/api/" + API_VERSION + "/cars/export")).andReturn();
+    MvcResult facets = mockMvc.perform(get("/api/" + API_VERSION + "/cars/facets")).andReturn();
+
+    assertThat(export.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+    assertThat(facets.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofSeconds(30).toMillis());
+  }
+
+  @Test
+  void suggestModelsShouldCallServiceWithExpectedAttributes() throws Exception {
+    when(service.getModelSuggestions(anyString(), anyString(), anyInt())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/cars/models/suggest?prefix=Mo&manufacturer_name=Manufacturer&limit=5"))
+        .andExpect(status().isOk());
+
+    verify(service, atLeastOnce()).getModelSuggestions("Mo", "Manufacturer", 5);
+  }
+
+  @Test
+  void suggestModelsShouldUseDefaultsIfParametersAreMissing() throws Exception {
+    when(service.getModelSuggestions(anyString(), anyString(), anyInt())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/cars/models/suggest"));
+
+    verify(service, atLeastOnce()).getModelSuggestions("", "", 10);
+  }
+
   @Test
   void getCarsShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.getCarResponsesByParameters(any(), any(Pageable.class)))
+    when(service.getCarResponsesByParameters(any(), any(FieldSelection.class), any(TotalMode.class), any(Pageable.class), any()))
         .thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
-    mockMvc.perform(get("/api/" + API_VERSION
+    performAsync(get("/api/" + API_VERSION
         + "/cars?manufacturer_name=Manufacturer&model=Model&category_names=Category1,Category2&min_year=2020"));
 
     CarSearchParameters expectedParameters = new CarSearchParameters("Manufacturer", "Model",
         List.of("Category1", "Category2"), "2020", "");
 
-    verify(service, atLeastOnce()).getCarResponsesByParameters(expectedParameters, PageRequest.of(0, 10));
+    verify(service, atLeastOnce()).getCarResponsesByParameters(expectedParameters, FIELDS, TotalMode.EXACT, PageRequest.of(0, 10),
+        null);
+  }
+
+  @Test
+  void getCarsShouldPassIfNoneMatchToService() throws Exception {
+    when(service.getCarResponsesByParameters(any(), any(FieldSelection.class), any(TotalMode.class), any(Pageable.class), any()))
+        .thenReturn(new ResponseEntity<>(HttpStatus.NOT_MODIFIED));
+
+    performAsync(get("/api/" + API_VERSION + "/cars").header("If-None-Match", "\"5-42\""))
+        .andExpect(status().isNotModified());
+
+    verify(service, atLeastOnce()).getCarResponsesByParameters(new CarSearchParameters("", "", null, "", ""), FIELDS,
+        TotalMode.EXACT, PageRequest.of(0, 10), "\"5-42\"");
+  }
+
+  @Test
+  void getCarsShouldCallServiceWithCategoryMatchIfProvided() throws Exception {
+    when(service.getCarResponsesByParameters(any(), any(FieldSelection.class), any(TotalMode.class), any(Pageable.class), any()))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    performAsync(get("/api/" + API_VERSION + "/cars?category_names=Luxury,Convertible&category_match=all"));
+
+    CarSearchParameters expectedParameters = new CarSearchParameters("", "", List.of("Luxury", "Convertible"), "",
+        "", "all");
+
+    verify(service, atLeastOnce()).getCarResponsesByParameters(expectedParameters, FIELDS, TotalMode.EXACT, PageRequest.of(0, 10),
+        null);
+  }
+
+  @Test
+  void getCarsShouldCallServiceWithCursorIfCursorProvided() throws Exception {
+    when(service.getCarResponsesByParameters(any(), any(), anyString(), any(Pageable.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    performAsync(get("/api/" + API_VERSION + "/cars?model=Model&cursor=abc&size=5&sort=model"));
+
+    CarSearchParameters expectedParameters = new CarSearchParameters("", "Model", null, "", "");
+
+    verify(service, atLeastOnce()).getCarResponsesByParameters(expectedParameters, FIELDS, "abc",
+        PageRequest.of(0, 5, Sort.by("model")));
+  }
+
+  @Test
+  void getCarsShouldCallServiceWithEstimateIfTotalIsEstimate() throws Exception {
+    when(service.getCarResponsesByParameters(any(), any(FieldSelection.class), any(TotalMode.class), any(Pageable.class), any()))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    performAsync(get("/api/" + API_VERSION + "/cars?model=Model&total=estimate"));
+
+    CarSearchParameters expectedParameters = new CarSearchParameters("", "Model", null, "", "");
+
+    verify(service, atLeastOnce()).getCarResponsesByParameters(expectedParameters, FIELDS, TotalMode.ESTIMATE,
+        PageRequest.of(0, 10), null);
+  }
+
+  @Test
+  void getCarsShouldCallSliceServiceIfTotalIsNone() throws Exception {
+    when(service.getCarResponseSliceByParameters(any(), any(FieldSelection.class), any(Pageable.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    performAsync(get("/api/" + API_VERSION + "/cars?model=Model&total=none"));
+
+    CarSearchParameters expectedParameters = new CarSearchParameters("", "Model", null, "", "");
+
+    verify(service, atLeastOnce()).getCarResponseSliceByParameters(expectedParameters, FIELDS, PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getCarsShouldCallSliceServiceIfTotalIsNoneInAnyCase() throws Exception {
+    when(service.getCarResponseSliceByParameters(any(), any(FieldSelection.class), any(Pageable.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    performAsync(get("/api/" + API_VERSION + "/cars?total=NONE"));
+
+    verify(service, atLeastOnce()).getCarResponseSliceByParameters(new CarSearchParameters("", "", null, "", ""),
+        FIELDS, PageRequest.of(0, 10));
+    verify(service, never()).getCarResponsesByParameters(any(), any(FieldSelection.class), any(), any(), any());
+  }
+
+  @Test
+  void getCarsShouldPreferCursorIfCursorAndTotalNoneProvided() throws Exception {
+    when(service.getCarResponsesByParameters(any(), any(), anyString(), any(Pageable.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    performAsync(get("/api/" + API_VERSION + "/cars?cursor=&total=none"));
+
+    verify(service, atLeastOnce()).getCarResponsesByParameters(new CarSearchParameters("", "", null, "", ""), FIELDS,
+        "", PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getCarsShouldPassRequestedFieldsToServiceIfCursorProvided() throws Exception {
+    when(service.getCarResponsesByParameters(any(), any(), anyString(), any(Pageable.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    performAsync(get("/api/" + API_VERSION + "/cars?cursor=&fields=id,model"));
+
+    verify(service).getCarResponsesByParameters(any(), eq(FieldSelection.of("id,model", CarResponse.class)),
+        anyString(), any(Pageable.class));
   }
 
   @Test
   void getCarShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.getCarResponseById(any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+    when(service.getCarResponseById(any(), any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/cars/" + ID));
+
+    verify(service, atLeastOnce()).getCarResponseById(ID, null);
+  }
+
+  @Test
+  void getCarShouldReturnNotFoundWithoutCallingServiceIfIdIsNotUuid() throws Exception {
+    mockMvc.perform(get("/api/" + API_VERSION + "/cars/id"))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.status").value(404));
+
+    verify(service, never()).getCarResponseById(any(), any());
+  }
+
+  @Test
+  void getCarShouldReturnInternalServerErrorIfIdIsRejectedByDatabase() throws Exception {
+    when(service.getCarResponseById(any(), any())).thenThrow(new DataIntegrityViolationException(
+        "Invalid id.", new SQLException("invalid input syntax for type uuid", "22P02")));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/cars/" + ID))
+        .andExpect(status().isInternalServerError());
+  }
+
+  @Test
+  void modifyCarShouldReturnBadRequestIfIdIsNotUuid() throws Exception {
+    mockMvc.perform(put("/api/" + API_VERSION + "/cars").contentType("application/json")
+        .content(getRequestBodyForModification().replace(ID, "id")))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorDetails.id").value("Identifier has to be a UUID."));
+
+    verify(service, never()).modifyCar(any(), any());
+  }
+
+  @Test
+  void getCarShouldPruneResponseToRequestedFields() throws Exception {
+    when(service.getCarResponseById(any(), any())).thenReturn(ResponseEntity.ok(CarResponse.builder()
+        .id("id")
+        .model("Model")
+        .build()));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/cars/" + ID + "?fields=id,model"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"id\":\"id\",\"model\":\"Model\"}", true));
+  }
+
+  @Test
+  void getCarsShouldPruneFieldsOfPagedContent() throws Exception {
+    when(service.getCarResponsesByParameters(any(), any(FieldSelection.class), any(TotalMode.class),
+        any(Pageable.class), any())).thenReturn(ResponseEntity.ok(new PageImpl<>(List.of(CarResponse.builder()
+            .id("id")
+            .manufacturerName("Manufacturer")
+            .build()))));
+
+    performAsync(get("/api/" + API_VERSION + "/cars?fields=manufacturerName"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"content\":[{\"manufacturerName\":\"Manufacturer\"}]}"))
+        .andExpect(jsonPath("$.content[0].id").doesNotExist());
+  }
+
+  @Test
+  void getCarsShouldPassRequestedFieldsToService() throws Exception {
+    when(service.getCarResponsesByParameters(any(), any(FieldSelection.class), any(TotalMode.class),
+        any(Pageable.class), any())).thenReturn(ResponseEntity.ok(new PageImpl<>(List.of())));
+
+    performAsync(get("/api/" + API_VERSION + "/cars?fields=id,model"));
+
+    verify(service).getCarResponsesByParameters(any(), eq(FieldSelection.of("id,model", CarResponse.class)),
+        any(TotalMode.class), any(Pageable.class), any());
+  }
+
+  @Test
+  void getCarsShouldReturnServiceUnavailableIfQueryTimesOut() throws Exception {
+    when(service.getCarResponsesByParameters(any(), any(FieldSelection.class), any(TotalMode.class),
+        any(Pageable.class), any())).thenThrow(new QueryTimeoutException("Query timed out."));
+
+    performAsync(get("/api/" + API_VERSION + "/cars?model=Model"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string("Retry-After", "1"))
+        .andExpect(jsonPath("$.status").value(503));
+  }
+
+  @Test
+  void getCarsShouldReturnServiceUnavailableIfSearchIsRejected() throws Exception {
+    when(service.getCarResponsesByParameters(any(), any(FieldSelection.class), any(TotalMode.class),
+        any(Pageable.class), any())).thenThrow(new TaskRejectedException("Search queue is full."));
+
+    performAsync(get("/api/" + API_VERSION + "/cars?model=Model"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(jsonPath("$.status").value(503));
+  }
+
+  @Test
+  void getCarChangesShouldReturnBadRequestIfTokenIsMalformed() throws Exception {
+    when(service.getCarChanges(anyString(), anyInt())).thenThrow(new BadRequestException("Cursor is malformed."));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/cars/changes?since=token"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.status").value(400));
+  }
+
+  @Test
+  void getCarChangesShouldReturnInternalServerErrorIfServiceFailsWithIllegalArgument() throws Exception {
+    when(service.getCarChanges(anyString(), anyInt())).thenThrow(new IllegalArgumentException("Bug."));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/cars/changes"))
+        .andExpect(status().isInternalServerError());
+  }
+
+  @Test
+  void getCarsShouldReturnBadRequestIfFieldIsUnknown() throws Exception {
+    mockMvc.perform(get("/api/" + API_VERSION + "/cars?fields=id,unknown"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void saveCarShouldPassIdempotencyKeyToService() throws Exception {
+    when(service.saveCar(any(), any())).thenReturn(new ResponseEntity<>("car-id", HttpStatus.CREATED));
 
-    mockMvc.perform(get("/api/" + API_VERSION + "/cars/id"));
+    mockMvc.perform(post("/api/" + API_VERSION + "/cars").header("Idempotency-Key", "key-1")
+        .contentType("application/json").content(getRequestBodyForCreation()))
+        .andExpect(status().isCreated());
 
-    verify(service, atLeastOnce()).getCarResponseById("id");
+    verify(service, atLeastOnce()).saveCar(any(), eq("key-1"));
   }
 
   @Test
   void saveCarShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.saveCar(any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+    when(service.saveCar(any(), any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
     mockMvc.perform(
         post("/api/" + API_VERSION + "/cars").contentType("application/json").content(getRequestBodyForCreation()));
@@ -96,32 +416,124 @@ class CarControllerTest {
         .productionYear(2020)
         .model("Model")
         .categoryNames(List.of("Category1", "Category2"))
-        .build());
+        .build(), null);
+  }
+
+  @Test
+  void saveCarsShouldCallServiceWithExpectedAttributes() throws Exception {
+    when(service.saveCars(any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(post("/api/" + API_VERSION + "/cars/batch").contentType("application/json")
+        .content("[" + getRequestBodyForCreation() + "," + getRequestBodyForCreation() + "]"))
+        .andExpect(status().isOk());
+
+    CarCreateRequest expectedRequest = CarCreateRequest.builder()
+        .manufacturerName("Manufacturer")
+        .productionYear(2020)
+        .model("Model")
+        .categoryNames(List.of("Category1", "Category2"))
+        .build();
+    verify(service, atLeastOnce()).saveCars(List.of(expectedRequest, expectedRequest));
   }
 
   @Test
   void modifyCarShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.modifyCar(any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+    when(service.modifyCar(any(), any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
     mockMvc.perform(
-        put("/api/" + API_VERSION + "/cars").contentType("application/json").content(getRequestBodyForModification()));
+        put("/api/" + API_VERSION + "/cars").header(HttpHeaders.IF_MATCH, "\"3\"").contentType("application/json")
+            .content(getRequestBodyForModification()));
 
     verify(service, atLeastOnce()).modifyCar(CarModifyRequest.builder()
-        .id("Identifier")
+        .id(ID)
         .manufacturerName("Manufacturer")
         .productionYear(2020)
         .model("Model")
         .categoryNames(List.of("Category1", "Category2"))
-        .build());
+        .build(), "\"3\"");
+  }
+
+  @Test
+  void patchCarShouldCallServiceWithOnlyPatchedAttributes() throws Exception {
+    when(service.patchCar(anyString(), any(), any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(patch("/api/" + API_VERSION + "/cars/" + ID).contentType("application/merge-patch+json")
+        .content("{\"model\": \"Model\", \"categoryNames\": [\"Category1\"]}"))
+        .andExpect(status().isOk());
+
+    verify(service).patchCar(ID, CarPatchRequest.builder()
+        .model("Model")
+        .categoryNames(List.of("Category1"))
+        .build(), null);
+  }
+
+  @Test
+  void modifyCarShouldReturnETagOfModifiedCar() throws Exception {
+    when(service.modifyCar(any(), any())).thenReturn(ResponseEntity.ok().eTag("\"4.9\"").build());
+
+    mockMvc.perform(put("/api/" + API_VERSION + "/cars").header(HttpHeaders.IF_MATCH, "\"3\"")
+        .contentType("application/json").content(getRequestBodyForModification()))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"4.9\""));
+  }
+
+  @Test
+  void patchCarShouldReturnETagOfPatchedCar() throws Exception {
+    when(service.patchCar(anyString(), any(), any())).thenReturn(ResponseEntity.ok().eTag("\"4.9\"").build());
+
+    mockMvc.perform(patch("/api/" + API_VERSION + "/cars/" + ID).header(HttpHeaders.IF_MATCH, "\"3\"")
+        .contentType("application/merge-patch+json").content("{\"model\": \"Model\"}"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"4.9\""));
+  }
+
+  @Test
+  void patchCarShouldReturnBadRequestIfPatchRemovesField() throws Exception {
+    mockMvc.perform(patch("/api/" + API_VERSION + "/cars/" + ID).contentType("application/merge-patch+json")
+        .content("{\"model\": null}"))
+        .andExpect(status().isBadRequest());
+
+    verify(service, never()).patchCar(anyString(), any(), any());
+  }
+
+  @Test
+  void patchCarShouldReturnBadRequestIfPatchIsInvalid() throws Exception {
+    mockMvc.perform(patch("/api/" + API_VERSION + "/cars/" + ID).contentType("application/merge-patch+json")
+        .content("{\"model\": \" \", \"productionYear\": 1800}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorDetails.model").value("Model can't be blank."))
+        .andExpect(jsonPath("$.errorDetails.productionYear").value("Production year must be 1900 or later."));
+  }
+
+  @Test
+  void patchCarShouldReturnBadRequestWithoutCallingServiceIfCategoryNameIsNullOrBlank() throws Exception {
+    mockMvc.perform(patch("/api/" + API_VERSION + "/cars/" + ID).contentType("application/merge-patch+json")
+        .content("{\"categoryNames\": [\"Compact\", null, \" \"]}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorDetails['categoryNames[1]']").value("Category can't be blank."))
+        .andExpect(jsonPath("$.errorDetails['categoryNames[2]']").value("Category can't be blank."));
+
+    verify(service, never()).patchCar(any(), any(), any());
+  }
+
+  @Test
+  void patchCarShouldReturnUnsupportedMediaTypeIfPatchIsNotMergePatch() throws Exception {
+    mockMvc.perform(patch("/api/" + API_VERSION + "/cars/" + ID).contentType("application/json")
+        .content("{\"model\": \"Model\"}"))
+        .andExpect(status().isUnsupportedMediaType());
   }
 
   @Test
   void deleteCarShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.deleteCarById(any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+    when(service.deleteCarById(any(), any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
-    mockMvc.perform(delete("/api/" + API_VERSION + "/cars/id"));
+    mockMvc.perform(delete("/api/" + API_VERSION + "/cars/" + ID));
+
+    verify(service, atLeastOnce()).deleteCarById(ID, null);
+  }
 
-    verify(service, atLeastOnce()).deleteCarById("id");
+  private ResultActions performAsync(MockHttpServletRequestBuilder request) throws Exception {
+    return mockMvc.perform(asyncDispatch(mockMvc.perform(request).andReturn()));
   }
 
   private String getRequestBodyForCreation() {
@@ -138,7 +550,7 @@ class CarControllerTest {
 
   private String getRequestBodyForModification() {
     return "{\n"
-        + "  \"id\": \"Identifier\",\n"
+        + "  \"id\": \"" + ID + "\",\n"
         + "  \"manufacturerName\": \"Manufacturer\",\n"
         + "  \"productionYear\": \"2020\",\n"
         + "  \"model\": \"Model\",\n"
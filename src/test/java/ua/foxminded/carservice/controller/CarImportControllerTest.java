@@ -0,0 +1,98 @@
+package ua.foxminded.carservice.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ua.foxminded.carservice.config.JacksonConfig;
+import ua.foxminded.carservice.config.SecurityConfig;
+import ua.foxminded.carservice.dto.CarImportResponse;
+import ua.foxminded.carservice.service.api.CarImportRestApiService;
+
+@WebMvcTest(CarImportController.class)
+@Import({ SecurityConfig.class, JacksonConfig.class })
+@AutoConfigureMockMvc(addFilters = false)
+public class CarImportControllerTest {
+  private final static String API_VERSION = "v1";
+  private static final String ID = "0190c5d8-2a4e-7b3c-9d1e-5f6a7b8c9d0e";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private CarImportRestApiService service;
+
+  @BeforeEach
+  void mockJwtAuthentication() {
+    Jwt jwt = Jwt.withTokenValue("mock-token")
+        .header("alg", "none")
+        .claim("preferred_username", "testuser")
+        .claim("realm_access", Map.of("roles", List.of("MODERATOR")))
+        .build();
+
+    SecurityContext context = SecurityContextHolder.createEmptyContext();
+    context.setAuthentication(new JwtAuthenticationToken(jwt, AuthorityUtils.createAuthorityList("ROLE_MODERATOR")));
+    SecurityContextHolder.setContext(context);
+  }
+
+  @Test
+  void getCarImportShouldReturnImportProgress() throws Exception {
+    when(service.getCarImportResponseById(ID)).thenReturn(ResponseEntity.ok(CarImportResponse.builder()
+        .id("id").status("LOADING").totalBytes(100L).loadedBytes(40L).build()));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/imports/" + ID))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"id\":\"id\",\"status\":\"LOADING\",\"total_bytes\":100,\"loaded_bytes\":40}"));
+  }
+
+  @Test
+  void saveCarImportShouldPassContentTypeAndBodyToService() throws Exception {
+    when(service.saveCarImport(eq("text/csv"), any(InputStream.class))).thenReturn(ResponseEntity
+        .accepted().location(URI.create("/api/v1/imports/id"))
+        .body(CarImportResponse.builder().id("id").status("PENDING").build()));
+
+    mockMvc.perform(post("/api/" + API_VERSION + "/imports")
+        .contentType("text/csv")
+        .content("manufacturer_name,model,production_year,category_names\nAlpha Motors,Zeta,2020,Compact\n"))
+        .andExpect(status().isAccepted())
+        .andExpect(header().string("Location", "/api/v1/imports/id"))
+        .andExpect(content().json("{\"id\":\"id\",\"status\":\"PENDING\"}"));
+  }
+
+  @Test
+  void saveCarImportShouldReturnUnsupportedMediaTypeIfContentTypeIsNotSupported() throws Exception {
+    mockMvc.perform(post("/api/" + API_VERSION + "/imports")
+        .contentType("application/json")
+        .content("[]"))
+        .andExpect(status().isUnsupportedMediaType());
+
+    verify(service, never()).saveCarImport(any(), any());
+  }
+}
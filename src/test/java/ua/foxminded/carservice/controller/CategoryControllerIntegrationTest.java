@@ -203,7 +203,7 @@ class CategoryControllerIntegrationTest {
     void putRequestShouldReturnUnauthorizedStatusCodeIfUserIsNotAuthenticated() {
       String requestBody = """
           {
-              "id": "c001",
+              "id": "00000000-0000-7000-8000-000000000201",
               "name": "Compact Updated"
           }
           """;
@@ -222,7 +222,7 @@ class CategoryControllerIntegrationTest {
     void putRequestShouldReturnForbiddenStatusCodeIfUserIsAuthorizedWithUserRole() {
       String requestBody = """
           {
-              "id": "c001",
+              "id": "00000000-0000-7000-8000-000000000201",
               "name": "Compact Updated"
           }
           """;
@@ -241,7 +241,7 @@ class CategoryControllerIntegrationTest {
     void putRequestShouldReturnValidResponseIfUserIsAuthorizedWithModeratorRole() {
       String requestBody = """
           {
-              "id": "c001",
+              "id": "00000000-0000-7000-8000-000000000201",
               "name": "Compact Updated"
           }
           """;
@@ -260,11 +260,13 @@ class CategoryControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/categories/c001")
+          .get("/api/v1/categories/00000000-0000-7000-8000-000000000201")
           .then()
           .body("name", equalTo("Compact Updated"));
 
-      jdbcTemplate.update("UPDATE categories SET name = 'Compact' WHERE id = 'c001'");
+      jdbcTemplate.update("UPDATE categories SET name = 'Compact' WHERE id = '00000000-0000-7000-8000-000000000201'");
+      jdbcTemplate.update(
+          "UPDATE car_search SET category_names = array_replace(category_names, 'Compact Updated', 'Compact')");
     }
 
     @Test
@@ -273,7 +275,7 @@ class CategoryControllerIntegrationTest {
           .auth().oauth2("invalid-token")
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/categories/c-delete")
+          .delete("/api/v1/categories/00000000-0000-7000-8000-000000000299")
           .then()
           .statusCode(HttpStatus.UNAUTHORIZED.value());
     }
@@ -284,20 +286,20 @@ class CategoryControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-user", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/categories/c-delete")
+          .delete("/api/v1/categories/00000000-0000-7000-8000-000000000299")
           .then()
           .statusCode(HttpStatus.FORBIDDEN.value());
     }
 
     @Test
     void deleteRequestShouldReturnValidResponseIfUserIsAuthorizedWithModeratorRole() {
-      jdbcTemplate.update("INSERT INTO categories (id, name) VALUES ('c-delete', 'Delete')");
+      jdbcTemplate.update("INSERT INTO categories (id, name) VALUES ('00000000-0000-7000-8000-000000000299', 'Delete')");
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/categories/c-delete")
+          .delete("/api/v1/categories/00000000-0000-7000-8000-000000000299")
           .then()
           .statusCode(HttpStatus.NO_CONTENT.value());
 
@@ -305,7 +307,7 @@ class CategoryControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/categories/c-delete")
+          .get("/api/v1/categories/00000000-0000-7000-8000-000000000299")
           .then()
           .statusCode(HttpStatus.NOT_FOUND.value());
     }
@@ -356,10 +358,10 @@ class CategoryControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/categories/c001")
+          .get("/api/v1/categories/00000000-0000-7000-8000-000000000201")
           .then()
           .statusCode(HttpStatus.OK.value())
-          .body("id", equalTo("c001"))
+          .body("id", equalTo("00000000-0000-7000-8000-000000000201"))
           .body("name", equalTo("Compact"));
     }
 
@@ -369,7 +371,7 @@ class CategoryControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/categories/non-existent")
+          .get("/api/v1/categories/00000000-0000-7000-8000-000000000999")
           .then()
           .statusCode(HttpStatus.NOT_FOUND.value());
     }
@@ -443,7 +445,7 @@ class CategoryControllerIntegrationTest {
     void modifyCategoryShouldUpdateCategoryWhenValidRequestProvided() {
       String requestBody = """
           {
-              "id": "c001",
+              "id": "00000000-0000-7000-8000-000000000201",
               "name": "Compact Updated"
           }
           """;
@@ -464,18 +466,20 @@ class CategoryControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/categories/c001")
+          .get("/api/v1/categories/00000000-0000-7000-8000-000000000201")
           .then()
           .body("name", equalTo("Compact Updated"));
 
-      jdbcTemplate.update("UPDATE categories SET name = 'Compact' WHERE id = 'c001'");
+      jdbcTemplate.update("UPDATE categories SET name = 'Compact' WHERE id = '00000000-0000-7000-8000-000000000201'");
+      jdbcTemplate.update(
+          "UPDATE car_search SET category_names = array_replace(category_names, 'Compact Updated', 'Compact')");
     }
 
     @Test
     void modifyCategoryShouldReturnNotFoundWhenInvalidIdProvided() {
       String requestBody = """
           {
-              "id": "non-existent",
+              "id": "00000000-0000-7000-8000-000000000999",
               "name": "Non Existent"
           }
           """;
@@ -493,13 +497,13 @@ class CategoryControllerIntegrationTest {
 
     @Test
     void deleteCategoryShouldDeleteCategoryWhenValidIdProvided() {
-      jdbcTemplate.update("INSERT INTO categories (id, name) VALUES ('c-delete', 'Delete')");
+      jdbcTemplate.update("INSERT INTO categories (id, name) VALUES ('00000000-0000-7000-8000-000000000299', 'Delete')");
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/categories/c-delete")
+          .delete("/api/v1/categories/00000000-0000-7000-8000-000000000299")
           .then()
           .statusCode(HttpStatus.NO_CONTENT.value());
 
@@ -507,7 +511,7 @@ class CategoryControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/categories/c-delete")
+          .get("/api/v1/categories/00000000-0000-7000-8000-000000000299")
           .then()
           .statusCode(HttpStatus.NOT_FOUND.value());
     }
@@ -518,7 +522,7 @@ class CategoryControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/categories/non-existent")
+          .delete("/api/v1/categories/00000000-0000-7000-8000-000000000999")
           .then()
           .statusCode(HttpStatus.NO_CONTENT.value());
     }
@@ -529,7 +533,7 @@ class CategoryControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/categories/c001")
+          .delete("/api/v1/categories/00000000-0000-7000-8000-000000000201")
           .then()
           .statusCode(HttpStatus.CONFLICT.value());
     }
@@ -600,13 +604,13 @@ class CategoryControllerIntegrationTest {
     @Test
     void anyMethodShouldReturnDatabaseErrorMessageWhenDataIntegrityViolationExceptionWithUnknownCauseIsThrown()
         throws Exception {
-      doThrow(new DataIntegrityViolationException("DB error")).when(mockService).getCategoryResponseById(any());
+      doThrow(new DataIntegrityViolationException("DB error")).when(mockService).getCategoryResponseById(any(), any());
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/categories/provoke-error")
+          .get("/api/v1/categories/00000000-0000-7000-8000-000000000998")
           .then()
           .body("message", equalTo("Database Error"))
           .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
@@ -615,39 +619,39 @@ class CategoryControllerIntegrationTest {
     @Test
     void anyMethodShouldReturnInternalServerErrorWhenObjectOptimisticLockingFailureExceptionWithUnknownCauseIsThrown()
         throws Exception {
-      doThrow(new ObjectOptimisticLockingFailureException("", null)).when(mockService).getCategoryResponseById(any());
+      doThrow(new ObjectOptimisticLockingFailureException("", null)).when(mockService).getCategoryResponseById(any(), any());
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/categories/provoke-error")
+          .get("/api/v1/categories/00000000-0000-7000-8000-000000000998")
           .then()
           .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
     }
 
     @Test
     void anyMethodShouldReturnNotImplementedWhenNotImplementedExceptionIsThrown() throws Exception {
-      doThrow(new NotImplementedException("")).when(mockService).getCategoryResponseById(any());
+      doThrow(new NotImplementedException("")).when(mockService).getCategoryResponseById(any(), any());
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/categories/provoke-error")
+          .get("/api/v1/categories/00000000-0000-7000-8000-000000000998")
           .then()
           .statusCode(HttpStatus.NOT_IMPLEMENTED.value());
     }
 
     @Test
     void anyMethodShouldReturnInternalServerErrorWhenUnknownExceptionIsThrown() throws Exception {
-      doThrow(new RuntimeException("")).when(mockService).getCategoryResponseById(any());
+      doThrow(new RuntimeException("")).when(mockService).getCategoryResponseById(any(), any());
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/categories/provoke-error")
+          .get("/api/v1/categories/00000000-0000-7000-8000-000000000998")
           .then()
           .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
     }
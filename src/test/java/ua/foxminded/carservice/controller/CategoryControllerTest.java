@@ -1,13 +1,19 @@
 package ua.foxminded.carservice.controller;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.List;
 import java.util.Map;
@@ -20,6 +26,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.authority.AuthorityUtils;
@@ -30,16 +37,21 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import ua.foxminded.carservice.config.JacksonConfig;
 import ua.foxminded.carservice.config.SecurityConfig;
 import ua.foxminded.carservice.dto.CategoryCreateRequest;
 import ua.foxminded.carservice.dto.CategoryModifyRequest;
+import ua.foxminded.carservice.dto.CategoryPatchRequest;
+import ua.foxminded.carservice.dto.CategoryResponse;
+import ua.foxminded.carservice.dto.TotalMode;
 import ua.foxminded.carservice.service.api.CategoryRestApiService;
 
 @WebMvcTest(CategoryController.class)
-@Import(SecurityConfig.class)
+@Import({ SecurityConfig.class, JacksonConfig.class })
 @AutoConfigureMockMvc(addFilters = false)
 public class CategoryControllerTest {
   private final static String API_VERSION = "v1";
+  private static final String ID = "0190c5d8-2a4e-7b3c-9d1e-5f6a7b8c9d0e";
 
   @Autowired
   private MockMvc mockMvc;
@@ -62,29 +74,93 @@ public class CategoryControllerTest {
 
   @Test
   void getCategorysShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.getCategoryResponsesByName(any(), any(Pageable.class)))
+    when(service.getCategoryResponsesByName(any(), any(TotalMode.class), any(Pageable.class), any()))
         .thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
     mockMvc.perform(get("/api/" + API_VERSION + "/categories?name=Category"));
 
     String expectedParameter = "Category";
 
-    verify(service, atLeastOnce()).getCategoryResponsesByName(expectedParameter, PageRequest.of(0, 10));
+    verify(service, atLeastOnce()).getCategoryResponsesByName(expectedParameter, TotalMode.EXACT, PageRequest.of(0, 10), null);
+  }
+
+  @Test
+  void getCategoriesShouldCallServiceWithEstimateIfTotalIsEstimate() throws Exception {
+    when(service.getCategoryResponsesByName(any(), any(TotalMode.class), any(Pageable.class), any()))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/categories?name=Name&total=estimate"));
+
+    verify(service, atLeastOnce()).getCategoryResponsesByName("Name", TotalMode.ESTIMATE, PageRequest.of(0, 10), null);
+  }
+
+  @Test
+  void getCategoriesShouldCallSliceServiceIfTotalIsNone() throws Exception {
+    when(service.getCategoryResponseSliceByName(any(), any(Pageable.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/categories?name=Name&total=none"));
+
+    verify(service, atLeastOnce()).getCategoryResponseSliceByName("Name", PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getCategoriesShouldCallSliceServiceIfTotalIsNoneInAnyCase() throws Exception {
+    when(service.getCategoryResponseSliceByName(any(), any(Pageable.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/categories?total=NONE"));
+
+    verify(service, atLeastOnce()).getCategoryResponseSliceByName("", PageRequest.of(0, 10));
+    verify(service, never()).getCategoryResponsesByName(any(), any(), any(), any());
+  }
+
+  @Test
+  void getCategoriesShouldReturnBadRequestIfTotalIsUnknown() throws Exception {
+    mockMvc.perform(get("/api/" + API_VERSION + "/categories?total=unknown"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void getCategoryShouldReturnOnlyRequestedFields() throws Exception {
+    when(service.getCategoryResponseById(any(), any()))
+        .thenReturn(ResponseEntity.ok(CategoryResponse.builder().id("id").name("Name").build()));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/categories/" + ID + "?fields=name"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"name\":\"Name\"}", true));
+  }
+
+  @Test
+  void getCategorysShouldReturnBadRequestIfFieldIsUnknown() throws Exception {
+    mockMvc.perform(get("/api/" + API_VERSION + "/categories?fields=id,unknown"))
+        .andExpect(status().isBadRequest());
   }
 
   @Test
   void getCategoryShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.getCategoryResponseById(any()))
+    when(service.getCategoryResponseById(any(), any()))
         .thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
-    mockMvc.perform(get("/api/" + API_VERSION + "/categories/id"));
+    mockMvc.perform(get("/api/" + API_VERSION + "/categories/" + ID));
+
+    verify(service, atLeastOnce()).getCategoryResponseById(ID, null);
+  }
+
+  @Test
+  void getCategoryShouldPassIfNoneMatchToService() throws Exception {
+    when(service.getCategoryResponseById(any(), any()))
+        .thenReturn(new ResponseEntity<>(HttpStatus.NOT_MODIFIED));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/categories/" + ID).header("If-None-Match", "\"3\""))
+        .andExpect(status().isNotModified());
 
-    verify(service, atLeastOnce()).getCategoryResponseById("id");
+    verify(service, atLeastOnce()).getCategoryResponseById(ID, "\"3\"");
   }
 
   @Test
   void addCategoryShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.saveCategory(any()))
+    when(service.saveCategory(any(), any()))
         .thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
     mockMvc.perform(post("/api/" + API_VERSION + "/categories").contentType("application/json")
@@ -92,30 +168,69 @@ public class CategoryControllerTest {
 
     verify(service, atLeastOnce()).saveCategory(CategoryCreateRequest.builder()
         .name("Category")
-        .build());
+        .build(), null);
   }
 
   @Test
   void modifyCategoryShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.modifyCategory(any()))
+    when(service.modifyCategory(any(), any()))
         .thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
     mockMvc.perform(put("/api/" + API_VERSION + "/categories").contentType("application/json")
         .content(getRequestBodyForModification()));
 
     verify(service, atLeastOnce()).modifyCategory(CategoryModifyRequest.builder()
-        .id("Identifier")
+        .id(ID)
         .name("Category")
-        .build());
+        .build(), null);
+  }
+
+  @Test
+  void patchCategoryShouldCallServiceWithExpectedAttributes() throws Exception {
+    when(service.patchCategory(anyString(), any(), any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(patch("/api/" + API_VERSION + "/categories/" + ID).contentType("application/merge-patch+json")
+        .content("{\"name\": \"Category\"}"))
+        .andExpect(status().isOk());
+
+    verify(service).patchCategory(ID, CategoryPatchRequest.builder().name("Category").build(), null);
+  }
+
+  @Test
+  void modifyCategoryShouldReturnETagOfModifiedCategory() throws Exception {
+    when(service.modifyCategory(any(), any())).thenReturn(ResponseEntity.ok().eTag("\"4\"").build());
+
+    mockMvc.perform(put("/api/" + API_VERSION + "/categories").contentType("application/json")
+        .content(getRequestBodyForModification()))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+  }
+
+  @Test
+  void patchCategoryShouldReturnETagOfPatchedCategory() throws Exception {
+    when(service.patchCategory(anyString(), any(), any())).thenReturn(ResponseEntity.ok().eTag("\"4\"").build());
+
+    mockMvc.perform(patch("/api/" + API_VERSION + "/categories/" + ID).contentType("application/merge-patch+json")
+        .content("{\"name\": \"Category\"}"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+  }
+
+  @Test
+  void deleteCategoryShouldReturnNotFoundWithoutCallingServiceIfIdIsNotUuid() throws Exception {
+    mockMvc.perform(delete("/api/" + API_VERSION + "/categories/id"))
+        .andExpect(status().isNotFound());
+
+    verify(service, never()).deleteCategoryById(any(), any());
   }
 
   @Test
   void deleteCategoryShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.deleteCategoryById(any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+    when(service.deleteCategoryById(any(), any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
-    mockMvc.perform(delete("/api/" + API_VERSION + "/categories/id"));
+    mockMvc.perform(delete("/api/" + API_VERSION + "/categories/" + ID));
 
-    verify(service, atLeastOnce()).deleteCategoryById("id");
+    verify(service, atLeastOnce()).deleteCategoryById(ID, null);
   }
 
   private String getRequestBodyForCreation() {
@@ -126,7 +241,7 @@ public class CategoryControllerTest {
 
   private String getRequestBodyForModification() {
     return "{\n"
-        + "  \"id\": \"Identifier\",\n"
+        + "  \"id\": \"" + ID + "\",\n"
         + "  \"name\": \"Category\"\n"
         + "}";
   }
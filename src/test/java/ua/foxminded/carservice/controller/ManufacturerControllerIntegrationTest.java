@@ -203,7 +203,7 @@ class ManufacturerControllerIntegrationTest {
     void putRequestShouldReturnUnauthorizedStatusCodeIfUserIsNotAuthenticated() {
       String requestBody = """
           {
-              "id": "m001",
+              "id": "00000000-0000-7000-8000-000000000101",
               "name": "Alpha Motors Updated"
           }
           """;
@@ -222,7 +222,7 @@ class ManufacturerControllerIntegrationTest {
     void putRequestShouldReturnForbiddenStatusCodeIfUserIsAuthorizedWithUserRole() {
       String requestBody = """
           {
-              "id": "m001",
+              "id": "00000000-0000-7000-8000-000000000101",
               "name": "Alpha Motors Updated"
           }
           """;
@@ -241,7 +241,7 @@ class ManufacturerControllerIntegrationTest {
     void putRequestShouldReturnValidResponseIfUserIsAuthorizedWithModeratorRole() {
       String requestBody = """
           {
-              "id": "m001",
+              "id": "00000000-0000-7000-8000-000000000101",
               "name": "Alpha Motors Updated"
           }
           """;
@@ -260,11 +260,12 @@ class ManufacturerControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/manufacturers/m001")
+          .get("/api/v1/manufacturers/00000000-0000-7000-8000-000000000101")
           .then()
           .body("name", equalTo("Alpha Motors Updated"));
 
-      jdbcTemplate.update("UPDATE manufacturers SET name = 'Alpha Motors' WHERE id = 'm001'");
+      jdbcTemplate.update("UPDATE manufacturers SET name = 'Alpha Motors' WHERE id = '00000000-0000-7000-8000-000000000101'");
+      jdbcTemplate.update("UPDATE car_search SET manufacturer_name = 'Alpha Motors' WHERE manufacturer_id = '00000000-0000-7000-8000-000000000101'");
     }
 
     @Test
@@ -273,7 +274,7 @@ class ManufacturerControllerIntegrationTest {
           .auth().oauth2("invalid-token")
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/manufacturers/m-delete")
+          .delete("/api/v1/manufacturers/00000000-0000-7000-8000-000000000199")
           .then()
           .statusCode(HttpStatus.UNAUTHORIZED.value());
     }
@@ -284,20 +285,20 @@ class ManufacturerControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-user", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/manufacturers/m-delete")
+          .delete("/api/v1/manufacturers/00000000-0000-7000-8000-000000000199")
           .then()
           .statusCode(HttpStatus.FORBIDDEN.value());
     }
 
     @Test
     void deleteRequestShouldReturnValidResponseIfUserIsAuthorizedWithModeratorRole() {
-      jdbcTemplate.update("INSERT INTO manufacturers (id, name) VALUES ('m-delete', 'Delete')");
+      jdbcTemplate.update("INSERT INTO manufacturers (id, name) VALUES ('00000000-0000-7000-8000-000000000199', 'Delete')");
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/manufacturers/m-delete")
+          .delete("/api/v1/manufacturers/00000000-0000-7000-8000-000000000199")
           .then()
           .statusCode(HttpStatus.NO_CONTENT.value());
 
@@ -305,7 +306,7 @@ class ManufacturerControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/manufacturers/m-delete")
+          .get("/api/v1/manufacturers/00000000-0000-7000-8000-000000000199")
           .then()
           .statusCode(HttpStatus.NOT_FOUND.value());
     }
@@ -356,10 +357,10 @@ class ManufacturerControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/manufacturers/m001")
+          .get("/api/v1/manufacturers/00000000-0000-7000-8000-000000000101")
           .then()
           .statusCode(HttpStatus.OK.value())
-          .body("id", equalTo("m001"))
+          .body("id", equalTo("00000000-0000-7000-8000-000000000101"))
           .body("name", equalTo("Alpha Motors"));
     }
 
@@ -369,7 +370,7 @@ class ManufacturerControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/manufacturers/non-existent")
+          .get("/api/v1/manufacturers/00000000-0000-7000-8000-000000000999")
           .then()
           .statusCode(HttpStatus.NOT_FOUND.value());
     }
@@ -443,7 +444,7 @@ class ManufacturerControllerIntegrationTest {
     void modifyManufacturerShouldUpdateManufacturerWhenValidRequestProvided() {
       String requestBody = """
           {
-              "id": "m001",
+              "id": "00000000-0000-7000-8000-000000000101",
               "name": "Alpha Motors Updated"
           }
           """;
@@ -462,18 +463,19 @@ class ManufacturerControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/manufacturers/m001")
+          .get("/api/v1/manufacturers/00000000-0000-7000-8000-000000000101")
           .then()
           .body("name", equalTo("Alpha Motors Updated"));
 
-      jdbcTemplate.update("UPDATE manufacturers SET name = 'Alpha Motors' WHERE id = 'm001'");
+      jdbcTemplate.update("UPDATE manufacturers SET name = 'Alpha Motors' WHERE id = '00000000-0000-7000-8000-000000000101'");
+      jdbcTemplate.update("UPDATE car_search SET manufacturer_name = 'Alpha Motors' WHERE manufacturer_id = '00000000-0000-7000-8000-000000000101'");
     }
 
     @Test
     void modifyManufacturerShouldReturnNotFoundWhenInvalidIdProvided() {
       String requestBody = """
           {
-              "id": "non-existent",
+              "id": "00000000-0000-7000-8000-000000000999",
               "name": "Non Existent"
           }
           """;
@@ -490,13 +492,13 @@ class ManufacturerControllerIntegrationTest {
 
     @Test
     void deleteManufacturerShouldDeleteManufacturerWhenValidIdProvided() {
-      jdbcTemplate.update("INSERT INTO manufacturers (id, name) VALUES ('m-delete', 'Delete')");
+      jdbcTemplate.update("INSERT INTO manufacturers (id, name) VALUES ('00000000-0000-7000-8000-000000000199', 'Delete')");
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/manufacturers/m-delete")
+          .delete("/api/v1/manufacturers/00000000-0000-7000-8000-000000000199")
           .then()
           .statusCode(HttpStatus.NO_CONTENT.value());
 
@@ -504,7 +506,7 @@ class ManufacturerControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/manufacturers/m-delete")
+          .get("/api/v1/manufacturers/00000000-0000-7000-8000-000000000199")
           .then()
           .statusCode(HttpStatus.NOT_FOUND.value());
     }
@@ -515,7 +517,7 @@ class ManufacturerControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/manufacturers/non-existent")
+          .delete("/api/v1/manufacturers/00000000-0000-7000-8000-000000000999")
           .then()
           .statusCode(HttpStatus.NO_CONTENT.value());
     }
@@ -526,7 +528,7 @@ class ManufacturerControllerIntegrationTest {
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .delete("/api/v1/manufacturers/m001")
+          .delete("/api/v1/manufacturers/00000000-0000-7000-8000-000000000101")
           .then()
           .statusCode(HttpStatus.CONFLICT.value());
     }
@@ -597,13 +599,13 @@ class ManufacturerControllerIntegrationTest {
     @Test
     void anyMethodShouldReturnDatabaseErrorMessageWhenDataIntegrityViolationExceptionWithUnknownCauseIsThrown()
         throws Exception {
-      doThrow(new DataIntegrityViolationException("DB error")).when(mockService).getManufacturerResponseById(any());
+      doThrow(new DataIntegrityViolationException("DB error")).when(mockService).getManufacturerResponseById(any(), any());
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/manufacturers/provoke-error")
+          .get("/api/v1/manufacturers/00000000-0000-7000-8000-000000000998")
           .then()
           .body("message", equalTo("Database Error"))
           .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
@@ -613,39 +615,39 @@ class ManufacturerControllerIntegrationTest {
     void anyMethodShouldReturnInternalServerErrorWhenObjectOptimisticLockingFailureExceptionWithUnknownCauseIsThrown()
         throws Exception {
       doThrow(new ObjectOptimisticLockingFailureException("", null)).when(mockService)
-          .getManufacturerResponseById(any());
+          .getManufacturerResponseById(any(), any());
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/manufacturers/provoke-error")
+          .get("/api/v1/manufacturers/00000000-0000-7000-8000-000000000998")
           .then()
           .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
     }
 
     @Test
     void anyMethodShouldReturnNotImplementedWhenNotImplementedExceptionIsThrown() throws Exception {
-      doThrow(new NotImplementedException("")).when(mockService).getManufacturerResponseById(any());
+      doThrow(new NotImplementedException("")).when(mockService).getManufacturerResponseById(any(), any());
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/manufacturers/provoke-error")
+          .get("/api/v1/manufacturers/00000000-0000-7000-8000-000000000998")
           .then()
           .statusCode(HttpStatus.NOT_IMPLEMENTED.value());
     }
 
     @Test
     void anyMethodShouldReturnInternalServerErrorWhenUnknownExceptionIsThrown() throws Exception {
-      doThrow(new RuntimeException("")).when(mockService).getManufacturerResponseById(any());
+      doThrow(new RuntimeException("")).when(mockService).getManufacturerResponseById(any(), any());
 
       given()
           .auth().oauth2(obtainAccessToken("test-moderator", "test"))
           .contentType(ContentType.JSON)
           .when()
-          .get("/api/v1/manufacturers/provoke-error")
+          .get("/api/v1/manufacturers/00000000-0000-7000-8000-000000000998")
           .then()
           .statusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
     }
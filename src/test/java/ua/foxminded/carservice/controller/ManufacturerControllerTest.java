@@ -1,13 +1,19 @@
 package ua.foxminded.carservice.controller;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.List;
 import java.util.Map;
@@ -20,6 +26,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.authority.AuthorityUtils;
@@ -30,16 +37,21 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import ua.foxminded.carservice.config.JacksonConfig;
 import ua.foxminded.carservice.config.SecurityConfig;
 import ua.foxminded.carservice.dto.ManufacturerCreateRequest;
 import ua.foxminded.carservice.dto.ManufacturerModifyRequest;
+import ua.foxminded.carservice.dto.ManufacturerPatchRequest;
+import ua.foxminded.carservice.dto.ManufacturerResponse;
+import ua.foxminded.carservice.dto.TotalMode;
 import ua.foxminded.carservice.service.api.ManufacturerRestApiService;
 
 @WebMvcTest(ManufacturerController.class)
-@Import(SecurityConfig.class)
+@Import({ SecurityConfig.class, JacksonConfig.class })
 @AutoConfigureMockMvc(addFilters = false)
 public class ManufacturerControllerTest {
   private final static String API_VERSION = "v1";
+  private static final String ID = "0190c5d8-2a4e-7b3c-9d1e-5f6a7b8c9d0e";
 
   @Autowired
   private MockMvc mockMvc;
@@ -62,29 +74,93 @@ public class ManufacturerControllerTest {
 
   @Test
   void getManufacturersShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.getManufacturerResponsesByName(any(), any(Pageable.class)))
+    when(service.getManufacturerResponsesByName(any(), any(TotalMode.class), any(Pageable.class), any()))
         .thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
     mockMvc.perform(get("/api/" + API_VERSION + "/manufacturers?name=Manufacturer"));
 
     String expectedParameter = "Manufacturer";
 
-    verify(service, atLeastOnce()).getManufacturerResponsesByName(expectedParameter, PageRequest.of(0, 10));
+    verify(service, atLeastOnce()).getManufacturerResponsesByName(expectedParameter, TotalMode.EXACT, PageRequest.of(0, 10), null);
+  }
+
+  @Test
+  void getManufacturersShouldCallServiceWithEstimateIfTotalIsEstimate() throws Exception {
+    when(service.getManufacturerResponsesByName(any(), any(TotalMode.class), any(Pageable.class), any()))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/manufacturers?name=Name&total=estimate"));
+
+    verify(service, atLeastOnce()).getManufacturerResponsesByName("Name", TotalMode.ESTIMATE, PageRequest.of(0, 10), null);
+  }
+
+  @Test
+  void getManufacturersShouldCallSliceServiceIfTotalIsNone() throws Exception {
+    when(service.getManufacturerResponseSliceByName(any(), any(Pageable.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/manufacturers?name=Name&total=none"));
+
+    verify(service, atLeastOnce()).getManufacturerResponseSliceByName("Name", PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getManufacturersShouldCallSliceServiceIfTotalIsNoneInAnyCase() throws Exception {
+    when(service.getManufacturerResponseSliceByName(any(), any(Pageable.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/manufacturers?total=NONE"));
+
+    verify(service, atLeastOnce()).getManufacturerResponseSliceByName("", PageRequest.of(0, 10));
+    verify(service, never()).getManufacturerResponsesByName(any(), any(), any(), any());
+  }
+
+  @Test
+  void getManufacturersShouldReturnBadRequestIfTotalIsUnknown() throws Exception {
+    mockMvc.perform(get("/api/" + API_VERSION + "/manufacturers?total=unknown"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void getManufacturerShouldReturnOnlyRequestedFields() throws Exception {
+    when(service.getManufacturerResponseById(any(), any()))
+        .thenReturn(ResponseEntity.ok(ManufacturerResponse.builder().id("id").name("Name").build()));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/manufacturers/" + ID + "?fields=name"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"name\":\"Name\"}", true));
+  }
+
+  @Test
+  void getManufacturersShouldReturnBadRequestIfFieldIsUnknown() throws Exception {
+    mockMvc.perform(get("/api/" + API_VERSION + "/manufacturers?fields=id,unknown"))
+        .andExpect(status().isBadRequest());
   }
 
   @Test
   void getManufacturerShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.getManufacturerResponseById(any()))
+    when(service.getManufacturerResponseById(any(), any()))
         .thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
-    mockMvc.perform(get("/api/" + API_VERSION + "/manufacturers/id"));
+    mockMvc.perform(get("/api/" + API_VERSION + "/manufacturers/" + ID));
+
+    verify(service, atLeastOnce()).getManufacturerResponseById(ID, null);
+  }
+
+  @Test
+  void getManufacturerShouldPassIfNoneMatchToService() throws Exception {
+    when(service.getManufacturerResponseById(any(), any()))
+        .thenReturn(new ResponseEntity<>(HttpStatus.NOT_MODIFIED));
+
+    mockMvc.perform(get("/api/" + API_VERSION + "/manufacturers/" + ID).header("If-None-Match", "\"3\""))
+        .andExpect(status().isNotModified());
 
-    verify(service, atLeastOnce()).getManufacturerResponseById("id");
+    verify(service, atLeastOnce()).getManufacturerResponseById(ID, "\"3\"");
   }
 
   @Test
   void addManufacturerShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.saveManufacturer(any()))
+    when(service.saveManufacturer(any(), any()))
         .thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
     mockMvc.perform(post("/api/" + API_VERSION + "/manufacturers").contentType("application/json")
@@ -93,12 +169,12 @@ public class ManufacturerControllerTest {
     verify(service, atLeastOnce())
         .saveManufacturer(ManufacturerCreateRequest.builder()
             .name("Manufacturer")
-            .build());
+            .build(), null);
   }
 
   @Test
   void modifyManufacturerShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.modifyManufacturer(any()))
+    when(service.modifyManufacturer(any(), any()))
         .thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
     mockMvc.perform(put("/api/" + API_VERSION + "/manufacturers").contentType("application/json")
@@ -106,18 +182,57 @@ public class ManufacturerControllerTest {
 
     verify(service, atLeastOnce())
         .modifyManufacturer(ManufacturerModifyRequest.builder()
-            .id("Identifier")
+            .id(ID)
             .name("Manufacturer")
-            .build());
+            .build(), null);
+  }
+
+  @Test
+  void patchManufacturerShouldCallServiceWithExpectedAttributes() throws Exception {
+    when(service.patchManufacturer(anyString(), any(), any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+    mockMvc.perform(patch("/api/" + API_VERSION + "/manufacturers/" + ID).contentType("application/merge-patch+json")
+        .content("{\"name\": \"Manufacturer\"}"))
+        .andExpect(status().isOk());
+
+    verify(service).patchManufacturer(ID, ManufacturerPatchRequest.builder().name("Manufacturer").build(), null);
+  }
+
+  @Test
+  void modifyManufacturerShouldReturnETagOfModifiedManufacturer() throws Exception {
+    when(service.modifyManufacturer(any(), any())).thenReturn(ResponseEntity.ok().eTag("\"4\"").build());
+
+    mockMvc.perform(put("/api/" + API_VERSION + "/manufacturers").contentType("application/json")
+        .content(getRequestBodyForModification()))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+  }
+
+  @Test
+  void patchManufacturerShouldReturnETagOfPatchedManufacturer() throws Exception {
+    when(service.patchManufacturer(anyString(), any(), any())).thenReturn(ResponseEntity.ok().eTag("\"4\"").build());
+
+    mockMvc.perform(patch("/api/" + API_VERSION + "/manufacturers/" + ID).contentType("application/merge-patch+json")
+        .content("{\"name\": \"Manufacturer\"}"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+  }
+
+  @Test
+  void deleteManufacturerShouldReturnNotFoundWithoutCallingServiceIfIdIsNotUuid() throws Exception {
+    mockMvc.perform(delete("/api/" + API_VERSION + "/manufacturers/id"))
+        .andExpect(status().isNotFound());
+
+    verify(service, never()).deleteManufacturerById(any(), any());
   }
 
   @Test
   void deleteManufacturerShouldCallServiceWithExpectedAttributes() throws Exception {
-    when(service.deleteManufacturerById(any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+    when(service.deleteManufacturerById(any(), any())).thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
-    mockMvc.perform(delete("/api/" + API_VERSION + "/manufacturers/id"));
+    mockMvc.perform(delete("/api/" + API_VERSION + "/manufacturers/" + ID));
 
-    verify(service, atLeastOnce()).deleteManufacturerById("id");
+    verify(service, atLeastOnce()).deleteManufacturerById(ID, null);
   }
 
   private String getRequestBodyForCreation() {
@@ -128,7 +243,7 @@ public class ManufacturerControllerTest {
 
   private String getRequestBodyForModification() {
     return "{\n"
-        + "  \"id\": \"Identifier\",\n"
+        + "  \"id\": \"" + ID + "\",\n"
         + "  \"name\": \"Manufacturer\"\n"
         + "}";
   }
@@ -0,0 +1,48 @@
+package ua.foxminded.carservice.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import ua.foxminded.carservice.domain.CarImport;
+import ua.foxminded.carservice.domain.CarImportFormat;
+import ua.foxminded.carservice.domain.CarImportStatus;
+import ua.foxminded.carservice.dto.CarImportResponse;
+
+public class CarImportMapperTest {
+  CarImportMapper mapper = new CarImportMapperImpl();
+
+  @Test
+  void carImportToCarImportResponseShouldReturnNullIfCarImportIsNull() {
+    CarImport carImport = null;
+    assertThat(mapper.carImportToCarImportResponse(carImport)).isEqualTo(null);
+  }
+
+  @Test
+  void carImportToCarImportResponseShouldReturnExpectedCarImportResponse() {
+    Instant createdAt = Instant.parse("2025-01-01T00:00:00Z");
+    CarImport carImport = CarImport.builder()
+        .id("id")
+        .format(CarImportFormat.NDJSON)
+        .status(CarImportStatus.COMPLETED)
+        .totalBytes(100L)
+        .loadedBytes(100L)
+        .importedRows(9L)
+        .rejectedRows(1L)
+        .createdAt(createdAt).build();
+
+    CarImportResponse expectedResponse = CarImportResponse.builder()
+        .id("id")
+        .format("NDJSON")
+        .status("COMPLETED")
+        .totalBytes(100L)
+        .loadedBytes(100L)
+        .importedRows(9L)
+        .rejectedRows(1L)
+        .createdAt(createdAt).build();
+
+    assertThat(mapper.carImportToCarImportResponse(carImport)).isEqualTo(expectedResponse);
+  }
+}
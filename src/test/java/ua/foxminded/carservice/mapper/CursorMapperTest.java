@@ -0,0 +1,100 @@
+package ua.foxminded.carservice.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.exception.BadRequestException;
+
+class CursorMapperTest {
+  CursorMapper mapper = new CursorMapper();
+
+  @Test
+  void positionToCursorShouldReturnNullIfPositionIsInitial() {
+    assertThat(mapper.positionToCursor(ScrollPosition.keyset())).isNull();
+  }
+
+  @Test
+  void positionToCursorShouldReturnNullIfPositionIsNull() {
+    assertThat(mapper.positionToCursor(null)).isNull();
+  }
+
+  @Test
+  void cursorToPositionShouldReturnInitialPositionIfCursorIsBlank() {
+    assertThat(mapper.cursorToPosition(" ").isInitial()).isTrue();
+  }
+
+  @Test
+  void cursorToPositionShouldReturnInitialPositionIfCursorIsNull() {
+    assertThat(mapper.cursorToPosition(null).isInitial()).isTrue();
+  }
+
+  @Test
+  void cursorToPositionShouldRestoreKeysEncodedByPositionToCursor() {
+    Map<String, Object> keys = new LinkedHashMap<>();
+    keys.put("productionYear", 2020);
+    keys.put("id", "car001");
+
+    String cursor = mapper.positionToCursor(ScrollPosition.forward(keys));
+    KeysetScrollPosition position = mapper.cursorToPosition(cursor, Sort.by("productionYear"), Car.class);
+
+    assertThat(position.getKeys()).isEqualTo(keys);
+    assertThat(position.scrollsForward()).isTrue();
+  }
+
+  @Test
+  void cursorToPositionShouldThrowBadRequestExceptionIfCursorIsReusedWithDifferentSort() {
+    Map<String, Object> keys = new LinkedHashMap<>();
+    keys.put("productionYear", 2020);
+    keys.put("id", "car001");
+    String cursor = mapper.positionToCursor(ScrollPosition.forward(keys));
+
+    assertThrows(BadRequestException.class, () -> mapper.cursorToPosition(cursor, Sort.by("model"), Car.class));
+  }
+
+  @Test
+  void cursorToPositionShouldThrowBadRequestExceptionIfCursorHasExtraKeys() {
+    String cursor = mapper.positionToCursor(ScrollPosition.forward(Map.of("id", "car001", "model", "Model")));
+
+    assertThrows(BadRequestException.class, () -> mapper.cursorToPosition(cursor, Sort.unsorted(), Car.class));
+  }
+
+  @Test
+  void cursorToPositionShouldThrowBadRequestExceptionIfKeyHasWrongType() {
+    Map<String, Object> keys = new LinkedHashMap<>();
+    keys.put("productionYear", "2020");
+    keys.put("id", "car001");
+    String cursor = mapper.positionToCursor(ScrollPosition.forward(keys));
+
+    assertThrows(BadRequestException.class,
+        () -> mapper.cursorToPosition(cursor, Sort.by("productionYear"), Car.class));
+  }
+
+  @Test
+  void cursorToPositionShouldThrowBadRequestExceptionIfSortPropertyIsUnknown() {
+    String cursor = mapper.positionToCursor(ScrollPosition.forward(Map.of("id", "car001")));
+
+    assertThrows(BadRequestException.class, () -> mapper.cursorToPosition(cursor, Sort.by("color"), Car.class));
+  }
+
+  @Test
+  void cursorToPositionShouldThrowBadRequestExceptionIfCursorIsMalformed() {
+    assertThrows(BadRequestException.class, () -> mapper.cursorToPosition("not a cursor"));
+  }
+
+  @Test
+  void cursorToPositionShouldThrowBadRequestExceptionIfCursorIsNotAnObject() {
+    String cursor = Base64.getUrlEncoder().encodeToString("[1, 2]".getBytes());
+
+    assertThrows(BadRequestException.class, () -> mapper.cursorToPosition(cursor));
+  }
+}
@@ -0,0 +1,65 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.domain.Manufacturer;
+
+@DataJpaTest(properties = "car-service.batch.jdbc-batch-size=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import(CarBatchRepository.class)
+class CarBatchRepositoryTest {
+  @Autowired
+  private CarBatchRepository repo;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void insertCarsShouldInsertCarsAndCategoryLinksAcrossSeveralBatches() {
+    repo.insertCars(List.of(car("car101", "c001", "c002"), car("car102", "c003"), car("car103", "c001")));
+
+    assertThat(jdbcTemplate.queryForList("SELECT id FROM cars WHERE id LIKE 'car1%' ORDER BY id", String.class))
+        .containsExactly("car101", "car102", "car103");
+    assertThat(jdbcTemplate.queryForMap("SELECT manufacturer_id, model, production_year FROM cars WHERE id = 'car101'"))
+        .containsEntry("MANUFACTURER_ID", "m001").containsEntry("MODEL", "Model");
+    assertThat(jdbcTemplate.queryForList("SELECT car_id, category_id FROM cars_categories WHERE car_id LIKE 'car1%'"
+        + " ORDER BY car_id, category_id"))
+        .containsExactly(
+            Map.of("CAR_ID", "car101", "CATEGORY_ID", "c001"),
+            Map.of("CAR_ID", "car101", "CATEGORY_ID", "c002"),
+            Map.of("CAR_ID", "car102", "CATEGORY_ID", "c003"),
+            Map.of("CAR_ID", "car103", "CATEGORY_ID", "c001"));
+  }
+
+  @Test
+  void insertAndDeleteCarCategoriesShouldOnlyTouchListedLinks() {
+    repo.deleteCarCategories("car001", List.of("c001"));
+    repo.insertCarCategories("car001", List.of("c003"));
+
+    assertThat(jdbcTemplate.queryForList("SELECT category_id FROM cars_categories WHERE car_id = 'car001'"
+        + " ORDER BY category_id", String.class))
+        .containsExactly("c002", "c003");
+  }
+
+  private Car car(String id, String... categoryIds) {
+    return Car.builder()
+        .id(id)
+        .manufacturer(Manufacturer.builder().id("m001").build())
+        .model("Model")
+        .productionYear(2024)
+        .categories(List.of(categoryIds).stream().map(categoryId -> Category.builder().id(categoryId).build()).toList())
+        .build();
+  }
+}
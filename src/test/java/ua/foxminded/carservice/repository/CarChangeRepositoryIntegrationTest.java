@@ -0,0 +1,110 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(CarChangeRepository.class)
+class CarChangeRepositoryIntegrationTest {
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  private static final String FIRST_CAR_ID = "00000000-0000-7000-8000-000000000301";
+  private static final String SECOND_CAR_ID = "00000000-0000-7000-8000-000000000302";
+
+  @Autowired
+  private CarChangeRepository repo;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private TransactionTemplate transaction;
+
+  @BeforeAll
+  static void beforeAll() {
+    postgres.start();
+  }
+
+  @AfterAll
+  static void afterAll() {
+    postgres.stop();
+  }
+
+  @DynamicPropertySource
+  static void configureProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", () -> postgres.getJdbcUrl() + "&stringtype=unspecified");
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @BeforeEach
+  void setUp() {
+    transaction = new TransactionTemplate(transactionManager);
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("DELETE FROM car_changes");
+  }
+
+  @Test
+  void recordCarsShouldStampChangesWithWritingTransactionInCommitOrder() {
+    record(FIRST_CAR_ID, false);
+    record(SECOND_CAR_ID, true);
+
+    List<CarChange> changes = repo.findAfter(0, null, 10);
+
+    assertThat(changes).extracting(CarChange::carId).containsExactly(FIRST_CAR_ID, SECOND_CAR_ID);
+    assertThat(changes).extracting(CarChange::deleted).containsExactly(false, true);
+    assertThat(changes.get(0).sequence()).isLessThan(changes.get(1).sequence());
+  }
+
+  @Test
+  void findAfterShouldHoldBackChangesUntilOlderTransactionsFinish() throws Exception {
+    try (Connection older = dataSource.getConnection(); Statement statement = older.createStatement()) {
+      older.setAutoCommit(false);
+      statement.execute("SELECT pg_current_xact_id()");
+
+      record(FIRST_CAR_ID, false);
+      assertThat(repo.findAfter(0, null, 10)).isEmpty();
+
+      older.rollback();
+    }
+
+    assertThat(repo.findAfter(0, null, 10)).extracting(CarChange::carId).containsExactly(FIRST_CAR_ID);
+  }
+
+  private void record(String carId, boolean deleted) {
+    transaction.executeWithoutResult(status -> repo.recordCars(List.of(carId), deleted));
+  }
+}
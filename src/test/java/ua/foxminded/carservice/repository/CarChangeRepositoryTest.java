@@ -0,0 +1,63 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import(CarChangeRepository.class)
+class CarChangeRepositoryTest {
+  @Autowired
+  private CarChangeRepository repo;
+
+  @Test
+  void findAfterShouldReturnChangesOrderedBySequenceAndId() {
+    assertThat(repo.findAfter(0, null, 10)).containsExactly(
+        new CarChange("car001", 1, false),
+        new CarChange("car002", 1, false),
+        new CarChange("car003", 1, false),
+        new CarChange("car004", 1, false),
+        new CarChange("car005", 1, false));
+  }
+
+  @Test
+  void findAfterShouldContinueAfterGivenPosition() {
+    assertThat(repo.findAfter(1, "car002", 2)).extracting(CarChange::carId).containsExactly("car003", "car004");
+    assertThat(repo.findAfter(1, "car005", 10)).isEmpty();
+  }
+
+  @Test
+  void recordCarsShouldMoveCarsToNewSequenceAndKeepTombstones() {
+    repo.recordCars(List.of("car002"), false);
+    repo.recordCars(List.of("car001", "deleted-car"), true);
+
+    assertThat(repo.findAfter(1, "car005", 10)).containsExactly(
+        new CarChange("car002", 2, false),
+        new CarChange("car001", 3, true),
+        new CarChange("deleted-car", 3, true));
+  }
+
+  @Test
+  void recordCarsOfManufacturerShouldRecordEveryCarOfManufacturer() {
+    repo.recordCarsOfManufacturer("m001");
+
+    assertThat(repo.findAfter(1, "car005", 10)).containsExactly(
+        new CarChange("car001", 2, false),
+        new CarChange("car004", 2, false));
+  }
+
+  @Test
+  void recordCarsOfCategoryShouldRecordEveryCarInCategory() {
+    repo.recordCarsOfCategory("c002");
+
+    assertThat(repo.findAfter(1, "car005", 10)).extracting(CarChange::carId)
+        .containsExactly("car001", "car002", "car005");
+  }
+}
@@ -0,0 +1,62 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.dto.CarSearchParameters;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import(CarExportRepository.class)
+class CarExportRepositoryTest {
+  @Autowired
+  private CarExportRepository repo;
+
+  @Test
+  void forEachCarShouldEmitEveryCarOnceWithItsCategoriesInIdOrder() {
+    List<Car> cars = export(new CarSearchParameters("", "", null, "", ""));
+
+    assertThat(cars)
+        .extracting(Car::getId, Car::getModel, Car::getProductionYear, car -> car.getManufacturer().getName())
+        .containsExactly(
+            tuple("car001", "Zeta", 2020, "Alpha Motors"),
+            tuple("car002", "Delta", 2021, "Beta Cars"),
+            tuple("car003", "Epsilon", 2019, "Gamma Auto"),
+            tuple("car004", "Theta", 2022, "Alpha Motors"),
+            tuple("car005", "Kappa", 2023, "Beta Cars"));
+    assertThat(cars.get(0).getCategories()).extracting(Category::getName).containsExactly("Compact", "Luxury");
+  }
+
+  @Test
+  void forEachCarShouldApplySearchParameters() {
+    assertThat(export(new CarSearchParameters("Alpha Motors", "", null, "2021", "")))
+        .extracting(Car::getId).containsExactly("car004");
+    assertThat(export(new CarSearchParameters("", "", List.of("Compact", "Luxury"), "", "", "all")))
+        .extracting(Car::getId).containsExactly("car001");
+  }
+
+  @Test
+  void forEachCarShouldKeepAllCategoriesOfCarsMatchedByAnyCategory() {
+    List<Car> cars = export(new CarSearchParameters("", "", List.of("Compact"), "", ""));
+
+    assertThat(cars).extracting(Car::getId).containsExactly("car001", "car004");
+    assertThat(cars.get(0).getCategories()).extracting(Category::getName).containsExactly("Compact", "Luxury");
+  }
+
+  private List<Car> export(CarSearchParameters params) {
+    List<Car> cars = new ArrayList<>();
+    repo.forEachCar(params, cars::add);
+    return cars;
+  }
+}
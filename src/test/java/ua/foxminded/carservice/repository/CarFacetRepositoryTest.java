@@ -0,0 +1,60 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import ua.foxminded.carservice.dto.CarFacetsResponse;
+import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.FacetCountResponse;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import(CarFacetRepository.class)
+class CarFacetRepositoryTest {
+  @Autowired
+  private CarFacetRepository repo;
+
+  @Test
+  void countFacetsShouldCountEveryValueOrderedByCountIfNoFiltersProvided() {
+    CarFacetsResponse facets = repo.countFacets(new CarSearchParameters("", "", null, "", ""));
+
+    assertThat(facets.getManufacturers()).extracting(FacetCountResponse::getValue, FacetCountResponse::getCount)
+        .containsExactly(tuple("Alpha Motors", 2L), tuple("Beta Cars", 2L), tuple("Gamma Auto", 1L));
+    assertThat(facets.getCategories()).extracting(FacetCountResponse::getValue, FacetCountResponse::getCount)
+        .containsExactly(tuple("Luxury", 3L), tuple("Compact", 2L), tuple("Convertible", 1L));
+    assertThat(facets.getProductionYears()).extracting(FacetCountResponse::getValue, FacetCountResponse::getCount)
+        .containsExactly(tuple(2019, 1L), tuple(2020, 1L), tuple(2021, 1L), tuple(2022, 1L), tuple(2023, 1L));
+  }
+
+  @Test
+  void countFacetsShouldIgnoreOwnFilterForEachFacet() {
+    CarFacetsResponse facets = repo.countFacets(
+        new CarSearchParameters("Alpha Motors", "", List.of("Luxury"), "2020", ""));
+
+    assertThat(facets.getManufacturers()).extracting(FacetCountResponse::getValue, FacetCountResponse::getCount)
+        .containsExactly(tuple("Beta Cars", 2L), tuple("Alpha Motors", 1L));
+    assertThat(facets.getCategories()).extracting(FacetCountResponse::getValue, FacetCountResponse::getCount)
+        .containsExactly(tuple("Compact", 2L), tuple("Luxury", 1L));
+    assertThat(facets.getProductionYears()).extracting(FacetCountResponse::getValue, FacetCountResponse::getCount)
+        .containsExactly(tuple(2020, 1L));
+  }
+
+  @Test
+  void countFacetsShouldApplyOtherFiltersIncludingAllCategoriesMatch() {
+    CarFacetsResponse facets = repo.countFacets(
+        new CarSearchParameters("", "", List.of("Compact", "Luxury"), "", "", "all"));
+
+    assertThat(facets.getManufacturers()).extracting(FacetCountResponse::getValue).containsExactly("Alpha Motors");
+    assertThat(facets.getCategories()).extracting(FacetCountResponse::getValue)
+        .containsExactly("Luxury", "Compact", "Convertible");
+    assertThat(facets.getProductionYears()).extracting(FacetCountResponse::getValue).containsExactly(2020);
+  }
+}
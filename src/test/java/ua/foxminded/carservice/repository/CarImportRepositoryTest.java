@@ -0,0 +1,61 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import jakarta.persistence.EntityManager;
+import ua.foxminded.carservice.domain.CarImport;
+import ua.foxminded.carservice.domain.CarImportFormat;
+import ua.foxminded.carservice.domain.CarImportStatus;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+class CarImportRepositoryTest {
+  @Autowired
+  private CarImportRepository repo;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  private String id;
+
+  @BeforeEach
+  void setUp() {
+    id = repo.saveAndFlush(CarImport.builder()
+        .format(CarImportFormat.CSV)
+        .status(CarImportStatus.LOADING)
+        .totalBytes(100L)
+        .loadedBytes(0L)
+        .importedRows(0L)
+        .rejectedRows(0L)
+        .createdAt(Instant.parse("2025-01-01T00:00:00Z")).build()).getId();
+    entityManager.clear();
+  }
+
+  @Test
+  void updateLoadedBytesShouldChangeOnlyLoadedBytes() {
+    repo.updateLoadedBytes(id, 40L);
+    entityManager.clear();
+
+    CarImport carImport = repo.findById(id).orElseThrow();
+    assertThat(carImport.getLoadedBytes()).isEqualTo(40L);
+    assertThat(carImport.getStatus()).isEqualTo(CarImportStatus.LOADING);
+  }
+
+  @Test
+  void updateStatusShouldChangeOnlyStatus() {
+    repo.updateStatus(id, CarImportStatus.MERGING);
+    entityManager.clear();
+
+    CarImport carImport = repo.findById(id).orElseThrow();
+    assertThat(carImport.getStatus()).isEqualTo(CarImportStatus.MERGING);
+    assertThat(carImport.getTotalBytes()).isEqualTo(100L);
+  }
+}
@@ -0,0 +1,178 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ua.foxminded.carservice.domain.CarImportFormat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(CarImportStagingRepository.class)
+class CarImportStagingRepositoryIntegrationTest {
+  static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+  ObjectMapper objectMapper = new ObjectMapper();
+
+  @Autowired
+  private CarImportStagingRepository repo;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  static void beforeAll() {
+    postgres.start();
+  }
+
+  @AfterAll
+  static void afterAll() {
+    postgres.stop();
+  }
+
+  @DynamicPropertySource
+  static void configureProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", () -> postgres.getJdbcUrl() + "&stringtype=unspecified");
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate.update("INSERT INTO manufacturers (id, name) VALUES (uuid_generate_v7(), 'Alpha Motors'),"
+        + " (uuid_generate_v7(), 'Beta Cars'), (uuid_generate_v7(), 'Gamma Auto')");
+    jdbcTemplate.update("INSERT INTO categories (id, name) VALUES (uuid_generate_v7(), 'Compact'),"
+        + " (uuid_generate_v7(), 'Luxury'), (uuid_generate_v7(), 'Convertible')");
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("DELETE FROM outbox_events");
+    jdbcTemplate.update("DELETE FROM car_changes");
+    jdbcTemplate.update("DELETE FROM cars");
+    jdbcTemplate.update("DELETE FROM categories");
+    jdbcTemplate.update("DELETE FROM manufacturers");
+  }
+
+  @Test
+  void importCarsShouldImportValidCsvRowsAndRejectTheRest() throws Exception {
+    CarImportResult result = repo.importCars(CarImportFormat.CSV, input("""
+        manufacturer_name,model,production_year,category_names
+        Alpha Motors,Zeta,2020,Compact|Luxury
+        Alpha Motors,Eta,1800,Compact
+        Unknown,Theta,2020,Compact
+        Beta Cars,Iota,2021,Compact|Unknown
+        " Beta Cars ", Kappa , 2019 ,Luxury| Luxury |
+        """), () -> {
+        });
+
+    assertThat(result).isEqualTo(new CarImportResult(2, 3));
+    assertThat(jdbcTemplate.queryForList("SELECT c.model FROM cars c", String.class))
+        .containsExactlyInAnyOrder("Zeta", "Kappa");
+    assertThat(categoryNames("Zeta")).containsExactlyInAnyOrder("Compact", "Luxury");
+    assertThat(categoryNames("Kappa")).containsExactly("Luxury");
+    assertThat(searchRow("Zeta")).containsEntry("manufacturer_name", "Alpha Motors")
+        .containsEntry("production_year", 2020).containsEntry("categories", "Compact|Luxury");
+    assertThat(searchRow("Kappa")).containsEntry("manufacturer_name", "Beta Cars")
+        .containsEntry("production_year", 2019).containsEntry("categories", "Luxury");
+    assertCreatedEventsAndChangesForEveryCar();
+  }
+
+  @Test
+  void importCarsShouldImportValidNdjsonLinesAndCountMalformedOnesAsRejected() throws Exception {
+    CarImportResult result = repo.importCars(CarImportFormat.NDJSON, input("""
+        {"manufacturerName":"Gamma Auto","model":"Lambda","productionYear":2022,"categoryNames":["Convertible","Compact"]}
+        {"manufacturerName":"Gamma Auto","model":"Mu"
+
+        {"manufacturerName":"Gamma Auto","model":"","productionYear":2022,"categoryNames":["Convertible"]}
+        {"manufacturerName":"Gamma Auto","model":"Nu","productionYear":2022,"categoryNames":"Convertible"}
+        """), () -> {
+        });
+
+    assertThat(result).isEqualTo(new CarImportResult(1, 3));
+    assertThat(jdbcTemplate.queryForList("SELECT c.model FROM cars c", String.class)).containsExactly("Lambda");
+    assertThat(categoryNames("Lambda")).containsExactlyInAnyOrder("Convertible", "Compact");
+    assertThat(searchRow("Lambda")).containsEntry("manufacturer_name", "Gamma Auto")
+        .containsEntry("production_year", 2022).containsEntry("categories", "Compact|Convertible");
+    assertCreatedEventsAndChangesForEveryCar();
+  }
+
+  @Test
+  void importCarsShouldLeaveNothingBehindIfNoRowResolves() throws Exception {
+    CarImportResult result = repo.importCars(CarImportFormat.CSV, input("""
+        manufacturer_name,model,production_year,category_names
+        Unknown,Theta,2020,Compact
+        """), () -> {
+        });
+
+    assertThat(result).isEqualTo(new CarImportResult(0, 1));
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM cars", Long.class)).isZero();
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_events", Long.class)).isZero();
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM car_changes", Long.class)).isZero();
+  }
+
+  private void assertCreatedEventsAndChangesForEveryCar() throws Exception {
+    List<Map<String, Object>> cars = jdbcTemplate.queryForList("SELECT c.id::text AS id, c.model,"
+        + " m.name AS manufacturer_name, c.production_year FROM cars c"
+        + " JOIN manufacturers m ON m.id = c.manufacturer_id");
+    List<Map<String, Object>> events = jdbcTemplate.queryForList(
+        "SELECT aggregate_type, aggregate_id::text AS aggregate_id, event_type, payload FROM outbox_events");
+    assertThat(events).hasSameSizeAs(cars);
+
+    for (Map<String, Object> car : cars) {
+      Map<String, Object> event = events.stream().filter(row -> car.get("id").equals(row.get("aggregate_id")))
+          .findFirst().orElseThrow();
+      assertThat(event).containsEntry("aggregate_type", "CAR").containsEntry("event_type", "CREATED");
+      JsonNode payload = objectMapper.readTree((String) event.get("payload"));
+      assertThat(payload.path("id").asText()).isEqualTo(car.get("id"));
+      assertThat(payload.path("model").asText()).isEqualTo(car.get("model"));
+      assertThat(payload.path("manufacturerName").asText()).isEqualTo(car.get("manufacturer_name"));
+      assertThat(payload.path("productionYear").asInt()).isEqualTo(((Number) car.get("production_year")).intValue());
+      assertThat(objectMapper.convertValue(payload.path("categoryNames"), List.class))
+          .containsExactlyInAnyOrderElementsOf(categoryNames((String) car.get("model")));
+
+      assertThat(jdbcTemplate.queryForObject("SELECT deleted FROM car_changes WHERE car_id = ?::uuid",
+          Boolean.class, car.get("id"))).isFalse();
+    }
+  }
+
+  private List<String> categoryNames(String model) {
+    return jdbcTemplate.queryForList("SELECT cat.name FROM cars c"
+        + " JOIN cars_categories cc ON cc.car_id = c.id JOIN categories cat ON cat.id = cc.category_id"
+        + " WHERE c.model = ?", String.class, model);
+  }
+
+  private Map<String, Object> searchRow(String model) {
+    return jdbcTemplate.queryForMap("SELECT cs.manufacturer_name, cs.production_year::int AS production_year,"
+        + " array_to_string(ARRAY(SELECT unnest(cs.category_names) ORDER BY 1), '|') AS categories"
+        + " FROM car_search cs JOIN cars c ON c.id = cs.car_id WHERE c.model = ?", model);
+  }
+
+  private static InputStream input(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
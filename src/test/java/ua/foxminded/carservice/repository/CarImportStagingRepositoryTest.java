@@ -0,0 +1,61 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+
+import org.apache.commons.lang3.NotImplementedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ua.foxminded.carservice.domain.CarImportFormat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import(CarImportStagingRepository.class)
+class CarImportStagingRepositoryTest {
+  ObjectMapper objectMapper = new ObjectMapper();
+
+  @Autowired
+  private CarImportStagingRepository repo;
+
+  @Test
+  void importCarsShouldThrowNotImplementedExceptionIfDatabaseIsNotPostgreSql() {
+    assertThatThrownBy(() -> repo.importCars(CarImportFormat.CSV, new ByteArrayInputStream(new byte[0]), () -> {
+    })).isInstanceOf(NotImplementedException.class);
+  }
+
+  @Test
+  void toCsvRowShouldQuoteValuesAndJoinCategoryNames() throws Exception {
+    String row = CarImportStagingRepository.toCsvRow(objectMapper.readTree(
+        "{\"manufacturerName\":\"Alpha \\\"Motors\\\"\",\"model\":\"Zeta, GT\",\"productionYear\":2020,"
+            + "\"categoryNames\":[\"Compact\",\"Luxury\"]}"));
+
+    assertThat(row).isEqualTo("\"Alpha \"\"Motors\"\"\",\"Zeta, GT\",\"2020\",\"Compact|Luxury\"\n");
+  }
+
+  @Test
+  void toCsvRowShouldWriteNullForMissingValues() throws Exception {
+    String row = CarImportStagingRepository.toCsvRow(objectMapper.readTree("{\"model\":\"Zeta\"}"));
+
+    assertThat(row).isEqualTo(",\"Zeta\",,\"\"\n");
+  }
+
+  @Test
+  void toCsvRowShouldThrowIllegalArgumentExceptionIfLineIsNotObject() throws Exception {
+    assertThatThrownBy(() -> CarImportStagingRepository.toCsvRow(objectMapper.readTree("[1, 2]")))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void toCsvRowShouldThrowIllegalArgumentExceptionIfCategoryNamesIsNotArray() throws Exception {
+    assertThatThrownBy(() -> CarImportStagingRepository.toCsvRow(objectMapper.readTree(
+        "{\"model\":\"Zeta\",\"categoryNames\":\"Compact\"}"))).isInstanceOf(IllegalArgumentException.class);
+  }
+}
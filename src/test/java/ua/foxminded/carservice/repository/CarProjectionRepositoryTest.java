@@ -0,0 +1,210 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.dto.CarResponse;
+import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.ChangeStamp;
+import ua.foxminded.carservice.dto.FieldSelection;
+import ua.foxminded.carservice.dto.StampedCar;
+import ua.foxminded.carservice.exception.BadRequestException;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import(CarProjectionRepository.class)
+class CarProjectionRepositoryTest {
+  private static final FieldSelection FIELDS = FieldSelection.all(CarResponse.class);
+
+  @Autowired
+  private CarProjectionRepository repo;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void findByIdShouldProjectCarWithManufacturerAndSortedCategoryNames() {
+    Car car = repo.findById("car001").get();
+
+    assertThat(car).extracting(Car::getId, Car::getModel, Car::getProductionYear)
+        .containsExactly("car001", "Zeta", 2020);
+    assertThat(car.getManufacturer().getName()).isEqualTo("Alpha Motors");
+    assertThat(car.getCategories()).extracting(Category::getName).containsExactly("Compact", "Luxury");
+  }
+
+  @Test
+  void findByIdShouldReturnEmptyIfCarDoesNotExist() {
+    assertThat(repo.findById("unknown")).isEmpty();
+  }
+
+  @Test
+  void findAllByIdInShouldProjectRequestedCars() {
+    assertThat(repo.findAllByIdIn(List.of("car002", "car005"))).extracting(Car::getId)
+        .containsExactlyInAnyOrder("car002", "car005");
+    assertThat(repo.findAllByIdIn(List.of(), FIELDS)).isEmpty();
+  }
+
+  @Test
+  void findAllShouldApplyFiltersAndCountTotal() {
+    Page<Car> page = repo.findAll(new CarSearchParameters("", "", List.of("Luxury"), "", ""), FIELDS,
+        PageRequest.of(0, 2));
+
+    assertThat(page.getContent()).extracting(Car::getId).containsExactly("car001", "car002");
+    assertThat(page.getContent().get(0).getCategories()).extracting(Category::getName)
+        .containsExactly("Compact", "Luxury");
+    assertThat(page.getTotalElements()).isEqualTo(3);
+  }
+
+  @Test
+  void findAllShouldSortByRequestedColumnsAndThenById() {
+    Page<Car> page = repo.findAll(new CarSearchParameters("", "", null, "", ""), FIELDS,
+        PageRequest.of(1, 2, Sort.by(Sort.Order.asc("manufacturer.name"), Sort.Order.desc("productionYear"))));
+
+    assertThat(page.getContent()).extracting(Car::getId).containsExactly("car005", "car002");
+    assertThat(page.getTotalElements()).isEqualTo(5);
+  }
+
+  @Test
+  void findAllShouldReturnAllCarsIfUnpaged() {
+    assertThat(repo.findAll(new CarSearchParameters("", "", null, "", ""), FIELDS, Pageable.unpaged()).getContent())
+        .hasSize(5);
+  }
+
+  @Test
+  void findAllShouldThrowBadRequestExceptionIfSortPropertyIsNotSupported() {
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+    PageRequest pageable = PageRequest.of(0, 2, Sort.by("categories"));
+
+    assertThrows(BadRequestException.class, () -> repo.findAll(params, FIELDS, pageable));
+  }
+
+  @Test
+  void findSliceShouldReportNextSliceWithoutCounting() {
+    Slice<Car> slice = repo.findSlice(new CarSearchParameters("Alpha Motors", "", null, "", ""), FIELDS,
+        PageRequest.of(0, 1));
+
+    assertThat(slice.getContent()).extracting(Car::getId).containsExactly("car001");
+    assertThat(slice.hasNext()).isTrue();
+  }
+
+  @Test
+  void findByIdShouldLeaveUnselectedAssociationsEmpty() {
+    Car car = repo.findById("car001", FieldSelection.of("id,model", CarResponse.class)).get();
+
+    assertThat(car.getModel()).isEqualTo("Zeta");
+    assertThat(car.getManufacturer()).isNull();
+    assertThat(car.getCategories()).isNull();
+  }
+
+  @Test
+  void findAllShouldFilterAndSortByManufacturerEvenIfManufacturerNameIsNotSelected() {
+    Page<Car> page = repo.findAll(new CarSearchParameters("Alpha Motors", "", null, "", ""),
+        FieldSelection.of("id", CarResponse.class), PageRequest.of(0, 10, Sort.by("manufacturer.name")));
+
+    assertThat(page.getContent()).extracting(Car::getId).containsExactly("car001", "car004");
+    assertThat(page.getContent()).extracting(Car::getManufacturer).containsOnlyNulls();
+  }
+
+  @Test
+  void findSliceShouldAggregateCategoriesWithoutManufacturerJoin() {
+    Slice<Car> slice = repo.findSlice(new CarSearchParameters("", "", null, "", ""),
+        FieldSelection.of("id,categoryNames", CarResponse.class), PageRequest.of(0, 1));
+
+    assertThat(slice.getContent().get(0).getCategories()).extracting(Category::getName)
+        .containsExactly("Compact", "Luxury");
+  }
+
+  @Test
+  void findWindowShouldScrollThroughCarsByKeysetInRequestedOrder() {
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+    FieldSelection fields = FieldSelection.of("id", CarResponse.class);
+    Sort sort = Sort.by(Sort.Order.asc("manufacturer.name"), Sort.Order.desc("productionYear"));
+    List<String> ids = new ArrayList<>();
+
+    Window<Car> window = repo.findWindow(params, fields, ScrollPosition.keyset(), sort, 2);
+    window.forEach(car -> ids.add(car.getId()));
+    while (window.hasNext()) {
+      window = repo.findWindow(params, fields, (KeysetScrollPosition) window.positionAt(window.size() - 1), sort, 2);
+      window.forEach(car -> ids.add(car.getId()));
+    }
+
+    assertThat(ids).containsExactly("car004", "car001", "car005", "car002", "car003");
+  }
+
+  @Test
+  void findWindowShouldFilterAndProjectRequestedFields() {
+    Window<Car> window = repo.findWindow(new CarSearchParameters("", "", List.of("Luxury"), "", ""),
+        FieldSelection.of("id,model", CarResponse.class),
+        ScrollPosition.forward(Map.of("productionYear", 2020, "id", "car001")), Sort.by("productionYear"), 10);
+
+    assertThat(window.getContent()).extracting(Car::getId).containsExactly("car002", "car005");
+    assertThat(window.getContent()).extracting(Car::getManufacturer).containsOnlyNulls();
+    assertThat(window.hasNext()).isFalse();
+    assertThat(window.positionAt(0)).isEqualTo(ScrollPosition.forward(Map.of("productionYear", 2021, "id", "car002")));
+  }
+
+  @Test
+  void findStampedByIdShouldReturnCarWithAllFieldsAndVersion() {
+    StampedCar car = repo.findStampedById("car001").orElseThrow();
+
+    assertThat(car.stamp().version()).isZero();
+    assertThat(car.car().getModel()).isEqualTo("Zeta");
+    assertThat(car.car().getManufacturer().getName()).isEqualTo("Alpha Motors");
+    assertThat(car.car().getCategories()).extracting(Category::getName).containsExactly("Compact", "Luxury");
+  }
+
+  @Test
+  void findStampedByIdShouldReturnEmptyIfCarDoesNotExist() {
+    assertThat(repo.findStampedById("unknown")).isEmpty();
+  }
+
+  @Test
+  void findStampedByIdShouldAdvanceIfManufacturerOrCategoryChanges() {
+    long initial = repo.findStampedById("car001").orElseThrow().stamp().sequence();
+
+    jdbcTemplate.update("UPDATE manufacturers SET change_seq = nextval('entity_change_seq') WHERE id = 'm001'");
+    long afterManufacturer = repo.findStampedById("car001").orElseThrow().stamp().sequence();
+    jdbcTemplate.update("UPDATE categories SET change_seq = nextval('entity_change_seq') WHERE id = 'c002'");
+    long afterCategory = repo.findStampedById("car001").orElseThrow().stamp().sequence();
+
+    assertThat(afterManufacturer).isGreaterThan(initial);
+    assertThat(afterCategory).isGreaterThan(afterManufacturer);
+  }
+
+  @Test
+  void findStampShouldCountFilteredCars() {
+    assertThat(repo.findStamp(new CarSearchParameters("", "", List.of("Luxury"), "", "")).count()).isEqualTo(3);
+    assertThat(repo.findStamp(new CarSearchParameters("Alpha Motors", "", null, "", "")).count()).isEqualTo(2);
+  }
+
+  @Test
+  void findStampShouldAdvanceIfFilteredCarChanges() {
+    CarSearchParameters params = new CarSearchParameters("Alpha Motors", "", null, "", "");
+    ChangeStamp initial = repo.findStamp(params);
+
+    jdbcTemplate.update("UPDATE cars SET change_seq = nextval('entity_change_seq') WHERE id = 'car004'");
+
+    assertThat(repo.findStamp(params).sequence()).isGreaterThan(initial.sequence());
+  }
+}
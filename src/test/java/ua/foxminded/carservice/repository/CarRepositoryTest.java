@@ -1,25 +1,82 @@
 package ua.foxminded.carservice.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import ua.foxminded.carservice.domain.Car;
 import ua.foxminded.carservice.domain.Category;
 import ua.foxminded.carservice.domain.Manufacturer;
 import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.exception.BadRequestException;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
 public class CarRepositoryTest {
   @Autowired
   private CarRepository repo;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void saveShouldAssignIdsFromEntityIdSequenceBlock() {
+    Car first = repo.saveAndFlush(newCar());
+    Car second = repo.saveAndFlush(newCar());
+
+    assertThat(UUID.fromString(first.getId()).version()).isEqualTo(8);
+    assertThat(UUID.fromString(second.getId()).getMostSignificantBits() >>> 16)
+        .isEqualTo((UUID.fromString(first.getId()).getMostSignificantBits() >>> 16) + 1);
+  }
+
+  @Test
+  void saveAndFlushShouldAdvanceChangeSequenceOfUpdatedCar() {
+    Car car = repo.saveAndFlush(newCar());
+    Long insertedSequence = changeSequenceOf(car.getId());
+
+    car.setModel("Updated");
+    car = repo.saveAndFlush(car);
+
+    assertThat(car.getChangeSeq()).isGreaterThan(insertedSequence);
+    assertThat(changeSequenceOf(car.getId())).isEqualTo(car.getChangeSeq());
+  }
+
+  @Test
+  void incrementVersionShouldAdvanceChangeSequence() {
+    Car car = repo.saveAndFlush(newCar());
+    Long insertedSequence = changeSequenceOf(car.getId());
+
+    repo.incrementVersion(car);
+    repo.flush();
+
+    assertThat(car.getVersion()).isEqualTo(1L);
+    assertThat(changeSequenceOf(car.getId())).isGreaterThan(insertedSequence);
+  }
+
+  @Test
+  void incrementVersionShouldReloadWrittenVersionAndChangeSequence() {
+    Car car = repo.saveAndFlush(newCar());
+
+    repo.incrementVersion(car);
+
+    assertThat(car.getVersion()).isEqualTo(1L);
+    assertThat(car.getChangeSeq()).isEqualTo(changeSequenceOf(car.getId()));
+  }
 
   @Test
   void findAllShouldReturnExpectedResultsIfCarSearchParametersProvided() {
@@ -97,4 +154,107 @@ public class CarRepositoryTest {
         .extracting(Category::getName)
         .contains("Compact");
   }
+
+  @Test
+  void findAllShouldReturnCarsHavingAnyOfCategoriesIfCategoryMatchIsAny() {
+    CarSearchParameters params = new CarSearchParameters("", "", List.of("Compact", "Convertible"), "", "", "any");
+
+    List<Car> result = repo.findAll(CarSpecifications.withFilters(params), PageRequest.of(0, 10)).getContent();
+
+    assertThat(result)
+        .extracting(Car::getId)
+        .containsExactlyInAnyOrder("car001", "car003", "car004");
+  }
+
+  @Test
+  void findAllShouldReturnCarsHavingAllCategoriesIfCategoryMatchIsAll() {
+    CarSearchParameters params = new CarSearchParameters("", "", List.of("Compact", "Luxury", "Luxury"), "", "",
+        "all");
+
+    List<Car> result = repo.findAll(CarSpecifications.withFilters(params), PageRequest.of(0, 10)).getContent();
+
+    assertThat(result)
+        .extracting(Car::getId)
+        .containsExactly("car001");
+  }
+
+  @Test
+  void findAllShouldNotDuplicateCarsMatchingSeveralCategories() {
+    CarSearchParameters params = new CarSearchParameters("", "", List.of("Compact", "Luxury"), "", "");
+
+    Page<Car> result = repo.findAll(CarSpecifications.withFilters(params), PageRequest.of(0, 10));
+
+    assertThat(result.getContent())
+        .extracting(Car::getId)
+        .containsExactlyInAnyOrder("car001", "car002", "car004", "car005");
+    assertThat(result.getTotalElements()).isEqualTo(4);
+  }
+
+  @Test
+  void findAllShouldThrowBadRequestExceptionIfCategoryMatchIsUnknown() {
+    CarSearchParameters params = new CarSearchParameters("", "", List.of("Compact"), "", "", "some");
+
+    assertThrows(BadRequestException.class,
+        () -> repo.findAll(CarSpecifications.withFilters(params), PageRequest.of(0, 10)));
+  }
+
+  @Test
+  void findByShouldScrollThroughFilteredCarsByKeysetIfPositionProvided() {
+    CarSearchParameters params = new CarSearchParameters("", "", null, "2020", "");
+    List<String> models = new ArrayList<>();
+
+    Window<Car> window = repo.findBy(CarSpecifications.withFilters(params),
+        query -> query.sortBy(Sort.by("productionYear")).limit(2).scroll(ScrollPosition.keyset()));
+    window.forEach(car -> models.add(car.getModel()));
+    while (window.hasNext()) {
+      ScrollPosition next = window.positionAt(window.size() - 1);
+      window = repo.findBy(CarSpecifications.withFilters(params),
+          query -> query.sortBy(Sort.by("productionYear")).limit(2).scroll(next));
+      window.forEach(car -> models.add(car.getModel()));
+    }
+
+    assertThat(models).containsExactly("Zeta", "Delta", "Theta", "Kappa");
+  }
+
+  @Test
+  void streamIndexEntriesShouldReturnRowPerCarCategory() {
+    try (Stream<CarIndexEntry> entries = repo.streamIndexEntries()) {
+      assertThat(entries.toList())
+          .extracting(CarIndexEntry::getCarId, CarIndexEntry::getManufacturerName, CarIndexEntry::getCategoryName)
+          .containsExactlyInAnyOrder(
+              tuple("car001", "Alpha Motors", "Compact"),
+              tuple("car001", "Alpha Motors", "Luxury"),
+              tuple("car002", "Beta Cars", "Luxury"),
+              tuple("car003", "Gamma Auto", "Convertible"),
+              tuple("car004", "Alpha Motors", "Compact"),
+              tuple("car005", "Beta Cars", "Luxury"));
+    }
+  }
+
+  @Test
+  void streamModelEntriesShouldReturnRowPerCar() {
+    try (Stream<CarModelEntry> entries = repo.streamModelEntries()) {
+      assertThat(entries.toList())
+          .extracting(CarModelEntry::getCarId, CarModelEntry::getModel, CarModelEntry::getManufacturerName)
+          .containsExactlyInAnyOrder(
+              tuple("car001", "Zeta", "Alpha Motors"),
+              tuple("car002", "Delta", "Beta Cars"),
+              tuple("car003", "Epsilon", "Gamma Auto"),
+              tuple("car004", "Theta", "Alpha Motors"),
+              tuple("car005", "Kappa", "Beta Cars"));
+    }
+  }
+
+  private Long changeSequenceOf(String id) {
+    return jdbcTemplate.queryForObject("SELECT change_seq FROM cars WHERE id = ?", Long.class, id);
+  }
+
+  private static Car newCar() {
+    return Car.builder()
+        .manufacturer(Manufacturer.builder().id("m001").version(0L).build())
+        .model("Model")
+        .productionYear(2024)
+        .categories(new ArrayList<>())
+        .build();
+  }
 }
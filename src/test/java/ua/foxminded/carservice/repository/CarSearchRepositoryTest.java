@@ -0,0 +1,86 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import(CarSearchRepository.class)
+class CarSearchRepositoryTest {
+  @Autowired
+  private CarSearchRepository repo;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void carSearchShouldBeBackfilledFromExistingCars() throws SQLException {
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM car_search", Long.class)).isEqualTo(5);
+    assertThat(row("car001")).containsEntry("MANUFACTURER_NAME", "Alpha Motors").containsEntry("MODEL", "Zeta");
+    assertThat(categoryNames("car001")).containsExactly("Compact", "Luxury");
+  }
+
+  @Test
+  void refreshCarShouldCopyCurrentCarState() throws SQLException {
+    jdbcTemplate.update("UPDATE cars SET model = 'Updated', manufacturer_id = 'm002' WHERE id = 'car003'");
+    jdbcTemplate.update("INSERT INTO cars_categories (car_id, category_id) VALUES ('car003', 'c001')");
+
+    repo.refreshCar("car003");
+
+    assertThat(row("car003")).containsEntry("MANUFACTURER_NAME", "Beta Cars").containsEntry("MODEL", "Updated");
+    assertThat(categoryNames("car003")).containsExactly("Compact", "Convertible");
+  }
+
+  @Test
+  void refreshCarsShouldCopyStateOfEveryListedCar() throws SQLException {
+    jdbcTemplate.update("UPDATE cars SET model = 'Updated' WHERE id IN ('car002', 'car005')");
+    jdbcTemplate.update("DELETE FROM cars_categories WHERE car_id = 'car005'");
+
+    repo.refreshCars(List.of("car002", "car005"));
+
+    assertThat(row("car002")).containsEntry("MODEL", "Updated");
+    assertThat(row("car005")).containsEntry("MODEL", "Updated");
+    assertThat(categoryNames("car005")).isEmpty();
+    assertThat(row("car001")).containsEntry("MODEL", "Zeta");
+  }
+
+  @Test
+  void renameManufacturerShouldUpdateEveryCarOfManufacturer() {
+    repo.renameManufacturer("m001", "Renamed");
+
+    assertThat(jdbcTemplate.queryForList("SELECT car_id FROM car_search WHERE manufacturer_name = 'Renamed'"
+        + " ORDER BY car_id", String.class)).containsExactly("car001", "car004");
+  }
+
+  @Test
+  void refreshCategoryShouldRewriteCategoryNamesOfCarsInCategory() throws SQLException {
+    jdbcTemplate.update("UPDATE categories SET name = 'Premium' WHERE id = 'c002'");
+
+    repo.refreshCategory("c002");
+
+    assertThat(categoryNames("car001")).containsExactly("Compact", "Premium");
+    assertThat(categoryNames("car002")).containsExactly("Premium");
+    assertThat(categoryNames("car004")).containsExactly("Compact");
+  }
+
+  private Map<String, Object> row(String carId) {
+    return jdbcTemplate.queryForMap("SELECT manufacturer_name, model FROM car_search WHERE car_id = ?", carId);
+  }
+
+  private Object[] categoryNames(String carId) throws SQLException {
+    Array names = jdbcTemplate.queryForObject("SELECT category_names FROM car_search WHERE car_id = ?", Array.class,
+        carId);
+    return (Object[]) names.getArray();
+  }
+}
@@ -0,0 +1,77 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.exception.BadRequestException;
+
+class CarSqlFiltersTest {
+
+  @Test
+  void whereClauseShouldNotAddConditionsIfNoFiltersProvided() {
+    List<Object> args = new ArrayList<>();
+
+    assertThat(CarSqlFilters.whereClause(new CarSearchParameters("", "", null, "", ""), args))
+        .isEqualTo(" WHERE 1 = 1");
+    assertThat(args).isEmpty();
+  }
+
+  @Test
+  void whereClauseShouldFilterCarsAndManufacturersIfNoCategoriesProvided() {
+    List<Object> args = new ArrayList<>();
+
+    String sql = CarSqlFilters.whereClause(new CarSearchParameters("Manufacturer", "Model", null, "2000", "2020"),
+        args);
+
+    assertThat(sql).isEqualTo(" WHERE 1 = 1 AND m.name = ? AND c.model = ? AND c.production_year >= ?"
+        + " AND c.production_year <= ?");
+    assertThat(args).containsExactly("Manufacturer", "Model", 2000, 2020);
+  }
+
+  @Test
+  void whereClauseShouldSearchCarSearchTableIfAnyCategoryMatches() {
+    List<Object> args = new ArrayList<>();
+
+    String sql = CarSqlFilters.whereClause(
+        new CarSearchParameters("", "Model", List.of("Luxury", "Luxury", "Compact"), "2000", "", "any"), args);
+
+    assertThat(sql).isEqualTo(" WHERE c.id IN (SELECT cs.car_id FROM car_search cs WHERE 1 = 1"
+        + " AND cs.model = ? AND cs.production_year >= ?"
+        + " AND (array_contains(cs.category_names, ?) OR array_contains(cs.category_names, ?)))");
+    assertThat(args).containsExactly("Model", 2000, "Luxury", "Compact");
+  }
+
+  @Test
+  void whereClauseShouldRequireEveryCategoryIfAllCategoriesMatch() {
+    List<Object> args = new ArrayList<>();
+
+    String sql = CarSqlFilters.whereClause(
+        new CarSearchParameters("Manufacturer", "", List.of("Luxury", "Compact"), "", "", "all"), args);
+
+    assertThat(sql).isEqualTo(" WHERE c.id IN (SELECT cs.car_id FROM car_search cs WHERE 1 = 1"
+        + " AND cs.manufacturer_name = ?"
+        + " AND (array_contains(cs.category_names, ?) AND array_contains(cs.category_names, ?)))");
+    assertThat(args).containsExactly("Manufacturer", "Luxury", "Compact");
+  }
+
+  @Test
+  void needsManufacturerShouldReturnTrueOnlyIfManufacturerNameProvidedWithoutCategories() {
+    assertThat(CarSqlFilters.needsManufacturer(new CarSearchParameters("Manufacturer", "", null, "", ""))).isTrue();
+    assertThat(CarSqlFilters.needsManufacturer(new CarSearchParameters(" ", "", null, "", ""))).isFalse();
+    assertThat(CarSqlFilters.needsManufacturer(new CarSearchParameters("Manufacturer", "", List.of("Luxury"), "", "")))
+        .isFalse();
+  }
+
+  @Test
+  void whereClauseShouldThrowBadRequestExceptionIfYearIsNotNumeric() {
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "year");
+
+    assertThrows(BadRequestException.class, () -> CarSqlFilters.whereClause(params, new ArrayList<>()));
+  }
+}
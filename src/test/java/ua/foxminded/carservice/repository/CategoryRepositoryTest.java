@@ -12,8 +12,11 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.dto.ChangeStamp;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
@@ -25,6 +28,7 @@ class CategoryRepositoryTest {
   void findByNameShouldReturnOptionalOfExpectedEntityIfValidNameProvided() {
     Category expectedEntity = Category.builder()
         .id("c001")
+        .version(0L)
         .name("Compact").build();
 
     assertThat(repo.findByName("Compact")).isEqualTo(Optional.of(expectedEntity));
@@ -36,22 +40,69 @@ class CategoryRepositoryTest {
   }
 
   @Test
-  void findByNameContainingShouldReturnExpectedResultIfValidArgumentsProvided() {
+  void findByNameInShouldReturnOnlyEntitiesWithListedNames() {
+    assertThat(repo.findByNameIn(List.of("Compact", "Convertible", "Invalid-Name"))).extracting("id")
+        .containsExactlyInAnyOrder("c001", "c003");
+  }
+
+  @Test
+  void findByNameContainingIgnoreCaseShouldReturnExpectedResultIfValidArgumentsProvided() {
     List<Category> categories = List.of(Category.builder()
         .id("c001")
+        .version(0L)
         .name("Compact").build(),
         Category.builder()
             .id("c003")
+            .version(0L)
             .name("Convertible").build());
     Page<Category> expectedResult = new PageImpl<Category>(categories);
 
-    assertThat(repo.findByNameContaining("Co", PageRequest.of(0, 10)).getContent())
+    assertThat(repo.findByNameContainingIgnoreCase("co", PageRequest.of(0, 10, Sort.by("name"))).getContent())
         .isEqualTo(expectedResult.getContent());
   }
   
   @Test
-  void findByNameContainingShouldReturnEmptyPageIfInvalidArgumentsProvided() {
-    assertThat(repo.findByNameContaining("Invalid-Name", PageRequest.of(0, 10)).getContent())
+  void findByNameContainingIgnoreCaseShouldReturnEmptyPageIfInvalidArgumentsProvided() {
+    assertThat(repo.findByNameContainingIgnoreCase("Invalid-Name", PageRequest.of(0, 10)).getContent())
         .isEqualTo(Page.empty().getContent());
   }
+
+  @Test
+  void findRankedByNameContainingIgnoreCaseShouldRankPrefixMatchesFirst() {
+    assertThat(repo.findRankedByNameContainingIgnoreCase("ON", PageRequest.of(0, 10)).getContent())
+        .extracting(Category::getName)
+        .containsExactly("Convertible");
+    assertThat(repo.findRankedByNameContainingIgnoreCase("u", PageRequest.of(0, 10)).getContent())
+        .extracting(Category::getName)
+        .containsExactly("Luxury");
+    assertThat(repo.findRankedByNameContainingIgnoreCase("c", PageRequest.of(0, 10)).getContent())
+        .extracting(Category::getName)
+        .containsExactly("Compact", "Convertible");
+  }
+
+  @Test
+  void findAllByShouldReturnSliceWithNextFlag() {
+    Slice<Category> slice = repo.findAllBy(PageRequest.of(0, 2, Sort.by("name")));
+
+    assertThat(slice.getContent()).hasSize(2);
+    assertThat(slice.hasNext()).isTrue();
+  }
+
+  @Test
+  void findRankedSliceByNameContainingIgnoreCaseShouldReturnRankedSlice() {
+    Slice<Category> slice = repo.findRankedSliceByNameContainingIgnoreCase("c", PageRequest.of(0, 1));
+
+    assertThat(slice.getContent()).extracting(Category::getName).containsExactly("Compact");
+    assertThat(slice.hasNext()).isTrue();
+  }
+
+  @Test
+  void findStampByNameContainingIgnoreCaseShouldCountMatchingCategories() {
+    ChangeStamp all = repo.findStampByNameContainingIgnoreCase("");
+    ChangeStamp filtered = repo.findStampByNameContainingIgnoreCase("lux");
+
+    assertThat(all.count()).isEqualTo(3);
+    assertThat(filtered.count()).isEqualTo(1);
+    assertThat(filtered.sequence()).isPositive().isLessThanOrEqualTo(all.sequence());
+  }
 }
@@ -0,0 +1,56 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import(IdempotencyKeyRepository.class)
+class IdempotencyKeyRepositoryTest {
+  private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+  @Autowired
+  private IdempotencyKeyRepository repo;
+
+  @Test
+  void findShouldReturnSavedRecordIfItIsNotExpired() {
+    repo.save("cars", "key", "car-id", NOW);
+
+    assertThat(repo.find("cars", "key", NOW.minusSeconds(60))).contains(new IdempotencyRecord("car-id", NOW));
+    assertThat(repo.find("cars", "key", NOW)).isEmpty();
+    assertThat(repo.find("manufacturers", "key", NOW.minusSeconds(60))).isEmpty();
+  }
+
+  @Test
+  void saveShouldThrowDuplicateKeyExceptionIfKeyIsTaken() {
+    repo.save("cars", "key", "car-id", NOW);
+
+    assertThrows(DuplicateKeyException.class, () -> repo.save("cars", "key", "other-id", NOW));
+  }
+
+  @Test
+  void deleteExpiredShouldRemoveOnlyRecordsCreatedBeforeCutoff() {
+    repo.save("cars", "old", "car-1", NOW.minusSeconds(120));
+    repo.save("cars", "new", "car-2", NOW);
+
+    assertThat(repo.deleteExpired(NOW.minusSeconds(60))).isEqualTo(1);
+    assertThat(repo.find("cars", "new", NOW.minusSeconds(60))).isPresent();
+  }
+
+  @Test
+  void deleteExpiredShouldRemoveExpiredRecordOfKey() {
+    repo.save("cars", "key", "car-1", NOW.minusSeconds(120));
+
+    assertThat(repo.deleteExpired("cars", "key", NOW)).isEqualTo(1);
+    repo.save("cars", "key", "car-2", NOW);
+  }
+}
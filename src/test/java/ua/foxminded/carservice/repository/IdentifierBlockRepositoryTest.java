@@ -0,0 +1,26 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import(IdentifierBlockRepository.class)
+class IdentifierBlockRepositoryTest {
+  @Autowired
+  private IdentifierBlockRepository repo;
+
+  @Test
+  void nextIdShouldReturnConsecutiveIdsFromOneSequenceBlock() {
+    String first = repo.nextId();
+    String second = repo.nextId();
+
+    assertThat(first).isEqualTo(PooledIdentifierAllocator.toIdentifier(1));
+    assertThat(second).isEqualTo(PooledIdentifierAllocator.toIdentifier(2));
+  }
+}
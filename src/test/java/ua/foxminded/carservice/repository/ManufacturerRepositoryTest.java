@@ -12,8 +12,11 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.ChangeStamp;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
@@ -25,6 +28,7 @@ public class ManufacturerRepositoryTest {
   void findByNameShouldReturnOptionalOfExpectedEntityIfValidNameProvided() {
     Manufacturer expectedEntity = Manufacturer.builder()
         .id("m001")
+        .version(0L)
         .name("Alpha Motors").build();
 
     assertThat(repo.findByName("Alpha Motors")).isEqualTo(Optional.of(expectedEntity));
@@ -36,22 +40,79 @@ public class ManufacturerRepositoryTest {
   }
 
   @Test
-  void findByNameContainingShouldReturnExpectedResultIfValidArgumentsProvided() {
+  void findByNameInShouldReturnOnlyEntitiesWithListedNames() {
+    assertThat(repo.findByNameIn(List.of("Alpha Motors", "Gamma Auto", "Invalid-Name"))).extracting("id")
+        .containsExactlyInAnyOrder("m001", "m003");
+  }
+
+  @Test
+  void findByNameContainingIgnoreCaseShouldReturnExpectedResultIfValidArgumentsProvided() {
     List<Manufacturer> manufacturers = List.of(Manufacturer.builder()
         .id("m001")
+        .version(0L)
         .name("Alpha Motors").build(),
         Manufacturer.builder()
             .id("m002")
+            .version(0L)
             .name("Beta Cars").build());
     Page<Manufacturer> expectedResult = new PageImpl<Manufacturer>(manufacturers);
 
-    assertThat(repo.findByNameContaining("rs", PageRequest.of(0, 10)).getContent())
+    assertThat(repo.findByNameContainingIgnoreCase("RS", PageRequest.of(0, 10, Sort.by("name"))).getContent())
         .isEqualTo(expectedResult.getContent());
   }
   
   @Test
-  void findByNameContainingShouldReturnEmptyPageIfInvalidArgumentsProvided() {
-    assertThat(repo.findByNameContaining("Invalid-Name", PageRequest.of(0, 10)).getContent())
+  void findByNameContainingIgnoreCaseShouldReturnEmptyPageIfInvalidArgumentsProvided() {
+    assertThat(repo.findByNameContainingIgnoreCase("Invalid-Name", PageRequest.of(0, 10)).getContent())
         .isEqualTo(Page.empty().getContent());
   }
+
+  @Test
+  void findByNameContainingIgnoreCaseShouldTreatWildcardsLiterally() {
+    assertThat(repo.findByNameContainingIgnoreCase("%", PageRequest.of(0, 10)).getContent()).isEmpty();
+  }
+
+  @Test
+  void findRankedByNameContainingIgnoreCaseShouldRankExactThenPrefixThenShorterMatches() {
+    assertThat(repo.findRankedByNameContainingIgnoreCase("a", PageRequest.of(0, 10)).getContent())
+        .extracting(Manufacturer::getName)
+        .containsExactly("Alpha Motors", "Beta Cars", "Gamma Auto");
+    assertThat(repo.findRankedByNameContainingIgnoreCase("BETA CARS", PageRequest.of(0, 10)).getContent())
+        .extracting(Manufacturer::getName)
+        .containsExactly("Beta Cars");
+  }
+
+  @Test
+  void findRankedByNameContainingIgnoreCaseShouldReturnRequestedPageAndTotalCount() {
+    Page<Manufacturer> page = repo.findRankedByNameContainingIgnoreCase("a", PageRequest.of(1, 2));
+
+    assertThat(page.getContent()).extracting(Manufacturer::getName).containsExactly("Gamma Auto");
+    assertThat(page.getTotalElements()).isEqualTo(3);
+  }
+
+  @Test
+  void findAllByShouldReturnSliceWithNextFlag() {
+    Slice<Manufacturer> slice = repo.findAllBy(PageRequest.of(0, 2, Sort.by("name")));
+
+    assertThat(slice.getContent()).hasSize(2);
+    assertThat(slice.hasNext()).isTrue();
+  }
+
+  @Test
+  void findRankedSliceByNameContainingIgnoreCaseShouldReturnRankedSlice() {
+    Slice<Manufacturer> slice = repo.findRankedSliceByNameContainingIgnoreCase("a", PageRequest.of(0, 1));
+
+    assertThat(slice.getContent()).extracting(Manufacturer::getName).containsExactly("Alpha Motors");
+    assertThat(slice.hasNext()).isTrue();
+  }
+
+  @Test
+  void findStampByNameContainingIgnoreCaseShouldCountMatchingManufacturers() {
+    ChangeStamp all = repo.findStampByNameContainingIgnoreCase("");
+    ChangeStamp filtered = repo.findStampByNameContainingIgnoreCase("ALPHA");
+
+    assertThat(all.count()).isEqualTo(3);
+    assertThat(filtered.count()).isEqualTo(1);
+    assertThat(filtered.sequence()).isPositive().isLessThanOrEqualTo(all.sequence());
+  }
 }
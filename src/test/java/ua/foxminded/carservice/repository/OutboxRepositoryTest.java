@@ -0,0 +1,61 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import ua.foxminded.carservice.event.AggregateType;
+import ua.foxminded.carservice.event.ChangeEvent;
+import ua.foxminded.carservice.event.ChangeType;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import(OutboxRepository.class)
+class OutboxRepositoryTest {
+  @Autowired
+  private OutboxRepository repo;
+
+  @Test
+  void findPendingShouldReturnAppendedEventsInOrder() {
+    repo.append(new OutboxEntry(AggregateType.CAR, "car-1", ChangeType.CREATED, "{\"id\":\"car-1\"}"));
+    repo.appendAll(List.of(
+        new OutboxEntry(AggregateType.CAR, "car-2", ChangeType.CREATED, "{\"id\":\"car-2\"}"),
+        new OutboxEntry(AggregateType.CATEGORY, "c-1", ChangeType.DELETED, null)));
+
+    List<ChangeEvent> events = repo.findPending(10);
+
+    assertThat(events).extracting(ChangeEvent::aggregateId).containsExactly("car-1", "car-2", "c-1");
+    assertThat(events).extracting(ChangeEvent::type)
+        .containsExactly(ChangeType.CREATED, ChangeType.CREATED, ChangeType.DELETED);
+    assertThat(events.get(1).payload()).isEqualTo("{\"id\":\"car-2\"}");
+    assertThat(events.get(2).aggregateType()).isEqualTo(AggregateType.CATEGORY);
+    assertThat(events.get(2).payload()).isNull();
+    assertThat(events.get(0).id()).isLessThan(events.get(1).id());
+    assertThat(events.get(0).createdAt()).isNotNull();
+  }
+
+  @Test
+  void findPendingShouldReturnAtMostLimitEvents() {
+    repo.append(new OutboxEntry(AggregateType.MANUFACTURER, "m-1", ChangeType.UPDATED, "{}"));
+    repo.append(new OutboxEntry(AggregateType.MANUFACTURER, "m-2", ChangeType.UPDATED, "{}"));
+
+    assertThat(repo.findPending(1)).extracting(ChangeEvent::aggregateId).containsExactly("m-1");
+  }
+
+  @Test
+  void deleteShouldRemoveOnlyGivenEvents() {
+    repo.append(new OutboxEntry(AggregateType.CAR, "car-1", ChangeType.DELETED, null));
+    repo.append(new OutboxEntry(AggregateType.CAR, "car-2", ChangeType.DELETED, null));
+    List<ChangeEvent> events = repo.findPending(10);
+
+    assertThat(repo.delete(List.of(events.get(0).id()))).isEqualTo(1);
+    assertThat(repo.delete(List.of())).isZero();
+    assertThat(repo.findPending(10)).extracting(ChangeEvent::aggregateId).containsExactly("car-2");
+  }
+}
@@ -0,0 +1,64 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class PooledIdentifierAllocatorTest {
+  PooledIdentifierAllocator allocator = new PooledIdentifierAllocator();
+
+  @Test
+  void nextShouldHandOutWholeBlockBeforeFetchingNextHi() {
+    AtomicInteger fetches = new AtomicInteger();
+    AtomicLong sequence = new AtomicLong();
+
+    List<String> ids = IntStream.range(0, PooledIdentifierAllocator.BLOCK_SIZE + 1)
+        .mapToObj(i -> allocator.next(() -> {
+          fetches.incrementAndGet();
+          return sequence.addAndGet(PooledIdentifierAllocator.BLOCK_SIZE);
+        }))
+        .toList();
+
+    assertThat(fetches).hasValue(2);
+    assertThat(ids.get(0)).isEqualTo(PooledIdentifierAllocator.toIdentifier(1));
+    assertThat(ids.get(PooledIdentifierAllocator.BLOCK_SIZE))
+        .isEqualTo(PooledIdentifierAllocator.toIdentifier(PooledIdentifierAllocator.BLOCK_SIZE + 1));
+    assertThat(ids).isSorted().doesNotHaveDuplicates();
+  }
+
+  @Test
+  void nextShouldNotRepeatIdsAcrossThreads() throws InterruptedException {
+    AtomicLong sequence = new AtomicLong();
+    Set<String> ids = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    for (int i = 0; i < 20000; i++) {
+      executor.execute(() -> ids.add(allocator.next(() -> sequence.addAndGet(PooledIdentifierAllocator.BLOCK_SIZE))));
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(ids).hasSize(20000);
+  }
+
+  @Test
+  void toIdentifierShouldReturnVersion8UuidOrderedBySequenceValue() {
+    UUID first = UUID.fromString(PooledIdentifierAllocator.toIdentifier(999));
+    UUID second = UUID.fromString(PooledIdentifierAllocator.toIdentifier(1000));
+
+    assertThat(first.version()).isEqualTo(8);
+    assertThat(first.variant()).isEqualTo(2);
+    assertThat(first.toString()).isLessThan(second.toString());
+  }
+}
@@ -0,0 +1,107 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ua.foxminded.carservice.dto.CarSearchParameters;
+
+@ExtendWith(MockitoExtension.class)
+class RowCountEstimatorTest {
+  private static final String PLAN = "[{\"Plan\": {\"Node Type\": \"Seq Scan\", \"Plan Rows\": 4200}}]";
+
+  @Mock
+  JdbcTemplate jdbcTemplate;
+
+  @InjectMocks
+  RowCountEstimator estimator;
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void estimateManufacturersShouldReturnEmptyIfDatabaseIsNotPostgreSql() {
+    when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+    assertThat(estimator.estimateManufacturers("name")).isEmpty();
+    verify(jdbcTemplate, never()).queryForObject(anyString(), eq(String.class), any(Object[].class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void estimateManufacturersShouldReturnPlanRowsForEscapedNamePattern() {
+    when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+    when(jdbcTemplate.queryForObject(anyString(), eq(String.class), any(Object[].class))).thenReturn(PLAN);
+
+    assertThat(estimator.estimateManufacturers("A_b%")).isEqualTo(OptionalLong.of(4200));
+    verify(jdbcTemplate).queryForObject(
+        "EXPLAIN (FORMAT JSON) SELECT id FROM manufacturers WHERE lower(name) LIKE ? ESCAPE '\\'", String.class,
+        "%a\\_b\\%%");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void estimateCategoriesShouldExplainWholeTableIfNameIsBlank() {
+    when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+    when(jdbcTemplate.queryForObject(anyString(), eq(String.class), any(Object[].class))).thenReturn(PLAN);
+
+    assertThat(estimator.estimateCategories(" ")).isEqualTo(OptionalLong.of(4200));
+    verify(jdbcTemplate).queryForObject(eq("EXPLAIN (FORMAT JSON) SELECT id FROM categories"), eq(String.class),
+        any(Object[].class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void estimateCarsShouldExplainQueryWithAllFilters() {
+    when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+    when(jdbcTemplate.queryForObject(anyString(), eq(String.class), any(Object[].class))).thenReturn(PLAN);
+
+    CarSearchParameters params = new CarSearchParameters("Manufacturer", "Model", List.of("Luxury", "Compact"),
+        "2000", "2020", "all");
+
+    assertThat(estimator.estimateCars(params)).isEqualTo(OptionalLong.of(4200));
+    verify(jdbcTemplate).queryForObject("EXPLAIN (FORMAT JSON) SELECT c.id FROM cars c"
+        + " WHERE c.id IN (SELECT cs.car_id FROM car_search cs WHERE 1 = 1 AND cs.manufacturer_name = ?"
+        + " AND cs.model = ? AND cs.production_year >= ? AND cs.production_year <= ?"
+        + " AND (array_contains(cs.category_names, ?) AND array_contains(cs.category_names, ?)))",
+        String.class, "Manufacturer", "Model", 2000, 2020, "Luxury", "Compact");
+  }
+
+  @Test
+  void toPageShouldUseEstimateIfSliceHasNext() {
+    Page<String> page = RowCountEstimator.toPage(new SliceImpl<>(List.of("a", "b"), PageRequest.of(1, 2), true),
+        100);
+
+    assertThat(page.getTotalElements()).isEqualTo(100);
+  }
+
+  @Test
+  void toPageShouldNotReportFewerElementsThanSeen() {
+    Page<String> page = RowCountEstimator.toPage(new SliceImpl<>(List.of("a", "b"), PageRequest.of(3, 2), true), 1);
+
+    assertThat(page.getTotalElements()).isEqualTo(9);
+  }
+
+  @Test
+  void toPageShouldUseExactTotalOnLastSlice() {
+    Page<String> page = RowCountEstimator.toPage(new SliceImpl<>(List.of("a"), PageRequest.of(2, 2), false), 100);
+
+    assertThat(page.getTotalElements()).isEqualTo(5);
+  }
+}
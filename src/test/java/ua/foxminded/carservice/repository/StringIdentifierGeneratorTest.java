@@ -2,6 +2,8 @@ package ua.foxminded.carservice.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.UUID;
+
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.junit.jupiter.api.Test;
 
@@ -20,6 +22,22 @@ public class StringIdentifierGeneratorTest {
     assertThat(result).isNotNull().isInstanceOf(String.class);
   }
 
+  @Test
+  void generateShouldReturnTimeOrderedUuidByDefault() {
+    Object result = generator.generate(session, new TestStringIdentifiable(null));
+
+    assertThat(UUID.fromString((String) result).version()).isEqualTo(7);
+  }
+
+  @Test
+  void generateShouldReturnRandomUuidIfStrategyIsRandom() {
+    StringIdentifierGenerator randomGenerator = new StringIdentifierGenerator(IdentifierStrategy.RANDOM);
+
+    Object result = randomGenerator.generate(session, new TestStringIdentifiable(null));
+
+    assertThat(UUID.fromString((String) result).version()).isEqualTo(4);
+  }
+
   @Test
   void generateShouldReturnProvidedIdWhenIdIsNotNull() {
     StringIdentifiable identifiable = new TestStringIdentifiable("existing-id");
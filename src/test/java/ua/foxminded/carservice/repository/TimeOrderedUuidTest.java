@@ -0,0 +1,39 @@
+package ua.foxminded.carservice.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedUuidTest {
+
+  @Test
+  void generateShouldReturnVersion7UuidWithRfcVariant() {
+    UUID uuid = TimeOrderedUuid.generate();
+
+    assertThat(uuid.version()).isEqualTo(7);
+    assertThat(uuid.variant()).isEqualTo(2);
+  }
+
+  @Test
+  void generateShouldEncodeCurrentUnixMillisecondsInFirst48Bits() {
+    long before = System.currentTimeMillis();
+    UUID uuid = TimeOrderedUuid.generate();
+
+    assertThat(uuid.getMostSignificantBits() >>> 16).isGreaterThanOrEqualTo(before)
+        .isLessThan(System.currentTimeMillis() + 1000);
+  }
+
+  @Test
+  void generateShouldReturnStrictlyIncreasingIdsInStringOrder() {
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      ids.add(TimeOrderedUuid.generate().toString());
+    }
+
+    assertThat(ids).isSorted().doesNotHaveDuplicates();
+  }
+}
@@ -0,0 +1,72 @@
+package ua.foxminded.carservice.service.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import ua.foxminded.carservice.domain.CarImport;
+import ua.foxminded.carservice.domain.CarImportFormat;
+import ua.foxminded.carservice.dto.CarImportResponse;
+import ua.foxminded.carservice.exception.BadRequestException;
+import ua.foxminded.carservice.mapper.CarImportMapper;
+import ua.foxminded.carservice.service.CarImportService;
+
+@ExtendWith(MockitoExtension.class)
+class CarImportRestApiServiceImplTest {
+  @Mock
+  CarImportMapper mapper;
+  @Mock
+  CarImportService service;
+
+  @InjectMocks
+  CarImportRestApiServiceImpl apiService;
+
+  @Test
+  void getCarImportResponseByIdShouldReturnExpectedResponse() {
+    CarImport carImport = CarImport.builder().id("id").build();
+    CarImportResponse response = CarImportResponse.builder().id("id").status("LOADING").build();
+    when(service.getImportById("id")).thenReturn(carImport);
+    when(mapper.carImportToCarImportResponse(carImport)).thenReturn(response);
+
+    assertThat(apiService.getCarImportResponseById("id")).isEqualTo(ResponseEntity.ok(response));
+  }
+
+  @Test
+  void saveCarImportShouldResolveFormatFromContentTypeAndReturnAccepted() {
+    InputStream content = new ByteArrayInputStream(new byte[0]);
+    CarImport carImport = CarImport.builder().id("id").build();
+    CarImportResponse response = CarImportResponse.builder().id("id").status("PENDING").build();
+    when(service.createImport(CarImportFormat.NDJSON, content)).thenReturn(carImport);
+    when(mapper.carImportToCarImportResponse(carImport)).thenReturn(response);
+
+    ResponseEntity<CarImportResponse> result = apiService.saveCarImport("application/x-ndjson; charset=UTF-8",
+        content);
+
+    assertThat(result.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+    assertThat(result.getHeaders().getLocation()).isEqualTo(URI.create("/api/v1/imports/id"));
+    assertThat(result.getBody()).isEqualTo(response);
+  }
+
+  @Test
+  void saveCarImportShouldThrowBadRequestExceptionIfContentTypeIsNotSupported() {
+    InputStream content = new ByteArrayInputStream(new byte[0]);
+
+    assertThrows(BadRequestException.class, () -> apiService.saveCarImport("application/json", content));
+    verify(service, never()).createImport(any(), any());
+  }
+}
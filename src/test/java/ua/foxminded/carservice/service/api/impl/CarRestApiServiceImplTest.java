@@ -1,202 +1,535 @@
 package ua.foxminded.carservice.service.api.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 
 import ua.foxminded.carservice.domain.Car;
 import ua.foxminded.carservice.domain.Category;
 import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.CarBatchItemResponse;
+import ua.foxminded.carservice.dto.CarChangeResponse;
+import ua.foxminded.carservice.dto.CarChangesResponse;
 import ua.foxminded.carservice.dto.CarCreateRequest;
+import ua.foxminded.carservice.dto.CarFacetsResponse;
 import ua.foxminded.carservice.dto.CarModifyRequest;
+import ua.foxminded.carservice.dto.CarPatchRequest;
 import ua.foxminded.carservice.dto.CarResponse;
 import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.ChangeStamp;
+import ua.foxminded.carservice.dto.FieldSelection;
+import ua.foxminded.carservice.dto.CursorPageResponse;
+import ua.foxminded.carservice.dto.ModelSuggestionResponse;
+import ua.foxminded.carservice.dto.SliceResponse;
+import ua.foxminded.carservice.dto.StampedCar;
+import ua.foxminded.carservice.dto.TotalMode;
+import ua.foxminded.carservice.dto.VersionStamp;
+import ua.foxminded.carservice.exception.BadRequestException;
 import ua.foxminded.carservice.mapper.CarMapper;
+import ua.foxminded.carservice.mapper.CursorMapper;
+import ua.foxminded.carservice.service.CarChangeEntry;
 import ua.foxminded.carservice.service.CarService;
+import ua.foxminded.carservice.service.IdempotencyService;
+import ua.foxminded.carservice.service.search.ModelSuggestion;
 
 @ExtendWith(MockitoExtension.class)
 public class CarRestApiServiceImplTest {
+  private static final FieldSelection FIELDS = FieldSelection.all(CarResponse.class);
+
   @Mock
   CarMapper mapper;
   @Mock
   CarService service;
+  @Mock
+  IdempotencyService idempotency;
+  @Mock
+  CursorMapper cursorMapper;
+  @Spy
+  ObjectMapper objectMapper = new ObjectMapper();
+  @Spy
+  Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
   @InjectMocks
   CarRestApiServiceImpl apiService;
 
   @Test
   void getCarResponsesByParametersShouldCallServiceWithExpectedArguments() {
-    when(service.getCarsByParameters(any(), any(Pageable.class))).thenReturn(cars());
+    when(service.getCarsStampByParameters(any(), any(Pageable.class))).thenReturn(Optional.of(new ChangeStamp(2, 7)));
+    when(service.getCarsByParameters(any(), any(FieldSelection.class), any(Pageable.class), any(ChangeStamp.class)))
+        .thenReturn(cars());
 
     CarSearchParameters params = new CarSearchParameters("Manufacturer", "Model", List.of("Category-1", "Category-2"),
         "1990", "2024");
-    apiService.getCarResponsesByParameters(params, PageRequest.of(0, 10));
+    apiService.getCarResponsesByParameters(params, FIELDS, TotalMode.EXACT, PageRequest.of(0, 10), null);
 
-    verify(service, atLeastOnce()).getCarsByParameters(params, PageRequest.of(0, 10));
+    verify(service, atLeastOnce()).getCarsByParameters(params, FIELDS, PageRequest.of(0, 10), new ChangeStamp(2, 7));
   }
 
   @Test
   void getCarResponsesByParametersShouldReturnExpectedResponseIfCarsListIsEmpty() {
-    when(service.getCarsByParameters(any(), any(Pageable.class))).thenReturn(new PageImpl<Car>(new ArrayList<Car>()));
+    when(service.getCarsStampByParameters(any(), any(Pageable.class))).thenReturn(Optional.of(new ChangeStamp(2, 7)));
+    when(service.getCarsByParameters(any(), any(FieldSelection.class), any(Pageable.class), any(ChangeStamp.class)))
+        .thenReturn(new PageImpl<Car>(new ArrayList<Car>()));
 
-    ResponseEntity<PageImpl<Car>> expetcedResponse = ResponseEntity.ok(new PageImpl<Car>(new ArrayList<Car>()));
+    ResponseEntity<PageImpl<CarResponse>> expetcedResponse = ResponseEntity.ok().eTag("\"2-7\"")
+        .body(new PageImpl<CarResponse>(new ArrayList<CarResponse>()));
 
     CarSearchParameters params = new CarSearchParameters("Manufacturer", "Model", List.of("Category-1", "Category-2"),
         "1990", "2024");
-    assertThat(apiService.getCarResponsesByParameters(params, PageRequest.of(0, 10))).isEqualTo(expetcedResponse);
+    assertThat(apiService.getCarResponsesByParameters(params, FIELDS, TotalMode.EXACT, PageRequest.of(0, 10), null)).isEqualTo(expetcedResponse);
   }
 
   @Test
-  void getCarResponsesByParametersShouldCallMapperIfCarsListIsNotEmpty() {
-    when(service.getCarsByParameters(any(), any(Pageable.class))).thenReturn(cars());
-    when(mapper.carToCarResponse(any())).thenReturn(carResponse());
+  void getCarResponsesByParametersShouldMapProjectedCars() {
+    when(service.getCarsStampByParameters(any(), any(Pageable.class))).thenReturn(Optional.of(new ChangeStamp(2, 7)));
+    when(service.getCarsByParameters(any(), any(FieldSelection.class), any(Pageable.class), any(ChangeStamp.class)))
+        .thenReturn(cars());
 
     CarSearchParameters params = new CarSearchParameters("Manufacturer", "Model", List.of("Category-1", "Category-2"),
         "1990", "2024");
-    apiService.getCarResponsesByParameters(params, PageRequest.of(0, 10));
+    apiService.getCarResponsesByParameters(params, FIELDS, TotalMode.EXACT, PageRequest.of(0, 10), null);
 
-    verify(mapper, atLeastOnce()).carToCarResponse(any());
+    verify(mapper, times(2)).carToCarResponse(car());
   }
 
   @Test
   void getCarResponsesByParametersShouldReturnExpectedResponseIfCarsListIsNotEmpty() {
-    when(service.getCarsByParameters(any(), any(Pageable.class))).thenReturn(cars());
-    when(mapper.carToCarResponse(any())).thenReturn(carResponse());
+    when(service.getCarsStampByParameters(any(), any(Pageable.class))).thenReturn(Optional.of(new ChangeStamp(2, 7)));
+    when(service.getCarsByParameters(any(), any(FieldSelection.class), any(Pageable.class), any(ChangeStamp.class)))
+        .thenReturn(cars());
+    when(mapper.carToCarResponse(car())).thenReturn(carResponse());
 
-    ResponseEntity<Page<CarResponse>> expetcedResponse = ResponseEntity.ok(carResponses());
+    ResponseEntity<Page<CarResponse>> expetcedResponse = ResponseEntity
+        .ok(new PageImpl<CarResponse>(List.of(carResponse(), carResponse())));
 
     CarSearchParameters params = new CarSearchParameters("Manufacturer", "Model", List.of("Category-1", "Category-2"),
         "1990", "2024");
-    assertThat(apiService.getCarResponsesByParameters(params, PageRequest.of(0, 10)).getBody().getContent())
+    assertThat(apiService.getCarResponsesByParameters(params, FIELDS, TotalMode.EXACT, PageRequest.of(0, 10), null).getBody().getContent())
         .isEqualTo(expetcedResponse.getBody().getContent());
   }
 
   @Test
-  void getCarResponseByIdShouldCallServiceWithExpectedParams() {
-    when(service.getCarById(anyString())).thenReturn(car());
+  void getCarResponsesByParametersShouldCallEstimatedServiceIfTotalIsEstimate() {
+    when(service.getCarsByParametersWithEstimatedTotal(any(), any(FieldSelection.class), any(Pageable.class))).thenReturn(cars());
 
-    apiService.getCarResponseById("car-id");
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+    apiService.getCarResponsesByParameters(params, FIELDS, TotalMode.ESTIMATE, PageRequest.of(0, 10), null);
 
-    verify(service, atLeastOnce()).getCarById("car-id");
+    verify(service, atLeastOnce()).getCarsByParametersWithEstimatedTotal(params, FIELDS, PageRequest.of(0, 10));
   }
 
   @Test
-  void getCarResponseByIdShouldCallMapperWithExpectedParams() {
-    when(service.getCarById(anyString())).thenReturn(car());
-    when(mapper.carToCarResponse(any())).thenReturn(carResponse());
+  void getCarResponsesByParametersShouldReturnNotModifiedWithoutLoadingCarsIfETagMatches() {
+    when(service.getCarsStampByParameters(any(), any(Pageable.class))).thenReturn(Optional.of(new ChangeStamp(2, 7)));
+
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+    ResponseEntity<Page<CarResponse>> response = apiService.getCarResponsesByParameters(params, FIELDS,
+        TotalMode.EXACT, PageRequest.of(0, 10), "W/\"1-3\", \"2-7\"");
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    assertThat(response.getHeaders().getETag()).isEqualTo("\"2-7\"");
+    assertThat(response.getBody()).isNull();
+    verify(service, never()).getCarsByParameters(any(), any(FieldSelection.class), any(Pageable.class),
+        any(ChangeStamp.class));
+  }
+
+  @Test
+  void getCarResponsesByParametersShouldReturnPageWithoutETagIfSearchIndexServesIt() {
+    when(service.getCarsStampByParameters(any(), any(Pageable.class))).thenReturn(Optional.empty());
+    when(service.getCarsByParameters(any(), any(FieldSelection.class), any(Pageable.class))).thenReturn(cars());
+
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+    ResponseEntity<Page<CarResponse>> response = apiService.getCarResponsesByParameters(params, FIELDS,
+        TotalMode.EXACT, PageRequest.of(0, 10), "\"2-7\"");
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getHeaders().getETag()).isNull();
+    verify(service).getCarsByParameters(params, FIELDS, PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getCarResponseSliceByParametersShouldReturnExpectedResponse() {
+    when(service.getCarSliceByParameters(any(), any(FieldSelection.class), any(Pageable.class)))
+        .thenReturn(new SliceImpl<Car>(List.of(car()), PageRequest.of(0, 1), true));
+    when(mapper.carsToCarResponses(List.of(car()))).thenReturn(List.of(carResponse()));
+
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+    SliceResponse<CarResponse> expectedResponse = SliceResponse.<CarResponse>builder()
+        .content(List.of(carResponse()))
+        .size(1)
+        .number(0)
+        .hasNext(true).build();
+
+    assertThat(apiService.getCarResponseSliceByParameters(params, FIELDS, PageRequest.of(0, 1)).getBody())
+        .isEqualTo(expectedResponse);
+  }
+
+  @Test
+  void getCarResponsesByParametersShouldCallServiceWithDecodedCursor() {
+    KeysetScrollPosition position = ScrollPosition.forward(Map.of("id", "Id"));
+    when(cursorMapper.cursorToPosition(anyString(), any(Sort.class), eq(Car.class))).thenReturn(position);
+    when(service.getCarsByParameters(any(), any(), any(KeysetScrollPosition.class), any(Sort.class), anyInt()))
+        .thenReturn(Window.from(List.of(car()), ScrollPosition::offset));
+
+    CarSearchParameters params = new CarSearchParameters("Manufacturer", "Model", List.of("Category-1", "Category-2"),
+        "1990", "2024");
+    apiService.getCarResponsesByParameters(params, FIELDS, "cursor", PageRequest.of(0, 10, Sort.by("model")));
+
+    verify(service, atLeastOnce()).getCarsByParameters(params, FIELDS, position, Sort.by("model"), 10);
+  }
+
+  @Test
+  void getCarResponsesByParametersShouldReturnNextCursorIfWindowHasNext() {
+    KeysetScrollPosition last = ScrollPosition.forward(Map.of("id", "Id"));
+    when(cursorMapper.cursorToPosition(anyString(), any(Sort.class), eq(Car.class))).thenReturn(ScrollPosition.keyset());
+    when(cursorMapper.positionToCursor(eq(last))).thenReturn("next-cursor");
+    when(service.getCarsByParameters(any(), any(), any(KeysetScrollPosition.class), any(Sort.class), anyInt()))
+        .thenReturn(Window.from(List.of(car()), index -> last, true));
+    when(mapper.carsToCarResponses(any())).thenReturn(List.of(carResponse()));
+
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+    CursorPageResponse<CarResponse> response = apiService
+        .getCarResponsesByParameters(params, FIELDS, "", PageRequest.of(0, 1)).getBody();
+
+    assertThat(response.getContent()).containsExactly(carResponse());
+    assertThat(response.getSize()).isEqualTo(1);
+    assertThat(response.getNextCursor()).isEqualTo("next-cursor");
+  }
+
+  @Test
+  void getCarResponsesByParametersShouldReturnNullNextCursorIfWindowIsLast() {
+    when(cursorMapper.cursorToPosition(anyString(), any(Sort.class), eq(Car.class))).thenReturn(ScrollPosition.keyset());
+    when(service.getCarsByParameters(any(), any(), any(KeysetScrollPosition.class), any(Sort.class), anyInt()))
+        .thenReturn(Window.from(List.of(car()), ScrollPosition::offset));
+
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+
+    assertThat(apiService.getCarResponsesByParameters(params, FIELDS, "", PageRequest.of(0, 10)).getBody().getNextCursor())
+        .isNull();
+  }
 
-    apiService.getCarResponseById("car-id");
+  @Test
+  void getCarChangesShouldReturnChangesWithTokenOfLastChange() {
+    KeysetScrollPosition since = ScrollPosition.forward(Map.of("seq", 3L, "id", "Id-0"));
+    KeysetScrollPosition last = ScrollPosition.forward(Map.of("seq", 4L, "id", "Id"));
+    when(cursorMapper.cursorToPosition("since-token")).thenReturn(since);
+    when(service.getCarChanges(since, 10)).thenReturn(Window.from(
+        List.of(new CarChangeEntry("Id-1", car()), new CarChangeEntry("Id", null)), index -> last, true));
+    when(cursorMapper.positionToCursor(last)).thenReturn("next-token");
+    when(mapper.carToCarResponse(car())).thenReturn(carResponse());
+
+    assertThat(apiService.getCarChanges("since-token", 10).getBody()).isEqualTo(CarChangesResponse.builder()
+        .changes(List.of(
+            CarChangeResponse.builder().id("Id-1").deleted(false).car(carResponse()).build(),
+            CarChangeResponse.builder().id("Id").deleted(true).build()))
+        .nextToken("next-token")
+        .hasMore(true).build());
+  }
+
+  @Test
+  void getCarChangesShouldReturnSameTokenIfThereAreNoChanges() {
+    KeysetScrollPosition since = ScrollPosition.forward(Map.of("seq", 3L, "id", "Id"));
+    when(cursorMapper.cursorToPosition("since-token")).thenReturn(since);
+    when(service.getCarChanges(since, 10)).thenReturn(Window.from(List.of(), ScrollPosition::offset));
+    when(cursorMapper.positionToCursor(since)).thenReturn("since-token");
 
-    verify(mapper, atLeastOnce()).carToCarResponse(car());
+    CarChangesResponse response = apiService.getCarChanges("since-token", 10).getBody();
+
+    assertThat(response.getChanges()).isEmpty();
+    assertThat(response.getNextToken()).isEqualTo("since-token");
+    assertThat(response.getHasMore()).isFalse();
+  }
+
+  @Test
+  void getCarResponseByIdShouldCallServiceWithExpectedParams() {
+    when(service.getStampedCarById(anyString())).thenReturn(new StampedCar(car(), new VersionStamp(4, 9)));
+
+    apiService.getCarResponseById("car-id", null);
+
+    verify(service, atLeastOnce()).getStampedCarById("car-id");
   }
 
   @Test
   void getCarResponseByIdShouldReturnExpectedResponse() {
-    when(service.getCarById(anyString())).thenReturn(car());
-    when(mapper.carToCarResponse(any())).thenReturn(carResponse());
+    when(service.getStampedCarById("car-id")).thenReturn(new StampedCar(car(), new VersionStamp(4, 9)));
+    when(mapper.carToCarResponse(car())).thenReturn(carResponse());
 
-    ResponseEntity<CarResponse> expectedResponse = ResponseEntity.ok(carResponse());
+    ResponseEntity<CarResponse> expectedResponse = ResponseEntity.ok().eTag("\"4.9\"").body(carResponse());
 
-    assertThat(apiService.getCarResponseById("car-id"))
+    assertThat(apiService.getCarResponseById("car-id", "\"4.8\""))
         .isEqualTo(expectedResponse);
   }
 
+  @Test
+  void getCarResponseByIdShouldReturnNotModifiedWithoutMappingCarIfETagMatches() {
+    when(service.getStampedCarById("car-id")).thenReturn(new StampedCar(car(), new VersionStamp(4, 9)));
+
+    assertThat(apiService.getCarResponseById("car-id", "\"4.9\""))
+        .isEqualTo(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"4.9\"").build());
+    verify(service, times(1)).getStampedCarById(anyString());
+    verify(mapper, never()).carToCarResponse(any());
+  }
+
+  @Test
+  void getCarFacetsShouldReturnFacetsFromService() {
+    CarSearchParameters params = new CarSearchParameters("Manufacturer", "", null, "", "");
+    CarFacetsResponse facets = CarFacetsResponse.builder().manufacturers(List.of()).build();
+    when(service.getCarFacets(params)).thenReturn(facets);
+
+    assertThat(apiService.getCarFacets(params)).isEqualTo(ResponseEntity.ok(facets));
+  }
+
+  @Test
+  void getCarFacetsShouldThrowBadRequestExceptionIfParametersAreInvalid() {
+    CarSearchParameters params = new CarSearchParameters("", "", List.of("Category"), "", "", "some");
+
+    assertThrows(BadRequestException.class, () -> apiService.getCarFacets(params));
+    verify(service, never()).getCarFacets(any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void exportCarResponsesShouldWriteOneJsonObjectPerLine() throws IOException {
+    doAnswer(invocation -> {
+      Consumer<Car> consumer = invocation.getArgument(1);
+      consumer.accept(car());
+      consumer.accept(car());
+      return null;
+    }).when(service).exportCars(any(), any(Consumer.class));
+    when(mapper.carToCarResponse(any())).thenReturn(carResponse());
+
+    ResponseEntity<StreamingResponseBody> response = apiService
+        .exportCarResponses(new CarSearchParameters("", "", null, "", ""));
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    response.getBody().writeTo(output);
+
+    assertThat(response.getHeaders().getContentType()).hasToString("application/x-ndjson");
+    String line = objectMapper.writeValueAsString(carResponse());
+    assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(line + "\n" + line + "\n");
+  }
+
+  @Test
+  void exportCarResponsesShouldThrowBadRequestExceptionBeforeStreamingIfParametersAreInvalid() {
+    CarSearchParameters params = new CarSearchParameters("", "", null, "year", "");
+
+    assertThrows(BadRequestException.class, () -> apiService.exportCarResponses(params));
+    verify(service, never()).exportCars(any(), any());
+  }
+
+  @Test
+  void getModelSuggestionsShouldReturnMappedSuggestions() {
+    List<ModelSuggestion> suggestions = List.of(new ModelSuggestion("Model", 2));
+    List<ModelSuggestionResponse> responses = List.of(ModelSuggestionResponse.builder().model("Model").count(2).build());
+    when(service.suggestModels("Mo", "Manufacturer", 5)).thenReturn(suggestions);
+    when(mapper.modelSuggestionsToModelSuggestionResponses(suggestions)).thenReturn(responses);
+
+    assertThat(apiService.getModelSuggestions("Mo", "Manufacturer", 5)).isEqualTo(ResponseEntity.ok(responses));
+  }
+
   @Test
   void saveCarShouldCallServiceWithExpectedParams() {
+    when(idempotency.execute(any(), any(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<String>>getArgument(2).get());
     when(mapper.carCreateRequestToCar(any())).thenReturn(car());
     when(service.createCar(any(), any(), any())).thenReturn(car());
 
     CarCreateRequest request = carCreateRequest();
-    apiService.saveCar(request);
+    apiService.saveCar(request, null);
 
     verify(service, atLeastOnce()).createCar(car(), request.getManufacturerName(), request.getCategoryNames());
   }
 
   @Test
   void saveCarShouldCallMapperWithExpectedParams() {
+    when(idempotency.execute(any(), any(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<String>>getArgument(2).get());
     when(mapper.carCreateRequestToCar(any())).thenReturn(car());
     when(service.createCar(any(), any(), any())).thenReturn(car());
 
-    apiService.saveCar(carCreateRequest());
+    apiService.saveCar(carCreateRequest(), null);
 
     verify(mapper, atLeastOnce()).carCreateRequestToCar(carCreateRequest());
   }
 
+  @Test
+  void saveCarsShouldPassOnlyValidRequestsToServiceAndKeepRequestOrder() {
+    CarCreateRequest invalid = CarCreateRequest.builder()
+        .manufacturerName("Manufacturer")
+        .categoryNames(List.of("Category-1"))
+        .model("")
+        .productionYear(2000).build();
+    when(service.createCars(any())).thenReturn(List.of(
+        CarBatchItemResponse.builder().index(0).status(201).id("Id-1").build(),
+        CarBatchItemResponse.builder().index(1).status(404).message("Not found").build()));
+
+    List<CarBatchItemResponse> results = apiService.saveCars(Arrays.asList(carCreateRequest(), invalid, null,
+        carCreateRequest())).getBody();
+
+    verify(service).createCars(List.of(carCreateRequest(), carCreateRequest()));
+    assertThat(results).extracting(CarBatchItemResponse::getIndex).containsExactly(0, 1, 2, 3);
+    assertThat(results).extracting(CarBatchItemResponse::getStatus).containsExactly(201, 400, 400, 404);
+    assertThat(results.get(0).getId()).isEqualTo("Id-1");
+    assertThat(results.get(1).getErrorDetails()).containsEntry("model", "Model has to be specified.");
+  }
+
   @Test
   void saveCarShouldReturnExpectedResponse() {
+    when(idempotency.execute(any(), any(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<String>>getArgument(2).get());
     when(mapper.carCreateRequestToCar(any())).thenReturn(car());
     when(service.createCar(any(), any(), any())).thenReturn(car());
 
     ResponseEntity<String> expectedResponse = new ResponseEntity<String>(car().getId(), HttpStatus.CREATED);
 
-    assertThat(apiService.saveCar(carCreateRequest()))
+    assertThat(apiService.saveCar(carCreateRequest(), null))
         .isEqualTo(expectedResponse);
   }
 
+  @Test
+  void saveCarShouldReturnStoredIdWithoutCreatingCarIfIdempotencyKeyWasUsed() {
+    when(idempotency.execute(eq("cars"), eq("key-1"), any())).thenReturn("stored-id");
+
+    assertThat(apiService.saveCar(carCreateRequest(), "key-1"))
+        .isEqualTo(new ResponseEntity<String>("stored-id", HttpStatus.CREATED));
+    verify(service, never()).createCar(any(), any(), any());
+  }
+
   @Test
   void modifyCarShouldCallServiceWithExpectedParams() {
     when(mapper.carModifyRequestToCar(any())).thenReturn(car());
-    when(service.modifyCar(any(), any(), any())).thenReturn(car());
+    when(service.modifyCar(any(), any(), any())).thenReturn(savedCar());
 
     CarModifyRequest request = carModifyRequest();
-    apiService.modifyCar(request);
+    apiService.modifyCar(request, null);
 
     verify(service, atLeastOnce()).modifyCar(car(), request.getManufacturerName(), request.getCategoryNames());
   }
 
+  @Test
+  void modifyCarShouldPassIfMatchVersionToService() {
+    when(mapper.carModifyRequestToCar(any())).thenReturn(car());
+    when(service.modifyCar(any(), any(), any())).thenReturn(savedCar());
+
+    apiService.modifyCar(carModifyRequest(), "\"2\"");
+
+    verify(service).modifyCar(argThat(car -> Long.valueOf(2L).equals(car.getVersion())), any(), any());
+  }
+
+  @Test
+  void deleteCarByIdShouldPassCarVersionFromChangeStampTag() {
+    apiService.deleteCarById("car-id", "\"2.15\"");
+
+    verify(service).deleteCar("car-id", 2L);
+  }
+
+  @Test
+  void modifyCarShouldPassUnmatchableVersionToServiceIfIfMatchIsWeakOrMalformed() {
+    when(mapper.carModifyRequestToCar(any())).thenAnswer(invocation -> car());
+    when(service.modifyCar(any(), any(), any())).thenReturn(savedCar());
+
+    apiService.modifyCar(carModifyRequest(), "W/\"2\"");
+    apiService.modifyCar(carModifyRequest(), "\"abc\"");
+
+    verify(service, times(2)).modifyCar(argThat(car -> Long.valueOf(-1L).equals(car.getVersion())), any(), any());
+  }
+
+  @Test
+  void deleteCarByIdShouldIgnoreWildcardIfMatch() {
+    apiService.deleteCarById("car-id", "*");
+
+    verify(service).deleteCar("car-id", null);
+  }
+
   @Test
   void modifyCarShouldCallMapperWithExpectedParams() {
     when(mapper.carModifyRequestToCar(any())).thenReturn(car());
-    when(service.modifyCar(any(), any(), any())).thenReturn(car());
+    when(service.modifyCar(any(), any(), any())).thenReturn(savedCar());
 
-    apiService.modifyCar(carModifyRequest());
+    apiService.modifyCar(carModifyRequest(), null);
 
     verify(mapper, atLeastOnce()).carModifyRequestToCar(carModifyRequest());
-    verify(mapper, atLeastOnce()).carToCarResponse(car());
+    verify(mapper, atLeastOnce()).carToCarResponse(savedCar());
   }
 
   @Test
   void modifyCarShouldReturnExpectedResponse() {
     when(mapper.carModifyRequestToCar(any())).thenReturn(car());
-    when(service.modifyCar(any(), any(), any())).thenReturn(car());
+    when(service.modifyCar(any(), any(), any())).thenReturn(savedCar());
     when(mapper.carToCarResponse(any())).thenReturn(carResponse());
 
-    ResponseEntity<CarResponse> expectedResponse = ResponseEntity.ok(carResponse());
+    ResponseEntity<CarResponse> expectedResponse = ResponseEntity.ok().eTag("\"3.12\"").body(carResponse());
 
-    assertThat(apiService.modifyCar(carModifyRequest()))
+    assertThat(apiService.modifyCar(carModifyRequest(), null))
         .isEqualTo(expectedResponse);
   }
 
+  @Test
+  void patchCarShouldReturnPatchedCarResponseWithNewVersionTag() {
+    CarPatchRequest request = CarPatchRequest.builder().model("Model").build();
+    when(service.patchCar("id", null, request)).thenReturn(savedCar());
+    when(mapper.carToCarResponse(savedCar())).thenReturn(carResponse());
+
+    assertThat(apiService.patchCar("id", request, null))
+        .isEqualTo(ResponseEntity.ok().eTag("\"3.12\"").body(carResponse()));
+  }
+
   @Test
   void deleteCarByIdShouldCallServiceWithExpectedParams() {
-    apiService.deleteCarById("car-id");
+    apiService.deleteCarById("car-id", null);
 
-    verify(service, atLeastOnce()).deleteCar("car-id");
+    verify(service, atLeastOnce()).deleteCar("car-id", null);
   }
 
   @Test
   void deleteCarByIdShouldReturnNoContentResponse() {
     ResponseEntity<Void> expectedResponse = ResponseEntity.noContent().build();
 
-    assertThat(apiService.deleteCarById("car-id"))
+    assertThat(apiService.deleteCarById("car-id", null))
         .isEqualTo(expectedResponse);
   }
 
@@ -214,6 +547,15 @@ public class CarRestApiServiceImplTest {
         .build();
   }
 
+  private Car savedCar() {
+    Car car = car();
+    car.setVersion(3L);
+    car.setChangeSeq(10L);
+    car.getManufacturer().setChangeSeq(4L);
+    car.getCategories().get(1).setChangeSeq(12L);
+    return car;
+  }
+
   private CarResponse carResponse() {
     return CarResponse.builder()
         .id("Id")
@@ -243,8 +585,4 @@ public class CarRestApiServiceImplTest {
   private Page<Car> cars() {
     return new PageImpl<Car>(List.of(car(), car()));
   }
-
-  private Page<CarResponse> carResponses() {
-    return new PageImpl<CarResponse>(List.of(carResponse(), carResponse()));
-  }
 }
@@ -3,12 +3,16 @@ package ua.foxminded.carservice.service.api.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,15 +23,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import ua.foxminded.carservice.domain.Category;
 import ua.foxminded.carservice.dto.CategoryCreateRequest;
 import ua.foxminded.carservice.dto.CategoryModifyRequest;
+import ua.foxminded.carservice.dto.CategoryPatchRequest;
 import ua.foxminded.carservice.dto.CategoryResponse;
+import ua.foxminded.carservice.dto.ChangeStamp;
+import ua.foxminded.carservice.dto.SliceResponse;
+import ua.foxminded.carservice.dto.TotalMode;
 import ua.foxminded.carservice.mapper.CategoryMapper;
 import ua.foxminded.carservice.service.CategoryService;
+import ua.foxminded.carservice.service.IdempotencyService;
 
 @ExtendWith(MockitoExtension.class)
 class CategoryRestApiServiceImplTest {
@@ -35,56 +45,99 @@ class CategoryRestApiServiceImplTest {
   CategoryMapper mapper;
   @Mock
   CategoryService service;
+  @Mock
+  IdempotencyService idempotency;
 
   @InjectMocks
   CategoryRestApiServiceImpl apiService;
 
   @Test
   void getCategoryResponsesByNameShouldCallServiceWithExpectedArguments() {
+    when(service.getCategoriesStampByName("name")).thenReturn(new ChangeStamp(2, 7));
     when(service.getCategoriesByName(anyString(), any(Pageable.class))).thenReturn(categories());
 
-    apiService.getCategoryResponsesByName("name", PageRequest.of(0, 10));
+    apiService.getCategoryResponsesByName("name", TotalMode.EXACT, PageRequest.of(0, 10), null);
 
     verify(service, atLeastOnce()).getCategoriesByName("name", PageRequest.of(0, 10));
   }
 
   @Test
   void getCategoryResponsesByNameShouldReturnExpectedResponseIfCategoriesListIsEmpty() {
+    when(service.getCategoriesStampByName("name")).thenReturn(new ChangeStamp(2, 7));
     when(service.getCategoriesByName(anyString(), any(Pageable.class)))
         .thenReturn(new PageImpl<Category>(new ArrayList<Category>()));
 
-    ResponseEntity<Page<CategoryResponse>> expetcedResponse = ResponseEntity
-        .ok(new PageImpl<CategoryResponse>(List.of()));
+    ResponseEntity<Page<CategoryResponse>> expetcedResponse = ResponseEntity.ok().eTag("\"2-7\"")
+        .body(new PageImpl<CategoryResponse>(List.of()));
 
-    assertThat(apiService.getCategoryResponsesByName("name", PageRequest.of(0, 10))).isEqualTo(expetcedResponse);
+    assertThat(apiService.getCategoryResponsesByName("name", TotalMode.EXACT, PageRequest.of(0, 10), null)).isEqualTo(expetcedResponse);
   }
 
   @Test
   void getCategoryResponsesByNameShouldCallMapperIfCategoriesListIsNotEmpty() {
+    when(service.getCategoriesStampByName("name")).thenReturn(new ChangeStamp(2, 7));
     when(service.getCategoriesByName(anyString(), any(Pageable.class))).thenReturn(categories());
     when(mapper.categoryToCategoryResponse(any())).thenReturn(categoryResponse());
 
-    apiService.getCategoryResponsesByName("name", PageRequest.of(0, 10));
+    apiService.getCategoryResponsesByName("name", TotalMode.EXACT, PageRequest.of(0, 10), null);
 
     verify(mapper, atLeastOnce()).categoryToCategoryResponse(category());
   }
 
   @Test
   void getCategoryResponsesByNameShouldReturnExpectedResponseIfCategoriesListIsNotEmpty() {
+    when(service.getCategoriesStampByName("name")).thenReturn(new ChangeStamp(2, 7));
     when(service.getCategoriesByName(anyString(), any(Pageable.class))).thenReturn(categories());
     when(mapper.categoryToCategoryResponse(any())).thenReturn(categoryResponse());
 
-    ResponseEntity<Page<CategoryResponse>> expetcedResponse = ResponseEntity.ok(categoryResponses());
+    ResponseEntity<Page<CategoryResponse>> expetcedResponse = ResponseEntity.ok().eTag("\"2-7\"")
+        .body(categoryResponses());
 
-    assertThat(apiService.getCategoryResponsesByName("name", PageRequest.of(0, 10)).getBody().getContent())
+    assertThat(apiService.getCategoryResponsesByName("name", TotalMode.EXACT, PageRequest.of(0, 10), null).getBody().getContent())
         .isEqualTo(expetcedResponse.getBody().getContent());
   }
 
+  @Test
+  void getCategoryResponsesByNameShouldCallEstimatedServiceIfTotalIsEstimate() {
+    when(service.getCategoriesByNameWithEstimatedTotal(anyString(), any(Pageable.class))).thenReturn(categories());
+
+    apiService.getCategoryResponsesByName("name", TotalMode.ESTIMATE, PageRequest.of(0, 10), null);
+
+    verify(service, atLeastOnce()).getCategoriesByNameWithEstimatedTotal("name", PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getCategoryResponsesByNameShouldReturnNotModifiedWithoutLoadingCategoriesIfETagMatches() {
+    when(service.getCategoriesStampByName("name")).thenReturn(new ChangeStamp(2, 7));
+
+    ResponseEntity<Page<CategoryResponse>> response = apiService.getCategoryResponsesByName("name", TotalMode.EXACT,
+        PageRequest.of(0, 10), "\"2-7\"");
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    verify(service, never()).getCategoriesByName(anyString(), any(Pageable.class));
+  }
+
+  @Test
+  void getCategoryResponseSliceByNameShouldReturnExpectedResponse() {
+    when(service.getCategorySliceByName(anyString(), any(Pageable.class)))
+        .thenReturn(new SliceImpl<Category>(List.of(category()), PageRequest.of(0, 1), true));
+    when(mapper.categoriesToCategoryResponses(any())).thenReturn(List.of(categoryResponse()));
+
+    SliceResponse<CategoryResponse> expectedResponse = SliceResponse.<CategoryResponse>builder()
+        .content(List.of(categoryResponse()))
+        .size(1)
+        .number(0)
+        .hasNext(true).build();
+
+    assertThat(apiService.getCategoryResponseSliceByName("name", PageRequest.of(0, 1)).getBody())
+        .isEqualTo(expectedResponse);
+  }
+
   @Test
   void getCategoryResponseByIdShouldCallServiceWithExpectedParams() {
     when(service.getCategoryById(anyString())).thenReturn(category());
 
-    apiService.getCategoryResponseById("category-id");
+    apiService.getCategoryResponseById("category-id", null);
 
     verify(service, atLeastOnce()).getCategoryById("category-id");
   }
@@ -94,49 +147,88 @@ class CategoryRestApiServiceImplTest {
     when(service.getCategoryById(anyString())).thenReturn(category());
     when(mapper.categoryToCategoryResponse(any())).thenReturn(categoryResponse());
 
-    apiService.getCategoryResponseById("category-id");
+    apiService.getCategoryResponseById("category-id", null);
 
     verify(mapper, atLeastOnce()).categoryToCategoryResponse(category());
   }
 
   @Test
   void getCategoryResponseByIdShouldReturnExpectedResponse() {
-    when(service.getCategoryById(anyString())).thenReturn(category());
+    Category category = category();
+    category.setVersion(4L);
+    when(service.getCategoryById(anyString())).thenReturn(category);
     when(mapper.categoryToCategoryResponse(any())).thenReturn(categoryResponse());
 
-    ResponseEntity<CategoryResponse> expectedResponse = ResponseEntity.ok(categoryResponse());
+    ResponseEntity<CategoryResponse> expectedResponse = ResponseEntity.ok().eTag("\"4\"").body(categoryResponse());
+
+    assertThat(apiService.getCategoryResponseById("category-id", null)).isEqualTo(expectedResponse);
+  }
+
+  @Test
+  void getCategoryResponseByIdShouldReturnNotModifiedWithoutMappingCategoryIfETagMatches() {
+    Category category = category();
+    category.setVersion(4L);
+    when(service.getCategoryById("category-id")).thenReturn(category);
+
+    assertThat(apiService.getCategoryResponseById("category-id", "\"4\""))
+        .isEqualTo(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"4\"").build());
+    verify(service, times(1)).getCategoryById(anyString());
+    verify(mapper, never()).categoryToCategoryResponse(any());
+  }
 
-    assertThat(apiService.getCategoryResponseById("category-id")).isEqualTo(expectedResponse);
+  @Test
+  void getCategoryResponseByIdShouldReturnCategoryIfETagDoesNotMatch() {
+    Category category = category();
+    category.setVersion(5L);
+    when(service.getCategoryById("category-id")).thenReturn(category);
+    when(mapper.categoryToCategoryResponse(any())).thenReturn(categoryResponse());
+
+    assertThat(apiService.getCategoryResponseById("category-id", "\"4\"").getHeaders().getETag()).isEqualTo("\"5\"");
   }
 
   @Test
   void saveCategoryShouldCallServiceWithExpectedParams() {
+    when(idempotency.execute(any(), any(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<String>>getArgument(2).get());
     when(mapper.categoryCreateRequestToCategory(any())).thenReturn(category());
     when(service.createCategory(any())).thenReturn(category());
 
-    apiService.saveCategory(categoryCreateRequest());
+    apiService.saveCategory(categoryCreateRequest(), null);
 
     verify(service, atLeastOnce()).createCategory(category());
   }
 
   @Test
   void saveCategoryShouldCallMapperWithExpectedParams() {
+    when(idempotency.execute(any(), any(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<String>>getArgument(2).get());
     when(mapper.categoryCreateRequestToCategory(any())).thenReturn(category());
     when(service.createCategory(any())).thenReturn(category());
 
-    apiService.saveCategory(categoryCreateRequest());
+    apiService.saveCategory(categoryCreateRequest(), null);
 
     verify(mapper, atLeastOnce()).categoryCreateRequestToCategory(categoryCreateRequest());
   }
 
   @Test
   void saveCategoryShouldReturnExpectedResponse() {
+    when(idempotency.execute(any(), any(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<String>>getArgument(2).get());
     when(mapper.categoryCreateRequestToCategory(any())).thenReturn(category());
     when(service.createCategory(any())).thenReturn(category());
 
     ResponseEntity<String> expectedResponse = new ResponseEntity<String>("category-id", HttpStatus.CREATED);
 
-    assertThat(apiService.saveCategory(categoryCreateRequest())).isEqualTo(expectedResponse);
+    assertThat(apiService.saveCategory(categoryCreateRequest(), null)).isEqualTo(expectedResponse);
+  }
+
+  @Test
+  void saveCategoryShouldReturnStoredIdWithoutCreatingCategoryIfIdempotencyKeyWasUsed() {
+    when(idempotency.execute(eq("categories"), eq("key-1"), any())).thenReturn("stored-id");
+
+    assertThat(apiService.saveCategory(categoryCreateRequest(), "key-1"))
+        .isEqualTo(new ResponseEntity<String>("stored-id", HttpStatus.CREATED));
+    verify(service, never()).createCategory(any());
   }
 
   @Test
@@ -144,7 +236,7 @@ class CategoryRestApiServiceImplTest {
     when(mapper.categoryModifyRequestToCategory(any())).thenReturn(category());
     when(service.modifyCategory(any())).thenReturn(category());
 
-    apiService.modifyCategory(categoryModifyRequest());
+    apiService.modifyCategory(categoryModifyRequest(), null);
 
     verify(service, atLeastOnce()).modifyCategory(category());
   }
@@ -154,7 +246,7 @@ class CategoryRestApiServiceImplTest {
     when(mapper.categoryModifyRequestToCategory(any())).thenReturn(category());
     when(service.modifyCategory(any())).thenReturn(category());
 
-    apiService.modifyCategory(categoryModifyRequest());
+    apiService.modifyCategory(categoryModifyRequest(), null);
 
     verify(mapper, atLeastOnce()).categoryModifyRequestToCategory(categoryModifyRequest());
     verify(mapper, atLeastOnce()).categoryToCategoryResponse(category());
@@ -163,26 +255,36 @@ class CategoryRestApiServiceImplTest {
   @Test
   void modifyCategoryShouldReturnExpectedResponse() {
     when(mapper.categoryModifyRequestToCategory(any())).thenReturn(category());
-    when(service.modifyCategory(any())).thenReturn(category());
+    when(service.modifyCategory(any())).thenReturn(savedCategory());
     when(mapper.categoryToCategoryResponse(any())).thenReturn(categoryResponse());
 
-    ResponseEntity<CategoryResponse> expectedResponse = ResponseEntity.ok(categoryResponse());
+    ResponseEntity<CategoryResponse> expectedResponse = ResponseEntity.ok().eTag("\"4\"").body(categoryResponse());
+
+    assertThat(apiService.modifyCategory(categoryModifyRequest(), null)).isEqualTo(expectedResponse);
+  }
+
+  @Test
+  void patchCategoryShouldReturnPatchedCategoryResponse() {
+    CategoryPatchRequest request = CategoryPatchRequest.builder().name("name").build();
+    when(service.patchCategory("id", null, request)).thenReturn(savedCategory());
+    when(mapper.categoryToCategoryResponse(savedCategory())).thenReturn(categoryResponse());
 
-    assertThat(apiService.modifyCategory(categoryModifyRequest())).isEqualTo(expectedResponse);
+    assertThat(apiService.patchCategory("id", request, null))
+        .isEqualTo(ResponseEntity.ok().eTag("\"4\"").body(categoryResponse()));
   }
 
   @Test
   void deleteCategoryByIdShouldCallServiceWithExpectedParams() {
-    apiService.deleteCategoryById("category-id");
+    apiService.deleteCategoryById("category-id", null);
 
-    verify(service, atLeastOnce()).deleteCategory("category-id");
+    verify(service, atLeastOnce()).deleteCategory("category-id", null);
   }
 
   @Test
   void deleteCategoryByIdShouldReturnNoContentResponse() {
     ResponseEntity<Void> expectedResponse = ResponseEntity.noContent().build();
 
-    assertThat(apiService.deleteCategoryById("category-id")).isEqualTo(expectedResponse);
+    assertThat(apiService.deleteCategoryById("category-id", null)).isEqualTo(expectedResponse);
   }
 
   private Category category() {
@@ -191,6 +293,12 @@ class CategoryRestApiServiceImplTest {
         .name("category-name").build();
   }
 
+  private Category savedCategory() {
+    Category category = category();
+    category.setVersion(4L);
+    return category;
+  }
+
   private CategoryResponse categoryResponse() {
     return CategoryResponse.builder()
         .id("category-id")
@@ -3,12 +3,16 @@ package ua.foxminded.carservice.service.api.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,14 +23,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.ChangeStamp;
 import ua.foxminded.carservice.dto.ManufacturerCreateRequest;
 import ua.foxminded.carservice.dto.ManufacturerModifyRequest;
+import ua.foxminded.carservice.dto.ManufacturerPatchRequest;
 import ua.foxminded.carservice.dto.ManufacturerResponse;
+import ua.foxminded.carservice.dto.SliceResponse;
+import ua.foxminded.carservice.dto.TotalMode;
 import ua.foxminded.carservice.mapper.ManufacturerMapper;
+import ua.foxminded.carservice.service.IdempotencyService;
 import ua.foxminded.carservice.service.ManufacturerService;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,56 +45,99 @@ class ManufacturerRestApiServiceImplTest {
   ManufacturerMapper mapper;
   @Mock
   ManufacturerService service;
+  @Mock
+  IdempotencyService idempotency;
 
   @InjectMocks
   ManufacturerRestApiServiceImpl apiService;
 
   @Test
   void getManufacturerResponsesByNameShouldCallServiceWithExpectedArguments() {
+    when(service.getManufacturersStampByName("name")).thenReturn(new ChangeStamp(2, 7));
     when(service.getManufacturersByName(anyString(), any(Pageable.class))).thenReturn(manufacturers());
 
-    apiService.getManufacturerResponsesByName("name", PageRequest.of(0, 10));
+    apiService.getManufacturerResponsesByName("name", TotalMode.EXACT, PageRequest.of(0, 10), null);
 
     verify(service, atLeastOnce()).getManufacturersByName("name", PageRequest.of(0, 10));
   }
 
   @Test
   void getManufacturerResponsesByNameShouldReturnExpectedResponseIfManufacturersListIsEmpty() {
+    when(service.getManufacturersStampByName("name")).thenReturn(new ChangeStamp(2, 7));
     when(service.getManufacturersByName(anyString(), any(Pageable.class)))
         .thenReturn(new PageImpl<Manufacturer>(new ArrayList<Manufacturer>()));
 
-    ResponseEntity<Page<ManufacturerResponse>> expetcedResponse = ResponseEntity
-        .ok(new PageImpl<ManufacturerResponse>(List.of()));
+    ResponseEntity<Page<ManufacturerResponse>> expetcedResponse = ResponseEntity.ok().eTag("\"2-7\"")
+        .body(new PageImpl<ManufacturerResponse>(List.of()));
 
-    assertThat(apiService.getManufacturerResponsesByName("name", PageRequest.of(0, 10)))
+    assertThat(apiService.getManufacturerResponsesByName("name", TotalMode.EXACT, PageRequest.of(0, 10), null))
         .isEqualTo(expetcedResponse);
   }
 
   @Test
   void getManufacturerResponsesByNameShouldCallMapperIfManufacturersListIsNotEmpty() {
+    when(service.getManufacturersStampByName("name")).thenReturn(new ChangeStamp(2, 7));
     when(service.getManufacturersByName(anyString(), any(Pageable.class))).thenReturn(manufacturers());
     when(mapper.manufacturerToManufacturerResponse(any())).thenReturn(manufacturerResponse());
 
-    apiService.getManufacturerResponsesByName("name", PageRequest.of(0, 10));
+    apiService.getManufacturerResponsesByName("name", TotalMode.EXACT, PageRequest.of(0, 10), null);
 
     verify(mapper, atLeastOnce()).manufacturerToManufacturerResponse(manufacturer());
   }
 
   @Test
   void getManufacturerResponsesByNameShouldReturnExpectedResponseIfManufacturersListIsNotEmpty() {
+    when(service.getManufacturersStampByName("name")).thenReturn(new ChangeStamp(2, 7));
     when(service.getManufacturersByName(anyString(), any(Pageable.class))).thenReturn(manufacturers());
     when(mapper.manufacturerToManufacturerResponse(any())).thenReturn(manufacturerResponse());
 
-    ResponseEntity<Page<ManufacturerResponse>> expetcedResponse = ResponseEntity.ok(manufacturerResponses());
+    ResponseEntity<Page<ManufacturerResponse>> expetcedResponse = ResponseEntity.ok().eTag("\"2-7\"")
+        .body(manufacturerResponses());
+
+    assertThat(apiService.getManufacturerResponsesByName("name", TotalMode.EXACT, PageRequest.of(0, 10), null)).isEqualTo(expetcedResponse);
+  }
+
+  @Test
+  void getManufacturerResponsesByNameShouldCallEstimatedServiceIfTotalIsEstimate() {
+    when(service.getManufacturersByNameWithEstimatedTotal(anyString(), any(Pageable.class))).thenReturn(manufacturers());
+
+    apiService.getManufacturerResponsesByName("name", TotalMode.ESTIMATE, PageRequest.of(0, 10), null);
+
+    verify(service, atLeastOnce()).getManufacturersByNameWithEstimatedTotal("name", PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getManufacturerResponsesByNameShouldReturnNotModifiedWithoutLoadingManufacturersIfETagMatches() {
+    when(service.getManufacturersStampByName("name")).thenReturn(new ChangeStamp(2, 7));
+
+    ResponseEntity<Page<ManufacturerResponse>> response = apiService.getManufacturerResponsesByName("name", TotalMode.EXACT,
+        PageRequest.of(0, 10), "\"2-7\"");
 
-    assertThat(apiService.getManufacturerResponsesByName("name", PageRequest.of(0, 10))).isEqualTo(expetcedResponse);
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    verify(service, never()).getManufacturersByName(anyString(), any(Pageable.class));
+  }
+
+  @Test
+  void getManufacturerResponseSliceByNameShouldReturnExpectedResponse() {
+    when(service.getManufacturerSliceByName(anyString(), any(Pageable.class)))
+        .thenReturn(new SliceImpl<Manufacturer>(List.of(manufacturer()), PageRequest.of(0, 1), true));
+    when(mapper.manufacturersToManufacturerResponses(any())).thenReturn(List.of(manufacturerResponse()));
+
+    SliceResponse<ManufacturerResponse> expectedResponse = SliceResponse.<ManufacturerResponse>builder()
+        .content(List.of(manufacturerResponse()))
+        .size(1)
+        .number(0)
+        .hasNext(true).build();
+
+    assertThat(apiService.getManufacturerResponseSliceByName("name", PageRequest.of(0, 1)).getBody())
+        .isEqualTo(expectedResponse);
   }
 
   @Test
   void getManufacturerResponseByIdShouldCallServiceWithExpectedParams() {
     when(service.getManufacturerById(anyString())).thenReturn(manufacturer());
 
-    apiService.getManufacturerResponseById("manufacturer-id");
+    apiService.getManufacturerResponseById("manufacturer-id", null);
 
     verify(service, atLeastOnce()).getManufacturerById("manufacturer-id");
   }
@@ -94,59 +147,98 @@ class ManufacturerRestApiServiceImplTest {
     when(service.getManufacturerById(anyString())).thenReturn(manufacturer());
     when(mapper.manufacturerToManufacturerResponse(any())).thenReturn(manufacturerResponse());
 
-    apiService.getManufacturerResponseById("manufacturer-id");
+    apiService.getManufacturerResponseById("manufacturer-id", null);
 
     verify(mapper, atLeastOnce()).manufacturerToManufacturerResponse(manufacturer());
   }
 
   @Test
   void getManufacturerResponseByIdShouldReturnExpectedResponse() {
-    when(service.getManufacturerById(anyString())).thenReturn(manufacturer());
+    Manufacturer manufacturer = manufacturer();
+    manufacturer.setVersion(4L);
+    when(service.getManufacturerById(anyString())).thenReturn(manufacturer);
     when(mapper.manufacturerToManufacturerResponse(any())).thenReturn(manufacturerResponse());
 
-    ResponseEntity<ManufacturerResponse> expectedResponse = ResponseEntity.ok(manufacturerResponse());
+    ResponseEntity<ManufacturerResponse> expectedResponse = ResponseEntity.ok().eTag("\"4\"").body(manufacturerResponse());
 
-    assertThat(apiService.getManufacturerResponseById("manufacturer-id"))
+    assertThat(apiService.getManufacturerResponseById("manufacturer-id", null))
         .isEqualTo(expectedResponse);
   }
 
+  @Test
+  void getManufacturerResponseByIdShouldReturnNotModifiedWithoutMappingManufacturerIfETagMatches() {
+    Manufacturer manufacturer = manufacturer();
+    manufacturer.setVersion(4L);
+    when(service.getManufacturerById("manufacturer-id")).thenReturn(manufacturer);
+
+    assertThat(apiService.getManufacturerResponseById("manufacturer-id", "\"4\""))
+        .isEqualTo(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"4\"").build());
+    verify(service, times(1)).getManufacturerById(anyString());
+    verify(mapper, never()).manufacturerToManufacturerResponse(any());
+  }
+
+  @Test
+  void getManufacturerResponseByIdShouldReturnManufacturerIfETagDoesNotMatch() {
+    Manufacturer manufacturer = manufacturer();
+    manufacturer.setVersion(5L);
+    when(service.getManufacturerById("manufacturer-id")).thenReturn(manufacturer);
+    when(mapper.manufacturerToManufacturerResponse(any())).thenReturn(manufacturerResponse());
+
+    assertThat(apiService.getManufacturerResponseById("manufacturer-id", "\"4\"").getHeaders().getETag()).isEqualTo("\"5\"");
+  }
+
   @Test
   void saveManufacturerShouldCallServiceWithExpectedParams() {
+    when(idempotency.execute(any(), any(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<String>>getArgument(2).get());
     when(mapper.manufacturerCreateRequestToManufacturer(any())).thenReturn(manufacturer());
     when(service.createManufacturer(any())).thenReturn(manufacturer());
 
-    apiService.saveManufacturer(manufacturerCreateRequest());
+    apiService.saveManufacturer(manufacturerCreateRequest(), null);
 
     verify(service, atLeastOnce()).createManufacturer(manufacturer());
   }
 
   @Test
   void saveManufacturerShouldCallMapperWithExpectedParams() {
+    when(idempotency.execute(any(), any(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<String>>getArgument(2).get());
     when(mapper.manufacturerCreateRequestToManufacturer(any())).thenReturn(manufacturer());
     when(service.createManufacturer(any())).thenReturn(manufacturer());
 
-    apiService.saveManufacturer(manufacturerCreateRequest());
+    apiService.saveManufacturer(manufacturerCreateRequest(), null);
 
     verify(mapper, atLeastOnce()).manufacturerCreateRequestToManufacturer(manufacturerCreateRequest());
   }
 
   @Test
   void saveManufacturerShouldReturnExpectedResponse() {
+    when(idempotency.execute(any(), any(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<String>>getArgument(2).get());
     when(mapper.manufacturerCreateRequestToManufacturer(any())).thenReturn(manufacturer());
     when(service.createManufacturer(any())).thenReturn(manufacturer());
 
     ResponseEntity<String> expectedResponse = new ResponseEntity<String>(manufacturer().getId(), HttpStatus.CREATED);
 
-    assertThat(apiService.saveManufacturer(manufacturerCreateRequest()))
+    assertThat(apiService.saveManufacturer(manufacturerCreateRequest(), null))
         .isEqualTo(expectedResponse);
   }
 
+  @Test
+  void saveManufacturerShouldReturnStoredIdWithoutCreatingManufacturerIfIdempotencyKeyWasUsed() {
+    when(idempotency.execute(eq("manufacturers"), eq("key-1"), any())).thenReturn("stored-id");
+
+    assertThat(apiService.saveManufacturer(manufacturerCreateRequest(), "key-1"))
+        .isEqualTo(new ResponseEntity<String>("stored-id", HttpStatus.CREATED));
+    verify(service, never()).createManufacturer(any());
+  }
+
   @Test
   void modifyManufacturerShouldCallServiceWithExpectedParams() {
     when(mapper.manufacturerModifyRequestToManufacturer(any())).thenReturn(manufacturer());
     when(service.modifyManufacturer(any())).thenReturn(manufacturer());
 
-    apiService.modifyManufacturer(manufacturerModifyRequest());
+    apiService.modifyManufacturer(manufacturerModifyRequest(), null);
 
     verify(service, atLeastOnce()).modifyManufacturer(manufacturer());
   }
@@ -156,7 +248,7 @@ class ManufacturerRestApiServiceImplTest {
     when(mapper.manufacturerModifyRequestToManufacturer(any())).thenReturn(manufacturer());
     when(service.modifyManufacturer(any())).thenReturn(manufacturer());
 
-    apiService.modifyManufacturer(manufacturerModifyRequest());
+    apiService.modifyManufacturer(manufacturerModifyRequest(), null);
 
     verify(mapper, atLeastOnce()).manufacturerModifyRequestToManufacturer(manufacturerModifyRequest());
     verify(mapper, atLeastOnce()).manufacturerToManufacturerResponse(manufacturer());
@@ -165,27 +257,37 @@ class ManufacturerRestApiServiceImplTest {
   @Test
   void modifyManufacturerShouldReturnExpectedResponse() {
     when(mapper.manufacturerModifyRequestToManufacturer(any())).thenReturn(manufacturer());
-    when(service.modifyManufacturer(any())).thenReturn(manufacturer());
+    when(service.modifyManufacturer(any())).thenReturn(savedManufacturer());
     when(mapper.manufacturerToManufacturerResponse(any())).thenReturn(manufacturerResponse());
 
-    ResponseEntity<ManufacturerResponse> expectedResponse = ResponseEntity.ok(manufacturerResponse());
+    ResponseEntity<ManufacturerResponse> expectedResponse = ResponseEntity.ok().eTag("\"4\"").body(manufacturerResponse());
 
-    assertThat(apiService.modifyManufacturer(manufacturerModifyRequest()))
+    assertThat(apiService.modifyManufacturer(manufacturerModifyRequest(), null))
         .isEqualTo(expectedResponse);
   }
 
+  @Test
+  void patchManufacturerShouldReturnPatchedManufacturerResponse() {
+    ManufacturerPatchRequest request = ManufacturerPatchRequest.builder().name("name").build();
+    when(service.patchManufacturer("id", null, request)).thenReturn(savedManufacturer());
+    when(mapper.manufacturerToManufacturerResponse(savedManufacturer())).thenReturn(manufacturerResponse());
+
+    assertThat(apiService.patchManufacturer("id", request, null))
+        .isEqualTo(ResponseEntity.ok().eTag("\"4\"").body(manufacturerResponse()));
+  }
+
   @Test
   void deleteManufacturerByIdShouldCallServiceWithExpectedParams() {
-    apiService.deleteManufacturerById("manufacturer-id");
+    apiService.deleteManufacturerById("manufacturer-id", null);
 
-    verify(service, atLeastOnce()).deleteManufacturer("manufacturer-id");
+    verify(service, atLeastOnce()).deleteManufacturer("manufacturer-id", null);
   }
 
   @Test
   void deleteManufacturerByIdShouldReturnNoContentResponse() {
     ResponseEntity<Void> expectedResponse = ResponseEntity.noContent().build();
 
-    assertThat(apiService.deleteManufacturerById("manufacturer-id"))
+    assertThat(apiService.deleteManufacturerById("manufacturer-id", null))
         .isEqualTo(expectedResponse);
   }
 
@@ -195,6 +297,12 @@ class ManufacturerRestApiServiceImplTest {
         .name("manufacturer-name").build();
   }
 
+  private Manufacturer savedManufacturer() {
+    Manufacturer manufacturer = manufacturer();
+    manufacturer.setVersion(4L);
+    return manufacturer;
+  }
+
   private ManufacturerResponse manufacturerResponse() {
     return ManufacturerResponse.builder()
         .id("manufacturer-id")
@@ -0,0 +1,163 @@
+package ua.foxminded.carservice.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.StampedCar;
+import ua.foxminded.carservice.dto.VersionStamp;
+
+class EntityCacheTest {
+  SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  EntityCache cache;
+  AtomicInteger loads = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    cache = new EntityCache(registry, 100, Duration.ofMinutes(5));
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void getCarShouldLoadOnceAndRecordHitsAndMisses() {
+    cache.getCar("id", () -> load(car("id", "Manufacturer", "Category")));
+    cache.getCar("id", () -> load(car("id", "Manufacturer", "Category")));
+
+    assertThat(loads).hasValue(1);
+    assertThat(registry.get("cache.gets").tags("cache", "cars", "result", "hit").functionCounter().count())
+        .isEqualTo(1);
+    assertThat(registry.get("cache.gets").tags("cache", "cars", "result", "miss").functionCounter().count())
+        .isEqualTo(1);
+    assertThat(registry.find("cache.evictions").tags("cache", "cars").functionCounter()).isNotNull();
+  }
+
+  @Test
+  void getCarShouldNotCacheMissingCar() {
+    assertThat(cache.getCar("id", () -> load(null))).isEmpty();
+    assertThat(cache.getCar("id", () -> load(null))).isEmpty();
+
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void getCarShouldReturnCopiesOfCachedCar() {
+    StampedCar car = car("id", "Manufacturer", "Category");
+    Car cached = cache.getCar("id", () -> load(car)).get().car();
+    cached.getManufacturer().setName("Changed");
+    cached.getCategories().clear();
+
+    assertThat(cache.getCar("id", () -> load(null))).contains(car);
+  }
+
+  @Test
+  void getManufacturerShouldReturnCopiesOfCachedManufacturer() {
+    Manufacturer manufacturer = Manufacturer.builder().id("id").name("Manufacturer").version(1L).build();
+    cache.getManufacturer("id", () -> Optional.of(manufacturer)).get().setName("Changed");
+
+    assertThat(cache.getManufacturer("id", Optional::empty)).contains(manufacturer);
+  }
+
+  @Test
+  void evictCarShouldWaitForCommit() {
+    cache.getCar("id", () -> load(car("id", "Manufacturer", "Category")));
+    TransactionSynchronizationManager.initSynchronization();
+
+    cache.evictCar("id");
+    cache.getCar("id", () -> load(car("id", "Manufacturer", "Category")));
+    assertThat(loads).hasValue(1);
+
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    cache.getCar("id", () -> load(car("id", "Manufacturer", "Category")));
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void evictManufacturerShouldEvictCarsShowingPreviousName() {
+    cache.getCar("id-1", () -> load(car("id-1", "Alpha", "Category")));
+    cache.getCar("id-2", () -> load(car("id-2", "Beta", "Category")));
+
+    cache.evictManufacturer("manufacturer-id", "Alpha");
+
+    cache.getCar("id-1", () -> load(car("id-1", "Gamma", "Category")));
+    cache.getCar("id-2", () -> load(car("id-2", "Beta", "Category")));
+    assertThat(loads).hasValue(3);
+  }
+
+  @Test
+  void evictCategoryShouldEvictCarsListingPreviousName() {
+    cache.getCar("id-1", () -> load(car("id-1", "Manufacturer", "Luxury")));
+    cache.getCar("id-2", () -> load(car("id-2", "Manufacturer", "Compact")));
+
+    cache.evictCategory("category-id", "Luxury");
+
+    cache.getCar("id-1", () -> load(car("id-1", "Manufacturer", "Premium")));
+    cache.getCar("id-2", () -> load(car("id-2", "Manufacturer", "Compact")));
+    assertThat(loads).hasValue(3);
+  }
+
+  @Test
+  void getCarShouldKeepStampInCachedEntry() {
+    cache.getCar("id", () -> load(car("id", "Manufacturer", "Category")));
+
+    assertThat(cache.getCar("id", () -> load(null))).get().extracting(StampedCar::stamp)
+        .isEqualTo(new VersionStamp(0, 1));
+  }
+
+  @Test
+  void getCarShouldNotKeepCarLoadedWhileRenameWasEvicted() {
+    StampedCar loaded = cache.getCar("id", () -> {
+      CompletableFuture.runAsync(() -> cache.evictManufacturer("manufacturer-id", "Alpha")).join();
+      return load(car("id", "Alpha", "Category"));
+    }).get();
+
+    assertThat(loaded.car().getManufacturer().getName()).isEqualTo("Alpha");
+    cache.getCar("id", () -> load(car("id", "Gamma", "Category")));
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void getManufacturerShouldNotKeepManufacturerLoadedWhileAnotherWasEvicted() {
+    Manufacturer manufacturer = Manufacturer.builder().id("id").name("Alpha").version(1L).build();
+    cache.getManufacturer("id", () -> {
+      cache.evictManufacturer("other-id");
+      return Optional.of(manufacturer);
+    });
+
+    assertThat(cache.getManufacturer("id", Optional::empty)).isEmpty();
+  }
+
+  private Optional<StampedCar> load(StampedCar car) {
+    loads.incrementAndGet();
+    return Optional.ofNullable(car);
+  }
+
+  private static StampedCar car(String id, String manufacturerName, String categoryName) {
+    return new StampedCar(Car.builder()
+        .id(id)
+        .manufacturer(Manufacturer.builder().name(manufacturerName).build())
+        .model("Model")
+        .productionYear(2000)
+        .version(0L)
+        .categories(List.of(Category.builder().name(categoryName).build())).build(), new VersionStamp(0, 1));
+  }
+}
@@ -0,0 +1,152 @@
+package ua.foxminded.carservice.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+
+import jakarta.persistence.EntityNotFoundException;
+import ua.foxminded.carservice.domain.CarImport;
+import ua.foxminded.carservice.domain.CarImportFormat;
+import ua.foxminded.carservice.domain.CarImportStatus;
+import ua.foxminded.carservice.event.CarsImportedEvent;
+import ua.foxminded.carservice.repository.CarImportRepository;
+import ua.foxminded.carservice.repository.CarImportResult;
+import ua.foxminded.carservice.repository.CarImportStagingRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CarImportServiceImplTest {
+  @Mock
+  CarImportRepository importRepo;
+  @Mock
+  CarImportStagingRepository stagingRepo;
+  @Mock
+  ApplicationEventPublisher eventPublisher;
+  @Mock
+  TaskExecutor executor;
+
+  @TempDir
+  Path spoolDirectory;
+
+  CarImportServiceImpl service;
+
+  @BeforeEach
+  void setUp() {
+    service = new CarImportServiceImpl(importRepo, stagingRepo, eventPublisher, spoolDirectory, executor);
+  }
+
+  @Test
+  void getImportByIdShouldThrowEntityNotFoundExceptionIfImportDoesNotExist() {
+    when(importRepo.findById("id")).thenReturn(Optional.empty());
+
+    assertThrows(EntityNotFoundException.class, () -> service.getImportById("id"));
+  }
+
+  @Test
+  void createImportShouldSpoolContentSavePendingImportAndSubmitJob() throws IOException {
+    when(importRepo.save(any(CarImport.class))).thenAnswer(invocation -> {
+      CarImport carImport = invocation.getArgument(0);
+      carImport.setId("id");
+      return carImport;
+    });
+
+    CarImport carImport = service.createImport(CarImportFormat.CSV, content("header\nrow\n"));
+
+    assertThat(carImport.getStatus()).isEqualTo(CarImportStatus.PENDING);
+    assertThat(carImport.getFormat()).isEqualTo(CarImportFormat.CSV);
+    assertThat(carImport.getTotalBytes()).isEqualTo(11L);
+    assertThat(carImport.getLoadedBytes()).isZero();
+    assertThat(Files.readString(spoolDirectory.resolve("id"))).isEqualTo("header\nrow\n");
+    assertThat(spoolDirectory).isDirectoryNotContaining("glob:**.tmp");
+    verify(executor).execute(any(Runnable.class));
+  }
+
+  @Test
+  void runImportShouldCompleteImportDeleteSpoolFileAndPublishEvent() throws IOException {
+    Files.writeString(spoolDirectory.resolve("id"), "header\nrow\n");
+    when(importRepo.findById("id")).thenReturn(Optional.of(pendingImport()));
+    when(importRepo.save(any(CarImport.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(stagingRepo.importCars(eq(CarImportFormat.CSV), any(InputStream.class), any(Runnable.class)))
+        .thenAnswer(invocation -> {
+          invocation.getArgument(1, InputStream.class).readAllBytes();
+          invocation.getArgument(2, Runnable.class).run();
+          return new CarImportResult(3, 1);
+        });
+
+    service.runImport("id");
+
+    CarImport carImport = lastSavedImport();
+    assertThat(carImport.getStatus()).isEqualTo(CarImportStatus.COMPLETED);
+    assertThat(carImport.getLoadedBytes()).isEqualTo(11L);
+    assertThat(carImport.getImportedRows()).isEqualTo(3L);
+    assertThat(carImport.getRejectedRows()).isEqualTo(1L);
+    assertThat(carImport.getStartedAt()).isNotNull();
+    assertThat(carImport.getFinishedAt()).isNotNull();
+    assertThat(spoolDirectory.resolve("id")).doesNotExist();
+    verify(importRepo).updateStatus("id", CarImportStatus.MERGING);
+    verify(eventPublisher).publishEvent(new CarsImportedEvent("id"));
+  }
+
+  @Test
+  void runImportShouldMarkImportFailedIfLoadingFails() throws IOException {
+    Files.writeString(spoolDirectory.resolve("id"), "header\nrow\n");
+    when(importRepo.findById("id")).thenReturn(Optional.of(pendingImport()));
+    when(importRepo.save(any(CarImport.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(stagingRepo.importCars(eq(CarImportFormat.CSV), any(InputStream.class), any(Runnable.class)))
+        .thenThrow(new IllegalStateException("COPY failed"));
+
+    service.runImport("id");
+
+    CarImport carImport = lastSavedImport();
+    assertThat(carImport.getStatus()).isEqualTo(CarImportStatus.FAILED);
+    assertThat(carImport.getError()).isEqualTo("COPY failed");
+    assertThat(carImport.getFinishedAt()).isNotNull();
+    assertThat(spoolDirectory.resolve("id")).doesNotExist();
+    verify(eventPublisher, never()).publishEvent(any(Object.class));
+  }
+
+  private CarImport lastSavedImport() {
+    ArgumentCaptor<CarImport> captor = ArgumentCaptor.forClass(CarImport.class);
+    verify(importRepo, atLeastOnce()).save(captor.capture());
+    return captor.getValue();
+  }
+
+  private static CarImport pendingImport() {
+    return CarImport.builder()
+        .id("id")
+        .format(CarImportFormat.CSV)
+        .status(CarImportStatus.PENDING)
+        .totalBytes(11L)
+        .loadedBytes(0L)
+        .importedRows(0L)
+        .rejectedRows(0L)
+        .createdAt(Instant.now()).build();
+  }
+
+  private static InputStream content(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -3,79 +3,349 @@ package ua.foxminded.carservice.service.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import ua.foxminded.carservice.domain.Car;
 import ua.foxminded.carservice.domain.Category;
 import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.CarBatchItemResponse;
+import ua.foxminded.carservice.dto.CarCreateRequest;
+import ua.foxminded.carservice.dto.CarFacetsResponse;
+import ua.foxminded.carservice.dto.CarPatchRequest;
+import ua.foxminded.carservice.dto.CarResponse;
 import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.ChangeStamp;
+import ua.foxminded.carservice.dto.FieldSelection;
+import ua.foxminded.carservice.dto.StampedCar;
+import ua.foxminded.carservice.dto.VersionStamp;
+import ua.foxminded.carservice.event.AggregateType;
+import ua.foxminded.carservice.event.CarDeletedEvent;
+import ua.foxminded.carservice.event.CarModel;
+import ua.foxminded.carservice.event.CarSavedEvent;
+import ua.foxminded.carservice.event.ChangeType;
+import ua.foxminded.carservice.exception.BadRequestException;
+import ua.foxminded.carservice.repository.CarBatchRepository;
+import ua.foxminded.carservice.repository.CarChange;
+import ua.foxminded.carservice.repository.CarChangeRepository;
+import ua.foxminded.carservice.repository.CarExportRepository;
+import ua.foxminded.carservice.repository.CarFacetRepository;
+import ua.foxminded.carservice.repository.CarProjectionRepository;
 import ua.foxminded.carservice.repository.CarRepository;
-import ua.foxminded.carservice.repository.CarSpecifications;
+import ua.foxminded.carservice.repository.CarSearchRepository;
 import ua.foxminded.carservice.repository.CategoryRepository;
+import ua.foxminded.carservice.repository.IdentifierBlockRepository;
 import ua.foxminded.carservice.repository.ManufacturerRepository;
+import ua.foxminded.carservice.repository.RowCountEstimator;
+import ua.foxminded.carservice.service.CarChangeEntry;
+import ua.foxminded.carservice.service.cache.EntityCache;
+import ua.foxminded.carservice.service.outbox.ChangeOutbox;
+import ua.foxminded.carservice.service.search.CarSearchIndex;
+import ua.foxminded.carservice.service.search.ModelSuggestion;
+import ua.foxminded.carservice.service.search.ModelSuggestionIndex;
 
 @ExtendWith(MockitoExtension.class)
 class CarServiceImplTest {
+  private static final FieldSelection FIELDS = FieldSelection.all(CarResponse.class);
+
   @Mock
   CarRepository carRepo;
   @Mock
+  CarBatchRepository batchRepo;
+  @Mock
+  CarChangeRepository changeRepo;
+  @Mock
+  CarExportRepository exportRepo;
+  @Mock
+  CarProjectionRepository projectionRepo;
+  @Mock
+  CarFacetRepository facetRepo;
+  @Mock
+  CarSearchRepository carSearchRepo;
+  @Mock
   CategoryRepository categoryRepo;
   @Mock
+  IdentifierBlockRepository idRepo;
+  @Mock
   ManufacturerRepository manufacturerRepo;
+  @Mock
+  CarSearchIndex searchIndex;
+  @Mock
+  ModelSuggestionIndex modelSuggestionIndex;
+  @Mock
+  RowCountEstimator countEstimator;
+  @Mock
+  ApplicationEventPublisher eventPublisher;
+  @Mock
+  ChangeOutbox outbox;
+  @Spy
+  EntityCache entityCache = new EntityCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
 
   @InjectMocks
   CarServiceImpl service;
 
   @Test
-  void getCarsByParametersShouldCallRepoFindAllWithExpectedArguments() {
-    when(carRepo.findAll(CarSpecifications.withFilters(any()), any(Pageable.class))).thenReturn(cars());
+  void getCarsByParametersShouldReturnProjectedPage() {
+    Page<Car> page = new PageImpl<>(List.of(projectedCar("Id-1")));
+    when(searchIndex.findIds(any(CarSearchParameters.class), any(Pageable.class))).thenReturn(Optional.empty());
+    when(projectionRepo.findAll(any(CarSearchParameters.class), any(FieldSelection.class), any(Pageable.class))).thenReturn(page);
 
     CarSearchParameters params = new CarSearchParameters("Manufacturer", "Model", List.of("Category-1", "Category-2"),
         "1990", "2024");
-    service.getCarsByParameters(params, PageRequest.of(0, 10));
 
-    verify(carRepo, atLeastOnce()).findAll(CarSpecifications.withFilters(any()), any(Pageable.class));
+    assertThat(service.getCarsByParameters(params, FIELDS, PageRequest.of(0, 10))).isEqualTo(page);
+    verify(projectionRepo, atLeastOnce()).findAll(params, FIELDS, PageRequest.of(0, 10));
   }
 
   @Test
-  void getCarByIdShouldCallRepoFindByIdIfIdIsValid() {
-    when(carRepo.findById(anyString())).thenReturn(Optional.of(car()));
+  void getCarsByParametersShouldUseStampCountAsTotal() {
+    Page<Car> page = new PageImpl<>(List.of(projectedCar("Id-1")), PageRequest.of(0, 10), 12);
+    when(projectionRepo.findAll(any(CarSearchParameters.class), any(FieldSelection.class), any(Pageable.class),
+        anyLong())).thenReturn(page);
 
-    service.getCarById("id");
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
 
-    verify(carRepo, atLeastOnce()).findById("id");
+    assertThat(service.getCarsByParameters(params, FIELDS, PageRequest.of(0, 10), new ChangeStamp(12, 7)))
+        .isEqualTo(page);
+    verify(projectionRepo).findAll(params, FIELDS, PageRequest.of(0, 10), 12);
   }
 
   @Test
-  void getCarByIdShouldThrowEntityNotFoundExceptionIfIdIsInvalid() {
-    when(carRepo.findById(anyString())).thenReturn(Optional.empty());
+  void getCarsStampByParametersShouldReturnStampIfSearchIndexDoesNotServePage() {
+    when(searchIndex.serves(any(Pageable.class))).thenReturn(false);
+    when(projectionRepo.findStamp(any(CarSearchParameters.class))).thenReturn(new ChangeStamp(12, 7));
+
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+
+    assertThat(service.getCarsStampByParameters(params, PageRequest.of(0, 10))).contains(new ChangeStamp(12, 7));
+  }
+
+  @Test
+  void getCarsStampByParametersShouldNotQueryDatabaseIfSearchIndexServesPage() {
+    when(searchIndex.serves(any(Pageable.class))).thenReturn(true);
+
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+
+    assertThat(service.getCarsStampByParameters(params, PageRequest.of(0, 10))).isEmpty();
+    verify(projectionRepo, never()).findStamp(any());
+  }
+
+  @Test
+  void getCarsByParametersShouldProjectSearchIndexIdsInIndexOrderIfIndexIsReady() {
+    when(searchIndex.findIds(any(CarSearchParameters.class), any(Pageable.class)))
+        .thenReturn(Optional.of(new PageImpl<String>(List.of("Id-2", "Id-1"))));
+    when(projectionRepo.findAllByIdIn(any(), any())).thenReturn(List.of(projectedCar("Id-1"), projectedCar("Id-2")));
+
+    CarSearchParameters params = new CarSearchParameters("Manufacturer-1", "", null, "", "");
+
+    assertThat(service.getCarsByParameters(params, FIELDS, PageRequest.of(0, 10)).getContent())
+        .extracting(Car::getId)
+        .containsExactly("Id-2", "Id-1");
+    verify(projectionRepo, atLeastOnce()).findAllByIdIn(List.of("Id-2", "Id-1"), FIELDS);
+    verify(projectionRepo, never()).findAll(any(), any(), any());
+  }
+
+  @Test
+  void getCarsByParametersShouldNotProjectCarsIfSearchIndexSelectedNoIds() {
+    when(searchIndex.findIds(any(CarSearchParameters.class), any(Pageable.class)))
+        .thenReturn(Optional.of(new PageImpl<String>(List.of())));
+
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+
+    assertThat(service.getCarsByParameters(params, FIELDS, PageRequest.of(0, 10)).getContent()).isEmpty();
+    verify(projectionRepo, never()).findAllByIdIn(any(), any());
+  }
+
+  @Test
+  void getCarsByParametersWithEstimatedTotalShouldUseEstimateWithoutCountQuery() {
+    when(searchIndex.findIds(any(CarSearchParameters.class), any(Pageable.class))).thenReturn(Optional.empty());
+    when(countEstimator.estimateCars(any(CarSearchParameters.class))).thenReturn(OptionalLong.of(1000));
+    when(projectionRepo.findSlice(any(CarSearchParameters.class), any(FieldSelection.class), any(Pageable.class)))
+        .thenReturn(new SliceImpl<>(List.of(projectedCar("Id-1"), projectedCar("Id-2")), PageRequest.of(0, 2), true));
+
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+    Page<Car> result = service.getCarsByParametersWithEstimatedTotal(params, FIELDS, PageRequest.of(0, 2));
+
+    assertThat(result.getTotalElements()).isEqualTo(1000);
+    assertThat(result.getContent()).extracting(Car::getId).containsExactly("Id-1", "Id-2");
+    verify(projectionRepo, never()).findAll(any(), any(), any());
+  }
+
+  @Test
+  void getCarsByParametersWithEstimatedTotalShouldCountExactlyIfEstimateIsUnavailable() {
+    when(searchIndex.findIds(any(CarSearchParameters.class), any(Pageable.class))).thenReturn(Optional.empty());
+    when(countEstimator.estimateCars(any(CarSearchParameters.class))).thenReturn(OptionalLong.empty());
+    when(projectionRepo.findAll(any(CarSearchParameters.class), any(FieldSelection.class), any(Pageable.class)))
+        .thenReturn(new PageImpl<Car>(List.of()));
+
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+    service.getCarsByParametersWithEstimatedTotal(params, FIELDS, PageRequest.of(0, 10));
+
+    verify(projectionRepo, atLeastOnce()).findAll(params, FIELDS, PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getCarsByParametersWithEstimatedTotalShouldUseSearchIndexTotalIfIndexIsReady() {
+    when(searchIndex.findIds(any(CarSearchParameters.class), any(Pageable.class)))
+        .thenReturn(Optional.of(new PageImpl<String>(List.of())));
+
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+    service.getCarsByParametersWithEstimatedTotal(params, FIELDS, PageRequest.of(0, 10));
+
+    verify(countEstimator, never()).estimateCars(any());
+  }
+
+  @Test
+  void getCarSliceByParametersShouldReturnProjectedSlice() {
+    Slice<Car> slice = new SliceImpl<>(List.of(projectedCar("Id-2")), PageRequest.of(0, 1), true);
+    when(searchIndex.findIds(any(CarSearchParameters.class), any(Pageable.class))).thenReturn(Optional.empty());
+    when(projectionRepo.findSlice(any(CarSearchParameters.class), any(FieldSelection.class), any(Pageable.class))).thenReturn(slice);
+
+    CarSearchParameters params = new CarSearchParameters("", "", null, "", "");
+
+    assertThat(service.getCarSliceByParameters(params, FIELDS, PageRequest.of(0, 1))).isEqualTo(slice);
+  }
+
+  @Test
+  void getCarChangesShouldReturnChangesWithLiveCarsAndPositions() {
+    when(changeRepo.findAfter(0, null, 3)).thenReturn(List.of(
+        new CarChange("Id-1", 4, false), new CarChange("Id-2", 5, true), new CarChange("Id-3", 6, false)));
+    when(projectionRepo.findAllByIdIn(List.of("Id-1"))).thenReturn(List.of(projectedCar("Id-1")));
+
+    Window<CarChangeEntry> window = service.getCarChanges(ScrollPosition.keyset(), 2);
+
+    assertThat(window.getContent()).containsExactly(
+        new CarChangeEntry("Id-1", projectedCar("Id-1")), new CarChangeEntry("Id-2", null));
+    assertThat(window.hasNext()).isTrue();
+    assertThat(window.positionAt(1)).isEqualTo(ScrollPosition.forward(Map.of("seq", 5L, "id", "Id-2")));
+  }
+
+  @Test
+  void getCarChangesShouldReportCarAsDeletedIfItIsGone() {
+    when(changeRepo.findAfter(4, "Id-1", 11)).thenReturn(List.of(new CarChange("Id-3", 6, false)));
+    when(projectionRepo.findAllByIdIn(List.of("Id-3"))).thenReturn(List.of());
+
+    Window<CarChangeEntry> window = service.getCarChanges(ScrollPosition.forward(Map.of("seq", 4, "id", "Id-1")),
+        10);
+
+    assertThat(window.getContent()).containsExactly(new CarChangeEntry("Id-3", null));
+    assertThat(window.getContent().get(0).deleted()).isTrue();
+    assertThat(window.hasNext()).isFalse();
+  }
+
+  @Test
+  void getCarChangesShouldThrowBadRequestExceptionIfLimitIsOutOfRange() {
+    assertThrows(BadRequestException.class, () -> service.getCarChanges(ScrollPosition.keyset(), 0));
+    assertThrows(BadRequestException.class, () -> service.getCarChanges(ScrollPosition.keyset(), 1001));
+  }
+
+  @Test
+  void getCarChangesShouldThrowBadRequestExceptionIfTokenIsMalformed() {
+    assertThrows(BadRequestException.class,
+        () -> service.getCarChanges(ScrollPosition.forward(Map.of("seq", "4", "id", "Id-1")), 10));
+    assertThrows(BadRequestException.class,
+        () -> service.getCarChanges(ScrollPosition.forward(Map.of("model", "Model")), 10));
+    verify(changeRepo, never()).findAfter(anyLong(), any(), anyInt());
+  }
+
+  @Test
+  void getCarsByParametersShouldReadProjectedWindowIfScrollPositionProvided() {
+    Window<Car> window = Window.from(cars().getContent(), ScrollPosition::offset);
+    FieldSelection fields = FieldSelection.of("id,model", CarResponse.class);
+    when(projectionRepo.findWindow(any(), any(), any(), any(), anyInt())).thenReturn(window);
+
+    CarSearchParameters params = new CarSearchParameters("Manufacturer", "Model", List.of("Category-1", "Category-2"),
+        "1990", "2024");
+
+    assertThat(service.getCarsByParameters(params, fields, ScrollPosition.keyset(), Sort.by("model"), 10))
+        .isEqualTo(window);
+    verify(projectionRepo).findWindow(params, fields, ScrollPosition.keyset(), Sort.by("model"), 10);
+  }
+
+  @Test
+  void getStampedCarByIdShouldReturnProjectedCarWithStampIfIdIsValid() {
+    when(projectionRepo.findStampedById(anyString())).thenReturn(Optional.of(stampedCar("id")));
+
+    assertThat(service.getStampedCarById("id")).isEqualTo(stampedCar("id"));
+    verify(projectionRepo, atLeastOnce()).findStampedById("id");
+  }
+
+  @Test
+  void getStampedCarByIdShouldServeRepeatedReadsAndStampFromCache() {
+    when(projectionRepo.findStampedById("id")).thenReturn(Optional.of(stampedCar("id")));
+
+    service.getStampedCarById("id");
 
-    assertThrows(EntityNotFoundException.class, () -> service.getCarById("invalid-id"));
+    assertThat(service.getStampedCarById("id").stamp()).isEqualTo(new VersionStamp(2, 7));
+    verify(projectionRepo, times(1)).findStampedById(anyString());
+  }
+
+  @Test
+  void getStampedCarByIdShouldThrowEntityNotFoundExceptionIfIdIsInvalid() {
+    when(projectionRepo.findStampedById(anyString())).thenReturn(Optional.empty());
 
-    verify(carRepo, atLeastOnce()).findById("invalid-id");
+    assertThrows(EntityNotFoundException.class, () -> service.getStampedCarById("invalid-id"));
+
+    verify(projectionRepo, atLeastOnce()).findStampedById("invalid-id");
   }
 
   @Test
   void createCarShouldCallRepoSaveIfCarIsValid() {
-    when(carRepo.save(any(Car.class))).thenReturn(car());
+    when(carRepo.saveAndFlush(any(Car.class))).thenReturn(car());
+    when(manufacturerRepo.findByName(anyString()))
+        .thenReturn(Optional.of(Manufacturer.builder().name("Manufacturer").build()));
+    when(categoryRepo.findByName("Category-1")).thenReturn(Optional.of(Category.builder().name("Category-1").build()));
+    when(categoryRepo.findByName("Category-2")).thenReturn(Optional.of(Category.builder().name("Category-2").build()));
+
+    service.createCar(car(), "Manufacturer", List.of("Category-1", "Category-2"));
+
+    verify(carRepo, atLeastOnce()).saveAndFlush(car());
+  }
+
+  @Test
+  void createCarShouldRefreshCarSearchRow() {
+    when(carRepo.saveAndFlush(any(Car.class))).thenReturn(car());
     when(manufacturerRepo.findByName(anyString()))
         .thenReturn(Optional.of(Manufacturer.builder().name("Manufacturer").build()));
     when(categoryRepo.findByName("Category-1")).thenReturn(Optional.of(Category.builder().name("Category-1").build()));
@@ -83,12 +353,12 @@ class CarServiceImplTest {
 
     service.createCar(car(), "Manufacturer", List.of("Category-1", "Category-2"));
 
-    verify(carRepo, atLeastOnce()).save(car());
+    verify(carSearchRepo).refreshCar(car().getId());
   }
 
   @Test
   void createCarShouldReturnSavedCar() {
-    when(carRepo.save(any(Car.class))).thenReturn(car());
+    when(carRepo.saveAndFlush(any(Car.class))).thenReturn(car());
     when(manufacturerRepo.findByName(anyString()))
         .thenReturn(Optional.of(Manufacturer.builder().name("Manufacturer").build()));
     when(categoryRepo.findByName("Category-1")).thenReturn(Optional.of(Category.builder().name("Category-1").build()));
@@ -97,6 +367,107 @@ class CarServiceImplTest {
     assertThat(service.createCar(car(), "Manufacturer", List.of("Category-1", "Category-2"))).isEqualTo(car());
   }
 
+  @Test
+  void createCarShouldPublishCarSavedEvent() {
+    when(carRepo.saveAndFlush(any(Car.class))).thenReturn(car());
+    when(manufacturerRepo.findByName(anyString()))
+        .thenReturn(Optional.of(Manufacturer.builder().name("Manufacturer").build()));
+    when(categoryRepo.findByName("Category-1")).thenReturn(Optional.of(Category.builder().name("Category-1").build()));
+    when(categoryRepo.findByName("Category-2")).thenReturn(Optional.of(Category.builder().name("Category-2").build()));
+
+    service.createCar(car(), "Manufacturer", List.of("Category-1", "Category-2"));
+
+    verify(eventPublisher, atLeastOnce()).publishEvent(new CarSavedEvent(car()));
+  }
+
+  @Test
+  void createCarShouldAppendCreatedEventToOutbox() {
+    when(carRepo.saveAndFlush(any(Car.class))).thenReturn(car());
+    when(manufacturerRepo.findByName(anyString()))
+        .thenReturn(Optional.of(Manufacturer.builder().name("Manufacturer").build()));
+    when(categoryRepo.findByName("Category-1")).thenReturn(Optional.of(Category.builder().name("Category-1").build()));
+    when(categoryRepo.findByName("Category-2")).thenReturn(Optional.of(Category.builder().name("Category-2").build()));
+
+    service.createCar(car(), "Manufacturer", List.of("Category-1", "Category-2"));
+
+    verify(outbox).carSaved(car(), ChangeType.CREATED);
+  }
+
+  @Test
+  void createCarShouldRecordCarChange() {
+    when(carRepo.saveAndFlush(any(Car.class))).thenReturn(car());
+    when(manufacturerRepo.findByName(anyString()))
+        .thenReturn(Optional.of(Manufacturer.builder().name("Manufacturer").build()));
+    when(categoryRepo.findByName("Category-1")).thenReturn(Optional.of(Category.builder().name("Category-1").build()));
+    when(categoryRepo.findByName("Category-2")).thenReturn(Optional.of(Category.builder().name("Category-2").build()));
+
+    service.createCar(car(), "Manufacturer", List.of("Category-1", "Category-2"));
+
+    verify(changeRepo).recordCars(List.of(car().getId()), false);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void createCarsShouldResolveNamesOnceAndInsertResolvedCarsInOneBatch() {
+    when(manufacturerRepo.findByNameIn(any())).thenReturn(List.of(Manufacturer.builder().id("m1").name("Manufacturer").build()));
+    when(categoryRepo.findByNameIn(any())).thenReturn(List.of(Category.builder().id("c1").name("Category-1").build(),
+        Category.builder().id("c2").name("Category-2").build()));
+    when(idRepo.nextId()).thenReturn("id-1", "id-2");
+
+    List<CarBatchItemResponse> results = service.createCars(List.of(
+        carCreateRequest("Manufacturer", "Category-1", "Category-2"),
+        carCreateRequest("Manufacturer", "Category-2", "Category-2")));
+
+    assertThat(results).extracting(CarBatchItemResponse::getIndex).containsExactly(0, 1);
+    assertThat(results).extracting(CarBatchItemResponse::getStatus).containsExactly(201, 201);
+    assertThat(results).extracting(CarBatchItemResponse::getId).containsExactly("id-1", "id-2");
+    verify(manufacturerRepo).findByNameIn(Set.of("Manufacturer"));
+    verify(categoryRepo).findByNameIn(Set.of("Category-1", "Category-2"));
+
+    ArgumentCaptor<List<Car>> cars = ArgumentCaptor.forClass(List.class);
+    verify(batchRepo).insertCars(cars.capture());
+    assertThat(cars.getValue()).extracting(Car::getId)
+        .containsExactly(results.get(0).getId(), results.get(1).getId());
+    assertThat(cars.getValue().get(1).getCategories()).extracting(Category::getId).containsExactly("c2");
+    verify(carSearchRepo).refreshCars(List.of(results.get(0).getId(), results.get(1).getId()));
+    verify(eventPublisher, times(2)).publishEvent(any(CarSavedEvent.class));
+    verify(outbox).carsCreated(cars.getValue());
+  }
+
+  @Test
+  void createCarsShouldReportUnknownNamesAndSkipThoseCars() {
+    when(manufacturerRepo.findByNameIn(any())).thenReturn(List.of(Manufacturer.builder().id("m1").name("Manufacturer").build()));
+    when(categoryRepo.findByNameIn(any())).thenReturn(List.of(Category.builder().id("c1").name("Category-1").build()));
+
+    List<CarBatchItemResponse> results = service.createCars(List.of(
+        carCreateRequest("Invalid", "Category-1"),
+        carCreateRequest("Manufacturer", "Invalid"),
+        carCreateRequest("Manufacturer", "Category-1")));
+
+    assertThat(results).extracting(CarBatchItemResponse::getStatus).containsExactly(404, 404, 201);
+    assertThat(results.get(0).getMessage()).isEqualTo("Manufacturer with name = Invalid doesn't exist.");
+    assertThat(results.get(1).getMessage()).isEqualTo("Category with name = Invalid doesn't exist.");
+    verify(batchRepo).insertCars(argThat(cars -> cars.size() == 1));
+  }
+
+  @Test
+  void createCarsShouldNotWriteAnythingIfNoCarIsResolved() {
+    List<CarBatchItemResponse> results = service.createCars(List.of(carCreateRequest("Invalid", "Category-1")));
+
+    assertThat(results).extracting(CarBatchItemResponse::getStatus).containsExactly(404);
+    verify(batchRepo, never()).insertCars(any());
+    verify(carSearchRepo, never()).refreshCars(any());
+    verify(outbox, never()).carsCreated(any());
+  }
+
+  @Test
+  void createCarsShouldThrowBadRequestExceptionIfBatchIsTooLarge() {
+    List<CarCreateRequest> requests = Collections.nCopies(10001, carCreateRequest("Manufacturer", "Category-1"));
+
+    assertThrows(BadRequestException.class, () -> service.createCars(requests));
+    verify(batchRepo, never()).insertCars(any());
+  }
+
   @Test
   void createCarShouldThrowEntityNotFoundExceptionIfManufacturerNameIsInvalid() {
     assertThrows(EntityNotFoundException.class,
@@ -118,7 +489,8 @@ class CarServiceImplTest {
 
   @Test
   void modifyCarShouldCallRepoSaveIfCarIsValid() {
-    when(carRepo.save(any(Car.class))).thenReturn(car());
+    when(carRepo.findById(anyString())).thenReturn(Optional.of(car()));
+    when(carRepo.saveAndFlush(any(Car.class))).thenReturn(car());
     when(manufacturerRepo.findByName(anyString()))
         .thenReturn(Optional.of(Manufacturer.builder().name("Manufacturer").build()));
     when(categoryRepo.findByName("Category-1")).thenReturn(Optional.of(Category.builder().name("Category-1").build()));
@@ -126,12 +498,27 @@ class CarServiceImplTest {
 
     service.modifyCar(car(), "Manufacturer", List.of("Category-1", "Category-2"));
 
-    verify(carRepo, atLeastOnce()).save(car());
+    verify(carRepo, atLeastOnce()).saveAndFlush(car());
+  }
+
+  @Test
+  void modifyCarShouldRefreshCarSearchRow() {
+    when(carRepo.findById(anyString())).thenReturn(Optional.of(car()));
+    when(carRepo.saveAndFlush(any(Car.class))).thenReturn(car());
+    when(manufacturerRepo.findByName(anyString()))
+        .thenReturn(Optional.of(Manufacturer.builder().name("Manufacturer").build()));
+    when(categoryRepo.findByName("Category-1")).thenReturn(Optional.of(Category.builder().name("Category-1").build()));
+    when(categoryRepo.findByName("Category-2")).thenReturn(Optional.of(Category.builder().name("Category-2").build()));
+
+    service.modifyCar(car(), "Manufacturer", List.of("Category-1", "Category-2"));
+
+    verify(carSearchRepo).refreshCar(car().getId());
   }
 
   @Test
   void modifyCarShouldReturnSavedCar() {
-    when(carRepo.save(any(Car.class))).thenReturn(car());
+    when(carRepo.findById(anyString())).thenReturn(Optional.of(car()));
+    when(carRepo.saveAndFlush(any(Car.class))).thenReturn(car());
     when(manufacturerRepo.findByName(anyString()))
         .thenReturn(Optional.of(Manufacturer.builder().name("Manufacturer").build()));
     when(categoryRepo.findByName("Category-1")).thenReturn(Optional.of(Category.builder().name("Category-1").build()));
@@ -140,8 +527,52 @@ class CarServiceImplTest {
     assertThat(service.modifyCar(car(), "Manufacturer", List.of("Category-1", "Category-2"))).isEqualTo(car());
   }
 
+  @Test
+  void modifyCarShouldPublishCarSavedEvent() {
+    when(carRepo.findById(anyString())).thenReturn(Optional.of(car()));
+    when(carRepo.saveAndFlush(any(Car.class))).thenReturn(car());
+    when(manufacturerRepo.findByName(anyString()))
+        .thenReturn(Optional.of(Manufacturer.builder().name("Manufacturer").build()));
+    when(categoryRepo.findByName("Category-1")).thenReturn(Optional.of(Category.builder().name("Category-1").build()));
+    when(categoryRepo.findByName("Category-2")).thenReturn(Optional.of(Category.builder().name("Category-2").build()));
+
+    service.modifyCar(car(), "Manufacturer", List.of("Category-1", "Category-2"));
+
+    verify(eventPublisher, atLeastOnce()).publishEvent(new CarSavedEvent(car(), new CarModel(null, "Model")));
+  }
+
+  @Test
+  void modifyCarShouldAppendUpdatedEventToOutbox() {
+    when(carRepo.findById(anyString())).thenReturn(Optional.of(car()));
+    when(carRepo.saveAndFlush(any(Car.class))).thenReturn(car());
+    when(manufacturerRepo.findByName(anyString()))
+        .thenReturn(Optional.of(Manufacturer.builder().name("Manufacturer").build()));
+    when(categoryRepo.findByName("Category-1")).thenReturn(Optional.of(Category.builder().name("Category-1").build()));
+    when(categoryRepo.findByName("Category-2")).thenReturn(Optional.of(Category.builder().name("Category-2").build()));
+
+    service.modifyCar(car(), "Manufacturer", List.of("Category-1", "Category-2"));
+
+    verify(outbox).carSaved(car(), ChangeType.UPDATED);
+  }
+
+  @Test
+  void modifyCarShouldRecordCarChange() {
+    when(carRepo.findById(anyString())).thenReturn(Optional.of(car()));
+    when(carRepo.saveAndFlush(any(Car.class))).thenReturn(car());
+    when(manufacturerRepo.findByName(anyString()))
+        .thenReturn(Optional.of(Manufacturer.builder().name("Manufacturer").build()));
+    when(categoryRepo.findByName("Category-1")).thenReturn(Optional.of(Category.builder().name("Category-1").build()));
+    when(categoryRepo.findByName("Category-2")).thenReturn(Optional.of(Category.builder().name("Category-2").build()));
+
+    service.modifyCar(car(), "Manufacturer", List.of("Category-1", "Category-2"));
+
+    verify(changeRepo).recordCars(List.of(car().getId()), false);
+    verify(entityCache).evictCar(car().getId());
+  }
+
   @Test
   void modifyCarShouldThrowEntityNotFoundExceptionIfManufacturerNameIsInvalid() {
+    when(carRepo.findById(anyString())).thenReturn(Optional.of(car()));
     assertThrows(EntityNotFoundException.class,
         () -> service.modifyCar(car(), "Invalid", List.of("Category-1", "Category-2")));
 
@@ -150,6 +581,7 @@ class CarServiceImplTest {
 
   @Test
   void modifyCarShouldThrowEntityNotFoundExceptionIfCategoryNameIsInvalid() {
+    when(carRepo.findById(anyString())).thenReturn(Optional.of(car()));
     when(manufacturerRepo.findByName(anyString()))
         .thenReturn(Optional.of(Manufacturer.builder().name("Manufacturer").build()));
 
@@ -160,12 +592,289 @@ class CarServiceImplTest {
   }
 
   @Test
-  void deleteCarShouldCallRepoDeleteByIdIfIdIsValid() {
-    doNothing().when(carRepo).deleteById(anyString());
+  void modifyCarShouldThrowEntityNotFoundExceptionIfCarDoesNotExist() {
+    when(carRepo.findById(anyString())).thenReturn(Optional.empty());
+
+    assertThrows(EntityNotFoundException.class,
+        () -> service.modifyCar(car(), "Manufacturer", List.of("Category-1", "Category-2")));
+
+    verify(carRepo, never()).saveAndFlush(any(Car.class));
+  }
+
+  @Test
+  void modifyCarShouldThrowOptimisticLockingFailureExceptionIfVersionIsStale() {
+    Car currentCar = car();
+    currentCar.setVersion(3L);
+    Car car = car();
+    car.setVersion(2L);
+    when(carRepo.findById(anyString())).thenReturn(Optional.of(currentCar));
+
+    assertThrows(OptimisticLockingFailureException.class,
+        () -> service.modifyCar(car, "Manufacturer", List.of("Category-1", "Category-2")));
+
+    verify(carRepo, never()).saveAndFlush(any(Car.class));
+  }
+
+  @Test
+  void patchCarShouldApplyPatchedFieldsToManagedCar() {
+    Car managedCar = carWithCategoryIds();
+    when(carRepo.findById("Id")).thenReturn(Optional.of(managedCar));
+
+    Car patchedCar = service.patchCar("Id", null, CarPatchRequest.builder().model("New Model").build());
+
+    assertThat(managedCar.getModel()).isEqualTo("New Model");
+    assertThat(managedCar.getProductionYear()).isEqualTo(2000);
+    assertThat(patchedCar.getModel()).isEqualTo("New Model");
+    verify(carRepo).flush();
+    verify(carSearchRepo).refreshCar("Id");
+    verify(eventPublisher).publishEvent(new CarSavedEvent(patchedCar, new CarModel("man-1", "Model")));
+    verify(batchRepo, never()).insertCarCategories(anyString(), any());
+    verify(batchRepo, never()).deleteCarCategories(anyString(), any());
+  }
+
+  @Test
+  void patchCarShouldReturnAndPublishVersionWrittenByFlush() {
+    Car managedCar = carWithCategoryIds();
+    managedCar.setVersion(1L);
+    when(carRepo.findById("Id")).thenReturn(Optional.of(managedCar));
+    doAnswer(invocation -> {
+      managedCar.setVersion(2L);
+      managedCar.setChangeSeq(42L);
+      return null;
+    }).when(carRepo).flush();
+
+    Car patchedCar = service.patchCar("Id", 1L, CarPatchRequest.builder().model("New Model").build());
+
+    assertThat(patchedCar.getVersion()).isEqualTo(2L);
+    assertThat(patchedCar.getChangeSeq()).isEqualTo(42L);
+    verify(outbox).carSaved(argThat(car -> car.getVersion() == 2L), eq(ChangeType.UPDATED));
+    verify(eventPublisher).publishEvent(new CarSavedEvent(patchedCar, new CarModel("man-1", "Model")));
+  }
+
+  @Test
+  void patchCarShouldWriteOnlyCategoryDifferences() {
+    Car managedCar = carWithCategoryIds();
+    List<Category> managedCategories = managedCar.getCategories();
+    when(carRepo.findById("Id")).thenReturn(Optional.of(managedCar));
+    when(categoryRepo.findByNameIn(Set.of("Category-2", "Category-3"))).thenReturn(List.of(
+        Category.builder().id("cat-2").name("Category-2").build(),
+        Category.builder().id("cat-3").name("Category-3").build()));
+
+    Car patchedCar = service.patchCar("Id", null, CarPatchRequest.builder()
+        .categoryNames(List.of("Category-2", "Category-3")).build());
+
+    assertThat(patchedCar.getCategories()).extracting(Category::getName).containsExactly("Category-2", "Category-3");
+    assertThat(managedCar.getCategories()).isSameAs(managedCategories);
+    verify(batchRepo).deleteCarCategories("Id", List.of("cat-1"));
+    verify(batchRepo).insertCarCategories("Id", List.of("cat-3"));
+    verify(carSearchRepo).refreshCar("Id");
+  }
+
+  @Test
+  void patchCarShouldSkipWritesIfPatchChangesNothing() {
+    Car managedCar = carWithCategoryIds();
+    when(carRepo.findById("Id")).thenReturn(Optional.of(managedCar));
+    when(categoryRepo.findByNameIn(Set.of("Category-1", "Category-2"))).thenReturn(managedCar.getCategories());
+
+    Car patchedCar = service.patchCar("Id", null, CarPatchRequest.builder()
+        .manufacturerName("Manufacturer")
+        .productionYear(2000)
+        .categoryNames(List.of("Category-2", "Category-1")).build());
+
+    assertThat(patchedCar).isSameAs(managedCar);
+    verify(manufacturerRepo, never()).findByName(anyString());
+    verify(carRepo, never()).flush();
+    verify(carSearchRepo, never()).refreshCar(anyString());
+    verify(eventPublisher, never()).publishEvent(any(Object.class));
+  }
+
+  @Test
+  void patchCarShouldThrowEntityNotFoundExceptionIfCarDoesNotExist() {
+    when(carRepo.findById("Id")).thenReturn(Optional.empty());
+
+    assertThrows(EntityNotFoundException.class,
+        () -> service.patchCar("Id", null, CarPatchRequest.builder().model("Model").build()));
+  }
+
+  @Test
+  void patchCarShouldThrowOptimisticLockingFailureExceptionIfVersionIsStale() {
+    Car car = carWithCategoryIds();
+    car.setVersion(3L);
+    when(carRepo.findById("Id")).thenReturn(Optional.of(car));
+
+    assertThrows(OptimisticLockingFailureException.class,
+        () -> service.patchCar("Id", 2L, CarPatchRequest.builder().model("New Model").build()));
+
+    assertThat(car.getModel()).isEqualTo("Model");
+  }
+
+  @Test
+  void patchCarShouldForceVersionIncrementIfOnlyCategoriesChange() {
+    Car managedCar = carWithCategoryIds();
+    when(carRepo.findById("Id")).thenReturn(Optional.of(managedCar));
+    when(categoryRepo.findByNameIn(Set.of("Category-1"))).thenReturn(List.of(managedCar.getCategories().get(0)));
+
+    service.patchCar("Id", null, CarPatchRequest.builder().categoryNames(List.of("Category-1")).build());
+
+    verify(carRepo).incrementVersion(managedCar);
+  }
+
+  @Test
+  void patchCarShouldThrowEntityNotFoundExceptionIfCategoryNameIsInvalid() {
+    when(carRepo.findById("Id")).thenReturn(Optional.of(carWithCategoryIds()));
+    when(categoryRepo.findByNameIn(Set.of("Invalid"))).thenReturn(List.of());
+
+    assertThrows(EntityNotFoundException.class,
+        () -> service.patchCar("Id", null, CarPatchRequest.builder().categoryNames(List.of("Invalid")).build()));
+
+    verify(batchRepo, never()).insertCarCategories(anyString(), any());
+  }
+
+  @Test
+  void deleteCarShouldDeleteLoadedCarIfCarExists() {
+    Car car = carWithCategoryIds();
+    when(carRepo.findById("Id")).thenReturn(Optional.of(car));
+
+    service.deleteCar("Id", null);
+
+    verify(carRepo).delete(car);
+  }
+
+  @Test
+  void deleteCarShouldPublishCarDeletedEvent() {
+    when(carRepo.findById("Id")).thenReturn(Optional.of(carWithCategoryIds()));
+
+    service.deleteCar("Id", null);
+
+    verify(eventPublisher, atLeastOnce()).publishEvent(new CarDeletedEvent("Id", new CarModel("man-1", "Model")));
+  }
+
+  @Test
+  void deleteCarShouldAppendDeletedEventToOutbox() {
+    when(carRepo.findById("Id")).thenReturn(Optional.of(carWithCategoryIds()));
+
+    service.deleteCar("Id", null);
+
+    verify(outbox).deleted(AggregateType.CAR, "Id");
+  }
+
+  @Test
+  void deleteCarShouldRecordTombstone() {
+    when(carRepo.findById("Id")).thenReturn(Optional.of(carWithCategoryIds()));
+
+    service.deleteCar("Id", null);
+
+    verify(changeRepo).recordCars(List.of("Id"), true);
+    verify(entityCache).evictCar("Id");
+  }
+
+  @Test
+  void deleteCarShouldDoNothingIfCarDoesNotExist() {
+    when(carRepo.findById("Id")).thenReturn(Optional.empty());
+
+    service.deleteCar("Id", null);
+
+    verify(carRepo, never()).delete(any(Car.class));
+    verifyNoInteractions(outbox, eventPublisher);
+  }
+
+  @Test
+  void deleteCarShouldNotRecordTombstoneIfCarDoesNotExist() {
+    when(carRepo.findById("Id")).thenReturn(Optional.empty());
+
+    service.deleteCar("Id", null);
+
+    verify(changeRepo, never()).recordCars(any(), anyBoolean());
+    verifyNoInteractions(entityCache);
+  }
+
+  @Test
+  void deleteCarShouldDeleteLoadedCarIfVersionMatches() {
+    Car car = carWithCategoryIds();
+    car.setVersion(2L);
+    when(carRepo.findById("Id")).thenReturn(Optional.of(car));
+
+    service.deleteCar("Id", 2L);
+
+    verify(carRepo).delete(car);
+  }
+
+  @Test
+  void deleteCarShouldThrowOptimisticLockingFailureExceptionIfVersionIsStale() {
+    Car car = carWithCategoryIds();
+    car.setVersion(3L);
+    when(carRepo.findById("Id")).thenReturn(Optional.of(car));
+
+    assertThrows(OptimisticLockingFailureException.class, () -> service.deleteCar("Id", 2L));
+
+    verify(carRepo, never()).delete(any(Car.class));
+    verify(eventPublisher, never()).publishEvent(any(Object.class));
+  }
+
+  @Test
+  void deleteCarShouldThrowOptimisticLockingFailureExceptionIfVersionedCarDoesNotExist() {
+    when(carRepo.findById("Id")).thenReturn(Optional.empty());
 
-    service.deleteCar("valid-id");
+    assertThrows(OptimisticLockingFailureException.class, () -> service.deleteCar("Id", 2L));
+  }
 
-    verify(carRepo, atLeastOnce()).deleteById("valid-id");
+  @Test
+  void getCarFacetsShouldReturnIndexedFacetsIfIndexIsReady() {
+    CarSearchParameters params = new CarSearchParameters("Manufacturer", "", null, "", "");
+    CarFacetsResponse facets = CarFacetsResponse.builder().manufacturers(List.of()).build();
+    when(searchIndex.countFacets(params)).thenReturn(Optional.of(facets));
+
+    assertThat(service.getCarFacets(params)).isEqualTo(facets);
+    verify(facetRepo, never()).countFacets(any());
+  }
+
+  @Test
+  void getCarFacetsShouldFallBackToFacetRepositoryIfIndexIsNotReady() {
+    CarSearchParameters params = new CarSearchParameters("Manufacturer", "", null, "", "");
+    CarFacetsResponse facets = CarFacetsResponse.builder().manufacturers(List.of()).build();
+    when(searchIndex.countFacets(params)).thenReturn(Optional.empty());
+    when(facetRepo.countFacets(params)).thenReturn(facets);
+
+    assertThat(service.getCarFacets(params)).isEqualTo(facets);
+  }
+
+  @Test
+  void exportCarsShouldStreamCarsFromExportRepository() {
+    CarSearchParameters params = new CarSearchParameters("Manufacturer", "", null, "", "");
+    Consumer<Car> consumer = car -> {
+    };
+
+    service.exportCars(params, consumer);
+
+    verify(exportRepo).forEachCar(params, consumer);
+  }
+
+  @Test
+  void suggestModelsShouldReturnSuggestionsFromIndex() {
+    List<ModelSuggestion> suggestions = List.of(new ModelSuggestion("Model", 2));
+    when(modelSuggestionIndex.suggest("Mo", "Manufacturer", 5)).thenReturn(suggestions);
+
+    assertThat(service.suggestModels("Mo", "Manufacturer", 5)).isEqualTo(suggestions);
+  }
+
+  @Test
+  void suggestModelsShouldThrowBadRequestExceptionIfLimitIsOutOfRange() {
+    assertThrows(BadRequestException.class, () -> service.suggestModels("Mo", null, 0));
+    assertThrows(BadRequestException.class, () -> service.suggestModels("Mo", null, 51));
+    verify(modelSuggestionIndex, never()).suggest(anyString(), any(), anyInt());
+  }
+
+  private StampedCar stampedCar(String id) {
+    return new StampedCar(projectedCar(id), new VersionStamp(2, 7));
+  }
+
+  private Car projectedCar(String id) {
+    return Car.builder()
+        .id(id)
+        .manufacturer(Manufacturer.builder().name("Manufacturer").build())
+        .model("Model")
+        .productionYear(2000)
+        .categories(List.of(Category.builder().name("Category-1").build())).build();
   }
 
   private Car car() {
@@ -182,6 +891,23 @@ class CarServiceImplTest {
         .build();
   }
 
+  private Car carWithCategoryIds() {
+    return Car.builder()
+        .id("Id")
+        .manufacturer(Manufacturer.builder()
+            .id("man-1")
+            .name("Manufacturer").build())
+        .categories(List.of(Category.builder()
+            .id("cat-1")
+            .name("Category-1").build(),
+            Category.builder()
+                .id("cat-2")
+                .name("Category-2").build()))
+        .model("Model")
+        .productionYear(2000)
+        .build();
+  }
+
   private Page<Car> cars() {
     return new PageImpl<Car>(List.of(Car.builder()
         .id("Id-1")
@@ -206,4 +932,13 @@ class CarServiceImplTest {
             .productionYear(2000)
             .build()));
   }
+
+  private CarCreateRequest carCreateRequest(String manufacturerName, String... categoryNames) {
+    return CarCreateRequest.builder()
+        .manufacturerName(manufacturerName)
+        .model("Model")
+        .productionYear(2020)
+        .categoryNames(List.of(categoryNames))
+        .build();
+  }
 }
@@ -6,30 +6,62 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.dto.CategoryPatchRequest;
+import ua.foxminded.carservice.event.AggregateType;
+import ua.foxminded.carservice.event.CategorySavedEvent;
+import ua.foxminded.carservice.event.ChangeType;
+import ua.foxminded.carservice.repository.CarChangeRepository;
+import ua.foxminded.carservice.repository.CarSearchRepository;
 import ua.foxminded.carservice.repository.CategoryRepository;
+import ua.foxminded.carservice.repository.RowCountEstimator;
+import ua.foxminded.carservice.service.cache.EntityCache;
+import ua.foxminded.carservice.service.outbox.ChangeOutbox;
 
 @ExtendWith(MockitoExtension.class)
 class CategoryServiceImplTest {
   @Mock
   CategoryRepository repo;
+  @Mock
+  CarChangeRepository carChangeRepo;
+  @Mock
+  CarSearchRepository carSearchRepo;
+  @Mock
+  RowCountEstimator countEstimator;
+  @Mock
+  ApplicationEventPublisher eventPublisher;
+  @Mock
+  ChangeOutbox outbox;
+  @Spy
+  EntityCache entityCache = new EntityCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
 
   @InjectMocks
   CategoryServiceImpl service;
@@ -53,12 +85,72 @@ class CategoryServiceImplTest {
   }
 
   @Test
-  void getCategoriesByNameShouldCallRepofindByNameContainingIfNameIsValid() {
-    when(repo.findByNameContaining(anyString(), any(Pageable.class))).thenReturn(categories());
+  void getCategoriesByNameShouldCallRepoFindRankedByNameContainingIgnoreCaseIfPageableIsUnsorted() {
+    when(repo.findRankedByNameContainingIgnoreCase(anyString(), any(Pageable.class))).thenReturn(categories());
 
     service.getCategoriesByName("name", PageRequest.of(0, 10));
 
-    verify(repo, atLeastOnce()).findByNameContaining("name", PageRequest.of(0, 10));
+    verify(repo, atLeastOnce()).findRankedByNameContainingIgnoreCase("name", PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getCategoriesByNameShouldCallRepoFindByNameContainingIgnoreCaseIfPageableIsSorted() {
+    when(repo.findByNameContainingIgnoreCase(anyString(), any(Pageable.class))).thenReturn(categories());
+
+    service.getCategoriesByName("name", PageRequest.of(0, 10, Sort.by("name")));
+
+    verify(repo, atLeastOnce()).findByNameContainingIgnoreCase("name", PageRequest.of(0, 10, Sort.by("name")));
+  }
+
+  @Test
+  void getCategoriesByNameWithEstimatedTotalShouldUseEstimateWithoutCountQuery() {
+    when(countEstimator.estimateCategories(anyString())).thenReturn(OptionalLong.of(1000));
+    when(repo.findRankedSliceByNameContainingIgnoreCase(anyString(), any(Pageable.class)))
+        .thenReturn(new SliceImpl<Category>(List.of(category()), PageRequest.of(0, 1), true));
+
+    Page<Category> result = service.getCategoriesByNameWithEstimatedTotal("name", PageRequest.of(0, 1));
+
+    assertThat(result.getTotalElements()).isEqualTo(1000);
+    verify(repo, never()).findRankedByNameContainingIgnoreCase(anyString(), any(Pageable.class));
+  }
+
+  @Test
+  void getCategoriesByNameWithEstimatedTotalShouldCountExactlyIfEstimateIsUnavailable() {
+    when(countEstimator.estimateCategories(anyString())).thenReturn(OptionalLong.empty());
+    when(repo.findRankedByNameContainingIgnoreCase(anyString(), any(Pageable.class))).thenReturn(categories());
+
+    service.getCategoriesByNameWithEstimatedTotal("name", PageRequest.of(0, 10));
+
+    verify(repo, atLeastOnce()).findRankedByNameContainingIgnoreCase("name", PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getCategorySliceByNameShouldCallRepoFindAllByIfNameIsBlank() {
+    when(repo.findAllBy(any(Pageable.class))).thenReturn(new SliceImpl<Category>(List.of(category())));
+
+    service.getCategorySliceByName(" ", PageRequest.of(0, 10));
+
+    verify(repo, atLeastOnce()).findAllBy(PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getCategorySliceByNameShouldCallRepoFindRankedSliceIfPageableIsUnsorted() {
+    when(repo.findRankedSliceByNameContainingIgnoreCase(anyString(), any(Pageable.class)))
+        .thenReturn(new SliceImpl<Category>(List.of(category())));
+
+    service.getCategorySliceByName("name", PageRequest.of(0, 10));
+
+    verify(repo, atLeastOnce()).findRankedSliceByNameContainingIgnoreCase("name", PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getCategorySliceByNameShouldCallRepoFindSliceIfPageableIsSorted() {
+    when(repo.findSliceByNameContainingIgnoreCase(anyString(), any(Pageable.class)))
+        .thenReturn(new SliceImpl<Category>(List.of(category())));
+
+    service.getCategorySliceByName("name", PageRequest.of(0, 10, Sort.by("name")));
+
+    verify(repo, atLeastOnce()).findSliceByNameContainingIgnoreCase("name", PageRequest.of(0, 10, Sort.by("name")));
   }
 
   @Test
@@ -70,6 +162,16 @@ class CategoryServiceImplTest {
     verify(repo, atLeastOnce()).findById("id");
   }
 
+  @Test
+  void getCategoryByIdShouldServeRepeatedReadsFromCache() {
+    when(repo.findById("id")).thenReturn(Optional.of(category()));
+
+    service.getCategoryById("id");
+
+    assertThat(service.getCategoryById("id")).isEqualTo(category());
+    verify(repo, times(1)).findById("id");
+  }
+
   @Test
   void getCategoryByIdShouldThrowEntityNotFoundExceptionIfIdIsInvalid() {
     when(repo.findById(anyString())).thenReturn(Optional.empty());
@@ -96,28 +198,158 @@ class CategoryServiceImplTest {
   }
 
   @Test
-  void modifyCategoryShouldCallRepoSaveIfCategoryIsValid() {
+  void createCategoryShouldPublishCategorySavedEvent() {
     when(repo.save(any(Category.class))).thenReturn(category());
 
+    service.createCategory(category());
+
+    verify(eventPublisher, atLeastOnce()).publishEvent(new CategorySavedEvent(category()));
+  }
+
+  @Test
+  void createCategoryShouldAppendCreatedEventToOutbox() {
+    when(repo.save(any(Category.class))).thenReturn(category());
+
+    service.createCategory(category());
+
+    verify(outbox).categorySaved(category(), ChangeType.CREATED);
+  }
+
+  @Test
+  void modifyCategoryShouldCallRepoSaveIfCategoryIsValid() {
+    when(repo.findById(anyString())).thenReturn(Optional.of(category()));
+    when(repo.saveAndFlush(any(Category.class))).thenReturn(category());
+
     service.modifyCategory(category());
 
-    verify(repo, atLeastOnce()).save(category());
+    verify(repo, atLeastOnce()).saveAndFlush(category());
   }
 
   @Test
   void modifyCategoryShouldReturnSavedCategory() {
-    when(repo.save(any(Category.class))).thenReturn(category());
+    when(repo.findById(anyString())).thenReturn(Optional.of(category()));
+    when(repo.saveAndFlush(any(Category.class))).thenReturn(category());
 
     assertThat(service.modifyCategory(category())).isEqualTo(category());
   }
 
   @Test
-  void deleteCategoryShouldCallRepoDeleteByIdIfIdIsValid() {
-    doNothing().when(repo).deleteById(anyString());
+  void modifyCategoryShouldPublishCategorySavedEvent() {
+    when(repo.findById(anyString())).thenReturn(Optional.of(category()));
+    when(repo.saveAndFlush(any(Category.class))).thenReturn(category());
+
+    service.modifyCategory(category());
+
+    verify(eventPublisher, atLeastOnce()).publishEvent(new CategorySavedEvent(category()));
+  }
+
+  @Test
+  void patchCategoryShouldRenameManagedCategory() {
+    Category category = category();
+    when(repo.findById("category-id")).thenReturn(Optional.of(category));
+
+    Category patchedCategory = service.patchCategory("category-id", null, CategoryPatchRequest.builder().name("new-name").build());
+
+    assertThat(patchedCategory.getName()).isEqualTo("new-name");
+    verify(repo).flush();
+    verify(carSearchRepo).refreshCategory("category-id");
+    verify(eventPublisher).publishEvent(new CategorySavedEvent(patchedCategory));
+    verify(outbox).categorySaved(patchedCategory, ChangeType.UPDATED);
+    verify(carChangeRepo).recordCarsOfCategory("category-id");
+    verify(entityCache).evictCategory("category-id", "category-name");
+  }
+
+  @Test
+  void patchCategoryShouldSkipWritesIfNameIsUnchanged() {
+    when(repo.findById("category-id")).thenReturn(Optional.of(category()));
+
+    service.patchCategory("category-id", null, CategoryPatchRequest.builder().name("category-name").build());
+
+    verify(repo, never()).flush();
+    verify(eventPublisher, never()).publishEvent(any(Object.class));
+    verify(outbox, never()).categorySaved(any(), any());
+  }
+
+  @Test
+  void patchCategoryShouldThrowEntityNotFoundExceptionIfCategoryDoesNotExist() {
+    when(repo.findById("category-id")).thenReturn(Optional.empty());
+
+    assertThrows(EntityNotFoundException.class,
+        () -> service.patchCategory("category-id", null, CategoryPatchRequest.builder().name("new-name").build()));
+  }
+
+  @Test
+  void deleteCategoryShouldDeleteLoadedCategoryIfCategoryExists() {
+    Category category = category();
+    when(repo.findById("valid-id")).thenReturn(Optional.of(category));
+
+    service.deleteCategory("valid-id", null);
+
+    verify(repo).delete(category);
+  }
+
+  @Test
+  void deleteCategoryShouldDoNothingIfCategoryDoesNotExist() {
+    when(repo.findById("valid-id")).thenReturn(Optional.empty());
+
+    service.deleteCategory("valid-id", null);
+
+    verify(repo, never()).delete(any(Category.class));
+    verifyNoInteractions(outbox);
+  }
+
+  @Test
+  void deleteCategoryShouldAppendDeletedEventToOutbox() {
+    when(repo.findById("valid-id")).thenReturn(Optional.of(category()));
+
+    service.deleteCategory("valid-id", null);
+
+    verify(outbox).deleted(AggregateType.CATEGORY, "valid-id");
+  }
+
+  @Test
+  void deleteCategoryShouldEvictCategoryFromCache() {
+    when(repo.findById("valid-id")).thenReturn(Optional.of(category()));
+
+    service.deleteCategory("valid-id", null);
+
+    verify(entityCache).evictCategory("valid-id");
+  }
+
+  @Test
+  void modifyCategoryShouldThrowOptimisticLockingFailureExceptionIfVersionIsStale() {
+    Category currentCategory = category();
+    currentCategory.setVersion(3L);
+    Category category = category();
+    category.setVersion(2L);
+    when(repo.findById(anyString())).thenReturn(Optional.of(currentCategory));
+
+    assertThrows(OptimisticLockingFailureException.class, () -> service.modifyCategory(category));
+
+    verify(repo, never()).saveAndFlush(any(Category.class));
+  }
+
+  @Test
+  void patchCategoryShouldThrowOptimisticLockingFailureExceptionIfVersionIsStale() {
+    Category category = category();
+    category.setVersion(3L);
+    when(repo.findById("category-id")).thenReturn(Optional.of(category));
+
+    assertThrows(OptimisticLockingFailureException.class,
+        () -> service.patchCategory("category-id", 2L, CategoryPatchRequest.builder().name("new-name").build()));
+
+    assertThat(category.getName()).isEqualTo("category-name");
+  }
+
+  @Test
+  void deleteCategoryShouldDeleteLoadedCategoryIfVersionMatches() {
+    Category category = category();
+    category.setVersion(2L);
+    when(repo.findById("category-id")).thenReturn(Optional.of(category));
 
-    service.deleteCategory("valid-id");
+    service.deleteCategory("category-id", 2L);
 
-    verify(repo, atLeastOnce()).deleteById("valid-id");
+    verify(repo).delete(category);
   }
 
   private Category category() {
@@ -0,0 +1,134 @@
+package ua.foxminded.carservice.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import ua.foxminded.carservice.exception.BadRequestException;
+import ua.foxminded.carservice.repository.IdempotencyKeyRepository;
+import ua.foxminded.carservice.repository.IdempotencyRecord;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceImplTest {
+  private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+  private static final Duration TTL = Duration.ofHours(24);
+
+  @Mock
+  IdempotencyKeyRepository repo;
+
+  @Mock
+  Clock clock;
+
+  IdempotencyServiceImpl service;
+  AtomicInteger writes = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    service = new IdempotencyServiceImpl(repo, TransactionOperations.withoutTransaction(), TTL, 2,
+        Duration.ofMinutes(10), clock);
+  }
+
+  @Test
+  void executeShouldWriteWithoutStoringIfKeyIsMissing() {
+    assertThat(service.execute("cars", null, this::write)).isEqualTo("id-1");
+
+    verify(repo, never()).save(anyString(), anyString(), anyString(), any());
+  }
+
+  @Test
+  void executeShouldThrowBadRequestExceptionIfKeyIsBlankOrTooLong() {
+    assertThrows(BadRequestException.class, () -> service.execute("cars", " ", this::write));
+    assertThrows(BadRequestException.class, () -> service.execute("cars", "k".repeat(256), this::write));
+    assertThat(writes).hasValue(0);
+  }
+
+  @Test
+  void executeShouldStoreWrittenIdAndReplayItFromMemory() {
+    when(clock.instant()).thenReturn(NOW);
+
+    assertThat(service.execute("cars", "key", this::write)).isEqualTo("id-1");
+    assertThat(service.execute("cars", "key", this::write)).isEqualTo("id-1");
+
+    assertThat(writes).hasValue(1);
+    verify(repo).save("cars", "key", "id-1", NOW);
+    verify(repo, times(1)).find("cars", "key", NOW.minus(TTL));
+  }
+
+  @Test
+  void executeShouldReplayStoredIdWithoutWriting() {
+    when(clock.instant()).thenReturn(NOW);
+    when(repo.find("manufacturers", "key", NOW.minus(TTL)))
+        .thenReturn(Optional.of(new IdempotencyRecord("stored-id", NOW.minusSeconds(60))));
+
+    assertThat(service.execute("manufacturers", "key", this::write)).isEqualTo("stored-id");
+
+    assertThat(writes).hasValue(0);
+  }
+
+  @Test
+  void executeShouldKeepScopesApart() {
+    when(clock.instant()).thenReturn(NOW);
+
+    assertThat(service.execute("cars", "key", this::write)).isEqualTo("id-1");
+    assertThat(service.execute("categories", "key", this::write)).isEqualTo("id-2");
+  }
+
+  @Test
+  void executeShouldWriteAgainAfterKeyExpires() {
+    Instant later = NOW.plus(TTL).plusSeconds(1);
+    when(clock.instant()).thenReturn(NOW, later);
+
+    service.execute("cars", "key", this::write);
+
+    assertThat(service.execute("cars", "key", this::write)).isEqualTo("id-2");
+    verify(repo).deleteExpired("cars", "key", later.minus(TTL));
+  }
+
+  @Test
+  void executeShouldReturnConcurrentlyStoredIdIfKeyIsTaken() {
+    when(clock.instant()).thenReturn(NOW);
+    when(repo.find("cars", "key", NOW.minus(TTL)))
+        .thenReturn(Optional.empty(), Optional.of(new IdempotencyRecord("winner-id", NOW)));
+    doThrow(new DuplicateKeyException("Duplicate key.")).when(repo).save(eq("cars"), eq("key"), anyString(), any());
+
+    assertThat(service.execute("cars", "key", this::write)).isEqualTo("winner-id");
+  }
+
+  @Test
+  void executeShouldDeleteExpiredKeysAtMostOncePerInterval() {
+    when(clock.instant()).thenReturn(NOW, NOW.plusSeconds(60), NOW.plusSeconds(601));
+
+    service.execute("cars", "key-1", this::write);
+    service.execute("cars", "key-2", this::write);
+    service.execute("cars", "key-3", this::write);
+
+    verify(repo).deleteExpired(NOW.minus(TTL));
+    verify(repo).deleteExpired(NOW.plusSeconds(601).minus(TTL));
+    verify(repo, times(2)).deleteExpired(any(Instant.class));
+  }
+
+  private String write() {
+    return "id-" + writes.incrementAndGet();
+  }
+}
@@ -6,30 +6,62 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.ManufacturerPatchRequest;
+import ua.foxminded.carservice.event.AggregateType;
+import ua.foxminded.carservice.event.ChangeType;
+import ua.foxminded.carservice.event.ManufacturerSavedEvent;
+import ua.foxminded.carservice.repository.CarChangeRepository;
+import ua.foxminded.carservice.repository.CarSearchRepository;
 import ua.foxminded.carservice.repository.ManufacturerRepository;
+import ua.foxminded.carservice.repository.RowCountEstimator;
+import ua.foxminded.carservice.service.cache.EntityCache;
+import ua.foxminded.carservice.service.outbox.ChangeOutbox;
 
 @ExtendWith(MockitoExtension.class)
 class ManufacturerServiceImplTest {
   @Mock
   ManufacturerRepository repo;
+  @Mock
+  CarChangeRepository carChangeRepo;
+  @Mock
+  CarSearchRepository carSearchRepo;
+  @Mock
+  RowCountEstimator countEstimator;
+  @Mock
+  ApplicationEventPublisher eventPublisher;
+  @Mock
+  ChangeOutbox outbox;
+  @Spy
+  EntityCache entityCache = new EntityCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
 
   @InjectMocks
   ManufacturerServiceImpl service;
@@ -53,12 +85,72 @@ class ManufacturerServiceImplTest {
   }
 
   @Test
-  void getManufacturersByNameShouldCallRepofindByNameContainingIfNameIsValid() {
-    when(repo.findByNameContaining(anyString(), any(Pageable.class))).thenReturn(manufacturers());
+  void getManufacturersByNameShouldCallRepoFindRankedByNameContainingIgnoreCaseIfPageableIsUnsorted() {
+    when(repo.findRankedByNameContainingIgnoreCase(anyString(), any(Pageable.class))).thenReturn(manufacturers());
 
     service.getManufacturersByName("name", PageRequest.of(0, 10));
 
-    verify(repo, atLeastOnce()).findByNameContaining("name", PageRequest.of(0, 10));
+    verify(repo, atLeastOnce()).findRankedByNameContainingIgnoreCase("name", PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getManufacturersByNameShouldCallRepoFindByNameContainingIgnoreCaseIfPageableIsSorted() {
+    when(repo.findByNameContainingIgnoreCase(anyString(), any(Pageable.class))).thenReturn(manufacturers());
+
+    service.getManufacturersByName("name", PageRequest.of(0, 10, Sort.by("name")));
+
+    verify(repo, atLeastOnce()).findByNameContainingIgnoreCase("name", PageRequest.of(0, 10, Sort.by("name")));
+  }
+
+  @Test
+  void getManufacturersByNameWithEstimatedTotalShouldUseEstimateWithoutCountQuery() {
+    when(countEstimator.estimateManufacturers(anyString())).thenReturn(OptionalLong.of(1000));
+    when(repo.findRankedSliceByNameContainingIgnoreCase(anyString(), any(Pageable.class)))
+        .thenReturn(new SliceImpl<Manufacturer>(List.of(manufacturer()), PageRequest.of(0, 1), true));
+
+    Page<Manufacturer> result = service.getManufacturersByNameWithEstimatedTotal("name", PageRequest.of(0, 1));
+
+    assertThat(result.getTotalElements()).isEqualTo(1000);
+    verify(repo, never()).findRankedByNameContainingIgnoreCase(anyString(), any(Pageable.class));
+  }
+
+  @Test
+  void getManufacturersByNameWithEstimatedTotalShouldCountExactlyIfEstimateIsUnavailable() {
+    when(countEstimator.estimateManufacturers(anyString())).thenReturn(OptionalLong.empty());
+    when(repo.findRankedByNameContainingIgnoreCase(anyString(), any(Pageable.class))).thenReturn(manufacturers());
+
+    service.getManufacturersByNameWithEstimatedTotal("name", PageRequest.of(0, 10));
+
+    verify(repo, atLeastOnce()).findRankedByNameContainingIgnoreCase("name", PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getManufacturerSliceByNameShouldCallRepoFindAllByIfNameIsBlank() {
+    when(repo.findAllBy(any(Pageable.class))).thenReturn(new SliceImpl<Manufacturer>(List.of(manufacturer())));
+
+    service.getManufacturerSliceByName(" ", PageRequest.of(0, 10));
+
+    verify(repo, atLeastOnce()).findAllBy(PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getManufacturerSliceByNameShouldCallRepoFindRankedSliceIfPageableIsUnsorted() {
+    when(repo.findRankedSliceByNameContainingIgnoreCase(anyString(), any(Pageable.class)))
+        .thenReturn(new SliceImpl<Manufacturer>(List.of(manufacturer())));
+
+    service.getManufacturerSliceByName("name", PageRequest.of(0, 10));
+
+    verify(repo, atLeastOnce()).findRankedSliceByNameContainingIgnoreCase("name", PageRequest.of(0, 10));
+  }
+
+  @Test
+  void getManufacturerSliceByNameShouldCallRepoFindSliceIfPageableIsSorted() {
+    when(repo.findSliceByNameContainingIgnoreCase(anyString(), any(Pageable.class)))
+        .thenReturn(new SliceImpl<Manufacturer>(List.of(manufacturer())));
+
+    service.getManufacturerSliceByName("name", PageRequest.of(0, 10, Sort.by("name")));
+
+    verify(repo, atLeastOnce()).findSliceByNameContainingIgnoreCase("name", PageRequest.of(0, 10, Sort.by("name")));
   }
 
   @Test
@@ -70,6 +162,16 @@ class ManufacturerServiceImplTest {
     verify(repo, atLeastOnce()).findById("id");
   }
 
+  @Test
+  void getManufacturerByIdShouldServeRepeatedReadsFromCache() {
+    when(repo.findById("id")).thenReturn(Optional.of(manufacturer()));
+
+    service.getManufacturerById("id");
+
+    assertThat(service.getManufacturerById("id")).isEqualTo(manufacturer());
+    verify(repo, times(1)).findById("id");
+  }
+
   @Test
   void getManufacturerByIdShouldThrowEntityNotFoundExceptionIfIdIsInvalid() {
     when(repo.findById(anyString())).thenReturn(Optional.empty());
@@ -96,28 +198,159 @@ class ManufacturerServiceImplTest {
   }
 
   @Test
-  void modifyManufacturerShouldCallRepoSaveIfManufacturerIsValid() {
+  void createManufacturerShouldPublishManufacturerSavedEvent() {
     when(repo.save(any(Manufacturer.class))).thenReturn(manufacturer());
 
+    service.createManufacturer(manufacturer());
+
+    verify(eventPublisher, atLeastOnce()).publishEvent(new ManufacturerSavedEvent(manufacturer()));
+  }
+
+  @Test
+  void createManufacturerShouldAppendCreatedEventToOutbox() {
+    when(repo.save(any(Manufacturer.class))).thenReturn(manufacturer());
+
+    service.createManufacturer(manufacturer());
+
+    verify(outbox).manufacturerSaved(manufacturer(), ChangeType.CREATED);
+  }
+
+  @Test
+  void modifyManufacturerShouldCallRepoSaveIfManufacturerIsValid() {
+    when(repo.findById(anyString())).thenReturn(Optional.of(manufacturer()));
+    when(repo.saveAndFlush(any(Manufacturer.class))).thenReturn(manufacturer());
+
     service.modifyManufacturer(manufacturer());
 
-    verify(repo, atLeastOnce()).save(manufacturer());
+    verify(repo, atLeastOnce()).saveAndFlush(manufacturer());
+  }
+
+  @Test
+  void modifyManufacturerShouldRenameManufacturerInCarSearch() {
+    when(repo.findById(anyString())).thenReturn(Optional.of(manufacturer()));
+    when(repo.saveAndFlush(any(Manufacturer.class))).thenReturn(manufacturer());
+
+    service.modifyManufacturer(manufacturer());
+
+    verify(carSearchRepo).renameManufacturer(manufacturer().getId(), manufacturer().getName());
   }
 
   @Test
   void modifyManufacturerShouldReturnSavedManufacturer() {
-    when(repo.save(any(Manufacturer.class))).thenReturn(manufacturer());
+    when(repo.findById(anyString())).thenReturn(Optional.of(manufacturer()));
+    when(repo.saveAndFlush(any(Manufacturer.class))).thenReturn(manufacturer());
 
     assertThat(service.modifyManufacturer(manufacturer())).isEqualTo(manufacturer());
   }
 
   @Test
-  void deleteManufacturerShouldCallRepoDeleteByIdIfIdIsValid() {
-    doNothing().when(repo).deleteById(anyString());
+  void modifyManufacturerShouldPublishManufacturerSavedEvent() {
+    when(repo.findById(anyString())).thenReturn(Optional.of(manufacturer()));
+    when(repo.saveAndFlush(any(Manufacturer.class))).thenReturn(manufacturer());
+
+    service.modifyManufacturer(manufacturer());
+
+    verify(eventPublisher, atLeastOnce()).publishEvent(new ManufacturerSavedEvent(manufacturer()));
+  }
+
+  @Test
+  void patchManufacturerShouldRenameManagedManufacturer() {
+    Manufacturer manufacturer = manufacturer();
+    when(repo.findById("manufacturer-id")).thenReturn(Optional.of(manufacturer));
+
+    Manufacturer patchedManufacturer = service.patchManufacturer("manufacturer-id", null, ManufacturerPatchRequest.builder().name("new-name").build());
+
+    assertThat(patchedManufacturer.getName()).isEqualTo("new-name");
+    verify(repo).flush();
+    verify(carSearchRepo).renameManufacturer("manufacturer-id", "new-name");
+    verify(eventPublisher).publishEvent(new ManufacturerSavedEvent(patchedManufacturer));
+    verify(outbox).manufacturerSaved(patchedManufacturer, ChangeType.UPDATED);
+    verify(carChangeRepo).recordCarsOfManufacturer("manufacturer-id");
+    verify(entityCache).evictManufacturer("manufacturer-id", "manufacturer-name");
+  }
+
+  @Test
+  void patchManufacturerShouldSkipWritesIfNameIsUnchanged() {
+    when(repo.findById("manufacturer-id")).thenReturn(Optional.of(manufacturer()));
+
+    service.patchManufacturer("manufacturer-id", null, ManufacturerPatchRequest.builder().name("manufacturer-name").build());
+
+    verify(repo, never()).flush();
+    verify(eventPublisher, never()).publishEvent(any(Object.class));
+    verify(outbox, never()).manufacturerSaved(any(), any());
+  }
+
+  @Test
+  void patchManufacturerShouldThrowEntityNotFoundExceptionIfManufacturerDoesNotExist() {
+    when(repo.findById("manufacturer-id")).thenReturn(Optional.empty());
+
+    assertThrows(EntityNotFoundException.class,
+        () -> service.patchManufacturer("manufacturer-id", null, ManufacturerPatchRequest.builder().name("new-name").build()));
+  }
+
+  @Test
+  void deleteManufacturerShouldDeleteLoadedManufacturerIfManufacturerExists() {
+    Manufacturer manufacturer = manufacturer();
+    when(repo.findById("valid-id")).thenReturn(Optional.of(manufacturer));
+
+    service.deleteManufacturer("valid-id", null);
+
+    verify(repo).delete(manufacturer);
+  }
+
+  @Test
+  void deleteManufacturerShouldDoNothingIfManufacturerDoesNotExist() {
+    when(repo.findById("valid-id")).thenReturn(Optional.empty());
+
+    service.deleteManufacturer("valid-id", null);
+
+    verify(repo, never()).delete(any(Manufacturer.class));
+    verifyNoInteractions(outbox);
+  }
+
+  @Test
+  void deleteManufacturerShouldAppendDeletedEventToOutbox() {
+    when(repo.findById("valid-id")).thenReturn(Optional.of(manufacturer()));
+
+    service.deleteManufacturer("valid-id", null);
+
+    verify(outbox).deleted(AggregateType.MANUFACTURER, "valid-id");
+  }
+
+  @Test
+  void modifyManufacturerShouldThrowOptimisticLockingFailureExceptionIfVersionIsStale() {
+    Manufacturer currentManufacturer = manufacturer();
+    currentManufacturer.setVersion(3L);
+    Manufacturer manufacturer = manufacturer();
+    manufacturer.setVersion(2L);
+    when(repo.findById(anyString())).thenReturn(Optional.of(currentManufacturer));
+
+    assertThrows(OptimisticLockingFailureException.class, () -> service.modifyManufacturer(manufacturer));
+
+    verify(repo, never()).save(any(Manufacturer.class));
+  }
+
+  @Test
+  void patchManufacturerShouldThrowOptimisticLockingFailureExceptionIfVersionIsStale() {
+    Manufacturer manufacturer = manufacturer();
+    manufacturer.setVersion(3L);
+    when(repo.findById("manufacturer-id")).thenReturn(Optional.of(manufacturer));
+
+    assertThrows(OptimisticLockingFailureException.class,
+        () -> service.patchManufacturer("manufacturer-id", 2L, ManufacturerPatchRequest.builder().name("new-name").build()));
+
+    assertThat(manufacturer.getName()).isEqualTo("manufacturer-name");
+  }
+
+  @Test
+  void deleteManufacturerShouldDeleteLoadedManufacturerIfVersionMatches() {
+    Manufacturer manufacturer = manufacturer();
+    manufacturer.setVersion(2L);
+    when(repo.findById("manufacturer-id")).thenReturn(Optional.of(manufacturer));
 
-    service.deleteManufacturer("valid-id");
+    service.deleteManufacturer("manufacturer-id", 2L);
 
-    verify(repo, atLeastOnce()).deleteById("valid-id");
+    verify(repo).delete(manufacturer);
   }
 
   private Manufacturer manufacturer() {
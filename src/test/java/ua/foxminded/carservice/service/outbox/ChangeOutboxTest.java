@@ -0,0 +1,85 @@
+package ua.foxminded.carservice.service.outbox;
+
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.event.AggregateType;
+import ua.foxminded.carservice.event.ChangeType;
+import ua.foxminded.carservice.mapper.CarMapperImpl;
+import ua.foxminded.carservice.mapper.CategoryMapperImpl;
+import ua.foxminded.carservice.mapper.ManufacturerMapperImpl;
+import ua.foxminded.carservice.repository.OutboxEntry;
+import ua.foxminded.carservice.repository.OutboxRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeOutboxTest {
+  private static final String CAR_JSON = "{\"id\":\"car-1\",\"manufacturerName\":\"Manufacturer\","
+      + "\"productionYear\":2020,\"model\":\"Model\",\"categoryNames\":[\"Category\"]}";
+
+  @Mock
+  OutboxRepository repo;
+
+  ChangeOutbox outbox;
+
+  @BeforeEach
+  void setUp() {
+    outbox = new ChangeOutbox(repo, new CarMapperImpl(), new ManufacturerMapperImpl(), new CategoryMapperImpl());
+  }
+
+  @Test
+  void carSavedShouldAppendCarResponseAsPayload() {
+    outbox.carSaved(car(), ChangeType.UPDATED);
+
+    verify(repo).append(new OutboxEntry(AggregateType.CAR, "car-1", ChangeType.UPDATED, CAR_JSON));
+  }
+
+  @Test
+  void carsCreatedShouldAppendAllCarsInOneCall() {
+    outbox.carsCreated(List.of(car()));
+
+    verify(repo).appendAll(List.of(new OutboxEntry(AggregateType.CAR, "car-1", ChangeType.CREATED, CAR_JSON)));
+  }
+
+  @Test
+  void manufacturerSavedShouldAppendManufacturerResponseAsPayload() {
+    outbox.manufacturerSaved(Manufacturer.builder().id("m-1").name("Manufacturer").version(3L).build(),
+        ChangeType.CREATED);
+
+    verify(repo).append(new OutboxEntry(AggregateType.MANUFACTURER, "m-1", ChangeType.CREATED,
+        "{\"id\":\"m-1\",\"name\":\"Manufacturer\"}"));
+  }
+
+  @Test
+  void categorySavedShouldAppendCategoryResponseAsPayload() {
+    outbox.categorySaved(Category.builder().id("c-1").name("Category").build(), ChangeType.UPDATED);
+
+    verify(repo).append(new OutboxEntry(AggregateType.CATEGORY, "c-1", ChangeType.UPDATED,
+        "{\"id\":\"c-1\",\"name\":\"Category\"}"));
+  }
+
+  @Test
+  void deletedShouldAppendEventWithoutPayload() {
+    outbox.deleted(AggregateType.CAR, "car-1");
+
+    verify(repo).append(new OutboxEntry(AggregateType.CAR, "car-1", ChangeType.DELETED, null));
+  }
+
+  private static Car car() {
+    return Car.builder()
+        .id("car-1")
+        .manufacturer(Manufacturer.builder().id("m-1").name("Manufacturer").build())
+        .productionYear(2020)
+        .model("Model")
+        .categories(List.of(Category.builder().id("c-1").name("Category").build())).build();
+  }
+}
@@ -0,0 +1,38 @@
+package ua.foxminded.carservice.service.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ua.foxminded.carservice.event.AggregateType;
+import ua.foxminded.carservice.event.ChangeEvent;
+import ua.foxminded.carservice.event.ChangeType;
+
+class FileChangeEventSinkTest {
+  @TempDir
+  Path directory;
+
+  @Test
+  void publishShouldAppendOneJsonLinePerEvent() throws IOException {
+    Path file = directory.resolve("events/changes.jsonl");
+    FileChangeEventSink sink = new FileChangeEventSink(file);
+
+    sink.publish(List.of(new ChangeEvent(1, AggregateType.CATEGORY, "c-1", ChangeType.UPDATED,
+        "{\"id\":\"c-1\",\"name\":\"Category\"}", Instant.parse("2025-01-01T12:00:00Z"))));
+    sink.publish(List.of(new ChangeEvent(2, AggregateType.CAR, "car-1", ChangeType.DELETED, null,
+        Instant.parse("2025-01-01T12:00:01Z"))));
+
+    assertThat(Files.readAllLines(file)).containsExactly(
+        "{\"id\":1,\"aggregateType\":\"CATEGORY\",\"aggregateId\":\"c-1\",\"type\":\"UPDATED\","
+            + "\"payload\":{\"id\":\"c-1\",\"name\":\"Category\"},\"createdAt\":\"2025-01-01T12:00:00Z\"}",
+        "{\"id\":2,\"aggregateType\":\"CAR\",\"aggregateId\":\"car-1\",\"type\":\"DELETED\","
+            + "\"payload\":null,\"createdAt\":\"2025-01-01T12:00:01Z\"}");
+  }
+}
@@ -0,0 +1,87 @@
+package ua.foxminded.carservice.service.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import ua.foxminded.carservice.event.AggregateType;
+import ua.foxminded.carservice.event.ChangeEvent;
+import ua.foxminded.carservice.event.ChangeType;
+import ua.foxminded.carservice.repository.OutboxRepository;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+  @Mock
+  OutboxRepository repo;
+
+  @Mock
+  ChangeEventSink sink;
+
+  OutboxRelay relay;
+
+  @BeforeEach
+  void setUp() {
+    relay = new OutboxRelay(repo, sink, TransactionOperations.withoutTransaction(), true, Duration.ofSeconds(1), 2);
+  }
+
+  @Test
+  void publishBatchShouldPublishPendingEventsAndDeleteThem() {
+    List<ChangeEvent> events = List.of(event(1), event(2));
+    when(repo.findPending(2)).thenReturn(events);
+
+    assertThat(relay.publishBatch()).isEqualTo(2);
+
+    verify(sink).publish(events);
+    verify(repo).delete(List.of(1L, 2L));
+  }
+
+  @Test
+  void publishBatchShouldSkipSinkIfOutboxIsEmpty() {
+    when(repo.findPending(2)).thenReturn(List.of());
+
+    assertThat(relay.publishBatch()).isZero();
+
+    verify(sink, never()).publish(anyList());
+  }
+
+  @Test
+  void relayShouldKeepEventsIfSinkFails() {
+    when(repo.findPending(2)).thenReturn(List.of(event(1)));
+    doThrow(new IllegalStateException("Sink is down.")).when(sink).publish(anyList());
+
+    relay.relay();
+
+    verify(repo, never()).delete(any());
+  }
+
+  @Test
+  void relayShouldDrainOutboxWhileBatchesAreFull() {
+    when(repo.findPending(2)).thenReturn(List.of(event(1), event(2)), List.of(event(3), event(4)),
+        List.of(event(5)));
+
+    relay.relay();
+
+    verify(sink, times(3)).publish(anyList());
+    verify(repo).delete(List.of(5L));
+  }
+
+  private static ChangeEvent event(long id) {
+    return new ChangeEvent(id, AggregateType.CAR, "car-" + id, ChangeType.UPDATED, "{}", Instant.EPOCH);
+  }
+}
@@ -0,0 +1,240 @@
+package ua.foxminded.carservice.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Category;
+import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.dto.CarFacetsResponse;
+import ua.foxminded.carservice.dto.CarSearchParameters;
+import ua.foxminded.carservice.dto.FacetCountResponse;
+import ua.foxminded.carservice.event.CarDeletedEvent;
+import ua.foxminded.carservice.event.CarModel;
+import ua.foxminded.carservice.event.CarSavedEvent;
+import ua.foxminded.carservice.event.CategorySavedEvent;
+import ua.foxminded.carservice.event.ManufacturerSavedEvent;
+import ua.foxminded.carservice.repository.CarIndexEntry;
+import ua.foxminded.carservice.repository.CarRepository;
+
+class CarSearchIndexTest {
+  CarRepository carRepo;
+  CarSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    carRepo = mock(CarRepository.class);
+    List<CarIndexEntry> entries = List.of(
+        entry("car-1", "Model-1", 2000, "m-1", "Manufacturer-1", "c-1", "Category-1"),
+        entry("car-1", "Model-1", 2000, "m-1", "Manufacturer-1", "c-2", "Category-2"),
+        entry("car-2", "Model-2", 2005, "m-1", "Manufacturer-1", "c-1", "Category-1"),
+        entry("car-3", "Model-1", 2010, "m-2", "Manufacturer-2", null, null));
+    when(carRepo.streamIndexEntries()).thenReturn(entries.stream());
+
+    index = new CarSearchIndex(carRepo, new TransactionTemplate(mock(PlatformTransactionManager.class)), true);
+    index.rebuild();
+  }
+
+  @Test
+  void findIdsShouldReturnEmptyIfIndexIsNotBuilt() {
+    CarSearchIndex notBuilt = new CarSearchIndex(carRepo,
+        new TransactionTemplate(mock(PlatformTransactionManager.class)), true);
+
+    assertThat(notBuilt.findIds(params(null, null, null, null, null, null), PageRequest.of(0, 10))).isEmpty();
+  }
+
+  @Test
+  void rebuildShouldNotLoadEntriesIfIndexIsDisabled() {
+    CarRepository repo = mock(CarRepository.class);
+    CarSearchIndex disabled = new CarSearchIndex(repo,
+        new TransactionTemplate(mock(PlatformTransactionManager.class)), false);
+
+    disabled.rebuild();
+
+    verify(repo, never()).streamIndexEntries();
+    assertThat(disabled.isReady()).isFalse();
+  }
+
+  @Test
+  void findIdsShouldReturnEmptyIfPageableIsSorted() {
+    assertThat(index.findIds(params(null, null, null, null, null, null), PageRequest.of(0, 10, Sort.by("model"))))
+        .isEmpty();
+  }
+
+  @Test
+  void findIdsShouldReturnAllIdsIfNoFiltersProvided() {
+    assertThat(ids(params(null, null, null, null, null, null))).containsExactly("car-1", "car-2", "car-3");
+  }
+
+  @Test
+  void findIdsShouldFilterByManufacturerModelAndYearRange() {
+    assertThat(ids(params("Manufacturer-1", null, null, null, null, null))).containsExactly("car-1", "car-2");
+    assertThat(ids(params(null, "Model-1", null, null, null, null))).containsExactly("car-1", "car-3");
+    assertThat(ids(params(null, null, null, "2001", "2010", null))).containsExactly("car-2", "car-3");
+    assertThat(ids(params("Manufacturer-1", "Model-1", null, "1990", "", null))).containsExactly("car-1");
+  }
+
+  @Test
+  void findIdsShouldFilterByAnyOrAllCategories() {
+    assertThat(ids(params(null, null, List.of("Category-1", "Category-2"), null, null, "any")))
+        .containsExactly("car-1", "car-2");
+    assertThat(ids(params(null, null, List.of("Category-1", "Category-2"), null, null, "all")))
+        .containsExactly("car-1");
+  }
+
+  @Test
+  void findIdsShouldReturnNothingForUnknownNames() {
+    assertThat(ids(params("Unknown", null, null, null, null, null))).isEmpty();
+    assertThat(ids(params(null, null, List.of("Unknown"), null, null, null))).isEmpty();
+  }
+
+  @Test
+  void findIdsShouldReturnRequestedPageWithTotal() {
+    Page<String> page = index.findIds(params(null, null, null, null, null, null), PageRequest.of(1, 2)).get();
+
+    assertThat(page.getContent()).containsExactly("car-3");
+    assertThat(page.getTotalElements()).isEqualTo(3);
+  }
+
+  @Test
+  void countFacetsShouldReturnEmptyIfIndexIsNotBuilt() {
+    CarSearchIndex notBuilt = new CarSearchIndex(carRepo,
+        new TransactionTemplate(mock(PlatformTransactionManager.class)), true);
+
+    assertThat(notBuilt.countFacets(params(null, null, null, null, null, null))).isEmpty();
+  }
+
+  @Test
+  void countFacetsShouldIgnoreOwnFilterForEachFacet() {
+    CarFacetsResponse facets = index.countFacets(params("Manufacturer-1", null, List.of("Category-2"), "2005", null,
+        null)).get();
+
+    assertThat(facets.getManufacturers()).extracting(FacetCountResponse::getValue, FacetCountResponse::getCount)
+        .isEmpty();
+    assertThat(facets.getCategories()).extracting(FacetCountResponse::getValue, FacetCountResponse::getCount)
+        .containsExactly(tuple("Category-1", 1L));
+    assertThat(facets.getProductionYears()).extracting(FacetCountResponse::getValue, FacetCountResponse::getCount)
+        .containsExactly(tuple(2000, 1L));
+  }
+
+  @Test
+  void countFacetsShouldOrderValuesByCount() {
+    CarFacetsResponse facets = index.countFacets(params(null, null, null, null, null, null)).get();
+
+    assertThat(facets.getManufacturers()).extracting(FacetCountResponse::getValue, FacetCountResponse::getCount)
+        .containsExactly(tuple("Manufacturer-1", 2L), tuple("Manufacturer-2", 1L));
+    assertThat(facets.getCategories()).extracting(FacetCountResponse::getValue, FacetCountResponse::getCount)
+        .containsExactly(tuple("Category-1", 2L), tuple("Category-2", 1L));
+    assertThat(facets.getProductionYears()).extracting(FacetCountResponse::getValue)
+        .containsExactly(2000, 2005, 2010);
+  }
+
+  @Test
+  void onCarSavedShouldReindexExistingCar() {
+    index.onCarSaved(new CarSavedEvent(car("car-1", "Model-3", 2020, "m-2", "Manufacturer-2")));
+
+    assertThat(ids(params(null, "Model-1", null, null, null, null))).containsExactly("car-3");
+    assertThat(ids(params("Manufacturer-2", "Model-3", null, "2020", "2020", null))).containsExactly("car-1");
+    assertThat(ids(params(null, null, List.of("Category-2"), null, null, null))).isEmpty();
+  }
+
+  @Test
+  void onCarSavedShouldIndexNewCar() {
+    Car car = car("car-4", "Model-4", 2024, "m-3", "Manufacturer-3");
+    car.setCategories(List.of(Category.builder().id("c-3").name("Category-3").build()));
+
+    index.onCarSaved(new CarSavedEvent(car));
+
+    assertThat(ids(params("Manufacturer-3", null, List.of("Category-3"), null, null, null))).containsExactly("car-4");
+  }
+
+  @Test
+  void onCarDeletedShouldRemoveCar() {
+    index.onCarDeleted(new CarDeletedEvent("car-2", new CarModel("m-1", "Model-2")));
+
+    assertThat(ids(params(null, null, null, null, null, null))).containsExactly("car-1", "car-3");
+  }
+
+  @Test
+  void onCarSavedShouldReuseOrdinalOfDeletedCarInIdOrder() {
+    index.onCarDeleted(new CarDeletedEvent("car-2", new CarModel("m-1", "Model-2")));
+    index.onCarSaved(new CarSavedEvent(car("car-2a", "Model-2", 2005, "m-1", "Manufacturer-1")));
+
+    assertThat(ids(params(null, null, null, null, null, null))).containsExactly("car-1", "car-2a", "car-3");
+  }
+
+  @Test
+  void findIdsShouldReturnIdsInIdOrderAfterOutOfOrderInserts() {
+    index.onCarSaved(new CarSavedEvent(car("car-0", "Model-1", 2000, "m-1", "Manufacturer-1")));
+    index.onCarSaved(new CarSavedEvent(car("car-4", "Model-1", 2000, "m-1", "Manufacturer-1")));
+    index.onCarSaved(new CarSavedEvent(car("car-15", "Model-1", 2000, "m-1", "Manufacturer-1")));
+
+    assertThat(ids(params(null, null, null, null, null, null)))
+        .containsExactly("car-0", "car-1", "car-15", "car-2", "car-3", "car-4");
+    assertThat(index.findIds(params(null, "Model-1", null, null, null, null), PageRequest.of(1, 2)).get())
+        .containsExactly("car-15", "car-3");
+    assertThat(ids(params(null, null, List.of("Category-2"), null, null, null))).containsExactly("car-1");
+  }
+
+  @Test
+  void onManufacturerSavedShouldFollowRename() {
+    index.onManufacturerSaved(new ManufacturerSavedEvent(Manufacturer.builder().id("m-2").name("Renamed").build()));
+
+    assertThat(ids(params("Renamed", null, null, null, null, null))).containsExactly("car-3");
+    assertThat(ids(params("Manufacturer-2", null, null, null, null, null))).isEmpty();
+  }
+
+  @Test
+  void onCategorySavedShouldFollowRename() {
+    index.onCategorySaved(new CategorySavedEvent(Category.builder().id("c-2").name("Renamed").build()));
+
+    assertThat(ids(params(null, null, List.of("Renamed"), null, null, null))).containsExactly("car-1");
+    assertThat(ids(params(null, null, List.of("Category-2"), null, null, null))).isEmpty();
+  }
+
+  private List<String> ids(CarSearchParameters params) {
+    return index.findIds(params, PageRequest.of(0, 10)).get().getContent();
+  }
+
+  private CarSearchParameters params(String manufacturer, String model, List<String> categories, String minYear,
+      String maxYear, String categoryMatch) {
+    return new CarSearchParameters(manufacturer, model, categories, minYear, maxYear, categoryMatch);
+  }
+
+  private Car car(String id, String model, int year, String manufacturerId, String manufacturerName) {
+    return Car.builder()
+        .id(id)
+        .model(model)
+        .productionYear(year)
+        .manufacturer(Manufacturer.builder().id(manufacturerId).name(manufacturerName).build())
+        .categories(List.of())
+        .build();
+  }
+
+  private CarIndexEntry entry(String carId, String model, Integer year, String manufacturerId,
+      String manufacturerName, String categoryId, String categoryName) {
+    CarIndexEntry entry = mock(CarIndexEntry.class);
+    when(entry.getCarId()).thenReturn(carId);
+    when(entry.getModel()).thenReturn(model);
+    when(entry.getProductionYear()).thenReturn(year);
+    when(entry.getManufacturerId()).thenReturn(manufacturerId);
+    when(entry.getManufacturerName()).thenReturn(manufacturerName);
+    when(entry.getCategoryId()).thenReturn(categoryId);
+    when(entry.getCategoryName()).thenReturn(categoryName);
+    return entry;
+  }
+}
@@ -0,0 +1,135 @@
+package ua.foxminded.carservice.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ua.foxminded.carservice.domain.Car;
+import ua.foxminded.carservice.domain.Manufacturer;
+import ua.foxminded.carservice.event.CarDeletedEvent;
+import ua.foxminded.carservice.event.CarModel;
+import ua.foxminded.carservice.event.CarSavedEvent;
+import ua.foxminded.carservice.event.ManufacturerSavedEvent;
+import ua.foxminded.carservice.repository.CarModelEntry;
+import ua.foxminded.carservice.repository.CarRepository;
+
+class ModelSuggestionIndexTest {
+  ModelSuggestionIndex index;
+
+  @BeforeEach
+  void setUp() {
+    CarRepository carRepo = mock(CarRepository.class);
+    List<CarModelEntry> entries = List.of(
+        entry("car-1", "Model-A", "m-1", "Manufacturer-1"),
+        entry("car-2", "Model-A", "m-1", "Manufacturer-1"),
+        entry("car-3", "Model-B", "m-1", "Manufacturer-1"),
+        entry("car-4", "Model-B", "m-2", "Manufacturer-2"),
+        entry("car-5", "Model-B", "m-2", "Manufacturer-2"));
+    when(carRepo.streamModelEntries()).thenReturn(entries.stream());
+
+    index = new ModelSuggestionIndex(carRepo, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    index.rebuild();
+  }
+
+  @Test
+  void suggestShouldRankModelsAcrossAllManufacturers() {
+    assertThat(index.suggest("model", null, 10)).containsExactly(new ModelSuggestion("Model-B", 3),
+        new ModelSuggestion("Model-A", 2));
+  }
+
+  @Test
+  void suggestShouldRankModelsOfProvidedManufacturer() {
+    assertThat(index.suggest("model", "Manufacturer-1", 10)).containsExactly(new ModelSuggestion("Model-A", 2),
+        new ModelSuggestion("Model-B", 1));
+  }
+
+  @Test
+  void suggestShouldReturnEmptyListForUnknownManufacturer() {
+    assertThat(index.suggest("model", "Unknown", 10)).isEmpty();
+  }
+
+  @Test
+  void onCarSavedShouldMoveExistingCarToNewModel() {
+    index.onCarSaved(new CarSavedEvent(car("car-4", "Model-C", "m-2", "Manufacturer-2"),
+        new CarModel("m-2", "Model-B")));
+
+    assertThat(index.suggest("model", "Manufacturer-2", 10)).containsExactly(new ModelSuggestion("Model-B", 1),
+        new ModelSuggestion("Model-C", 1));
+    assertThat(index.suggest("model", null, 10)).containsExactly(new ModelSuggestion("Model-A", 2),
+        new ModelSuggestion("Model-B", 2), new ModelSuggestion("Model-C", 1));
+  }
+
+  @Test
+  void onCarSavedShouldIndexCarOfNewManufacturer() {
+    index.onCarSaved(new CarSavedEvent(car("car-6", "Other", "m-3", "Manufacturer-3")));
+
+    assertThat(index.suggest("o", "Manufacturer-3", 10)).containsExactly(new ModelSuggestion("Other", 1));
+  }
+
+  @Test
+  void onCarSavedShouldMoveExistingCarToNewManufacturer() {
+    index.onCarSaved(new CarSavedEvent(car("car-3", "Model-B", "m-2", "Manufacturer-2"),
+        new CarModel("m-1", "Model-B")));
+
+    assertThat(index.suggest("model", "Manufacturer-1", 10)).containsExactly(new ModelSuggestion("Model-A", 2));
+    assertThat(index.suggest("model", "Manufacturer-2", 10)).containsExactly(new ModelSuggestion("Model-B", 3));
+  }
+
+  @Test
+  void onCarSavedShouldKeepCountsIfModelIsUnchanged() {
+    index.onCarSaved(new CarSavedEvent(car("car-1", "Model-A", "m-1", "Manufacturer-1"),
+        new CarModel("m-1", "Model-A")));
+
+    assertThat(index.suggest("model", null, 10)).containsExactly(new ModelSuggestion("Model-B", 3),
+        new ModelSuggestion("Model-A", 2));
+  }
+
+  @Test
+  void onCarDeletedShouldRemoveCarFromSuggestions() {
+    index.onCarDeleted(new CarDeletedEvent("car-3", new CarModel("m-1", "Model-B")));
+
+    assertThat(index.suggest("model", "Manufacturer-1", 10)).containsExactly(new ModelSuggestion("Model-A", 2));
+    assertThat(index.suggest("model", null, 10)).containsExactly(new ModelSuggestion("Model-A", 2),
+        new ModelSuggestion("Model-B", 2));
+  }
+
+  @Test
+  void onCarDeletedShouldIgnoreModelOfUnknownManufacturer() {
+    index.onCarDeleted(new CarDeletedEvent("car-6", new CarModel("m-3", "Other")));
+
+    assertThat(index.suggest("model", null, 10)).containsExactly(new ModelSuggestion("Model-B", 3),
+        new ModelSuggestion("Model-A", 2));
+  }
+
+  @Test
+  void onManufacturerSavedShouldFollowRename() {
+    index.onManufacturerSaved(new ManufacturerSavedEvent(Manufacturer.builder().id("m-2").name("Renamed").build()));
+
+    assertThat(index.suggest("model", "Renamed", 10)).containsExactly(new ModelSuggestion("Model-B", 2));
+    assertThat(index.suggest("model", "Manufacturer-2", 10)).isEmpty();
+  }
+
+  private Car car(String id, String model, String manufacturerId, String manufacturerName) {
+    return Car.builder()
+        .id(id)
+        .model(model)
+        .manufacturer(Manufacturer.builder().id(manufacturerId).name(manufacturerName).build())
+        .build();
+  }
+
+  private CarModelEntry entry(String carId, String model, String manufacturerId, String manufacturerName) {
+    CarModelEntry entry = mock(CarModelEntry.class);
+    when(entry.getCarId()).thenReturn(carId);
+    when(entry.getModel()).thenReturn(model);
+    when(entry.getManufacturerId()).thenReturn(manufacturerId);
+    when(entry.getManufacturerName()).thenReturn(manufacturerName);
+    return entry;
+  }
+}
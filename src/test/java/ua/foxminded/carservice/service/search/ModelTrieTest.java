@@ -0,0 +1,89 @@
+package ua.foxminded.carservice.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ModelTrieTest {
+  ModelTrie trie;
+
+  @BeforeEach
+  void setUp() {
+    trie = new ModelTrie();
+    trie.add("Camry");
+    trie.add("Camry");
+    trie.add("Camry");
+    trie.add("Corolla");
+    trie.add("Corolla");
+    trie.add("Civic");
+    trie.add("Accord");
+  }
+
+  @Test
+  void suggestShouldRankModelsByCount() {
+    assertThat(trie.suggest("c", 10)).containsExactly(new ModelSuggestion("Camry", 3),
+        new ModelSuggestion("Corolla", 2), new ModelSuggestion("Civic", 1));
+  }
+
+  @Test
+  void suggestShouldIgnoreCaseOfPrefix() {
+    assertThat(trie.suggest("CO", 10)).containsExactly(new ModelSuggestion("Corolla", 2));
+  }
+
+  @Test
+  void suggestShouldReturnAllModelsForEmptyPrefix() {
+    List<ModelSuggestion> suggestions = trie.suggest("", 10);
+
+    assertThat(suggestions).extracting(ModelSuggestion::model).startsWith("Camry", "Corolla")
+        .containsExactlyInAnyOrder("Camry", "Corolla", "Accord", "Civic");
+  }
+
+  @Test
+  void suggestShouldRespectLimit() {
+    assertThat(trie.suggest("c", 2)).extracting(ModelSuggestion::model).containsExactly("Camry", "Corolla");
+  }
+
+  @Test
+  void suggestShouldReturnEmptyListForUnknownPrefix() {
+    assertThat(trie.suggest("x", 10)).isEmpty();
+  }
+
+  @Test
+  void suggestShouldKeepDifferentSpellingsOfSameModel() {
+    trie.add("CAMRY");
+
+    assertThat(trie.suggest("camry", 10)).containsExactly(new ModelSuggestion("Camry", 3),
+        new ModelSuggestion("CAMRY", 1));
+  }
+
+  @Test
+  void removeShouldDecreaseCountAndReorderSuggestions() {
+    trie.remove("Camry");
+    trie.remove("Camry");
+
+    assertThat(trie.suggest("c", 10)).containsExactly(new ModelSuggestion("Corolla", 2),
+        new ModelSuggestion("Camry", 1), new ModelSuggestion("Civic", 1));
+  }
+
+  @Test
+  void removeShouldPruneModelsWithoutCars() {
+    trie.remove("Civic");
+    trie.remove("Unknown");
+
+    assertThat(trie.suggest("ci", 10)).isEmpty();
+    assertThat(trie.isEmpty()).isFalse();
+  }
+
+  @Test
+  void isEmptyShouldReturnTrueAfterAllModelsAreRemoved() {
+    ModelTrie single = new ModelTrie();
+    single.add("Model");
+    single.remove("Model");
+
+    assertThat(single.isEmpty()).isTrue();
+    assertThat(single.suggest("", 10)).isEmpty();
+  }
+}
@@ -23,3 +23,14 @@ INSERT INTO cars_categories (car_id, category_id) VALUES
 ('car004', 'c001'),
 ('car005', 'c002');
 
+
+INSERT INTO car_search (car_id, manufacturer_id, manufacturer_name, model, production_year, category_names)
+SELECT c.id, m.id, m.name, c.model, c.production_year,
+    ARRAY(SELECT cat.name FROM cars_categories cc JOIN categories cat ON cat.id = cc.category_id
+        WHERE cc.car_id = c.id ORDER BY cat.name)
+FROM cars c
+JOIN manufacturers m ON m.id = c.manufacturer_id
+WHERE NOT EXISTS (SELECT 1 FROM car_search cs WHERE cs.car_id = c.id);
+
+INSERT INTO car_change_clock (id, seq) SELECT 1, 1 WHERE NOT EXISTS (SELECT 1 FROM car_change_clock);
+INSERT INTO car_changes (car_id, seq, deleted) SELECT id, 1, FALSE FROM cars;
@@ -1,24 +0,0 @@
-CREATE TABLE IF NOT EXISTS manufacturers (
-    id VARCHAR(50) PRIMARY KEY,
-    name VARCHAR(50) NOT NULL UNIQUE
-);
-
-CREATE TABLE IF NOT EXISTS categories (
-    id VARCHAR(50) PRIMARY KEY,
-    name VARCHAR(50) NOT NULL UNIQUE
-);
-
-CREATE TABLE IF NOT EXISTS cars (
-    id VARCHAR(50) PRIMARY KEY,
-    production_year SMALLINT NOT NULL,
-    model VARCHAR(50) NOT NULL,
-    manufacturer_id VARCHAR(50) NOT NULL,
-    FOREIGN KEY (manufacturer_id) REFERENCES manufacturers(id)
-);
-
-CREATE TABLE IF NOT EXISTS cars_categories (
-    car_id VARCHAR(50) NOT NULL,
-    category_id VARCHAR(50) NOT NULL,
-    FOREIGN KEY (car_id) REFERENCES cars(id) ON DELETE CASCADE,
-    FOREIGN KEY (category_id) REFERENCES categories(id)
-);
@@ -0,0 +1,35 @@
+INSERT INTO manufacturers (id, name) VALUES
+('01900000-0000-7000-8000-000000000101', 'Alpha Motors'),
+('01900000-0000-7000-8000-000000000102', 'Beta Cars'),
+('01900000-0000-7000-8000-000000000103', 'Gamma Auto'),
+('01900000-0000-7000-8000-000000000104', 'Delta Vehicles');
+
+INSERT INTO categories (id, name) VALUES
+('01900000-0000-7000-8000-000000000201', 'Compact'),
+('01900000-0000-7000-8000-000000000202', 'Luxury'),
+('01900000-0000-7000-8000-000000000203', 'Convertible'),
+('01900000-0000-7000-8000-000000000204', 'Jeep');
+
+INSERT INTO cars (id, production_year, model, manufacturer_id) VALUES
+('01900000-0000-7000-8000-000000000301', 2020, 'Zeta', '01900000-0000-7000-8000-000000000101'),
+('01900000-0000-7000-8000-000000000302', 2021, 'Delta', '01900000-0000-7000-8000-000000000102'),
+('01900000-0000-7000-8000-000000000303', 2019, 'Epsilon', '01900000-0000-7000-8000-000000000103'),
+('01900000-0000-7000-8000-000000000304', 2022, 'Theta', '01900000-0000-7000-8000-000000000101'),
+('01900000-0000-7000-8000-000000000305', 2023, 'Kappa', '01900000-0000-7000-8000-000000000102');
+
+INSERT INTO cars_categories (car_id, category_id) VALUES
+('01900000-0000-7000-8000-000000000301', '01900000-0000-7000-8000-000000000201'),
+('01900000-0000-7000-8000-000000000301', '01900000-0000-7000-8000-000000000202'),
+('01900000-0000-7000-8000-000000000302', '01900000-0000-7000-8000-000000000202'),
+('01900000-0000-7000-8000-000000000303', '01900000-0000-7000-8000-000000000203'),
+('01900000-0000-7000-8000-000000000304', '01900000-0000-7000-8000-000000000201'),
+('01900000-0000-7000-8000-000000000305', '01900000-0000-7000-8000-000000000202');
+
+
+INSERT INTO car_search (car_id, manufacturer_id, manufacturer_name, model, production_year, category_names)
+SELECT c.id, m.id, m.name, c.model, c.production_year,
+    ARRAY(SELECT cat.name FROM cars_categories cc JOIN categories cat ON cat.id = cc.category_id
+        WHERE cc.car_id = c.id ORDER BY cat.name)
+FROM cars c
+JOIN manufacturers m ON m.id = c.manufacturer_id
+WHERE NOT EXISTS (SELECT 1 FROM car_search cs WHERE cs.car_id = c.id);
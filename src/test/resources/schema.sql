@@ -1,11 +1,17 @@
+CREATE SEQUENCE IF NOT EXISTS entity_change_seq;
+
 CREATE TABLE IF NOT EXISTS manufacturers (
     id VARCHAR(50) PRIMARY KEY,
-    name VARCHAR(50) NOT NULL UNIQUE
+    name VARCHAR(50) NOT NULL UNIQUE,
+    version BIGINT NOT NULL DEFAULT 0,
+    change_seq BIGINT NOT NULL DEFAULT nextval('entity_change_seq')
 );
 
 CREATE TABLE IF NOT EXISTS categories (
     id VARCHAR(50) PRIMARY KEY,
-    name VARCHAR(50) NOT NULL UNIQUE
+    name VARCHAR(50) NOT NULL UNIQUE,
+    version BIGINT NOT NULL DEFAULT 0,
+    change_seq BIGINT NOT NULL DEFAULT nextval('entity_change_seq')
 );
 
 CREATE TABLE IF NOT EXISTS cars (
@@ -13,6 +19,8 @@ CREATE TABLE IF NOT EXISTS cars (
     production_year SMALLINT NOT NULL,
     model VARCHAR(50) NOT NULL,
     manufacturer_id VARCHAR(50) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    change_seq BIGINT NOT NULL DEFAULT nextval('entity_change_seq'),
     FOREIGN KEY (manufacturer_id) REFERENCES manufacturers(id)
 );
 
@@ -22,3 +30,61 @@ CREATE TABLE IF NOT EXISTS cars_categories (
     FOREIGN KEY (car_id) REFERENCES cars(id) ON DELETE CASCADE,
     FOREIGN KEY (category_id) REFERENCES categories(id)
 );
+
+CREATE TABLE IF NOT EXISTS car_search (
+    car_id VARCHAR(50) PRIMARY KEY,
+    manufacturer_id VARCHAR(50) NOT NULL,
+    manufacturer_name VARCHAR(50) NOT NULL,
+    model VARCHAR(50) NOT NULL,
+    production_year SMALLINT NOT NULL,
+    category_names VARCHAR(50) ARRAY NOT NULL,
+    FOREIGN KEY (car_id) REFERENCES cars(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS car_imports (
+    id VARCHAR(50) PRIMARY KEY,
+    format VARCHAR(10) NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    total_bytes BIGINT NOT NULL,
+    loaded_bytes BIGINT NOT NULL,
+    imported_rows BIGINT NOT NULL,
+    rejected_rows BIGINT NOT NULL,
+    error VARCHAR(1000),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    started_at TIMESTAMP WITH TIME ZONE,
+    finished_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE SEQUENCE IF NOT EXISTS entity_id_seq START WITH 1000 INCREMENT BY 1000;
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    scope VARCHAR(20) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    resource_id VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (scope, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_keys_created_at_idx ON idempotency_keys (created_at);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR(20) NOT NULL,
+    aggregate_id VARCHAR(50) NOT NULL,
+    event_type VARCHAR(10) NOT NULL,
+    payload TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS car_change_clock (
+    id SMALLINT PRIMARY KEY,
+    seq BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS car_changes (
+    car_id VARCHAR(50) PRIMARY KEY,
+    seq BIGINT NOT NULL,
+    deleted BOOLEAN NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS car_changes_seq_car_id_idx ON car_changes (seq, car_id);
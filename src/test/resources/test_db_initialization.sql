@@ -1,11 +1,17 @@
+CREATE SEQUENCE IF NOT EXISTS entity_change_seq;
+
 CREATE TABLE IF NOT EXISTS manufacturers (
     id VARCHAR(50) PRIMARY KEY,
-    name VARCHAR(50) NOT NULL UNIQUE
+    name VARCHAR(50) NOT NULL UNIQUE,
+    version BIGINT NOT NULL DEFAULT 0,
+    change_seq BIGINT NOT NULL DEFAULT nextval('entity_change_seq')
 );
 
 CREATE TABLE IF NOT EXISTS categories (
     id VARCHAR(50) PRIMARY KEY,
-    name VARCHAR(50) NOT NULL UNIQUE
+    name VARCHAR(50) NOT NULL UNIQUE,
+    version BIGINT NOT NULL DEFAULT 0,
+    change_seq BIGINT NOT NULL DEFAULT nextval('entity_change_seq')
 );
 
 CREATE TABLE IF NOT EXISTS cars (
@@ -13,6 +19,8 @@ CREATE TABLE IF NOT EXISTS cars (
     production_year SMALLINT NOT NULL,
     model VARCHAR(50) NOT NULL,
     manufacturer_id VARCHAR(50) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    change_seq BIGINT NOT NULL DEFAULT nextval('entity_change_seq'),
     FOREIGN KEY (manufacturer_id) REFERENCES manufacturers(id)
 );
 
@@ -24,26 +32,99 @@ CREATE TABLE IF NOT EXISTS cars_categories (
 );
 
 INSERT INTO manufacturers (id, name) VALUES
-('m001', 'Alpha Motors'),
-('m002', 'Beta Cars'),
-('m003', 'Gamma Auto');
+('00000000-0000-7000-8000-000000000101', 'Alpha Motors'),
+('00000000-0000-7000-8000-000000000102', 'Beta Cars'),
+('00000000-0000-7000-8000-000000000103', 'Gamma Auto');
 
 INSERT INTO categories (id, name) VALUES
-('c001', 'Compact'),
-('c002', 'Luxury'),
-('c003', 'Convertible');
+('00000000-0000-7000-8000-000000000201', 'Compact'),
+('00000000-0000-7000-8000-000000000202', 'Luxury'),
+('00000000-0000-7000-8000-000000000203', 'Convertible');
 
 INSERT INTO cars (id, production_year, model, manufacturer_id) VALUES
-('car001', 2020, 'Zeta', 'm001'),
-('car002', 2021, 'Delta', 'm002'),
-('car003', 2019, 'Epsilon', 'm003'),
-('car004', 2022, 'Theta', 'm001'),
-('car005', 2023, 'Kappa', 'm002');
+('00000000-0000-7000-8000-000000000301', 2020, 'Zeta', '00000000-0000-7000-8000-000000000101'),
+('00000000-0000-7000-8000-000000000302', 2021, 'Delta', '00000000-0000-7000-8000-000000000102'),
+('00000000-0000-7000-8000-000000000303', 2019, 'Epsilon', '00000000-0000-7000-8000-000000000103'),
+('00000000-0000-7000-8000-000000000304', 2022, 'Theta', '00000000-0000-7000-8000-000000000101'),
+('00000000-0000-7000-8000-000000000305', 2023, 'Kappa', '00000000-0000-7000-8000-000000000102');
 
 INSERT INTO cars_categories (car_id, category_id) VALUES
-('car001', 'c001'),
-('car001', 'c002'),
-('car002', 'c002'),
-('car003', 'c003'),
-('car004', 'c001'),
-('car005', 'c002');
+('00000000-0000-7000-8000-000000000301', '00000000-0000-7000-8000-000000000201'),
+('00000000-0000-7000-8000-000000000301', '00000000-0000-7000-8000-000000000202'),
+('00000000-0000-7000-8000-000000000302', '00000000-0000-7000-8000-000000000202'),
+('00000000-0000-7000-8000-000000000303', '00000000-0000-7000-8000-000000000203'),
+('00000000-0000-7000-8000-000000000304', '00000000-0000-7000-8000-000000000201'),
+('00000000-0000-7000-8000-000000000305', '00000000-0000-7000-8000-000000000202');
+
+CREATE TABLE IF NOT EXISTS car_search (
+    car_id VARCHAR(50) PRIMARY KEY,
+    manufacturer_id VARCHAR(50) NOT NULL,
+    manufacturer_name VARCHAR(50) NOT NULL,
+    model VARCHAR(50) NOT NULL,
+    production_year SMALLINT NOT NULL,
+    category_names VARCHAR(50) ARRAY NOT NULL,
+    FOREIGN KEY (car_id) REFERENCES cars(id) ON DELETE CASCADE
+);
+
+INSERT INTO car_search (car_id, manufacturer_id, manufacturer_name, model, production_year, category_names)
+SELECT c.id, m.id, m.name, c.model, c.production_year,
+    ARRAY(SELECT cat.name FROM cars_categories cc JOIN categories cat ON cat.id = cc.category_id
+        WHERE cc.car_id = c.id ORDER BY cat.name)
+FROM cars c
+JOIN manufacturers m ON m.id = c.manufacturer_id
+WHERE NOT EXISTS (SELECT 1 FROM car_search cs WHERE cs.car_id = c.id);
+
+CREATE OR REPLACE FUNCTION array_contains(elements anyarray, element anyelement) RETURNS boolean
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+    AS 'SELECT elements @> ARRAY[element]';
+
+CREATE TABLE IF NOT EXISTS car_imports (
+    id VARCHAR(50) PRIMARY KEY,
+    format VARCHAR(10) NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    total_bytes BIGINT NOT NULL,
+    loaded_bytes BIGINT NOT NULL,
+    imported_rows BIGINT NOT NULL,
+    rejected_rows BIGINT NOT NULL,
+    error VARCHAR(1000),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    started_at TIMESTAMP WITH TIME ZONE,
+    finished_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE OR REPLACE FUNCTION uuid_generate_v7() RETURNS uuid
+    LANGUAGE sql VOLATILE PARALLEL SAFE
+    AS 'SELECT encode(set_bit(set_bit(overlay(uuid_send(gen_random_uuid())
+        PLACING substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+        FROM 1 FOR 6), 52, 1), 53, 1), ''hex'')::uuid';
+
+CREATE SEQUENCE IF NOT EXISTS entity_id_seq START WITH 1000 INCREMENT BY 1000;
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    scope VARCHAR(20) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    resource_id VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (scope, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_keys_created_at_idx ON idempotency_keys (created_at);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR(20) NOT NULL,
+    aggregate_id VARCHAR(50) NOT NULL,
+    event_type VARCHAR(10) NOT NULL,
+    payload TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS car_changes (
+    car_id VARCHAR(50) PRIMARY KEY,
+    seq BIGINT NOT NULL,
+    deleted BOOLEAN NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS car_changes_seq_car_id_idx ON car_changes (seq, car_id);
+
+INSERT INTO car_changes (car_id, seq, deleted) SELECT id, 1, FALSE FROM cars;